@@ -31,12 +31,21 @@ import java.util.logging.StreamHandler;
 public class CustomLoggerFactory {
 
   public static Logger createLogger() {
+    return LOGGER;
+  }
+
+  private static Logger initLogger() {
     final Logger logger = Logger.getLogger("JReversePro");
     final SimpleFormatter formatter = new SimpleFormatter();
+    // The handler is added once, as against once per caller, since the
+    // latter would repeat every message once per class that ever asked
+    // for the logger.
     final StreamHandler handler = new StreamHandler(System.out, formatter);
     logger.addHandler(handler);
     logger.setLevel(Level.FINER);
     return logger;
   }
 
+  private static final Logger LOGGER = initLogger();
+
 }
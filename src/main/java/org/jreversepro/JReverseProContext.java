@@ -21,18 +21,22 @@ import java.io.DataInputStream;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Date;
 import java.util.logging.Logger;
 
 
 import org.apache.commons.io.IOUtils;
+import org.jreversepro.decompile.DecompileLimits;
 import org.jreversepro.output.AbstractOutputter;
+import org.jreversepro.output.ClassSkeleton;
 import org.jreversepro.output.DecompilerOutputter;
 import org.jreversepro.output.DisassemblerOutputter;
 import org.jreversepro.parser.ClassFileParser;
 import org.jreversepro.parser.ClassFileParserFactory;
 import org.jreversepro.parser.ClassParserException;
 import org.jreversepro.reflect.ClassInfo;
+import org.jreversepro.reflect.Method;
 
 /**
  * 
@@ -63,6 +67,16 @@ public class JReverseProContext {
 
   private final Logger logger = CustomLoggerFactory.createLogger();  
 
+  private final DecompileLimits decompileLimits = new DecompileLimits();
+
+  /**
+   * @return Returns the limits on the effort spent decompiling a method,
+   *         beyond which the method is disassembled instead.
+   */
+  public DecompileLimits getDecompileLimits() {
+    return decompileLimits;
+  }
+
   /**
    * 
    * @param pathToClass
@@ -78,31 +92,78 @@ public class JReverseProContext {
     ClassInfo info = null;
     try {
       fis = new FileInputStream(pathToClass);
-      final DataInputStream dis = new DataInputStream(fis);
-
-      final ClassFileParser cfp = ClassFileParserFactory
-          .getClassFileParser(dis);
-      info = cfp.parseInputStream(dis, pathToClass);
-
+      info = loadResource(fis, pathToClass);
     } finally {
       IOUtils.closeQuietly(fis);
     }
     return info;
   }
 
+  /**
+   * 
+   * @param is
+   *          Stream containing the bytes of the class. The stream is not
+   *          closed by this method.
+   * @param pathToClass
+   *          Path / name by which the class is to be identified.
+   * @throws ClassParserException
+   * @return Returns the Parsed Class information for the class contained in
+   *         the stream.
+   */
+  public ClassInfo loadResource(final InputStream is, final String pathToClass)
+      throws IOException, ClassParserException {
+    final DataInputStream dis = new DataInputStream(is);
+
+    final ClassFileParser cfp = ClassFileParserFactory.getClassFileParser(dis);
+    return cfp.parseInputStream(dis, pathToClass);
+  }
+
   public String print(final OutputType outputType, final ClassInfo info) {
+    return print(outputType, info, decompileLimits);
+  }
+
+  /**
+   * @param limits
+   *          Limits to decompile the methods with, in place of those of the
+   *          context.
+   */
+  public String print(final OutputType outputType, final ClassInfo info,
+      final DecompileLimits limits) {
     AbstractOutputter printer = null;
     switch (outputType) {
     case DISASSEMBLER:
       printer = new DisassemblerOutputter();
       break;
     case DECOMPILER:
-      printer = new DecompilerOutputter();
+      printer = new DecompilerOutputter(limits);
       break;
     }
     return printer.output(info);
   }
 
+  /**
+   * @param info
+   *          Class to be decompiled.
+   * @return Returns the decompiled class with placeholders in place of the
+   *         bodies of the methods, to be decompiled one by one with
+   *         {@link #printMethodBody(ClassInfo, Method)}.
+   */
+  public ClassSkeleton printSkeleton(final ClassInfo info) {
+    return new DecompilerOutputter(decompileLimits).outputSkeleton(info);
+  }
+
+  /**
+   * @param info
+   *          Class of the method.
+   * @param method
+   *          Method to be decompiled.
+   * @return Returns the decompiled body of the method.
+   */
+  public String printMethodBody(final ClassInfo info, final Method method) {
+    return new DecompilerOutputter(decompileLimits).outputMethodBody(info,
+        method);
+  }
+
   public static void checkJREVersion() {
     if (!VersionChecker.versionCheck()) {
       System.exit(1);
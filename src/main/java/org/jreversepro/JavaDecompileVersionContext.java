@@ -49,7 +49,9 @@ public final class JavaDecompileVersionContext {
     ctx.setJavaVersion(JAVA_VERSION.JAVA_1_4);
   }
 
-  private JAVA_VERSION javaVersion = null;
+  // Defaults to the only version supported, for callers embedding the
+  // decompiler without going through the command line.
+  private JAVA_VERSION javaVersion = JAVA_VERSION.JAVA_1_4;
 
   private JAVA_VERSION getJavaVersion() {
     return this.javaVersion;
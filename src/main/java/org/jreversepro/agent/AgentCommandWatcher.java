@@ -0,0 +1,205 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.agent;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.jreversepro.CustomLoggerFactory;
+import org.jreversepro.JReverseProContext;
+import org.jreversepro.JReverseProContext.OutputType;
+import org.jreversepro.pipeline.ByteBufferClassSource;
+import org.jreversepro.pipeline.ClassSource;
+import org.jreversepro.reflect.ClassInfo;
+
+/**
+ * Looks for commands in a directory, and writes the classes asked for there.
+ * <p>
+ * A command is a file named <code>decompile</code>, each line of which is the
+ * name of a class (say <code>com.acme.Main</code>), a package followed by
+ * <code>.*</code> (which takes in the packages within), or <code>*</code> for
+ * all the classes. Lines starting with <code>#</code> are ignored. The file
+ * is deleted once read. Each class is written to a file named after it, and
+ * the names of all the classes recorded are written to
+ * <code>classes.txt</code> - so an empty command just lists them.
+ * <p>
+ * Runs on a thread of its own, and decompiles from copies of the class files,
+ * so that the application goes on loading classes meanwhile.
+ * 
+ * @author Karthik Kumar
+ */
+public class AgentCommandWatcher implements Runnable {
+
+  /**
+   * @param _classes
+   *          Class files recorded.
+   * @param _directory
+   *          Directory of the commands and the output.
+   * @param _outputType
+   *          Either decompiled or disassembled classes are written.
+   * @param _interval
+   *          Milliseconds between looks at the directory.
+   */
+  public AgentCommandWatcher(ClassRingBuffer _classes, File _directory,
+      OutputType _outputType, long _interval) {
+    classes = _classes;
+    directory = _directory;
+    outputType = _outputType;
+    interval = _interval;
+  }
+
+  /**
+   * Looks for commands till interrupted.
+   */
+  public void run() {
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        Thread.sleep(interval);
+        if (new File(directory, COMMAND_FILE).isFile()) {
+          try {
+            process();
+          } catch (IOException ex) {
+            // Nothing to report to but the directory, which failed.
+          }
+        }
+      }
+    } catch (InterruptedException ex) {
+      // Done.
+    }
+  }
+
+  /**
+   * Carries out the command in the directory.
+   * 
+   * @throws IOException
+   *           Thrown if the command could not be read or the output written.
+   */
+  void process() throws IOException {
+    final File command = new File(directory, COMMAND_FILE);
+    @SuppressWarnings("unchecked")
+    final List<String> lines = FileUtils.readLines(command, ENCODING);
+    if (!command.delete()) {
+      throw new IOException("Unable to delete " + command);
+    }
+    final List<String> patterns = new ArrayList<String>();
+    for (String line : lines) {
+      line = line.trim();
+      if (line.length() != 0 && !line.startsWith("#")) {
+        patterns.add(line.replace('.', '/'));
+      }
+    }
+    write(CLASSES_FILE, join(classes.getNames()));
+    if (patterns.isEmpty()) {
+      return;
+    }
+    final Map<String, ByteBuffer> found = classes
+        .get(new ClassRingBuffer.ClassFilter() {
+          public boolean accept(String name) {
+            return matches(patterns, name);
+          }
+        });
+    for (Map.Entry<String, ByteBuffer> entry : found.entrySet()) {
+      final String name = entry.getKey();
+      final String extension = outputType == OutputType.DISASSEMBLER ? ".txt"
+          : ".java";
+      write(name.replace('/', '.') + extension, print(new ByteBufferClassSource(
+          name, entry.getValue())));
+    }
+  }
+
+  /**
+   * @return Returns true if the class is one of those asked for.
+   */
+  static boolean matches(List<String> patterns, String name) {
+    for (String pattern : patterns) {
+      if (pattern.equals("*") || pattern.equals(name)) {
+        return true;
+      }
+      if (pattern.endsWith("/*")
+          && name.startsWith(pattern.substring(0, pattern.length() - 1))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private String print(ClassSource source) {
+    if (context == null) {
+      // The log of the decompiler would go into the output of the application.
+      CustomLoggerFactory.createLogger().setLevel(Level.WARNING);
+      context = new JReverseProContext();
+    }
+    try {
+      final ClassInfo info = context.loadResource(source.openStream(), source
+          .getName());
+      return context.print(outputType, info);
+    } catch (Exception ex) {
+      return "// Unable to read " + source.getName() + ": " + ex + "\n";
+    }
+  }
+
+  private void write(String fileName, String text) throws IOException {
+    if (!directory.isDirectory()) {
+      // Not created again if removed - the one asked for is written to alone.
+      throw new IOException("No directory " + directory);
+    }
+    PrintStream ps = null;
+    try {
+      ps = new PrintStream(new FileOutputStream(new File(directory, fileName)),
+          false, ENCODING);
+      ps.print(text);
+    } finally {
+      IOUtils.closeQuietly(ps);
+    }
+  }
+
+  private static String join(Iterable<String> names) {
+    final StringBuilder sb = new StringBuilder();
+    for (String name : names) {
+      sb.append(name.replace('/', '.')).append('\n');
+    }
+    return sb.toString();
+  }
+
+  static final String COMMAND_FILE = "decompile";
+
+  static final String CLASSES_FILE = "classes.txt";
+
+  private static final String ENCODING = "UTF-8";
+
+  private final ClassRingBuffer classes;
+
+  private final File directory;
+
+  private final OutputType outputType;
+
+  private final long interval;
+
+  /** Created with the first command, not to load the decompiler before. */
+  private JReverseProContext context;
+
+}
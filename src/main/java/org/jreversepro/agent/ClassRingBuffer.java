@@ -0,0 +1,252 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.agent;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bounded buffer of class files, held off the heap. Once full, the classes
+ * recorded first are overwritten by those recorded next.
+ * <p>
+ * Each record is laid out as the length of the name, the length of the class
+ * file, the name in UTF-8 and the class file. A record is never split across
+ * the end of the buffer; the space left at the end is skipped instead.
+ * Recording copies the bytes in and allocates little, so that it can be done
+ * while classes are being loaded. Classes bigger than the buffer are dropped,
+ * as are those loaded on account of recording another.
+ * 
+ * @author Karthik Kumar
+ */
+public class ClassRingBuffer {
+
+  /**
+   * @param _capacity
+   *          Size of the buffer in bytes.
+   */
+  public ClassRingBuffer(int _capacity) {
+    capacity = _capacity;
+    buffer = ByteBuffer.allocateDirect(capacity);
+  }
+
+  /**
+   * Records a class file, unless it is bigger than the buffer.
+   * 
+   * @param name
+   *          Name of the class.
+   * @param classFile
+   *          Contents of the class file.
+   * @return Returns true if the class was recorded.
+   */
+  public boolean add(String name, byte[] classFile) {
+    // Encoded outside the lock, that other loading threads may take meanwhile.
+    return add(toUtf8(name), classFile);
+  }
+
+  private synchronized boolean add(byte[] nameBytes, byte[] classFile) {
+    final int size = HEADER + nameBytes.length + classFile.length;
+    // A class loaded while writing comes back in on the same thread.
+    if (size > capacity || writing) {
+      dropped++;
+      return false;
+    }
+    writing = true;
+    try {
+      write(nameBytes, classFile, size);
+    } finally {
+      writing = false;
+    }
+    return true;
+  }
+
+  private void write(byte[] nameBytes, byte[] classFile, int size) {
+    int position = (int) (tail % capacity);
+    final int skipped = (capacity - position < size) ? capacity - position : 0;
+    while (head < tail && tail + skipped + size - head > capacity) {
+      final int oldest = (int) (head % capacity);
+      if (isRecord(oldest)) {
+        count--;
+      }
+      head += recordSize(oldest);
+    }
+    if (skipped > 0) {
+      final boolean empty = head == tail;
+      if (skipped >= HEADER) {
+        buffer.putInt(position, SKIP);
+      }
+      tail += skipped;
+      head = empty ? tail : head;
+      position = 0;
+    }
+    buffer.putInt(position, nameBytes.length);
+    buffer.putInt(position + 4, classFile.length);
+    buffer.position(position + HEADER);
+    buffer.put(nameBytes);
+    buffer.put(classFile);
+    tail += size;
+    count++;
+  }
+
+  /**
+   * @param names
+   *          Filter on the names of the classes.
+   * @return Returns the latest class file recorded by each name that matches
+   *         the filter, in the order the classes were last recorded. The
+   *         buffers are copies, on the heap.
+   */
+  public synchronized Map<String, ByteBuffer> get(ClassFilter names) {
+    final Map<String, ByteBuffer> classes;
+    classes = new LinkedHashMap<String, ByteBuffer>();
+    for (long record = head; record < tail;) {
+      final int position = (int) (record % capacity);
+      if (isRecord(position)) {
+        final String name = readName(position);
+        if (names.accept(name)) {
+          final byte[] classFile = new byte[buffer.getInt(position + 4)];
+          buffer.get(classFile);
+          // Re-inserted, so that the latest one comes last.
+          classes.remove(name);
+          classes.put(name, ByteBuffer.wrap(classFile));
+        }
+      }
+      record += recordSize(position);
+    }
+    return classes;
+  }
+
+  /**
+   * @return Returns the names of the classes in the buffer, in the order they
+   *         were last recorded.
+   */
+  public synchronized Set<String> getNames() {
+    final Set<String> names = new LinkedHashSet<String>();
+    for (long record = head; record < tail;) {
+      final int position = (int) (record % capacity);
+      if (isRecord(position)) {
+        final String name = readName(position);
+        names.remove(name);
+        names.add(name);
+      }
+      record += recordSize(position);
+    }
+    return names;
+  }
+
+  /**
+   * @return Returns the number of classes in the buffer.
+   */
+  public synchronized int getCount() {
+    return count;
+  }
+
+  /**
+   * @return Returns the number of classes not recorded, for being bigger than
+   *         the buffer.
+   */
+  public synchronized int getDropped() {
+    return dropped;
+  }
+
+  /**
+   * Filter on the names of classes.
+   */
+  public interface ClassFilter {
+
+    /**
+     * @param name
+     *          Name of the class, with '/' as the package separator.
+     * @return Returns true if the class is wanted.
+     */
+    boolean accept(String name);
+  }
+
+  /**
+   * @return Returns the name of the record at the given position, leaving the
+   *         buffer at the class file.
+   */
+  private String readName(int position) {
+    final byte[] nameBytes = new byte[buffer.getInt(position)];
+    buffer.position(position + HEADER);
+    buffer.get(nameBytes);
+    return fromUtf8(nameBytes);
+  }
+
+  /**
+   * @return Returns false if the end of the buffer is skipped from the given
+   *         position on.
+   */
+  private boolean isRecord(int position) {
+    return capacity - position >= HEADER && buffer.getInt(position) != SKIP;
+  }
+
+  /**
+   * @return Returns the size of the record at the given position, or of the
+   *         space skipped at the end of the buffer.
+   */
+  private int recordSize(int position) {
+    if (!isRecord(position)) {
+      return capacity - position;
+    }
+    return HEADER + buffer.getInt(position) + buffer.getInt(position + 4);
+  }
+
+  private static byte[] toUtf8(String text) {
+    try {
+      return text.getBytes(UTF8);
+    } catch (UnsupportedEncodingException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private static String fromUtf8(byte[] bytes) {
+    try {
+      return new String(bytes, UTF8);
+    } catch (UnsupportedEncodingException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private static final String UTF8 = "UTF-8";
+
+  /** Bytes taken by the lengths of the name and the class file. */
+  private static final int HEADER = 8;
+
+  /** In place of the length of a name, marks the end of the buffer skipped. */
+  private static final int SKIP = -1;
+
+  private final int capacity;
+
+  private final ByteBuffer buffer;
+
+  /** Offset of the oldest record, counted from the first byte ever written. */
+  private long head;
+
+  /** Offset past the latest record, counted likewise. */
+  private long tail;
+
+  private int count;
+
+  private int dropped;
+
+  private boolean writing;
+
+}
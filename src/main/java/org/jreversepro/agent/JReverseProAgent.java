@@ -0,0 +1,219 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.agent;
+
+import java.io.File;
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.Instrumentation;
+import java.security.ProtectionDomain;
+
+import org.jreversepro.JReverseProContext.OutputType;
+
+/**
+ * Java agent that records the class files loaded by the application,
+ * including those generated or transformed at runtime, and decompiles them
+ * on demand. See {@link AgentCommandWatcher} for how the classes are asked
+ * for.
+ * <p>
+ * Usage: <code>java -javaagent:jreversepro.jar=dir=path[,options] ...</code>
+ * where the options are comma separated and any of
+ * <ul>
+ * <li><code>dir=path</code> - directory of the commands and the output. Must
+ * be given, and exist - anyone who can write there can have the classes of
+ * the application decompiled into it, so it is neither shared by default nor
+ * created by the agent.</li>
+ * <li><code>size=megabytes</code> - size of the buffer of class files, off
+ * the heap, by default 8 and at most 2047.</li>
+ * <li><code>output=decompile|disassemble</code> - by default decompile.</li>
+ * <li><code>interval=milliseconds</code> - how often the directory is
+ * looked at for commands, by default 1000.</li>
+ * </ul>
+ * <p>
+ * Startup only allocates the buffer and starts a thread; the decompiler is not
+ * loaded till the first command comes in. Loading a class only copies its
+ * bytes into the buffer.
+ * 
+ * @author Karthik Kumar
+ */
+public class JReverseProAgent {
+
+  /**
+   * Entry point when started with the application. Never throws - with
+   * invalid options, or too little memory for the buffer, the agent says why
+   * on the standard error and is not started, leaving the application to run
+   * as it would without it.
+   * 
+   * @param agentArgs
+   *          Options of the agent, as above.
+   * @param inst
+   *          Instrumentation of the application.
+   */
+  public static void premain(String agentArgs, Instrumentation inst) {
+    final Options options;
+    final ClassRingBuffer classes;
+    try {
+      options = parseOptions(agentArgs);
+      classes = new ClassRingBuffer(options.size * MEGABYTE);
+    } catch (IllegalArgumentException e) {
+      System.err.println(NOT_STARTED + e.getMessage());
+      return;
+    } catch (OutOfMemoryError e) {
+      System.err.println(NOT_STARTED + "no memory for the buffer - " + e);
+      return;
+    }
+    inst.addTransformer(new CapturingTransformer(classes));
+
+    final Thread watcher = new Thread(new AgentCommandWatcher(classes,
+        options.directory, options.outputType, options.interval),
+        "jreversepro-agent");
+    watcher.setDaemon(true);
+    watcher.setPriority(Thread.MIN_PRIORITY);
+    watcher.start();
+  }
+
+  /**
+   * @param agentArgs
+   *          Options of the agent, as above.
+   * @return Returns the options, checked.
+   * @throws IllegalArgumentException
+   *           Thrown if an option is unknown or invalid, or the directory is
+   *           missing.
+   */
+  static Options parseOptions(String agentArgs) {
+    Options options = new Options();
+    if (agentArgs != null && agentArgs.length() != 0) {
+      for (String option : agentArgs.split(",")) {
+        final int equals = option.indexOf('=');
+        if (equals == -1) {
+          throw new IllegalArgumentException("Invalid agent option " + option);
+        }
+        final String key = option.substring(0, equals).trim();
+        final String value = option.substring(equals + 1).trim();
+        if (key.equals("dir")) {
+          options.directory = new File(value);
+        } else if (key.equals("size")) {
+          options.size = (int) parseNumber(key, value, 1, MAX_SIZE);
+        } else if (key.equals("output")) {
+          if (value.equals("decompile")) {
+            options.outputType = OutputType.DECOMPILER;
+          } else if (value.equals("disassemble")) {
+            options.outputType = OutputType.DISASSEMBLER;
+          } else {
+            throw new IllegalArgumentException("Invalid agent option "
+                + option);
+          }
+        } else if (key.equals("interval")) {
+          options.interval = parseNumber(key, value, 1, Long.MAX_VALUE);
+        } else {
+          throw new IllegalArgumentException("Unknown agent option " + key);
+        }
+      }
+    }
+    if (options.directory == null) {
+      throw new IllegalArgumentException(
+          "The agent needs the directory of its commands as dir=path");
+    }
+    if (!options.directory.isDirectory()) {
+      throw new IllegalArgumentException("No directory " + options.directory);
+    }
+    return options;
+  }
+
+  /**
+   * @return Returns the value of the option, a number between min and max.
+   * @throws IllegalArgumentException
+   *           Thrown if the value is not such a number.
+   */
+  private static long parseNumber(String key, String value, long min,
+      long max) {
+    long number;
+    try {
+      number = Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      number = min - 1;
+    }
+    if (number < min || number > max) {
+      throw new IllegalArgumentException("Invalid agent option " + key + "="
+          + value + ", expected from " + min + " to " + max);
+    }
+    return number;
+  }
+
+  /**
+   * Entry point when attached to a running application. Only the classes
+   * loaded from then on are recorded.
+   * 
+   * @param agentArgs
+   *          Options of the agent, as above.
+   * @param inst
+   *          Instrumentation of the application.
+   */
+  public static void agentmain(String agentArgs, Instrumentation inst) {
+    premain(agentArgs, inst);
+  }
+
+  /**
+   * Options of the agent, defaulted.
+   */
+  static class Options {
+
+    File directory;
+
+    int size = DEFAULT_SIZE;
+
+    OutputType outputType = OutputType.DECOMPILER;
+
+    long interval = DEFAULT_INTERVAL;
+  }
+
+  /**
+   * Records the class files, leaving them as they are. Classes without a
+   * name, such as those defined for lambdas, are not recorded.
+   */
+  private static class CapturingTransformer implements ClassFileTransformer {
+
+    CapturingTransformer(ClassRingBuffer _classes) {
+      classes = _classes;
+    }
+
+    public byte[] transform(ClassLoader loader, String className,
+        Class<?> classBeingRedefined, ProtectionDomain protectionDomain,
+        byte[] classfileBuffer) {
+      if (className != null) {
+        classes.add(className, classfileBuffer);
+      }
+      return null;
+    }
+
+    private final ClassRingBuffer classes;
+  }
+
+  private static final int DEFAULT_SIZE = 8;
+
+  private static final long DEFAULT_INTERVAL = 1000;
+
+  private static final int MEGABYTE = 1024 * 1024;
+
+  /**
+   * Largest size, in megabytes, of a buffer addressed by an int.
+   */
+  private static final int MAX_SIZE = Integer.MAX_VALUE / MEGABYTE;
+
+  private static final String NOT_STARTED = "jreversepro agent not started: ";
+
+}
@@ -0,0 +1,43 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.ast.block;
+
+/**
+ * Line of comment among the statements of a block - say, a jump that is not
+ * structured into a block.
+ * 
+ * @author Karthik Kumar
+ */
+public class Comment extends Block {
+
+  /**
+   * @param _text
+   *          Text of the comment, without the leading slashes.
+   */
+  public Comment(Block _parent, String _text) {
+    super(_parent);
+    text = _text;
+  }
+
+  public String getText() {
+    return text;
+  }
+
+  private final String text;
+
+}
@@ -45,6 +45,7 @@ public abstract class AbstractInstructionEvaluator implements JVMConstants,
     varTable = context.varTable;
     evalMachine = context.evalMachine;
     statements = context.statements;
+    constants = context.constants;
 
   }
 
@@ -63,6 +64,10 @@ public abstract class AbstractInstructionEvaluator implements JVMConstants,
   protected String methodReturnType;
   protected LineOfCodeList statements;
   protected EvaluatorMachine evalMachine;
+  /**
+   * The constants of the method, shared by the occurrences of a literal.
+   */
+  ConstantInterner constants;
 
   protected static final Logger logger = CustomLoggerFactory.createLogger();
 
@@ -66,6 +66,8 @@ public class ConditionNullEvaluator extends AbstractInstructionEvaluator {
     evalMachine.conditionExpression = null;
     evalMachine.conditionExpression = new ConditionExpression(lhs, Constant.NULL,
         op);
+
+    addConditional(ins, evalMachine.conditionExpression);
   }
 
   /*
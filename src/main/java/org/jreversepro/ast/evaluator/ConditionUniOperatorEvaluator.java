@@ -23,7 +23,6 @@ package org.jreversepro.ast.evaluator;
 import java.util.Arrays;
 
 import org.jreversepro.ast.expression.ConditionExpression;
-import org.jreversepro.ast.expression.Constant;
 import org.jreversepro.ast.expression.Expression;
 import org.jreversepro.ast.expression.ConditionExpression.RelationalOperator;
 import org.jreversepro.jls.JLSConstants;
@@ -81,11 +80,15 @@ public class ConditionUniOperatorEvaluator extends AbstractInstructionEvaluator
         || evalMachine.prevOpcode > OPCODE_DCMPG) {
       // To be compared with 0
       evalMachine.conditionExpression = null;
-      Expression rhs = new Constant(JLSConstants.VALUE_0, lhs.getType());
+      Expression rhs = constants.intern(JLSConstants.VALUE_0, lhs.getType());
 
       evalMachine.conditionExpression = new ConditionExpression(lhs, rhs, op);
+    } else {
+      // The operands of the comparison before, compared with op.
+      evalMachine.conditionExpression = evalMachine.conditionExpression
+          .withOperator(op);
     }
-
+    addConditional(ins, evalMachine.conditionExpression);
   }
 
   /*
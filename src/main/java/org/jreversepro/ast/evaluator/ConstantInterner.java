@@ -0,0 +1,78 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.ast.evaluator;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jreversepro.ast.expression.Constant;
+
+/**
+ * Intern table of the constants of a method, so that the occurrences of the
+ * same literal share a single expression. Expressions are immutable and so
+ * could be shared.
+ * <p>
+ * Not thread-safe. Every frame has one of its own.
+ * 
+ * @author Karthik Kumar
+ */
+class ConstantInterner {
+
+  ConstantInterner() {
+    constants = new HashMap<String, Map<String, Constant>>();
+  }
+
+  /**
+   * @param value
+   *          Value of the constant.
+   * @param type
+   *          JVM type of the constant.
+   * @return Returns the constant of the type with the value.
+   */
+  Constant intern(String value, String type) {
+    Map<String, Constant> byValue = constants.get(type);
+    if (byValue == null) {
+      byValue = new HashMap<String, Constant>();
+      constants.put(type, byValue);
+    }
+    Constant constant = byValue.get(value);
+    if (constant == null) {
+      constant = new Constant(value, type);
+      byValue.put(value, constant);
+    }
+    return constant;
+  }
+
+  /**
+   * @param value
+   *          Value of the constant.
+   * @param type
+   *          JVM type of the constant.
+   * @return Returns the constant of the type with the value.
+   */
+  Constant intern(int value, char type) {
+    return intern(String.valueOf(value), String.valueOf(type));
+  }
+
+  /**
+   * Key - JVM type. <br/>
+   * Value - constants of the type, by value.
+   */
+  private final Map<String, Map<String, Constant>> constants;
+
+}
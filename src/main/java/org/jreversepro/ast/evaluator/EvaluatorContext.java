@@ -25,11 +25,24 @@ import org.jreversepro.reflect.variabletable.VariableTable;
 public class EvaluatorContext {
 
   public EvaluatorContext(ConstantPool _pool, VariableTable _varTable) {
+    this(_pool, _varTable, new LineOfCodeList());
+  }
 
+  /**
+   * @param _pool
+   *          ConstantPool Information
+   * @param _varTable
+   *          Symbol Table reference.
+   * @param _statements
+   *          Receives the lines of code as they are completed.
+   */
+  public EvaluatorContext(ConstantPool _pool, VariableTable _varTable,
+      LineOfCodeList _statements) {
     pool = _pool;
     varTable = _varTable;
     evalMachine = new EvaluatorMachine();
-    statements = new LineOfCodeList();
+    statements = _statements;
+    constants = new ConstantInterner();
   }
 
   public void setPreviousOpcode(int opcode) {
@@ -44,5 +57,6 @@ public class EvaluatorContext {
   ConstantPool pool;
   VariableTable varTable;
   EvaluatorMachine evalMachine;
+  ConstantInterner constants;
 
 }
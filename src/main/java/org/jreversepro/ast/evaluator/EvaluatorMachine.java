@@ -82,6 +82,17 @@ public class EvaluatorMachine {
     return stack.peek();
   }
 
+  /**
+   * Replaces the contents of the stack.
+   * 
+   * @param values
+   *          Values to be on the stack, bottom first.
+   */
+  public void resetStack(List<Expression> values) {
+    stack.clear();
+    stack.addAll(values);
+  }
+
   /**
    * Adds a new constant.
    * 
@@ -20,7 +20,6 @@ package org.jreversepro.ast.evaluator;
 
 import java.util.Arrays;
 
-import org.jreversepro.ast.expression.Constant;
 import org.jreversepro.reflect.instruction.Instruction;
 
 
@@ -33,7 +32,7 @@ public class IConstEvaluator extends AbstractInstructionEvaluator {
   @Override
   void evaluate(Instruction ins) {
     int val = ins.opcode - OPCODE_ICONST_0;
-    evalMachine.push(new Constant(String.valueOf(val), JVM_TYPE_INT));
+    evalMachine.push(constants.intern(val, JVM_TYPE_INT));
   }
 
   @Override
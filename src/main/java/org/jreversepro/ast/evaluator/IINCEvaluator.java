@@ -55,11 +55,11 @@ public class IINCEvaluator extends AbstractInstructionEvaluator {
     int constant = ins.getArgWide(1);
 
     if (constant < 0) {
-      Constant ct = new Constant(-constant);
+      Constant ct = constants.intern(-constant, JVM_TYPE_INT);
       statements.append(new CompleteLine(ins, new BinaryOpExpression(var,
           BinaryOperator.SMART_MINUS, ct, JVM_TYPE_INT)));
     } else {
-      Constant ct = new Constant(constant);
+      Constant ct = constants.intern(constant, JVM_TYPE_INT);
       statements.append(new CompleteLine(ins, new BinaryOpExpression(var,
           BinaryOperator.SMART_PLUS, ct, JVM_TYPE_INT)));
     }
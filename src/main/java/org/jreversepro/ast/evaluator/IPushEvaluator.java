@@ -20,7 +20,6 @@ package org.jreversepro.ast.evaluator;
 
 import java.util.Arrays;
 
-import org.jreversepro.ast.expression.Constant;
 import org.jreversepro.reflect.instruction.Instruction;
 
 
@@ -34,12 +33,13 @@ public class IPushEvaluator extends AbstractInstructionEvaluator {
   void evaluate(Instruction ins) {
     switch (ins.opcode) {
     case OPCODE_BIPUSH: {
-      evalMachine.push(new Constant(ins.getArgByte(), JVM_TYPE_BYTE));
+      evalMachine.push(constants.intern(ins.getArgByte(), JVM_TYPE_BYTE));
       break;
     }
     case OPCODE_SIPUSH: {
       // Sign Extend This
-      evalMachine.push(new Constant(ins.getArgShort(), JVM_TYPE_SHORT));
+      evalMachine.push(constants.intern(ins.getArgShort(),
+          JVM_TYPE_SHORT));
       break;
     }
     }
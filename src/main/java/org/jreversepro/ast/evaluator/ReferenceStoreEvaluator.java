@@ -21,6 +21,8 @@ package org.jreversepro.ast.evaluator;
 import java.util.Arrays;
 
 import org.jreversepro.ast.expression.Assignment;
+import org.jreversepro.ast.expression.CatchParameter;
+import org.jreversepro.ast.expression.CaughtException;
 import org.jreversepro.ast.expression.Expression;
 import org.jreversepro.ast.expression.Variable;
 import org.jreversepro.ast.intermediate.CompleteLine;
@@ -55,7 +57,13 @@ public class ReferenceStoreEvaluator extends AbstractInstructionEvaluator {
     Expression rhs = evalMachine.pop();
     Variable lhs = new Variable(varTable, rhs.getType(), indexToSymbolTable,
         ins.currentPc);
-    statements.append(new CompleteLine(ins, new Assignment(lhs, rhs)));
+    if (rhs instanceof CaughtException) {
+      // The handler stores the exception into the parameter of the catch.
+      statements.append(new CompleteLine(ins, new CatchParameter(lhs,
+          (CaughtException) rhs)));
+    } else {
+      statements.append(new CompleteLine(ins, new Assignment(lhs, rhs)));
+    }
 
     // Hint to the symbol table about the type.
     varTable.recordLocalDatatypeReference(variableIndexToSymbolTable, rhs
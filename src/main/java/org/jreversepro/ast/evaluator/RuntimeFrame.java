@@ -20,11 +20,16 @@
 package org.jreversepro.ast.evaluator;
 
 import java.lang.reflect.Constructor;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
 
 import org.jreversepro.CustomLoggerFactory;
+import org.jreversepro.ast.expression.CaughtException;
+import org.jreversepro.ast.expression.Expression;
+import org.jreversepro.ast.intermediate.LineOfCodeList;
 import org.jreversepro.reflect.ConstantPool;
 import org.jreversepro.reflect.instruction.Instruction;
 import org.jreversepro.reflect.variabletable.VariableTable;
@@ -43,7 +48,20 @@ public class RuntimeFrame {
    *          Symbol Table reference.
    */
   public RuntimeFrame(ConstantPool pool, VariableTable varTable) {
-    context = new EvaluatorContext(pool, varTable);
+    this(pool, varTable, new LineOfCodeList());
+  }
+
+  /**
+   * @param pool
+   *          ConstantPool Information
+   * @param varTable
+   *          Symbol Table reference.
+   * @param statements
+   *          Receives the lines of code as they are completed.
+   */
+  public RuntimeFrame(ConstantPool pool, VariableTable varTable,
+      LineOfCodeList statements) {
+    context = new EvaluatorContext(pool, varTable, statements);
 
     mapEvaluatorInstances = new HashMap<Class<? extends AbstractInstructionEvaluator>, AbstractInstructionEvaluator>();
 
@@ -161,12 +179,36 @@ public class RuntimeFrame {
     context.setPreviousOpcode(ins.opcode);
   }
 
+  /**
+   * Begins evaluating a basic block apart from the instructions before it.
+   * 
+   * @param stackValues
+   *          Values on the stack on entry to the block, bottom first.
+   * @param previousOpcode
+   *          Opcode of the instruction before the block.
+   */
+  public void enterBlock(List<Expression> stackValues, int previousOpcode) {
+    context.evalMachine.resetStack(stackValues);
+    context.setPreviousOpcode(previousOpcode);
+  }
+
+  /**
+   * Begins evaluating an exception handler, that finds the exception alone on
+   * the stack.
+   * 
+   * @param exception
+   *          Exception caught by the handler.
+   */
+  public void enterHandler(CaughtException exception) {
+    context.evalMachine.resetStack(Collections
+        .<Expression> singletonList(exception));
+  }
+
   AbstractInstructionEvaluator getEvaluator(int opcode) {
     Class<? extends AbstractInstructionEvaluator> clazz = mapEvaluatorTypes
         .get( opcode);
     if (clazz == null) {
-      logger.severe("Opcode " + opcode + " does not have an evaluator");
-      throw new RuntimeException("Opcode does not have an evaluator");
+      throw new UnsupportedOpcodeException(opcode);
     }
     return mapEvaluatorInstances.get(clazz);
   }
@@ -0,0 +1,43 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.ast.evaluator;
+
+/**
+ * Thrown if an instruction is met, for which no evaluator is registered.
+ * 
+ * @author Karthik Kumar
+ */
+@SuppressWarnings("serial")
+public class UnsupportedOpcodeException extends RuntimeException {
+
+  /**
+   * @param _opcode
+   *          Opcode of the instruction.
+   */
+  public UnsupportedOpcodeException(int _opcode) {
+    super("Opcode " + _opcode + " does not have an evaluator");
+    opcode = _opcode;
+  }
+
+  public int getOpcode() {
+    return opcode;
+  }
+
+  private final int opcode;
+
+}
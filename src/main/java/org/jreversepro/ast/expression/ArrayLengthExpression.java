@@ -41,6 +41,6 @@ public class ArrayLengthExpression extends Expression {
     return arrayReference.getValueEx(L_REF) + "." + JLSConstants.LENGTH;
   }
 
-  private Expression arrayReference;
+  private final Expression arrayReference;
 
 }
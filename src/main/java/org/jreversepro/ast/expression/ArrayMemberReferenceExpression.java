@@ -41,8 +41,8 @@ public class ArrayMemberReferenceExpression extends Expression {
         + subscript.getJLSCode() + JLSConstants.CLOSE_SQUARE_BRACKET;
   }
 
-  private Expression arrayObject;
+  private final Expression arrayObject;
 
-  private Expression subscript;
+  private final Expression subscript;
 
 }
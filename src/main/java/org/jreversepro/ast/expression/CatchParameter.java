@@ -0,0 +1,55 @@
+/**
+ *  @(#) CatchParameter.java
+ *
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ **/
+package org.jreversepro.ast.expression;
+
+import org.jreversepro.jls.JLSConstants;
+
+/**
+ * Variable that an exception handler stores the caught exception into - the
+ * parameter of the catch clause.
+ * 
+ * @author Karthik Kumar
+ */
+public class CatchParameter extends Expression {
+
+  /**
+   * @param _variable
+   *          Variable the exception is stored into.
+   * @param _exception
+   *          Exception caught by the handler.
+   */
+  public CatchParameter(Variable _variable, CaughtException _exception) {
+    super(_exception.getType(), VALUE);
+    variable = _variable;
+    exception = _exception;
+  }
+
+  @Override
+  public String getJLSCode() {
+    return JLSConstants.CATCH + JLSConstants.SPACE
+        + JLSConstants.OPEN_BRACKET + exception.getJLSCode()
+        + JLSConstants.SPACE + variable.getJLSCode()
+        + JLSConstants.CLOSE_BRACKET;
+  }
+
+  private final Variable variable;
+
+  private final CaughtException exception;
+
+}
@@ -0,0 +1,44 @@
+/**
+ *  @(#) CaughtException.java
+ *
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ **/
+package org.jreversepro.ast.expression;
+
+import org.jreversepro.jvm.TypeInferrer;
+import org.jreversepro.reflect.Import;
+
+/**
+ * Exception that is on the stack on entry to an exception handler.
+ * 
+ * @author Karthik Kumar
+ */
+public class CaughtException extends Expression {
+
+  /**
+   * @param _jvmType
+   *          Type of the exception caught by the handler.
+   */
+  public CaughtException(String _jvmType) {
+    super(_jvmType, VALUE);
+  }
+
+  @Override
+  public String getJLSCode() {
+    return Import.getClassName(TypeInferrer.getJLSType(getType(), false));
+  }
+
+}
@@ -77,6 +77,14 @@ public class ConditionExpression extends Expression {
     op = _op;
   }
 
+  /**
+   * @param _op Operator to compare the operands with.
+   * @return Returns the condition of the same operands, compared with _op.
+   */
+  public ConditionExpression withOperator(RelationalOperator _op) {
+    return new ConditionExpression(lhs, rhs, _op);
+  }
+
   private static int assignPrecedence(RelationalOperator argOp) {
     switch (argOp) {
     case EQ:
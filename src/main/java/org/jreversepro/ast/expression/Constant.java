@@ -54,7 +54,13 @@ public class Constant extends Expression {
   }
 
   public String getJLSCode() {
-    return TypeInferrer.getValue(value, jvmType);
+    // Constants are shared, and so rendered once.
+    String code = jlsCode;
+    if (code == null) {
+      code = TypeInferrer.getValue(value, jvmType);
+      jlsCode = code;
+    }
+    return code;
   }
 
   public static final Constant VALUE_1 = new Constant(JLSConstants.VALUE_1,
@@ -78,6 +84,8 @@ public class Constant extends Expression {
   public static final Constant FLOAT_2 = new Constant("2.0",
       JVMConstants.JVM_TYPE_FLOAT);
 
-  private String value;
+  private final String value;
+
+  private volatile String jlsCode;
 
 }
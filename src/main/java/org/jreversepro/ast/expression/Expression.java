@@ -28,12 +28,17 @@ import org.jreversepro.jvm.JVMConstants;
 /**
  * 
  * Represents the abstraction of the Java Language Syntax, Expression.
+ * <p>
+ * Expressions are immutable - all their state is given to the constructor -
+ * so that the same expression could be on the operand stack more than once
+ * (say, after a <code>dup</code>) and be shared across the statements.
+ * Building a different expression means creating a new one.
  * 
  * @author akkumar
  * 
  */
 public abstract class Expression implements JVMConstants,
-    ExpressionPrecedenceConstants, Cloneable {
+    ExpressionPrecedenceConstants {
 
   /**
    * Retrieves the JLS code corresponding to this expression
@@ -85,16 +90,8 @@ public abstract class Expression implements JVMConstants,
     return true;
   }
 
-  /**
-   * Have clone object
-   */
-  @Override
-  public Object clone() throws CloneNotSupportedException {
-    return super.clone();
-  }
-
-  protected String jvmType;
-  protected int precedence;
+  protected final String jvmType;
+  protected final int precedence;
 
   protected static final Logger logger = CustomLoggerFactory.createLogger();
 
@@ -18,6 +18,7 @@
  **/
 package org.jreversepro.ast.expression;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.jreversepro.jls.JLSConstants;
@@ -37,6 +38,7 @@ public abstract class MethodAccessExpression extends Expression {
   
   /**
    * The list of arguments for the given method call , that occur as a List of Expressions.
+   * Read-only, the list given to the constructor is not to be changed later.
    */
   private final List<Expression> args;
 
@@ -54,7 +56,7 @@ public abstract class MethodAccessExpression extends Expression {
       String _methodType, List<Expression> _args) {
     super(_methodType, L_REF);
     methodName = _methodName;
-    args = _args;
+    args = Collections.unmodifiableList(_args);
   }
   
   String serializedArgs() {
@@ -46,6 +46,6 @@ public class ReturnExpression extends Expression {
     return sb.toString();
   }
 
-  private Expression expr;
+  private final Expression expr;
 
 }
@@ -41,6 +41,6 @@ public class ThrowExpression extends Expression {
     return JLSConstants.THROW + " " + thrownClass.getValueEx(L_REF);
   }
 
-  private Expression thrownClass;
+  private final Expression thrownClass;
 
 }
@@ -88,10 +88,10 @@ public class Variable extends Expression {
     return varTable.getName(variableIndex, instructionIndex);
   }
 
-  private VariableTable varTable;
+  private final VariableTable varTable;
 
-  private int variableIndex;
+  private final int variableIndex;
 
-  private int instructionIndex;
+  private final int instructionIndex;
 
 }
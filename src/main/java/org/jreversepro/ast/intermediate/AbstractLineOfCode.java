@@ -43,6 +43,7 @@ public abstract class AbstractLineOfCode {
   }
 
   public int feedToInferrer(BlockInferrer ctx) {
+    ctx.beginLine(ins);
     if (!(this instanceof ConditionalLine)) {
       ctx.markConditionAsStatement();
     }
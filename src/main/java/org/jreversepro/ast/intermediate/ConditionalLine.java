@@ -36,13 +36,7 @@ public class ConditionalLine extends AbstractLineOfCode {
 
   @Override
   public void regenerateBlock(BlockInferrer ctx) {
-    /*
-     * int targetPc = ins.getTargetPc(); if (ins.getOffset() < 0) { // TODO: It
-     * is a do .. while loop. OR a while loop. // Determine w.r.t current
-     * top-of-stack goto statement.
-     * 
-     * } else { // It is a if branch. ctx.saveConditionalBlock(ins, ex); }
-     */
+    ctx.appendBranch(ins, ex);
   }
 
   private ConditionExpression ex;
@@ -12,8 +12,7 @@ public class GotoLine extends AbstractLineOfCode {
 
   @Override
   public void regenerateBlock(BlockInferrer ctx) {
-    // TODO Auto-generated method stub
-
+    ctx.appendGoto(ins);
   }
 
 }
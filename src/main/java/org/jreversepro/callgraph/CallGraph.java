@@ -0,0 +1,119 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.callgraph;
+
+import java.io.PrintStream;
+import java.util.Map;
+
+/**
+ * Graph of the methods calling one another. Methods are nodes with integer
+ * ids, named as <code>com/acme/Main.run(I)V</code>; the callees of each node
+ * are held in one array of ids, sorted by caller and then by callee.
+ * <p>
+ * Instances are immutable, and built by {@link CallGraphBuilder}.
+ * 
+ * @author Karthik Kumar
+ */
+public class CallGraph {
+
+  CallGraph(String[] _names, Map<String, Integer> _ids, int[] _offsets,
+      int[] _callees) {
+    names = _names;
+    ids = _ids;
+    offsets = _offsets;
+    callees = _callees;
+  }
+
+  /**
+   * @return Returns the number of methods, calling or called.
+   */
+  public int getNodeCount() {
+    return names.length;
+  }
+
+  /**
+   * @return Returns the number of distinct calls.
+   */
+  public int getEdgeCount() {
+    return callees.length;
+  }
+
+  /**
+   * @param node
+   *          Id of a method.
+   * @return Returns the name of the method.
+   */
+  public String getName(int node) {
+    return names[node];
+  }
+
+  /**
+   * @param name
+   *          Name of a method.
+   * @return Returns the id of the method, -1 if not in the graph.
+   */
+  public int getNode(String name) {
+    final Integer id = ids.get(name);
+    return (id == null) ? -1 : id.intValue();
+  }
+
+  /**
+   * @param node
+   *          Id of a method.
+   * @return Returns the ids of the methods it calls, sorted.
+   */
+  public int[] getCallees(int node) {
+    final int[] result = new int[offsets[node + 1] - offsets[node]];
+    System.arraycopy(callees, offsets[node], result, 0, result.length);
+    return result;
+  }
+
+  /**
+   * Writes a line per call, as the caller and the callee separated by a tab.
+   * 
+   * @param out
+   *          Stream to write to.
+   * @param useNames
+   *          If true, the methods are written by name, else by id.
+   */
+  public void writeEdgeList(PrintStream out, boolean useNames) {
+    for (int caller = 0; caller < names.length; caller++) {
+      for (int i = offsets[caller]; i < offsets[caller + 1]; i++) {
+        if (useNames) {
+          out.print(names[caller]);
+          out.print('\t');
+          out.println(names[callees[i]]);
+        } else {
+          out.print(caller);
+          out.print('\t');
+          out.println(callees[i]);
+        }
+      }
+    }
+  }
+
+  private final String[] names;
+
+  private final Map<String, Integer> ids;
+
+  /** Offset of the callees of each method into callees, and the end. */
+  private final int[] offsets;
+
+  private final int[] callees;
+
+}
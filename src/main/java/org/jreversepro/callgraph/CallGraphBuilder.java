@@ -0,0 +1,109 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.callgraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the calls of methods, from any number of threads, and builds the
+ * {@link CallGraph}. Names are interned to ids as they come, and each call is
+ * kept as a pair of ids till the graph is built.
+ * 
+ * @author Karthik Kumar
+ */
+public class CallGraphBuilder {
+
+  public CallGraphBuilder() {
+    ids = new HashMap<String, Integer>();
+    names = new ArrayList<String>();
+    calls = new long[1024];
+  }
+
+  /**
+   * Adds the calls made in a class, at once so that the threads extracting
+   * classes seldom wait for one another.
+   * 
+   * @param callsMade
+   *          Callers and callees, alternately.
+   */
+  public synchronized void addCalls(List<String> callsMade) {
+    for (int i = 0; i + 1 < callsMade.size(); i += 2) {
+      final int caller = intern(callsMade.get(i));
+      final int callee = intern(callsMade.get(i + 1));
+      if (callCount == calls.length) {
+        final long[] grown = new long[calls.length * 2];
+        System.arraycopy(calls, 0, grown, 0, callCount);
+        calls = grown;
+      }
+      calls[callCount++] = ((long) caller << 32) | callee;
+    }
+  }
+
+  /**
+   * @return Returns the graph of the calls added so far.
+   */
+  public synchronized CallGraph build() {
+    final long[] sorted = new long[callCount];
+    System.arraycopy(calls, 0, sorted, 0, callCount);
+    Arrays.sort(sorted);
+    int edgeCount = 0;
+    for (int i = 0; i < sorted.length; i++) {
+      if (i == 0 || sorted[i] != sorted[i - 1]) {
+        sorted[edgeCount++] = sorted[i];
+      }
+    }
+    final int nodeCount = names.size();
+    final int[] offsets = new int[nodeCount + 1];
+    final int[] callees = new int[edgeCount];
+    int edge = 0;
+    for (int node = 0; node < nodeCount; node++) {
+      offsets[node] = edge;
+      while (edge < edgeCount && (int) (sorted[edge] >>> 32) == node) {
+        callees[edge] = (int) sorted[edge];
+        edge++;
+      }
+    }
+    offsets[nodeCount] = edge;
+    return new CallGraph(names.toArray(new String[nodeCount]),
+        new HashMap<String, Integer>(ids), offsets, callees);
+  }
+
+  private int intern(String name) {
+    final Integer id = ids.get(name);
+    if (id != null) {
+      return id.intValue();
+    }
+    ids.put(name, Integer.valueOf(names.size()));
+    names.add(name);
+    return names.size() - 1;
+  }
+
+  private final Map<String, Integer> ids;
+
+  private final List<String> names;
+
+  /** Ids of the caller and of the callee. */
+  private long[] calls;
+
+  private int callCount;
+
+}
@@ -0,0 +1,212 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.callgraph;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.jreversepro.jvm.JVMInstructionSet;
+import org.jreversepro.parser.ClassFileParserFactory;
+import org.jreversepro.parser.ClassParserException;
+import org.jreversepro.parser.instruction.InstructionHandler;
+import org.jreversepro.parser.instruction.InstructionListParser;
+import org.jreversepro.parser.instruction.InstructionListParserException;
+import org.jreversepro.parser.instruction.InstructionListParserFactory;
+import org.jreversepro.pipeline.ClassSource;
+import org.jreversepro.reflect.ClassInfo;
+import org.jreversepro.reflect.ConstantPool;
+import org.jreversepro.reflect.Method;
+import org.jreversepro.reflect.instruction.Instruction;
+
+/**
+ * Extracts the {@link CallGraph} of classes, a class per task on a pool of
+ * threads.
+ * <p>
+ * The bytecode of each method is decoded an instruction at a time, and only
+ * the invoke instructions are looked at: the methods they call are resolved
+ * through the constant pool. No instruction lists or expressions are built.
+ * 
+ * @author Karthik Kumar
+ */
+public class CallGraphExtractor {
+
+  /**
+   * @param _threads
+   *          Number of classes extracted at a time.
+   */
+  public CallGraphExtractor(int _threads) {
+    threads = _threads;
+  }
+
+  /**
+   * @param sources
+   *          Classes to extract the calls of.
+   * @return Returns the graph of the calls made by the classes.
+   * @throws IOException
+   *           Thrown if a class file could not be read.
+   * @throws InterruptedException
+   *           Thrown if interrupted while waiting for the threads.
+   */
+  public CallGraph extract(List<ClassSource> sources) throws IOException,
+      InterruptedException {
+    final CallGraphBuilder builder = new CallGraphBuilder();
+    final ExecutorService executor = Executors.newFixedThreadPool(threads,
+        new ExtractorThreadFactory());
+    try {
+      final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+      for (final ClassSource source : sources) {
+        results.add(executor.submit(new Callable<Boolean>() {
+          public Boolean call() throws IOException {
+            return Boolean.valueOf(extract(source, builder));
+          }
+        }));
+      }
+      for (Future<Boolean> result : results) {
+        if (!result.get().booleanValue()) {
+          skippedCount.incrementAndGet();
+        }
+      }
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof IOException) {
+        throw (IOException) ex.getCause();
+      }
+      throw new IllegalStateException(ex.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    return builder.build();
+  }
+
+  /**
+   * @return Returns the number of classes that could not be parsed, and so
+   *         were left out of the graphs.
+   */
+  public int getSkippedCount() {
+    return skippedCount.get();
+  }
+
+  /**
+   * Adds the calls made by the methods of a class.
+   * 
+   * @return Returns false if the class could not be parsed.
+   */
+  static boolean extract(ClassSource source, CallGraphBuilder builder)
+      throws IOException {
+    final byte[] bytes;
+    final InputStream is = source.openStream();
+    try {
+      bytes = IOUtils.toByteArray(is);
+    } finally {
+      is.close();
+    }
+    try {
+      return addCalls(source.getName(), bytes, builder);
+    } catch (ClassParserException ex) {
+      return false;
+    } catch (IOException ex) {
+      // The bytes are in memory, the parser ran past the end of the class.
+      return false;
+    } catch (RuntimeException ex) {
+      // The parser gives up on some classes with runtime exceptions.
+      return false;
+    } catch (StackOverflowError ex) {
+      return false;
+    }
+  }
+
+  private static boolean addCalls(String name, byte[] bytes,
+      CallGraphBuilder builder) throws ClassParserException, IOException {
+    final DataInputStream dis = new DataInputStream(new ByteArrayInputStream(
+        bytes));
+    final ClassInfo info = ClassFileParserFactory.getClassFileParser(dis)
+        .parseInputStream(dis, name);
+    final ConstantPool pool = info.getConstantPool();
+    final InstructionListParser parser = InstructionListParserFactory
+        .createInstructionListParser();
+    final List<String> calls = new ArrayList<String>();
+    // Callees by the index of their entry in the pool.
+    final String[] callees = new String[pool.getMaxCpEntry()];
+    for (Method method : info.getMethods()) {
+      if (method.getBytes() == null) {
+        // Abstract or native.
+        continue;
+      }
+      final String caller = info.getThisClass() + MEMBER_SEPARATOR
+          + method.getName() + method.getSignature();
+      try {
+        parser.parseBytes(method.getBytes(), new InstructionHandler() {
+          public void handleInstruction(Instruction ins) {
+            if (JVMInstructionSet.isInvokeIns(ins.opcode)) {
+              final int index = ins.getArgUnsignedShort();
+              if (callees[index] == null) {
+                callees[index] = getMethod(pool, index);
+              }
+              calls.add(caller);
+              calls.add(callees[index]);
+            }
+          }
+        });
+      } catch (InstructionListParserException ex) {
+        return false;
+      }
+    }
+    builder.addCalls(calls);
+    return true;
+  }
+
+  /**
+   * @return Returns the name of the method of the TAG_METHODREF or
+   *         TAG_INTERFACEREF entry.
+   */
+  private static String getMethod(ConstantPool pool, int index) {
+    final int nameType = pool.getPtr2(index);
+    return pool.getClassName(pool.getPtr1(index)) + MEMBER_SEPARATOR
+        + pool.getFieldName(nameType) + pool.getFieldType(nameType);
+  }
+
+  private static class ExtractorThreadFactory implements ThreadFactory {
+
+    public Thread newThread(Runnable r) {
+      final Thread thread = new Thread(r, "jreversepro-callgraph-"
+          + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+
+    private final AtomicInteger count = new AtomicInteger();
+  }
+
+  private static final String MEMBER_SEPARATOR = ".";
+
+  private final int threads;
+
+  private final AtomicInteger skippedCount = new AtomicInteger();
+
+}
@@ -27,6 +27,7 @@ import org.apache.commons.cli.ParseException;
 import org.apache.commons.cli.PosixParser;
 import org.jreversepro.CustomLoggerFactory;
 import org.jreversepro.JReverseProContext.OutputType;
+import org.jreversepro.daemon.DaemonProtocol;
 
 /**
  * The command line interface of the application in place.
@@ -43,11 +44,46 @@ public class CommandLineInterface {
     options.addOption(OPTION_DECOMPILE, false, "decompile class files");
     options.addOption(OPTION_GUI, false, "launch Swing UI");
     options.addOption(OPTION_VIEW_CONSTANT_POOL, false, "view constant pool");
+    options.addOption(OPTION_OUTPUT_DIR, true,
+        "output directory (one file per class)");
+    options.addOption(OPTION_PARALLELISM, true,
+        "threads per stage as readers,parsers,decompilers,writers");
+    options.addOption(OPTION_QUEUE_CAPACITY, true,
+        "capacity of the queues between the stages");
+    options.addOption(OPTION_SERVE, false, "run as a decompilation daemon");
+    options.addOption(OPTION_CLIENT, false,
+        "forward to the daemon, if running");
+    options.addOption(OPTION_PORT, true, "port of the daemon");
+    options.addOption(OPTION_WORKERS, true,
+        "number of worker processes (sharded batch)");
+    options.addOption(OPTION_SHARD_SIZE, true, "classes per shard");
+    options.addOption(OPTION_WORKER_HEAP, true,
+        "maximum heap of a worker process (say, 512m)");
+    options.addOption(OPTION_XREF_INDEX, true,
+        "cross reference index file, built from the input if no query");
+    options.addOption(OPTION_XREF_QUERY, true,
+        "classes referring to a class / field / method, in the index");
+    options.addOption(OPTION_CALL_GRAPH, true,
+        "file to write the call graph of the input to, as an edge list");
+    options.addOption(OPTION_HIERARCHY_INDEX, true,
+        "hierarchy index file, built or updated from the input if no type");
+    options.addOption(OPTION_HIERARCHY_QUERY, true,
+        "supertypes, subtypes and implementors of a type, in the index");
+    options.addOption(OPTION_SEARCH, true,
+        "text to find in the constant pools of the input");
+    options.addOption(OPTION_SEARCH_REGEX, false,
+        "search text is a regular expression");
+    options.addOption(OPTION_SEARCH_LDC, false,
+        "find the ldc instructions loading the string literals found");
+    options.addOption(OPTION_LIMITS, true,
+        "per method limits as millis,nodes[,blocks] (disassembled beyond "
+            + "millis / nodes, evaluated in parallel from blocks)");
 
     parser = new PosixParser();
     cmd = null;
     outputType = OutputType.NONE;
     guiEnabled = false;
+    serverEnabled = false;
   }
 
   public void parse(String[] args) {
@@ -64,6 +100,40 @@ public class CommandLineInterface {
         guiEnabled = true;
         return;
       }
+      if (cmd.hasOption(OPTION_SERVE)) {
+        serverEnabled = true;
+        return;
+      }
+      if (cmd.hasOption(OPTION_CALL_GRAPH)) {
+        if (!cmd.hasOption(OPTION_INPUT)) {
+          LOGGER.severe("Option -" + OPTION_INPUT + " mandatory with -"
+              + OPTION_CALL_GRAPH);
+        }
+        return;
+      }
+      if (cmd.hasOption(OPTION_SEARCH)) {
+        if (!cmd.hasOption(OPTION_INPUT)) {
+          LOGGER.severe("Option -" + OPTION_INPUT + " mandatory with -"
+              + OPTION_SEARCH);
+        }
+        return;
+      }
+      if (cmd.hasOption(OPTION_HIERARCHY_INDEX)) {
+        if (!cmd.hasOption(OPTION_HIERARCHY_QUERY)
+            && !cmd.hasOption(OPTION_INPUT)) {
+          LOGGER.severe("Option -" + OPTION_INPUT + " or -"
+              + OPTION_HIERARCHY_QUERY + " mandatory with -"
+              + OPTION_HIERARCHY_INDEX);
+        }
+        return;
+      }
+      if (cmd.hasOption(OPTION_XREF_INDEX)) {
+        if (!cmd.hasOption(OPTION_XREF_QUERY) && !cmd.hasOption(OPTION_INPUT)) {
+          LOGGER.severe("Option -" + OPTION_INPUT + " or -" + OPTION_XREF_QUERY
+              + " mandatory with -" + OPTION_XREF_INDEX);
+        }
+        return;
+      }
 
       if (!cmd.hasOption(OPTION_INPUT)) {
         LOGGER.severe("Option -" + OPTION_INPUT + " mandatory");
@@ -111,10 +181,143 @@ public class CommandLineInterface {
     return guiEnabled;
   }
 
+  public boolean isServerEnabled() {
+    return serverEnabled;
+  }
+
+  /**
+   * @return Returns true, if the request is to be forwarded to the daemon when
+   *         one is running.
+   */
+  public boolean isClientEnabled() {
+    return cmd.hasOption(OPTION_CLIENT);
+  }
+
+  /**
+   * @return Returns the port of the daemon.
+   */
+  public int getPort() {
+    if (cmd == null || !cmd.hasOption(OPTION_PORT)) {
+      return DaemonProtocol.DEFAULT_PORT;
+    }
+    return Integer.parseInt(cmd.getOptionValue(OPTION_PORT));
+  }
+
+  /**
+   * @return Returns the number of worker processes, null if the batch is not
+   *         to be sharded across processes.
+   */
+  public String getWorkers() {
+    return cmd.getOptionValue(OPTION_WORKERS);
+  }
+
+  public String getShardSize() {
+    return cmd.getOptionValue(OPTION_SHARD_SIZE);
+  }
+
+  public String getWorkerHeap() {
+    return cmd.getOptionValue(OPTION_WORKER_HEAP);
+  }
+
+  /**
+   * @return Returns the limits per method as
+   *         <code>millis,nodes[,blocks]</code>, null if not specified.
+   */
+  public String getLimits() {
+    return cmd == null ? null : cmd.getOptionValue(OPTION_LIMITS);
+  }
+
+  /**
+   * @return Returns the cross reference index to build or query, null if
+   *         classes are to be decompiled instead.
+   */
+  public String getXrefIndex() {
+    return cmd == null ? null : cmd.getOptionValue(OPTION_XREF_INDEX);
+  }
+
+  /**
+   * @return Returns the class / field / method whose referrers are to be
+   *         looked up in the index, null if the index is to be built.
+   */
+  public String getXrefQuery() {
+    return cmd.getOptionValue(OPTION_XREF_QUERY);
+  }
+
+  /**
+   * @return Returns the file to write the call graph to, null if classes are
+   *         to be decompiled instead.
+   */
+  public String getCallGraphFile() {
+    return cmd == null ? null : cmd.getOptionValue(OPTION_CALL_GRAPH);
+  }
+
+  /**
+   * @return Returns the class hierarchy index to build, update or query, null
+   *         if classes are to be decompiled instead.
+   */
+  public String getHierarchyIndex() {
+    return cmd == null ? null : cmd.getOptionValue(OPTION_HIERARCHY_INDEX);
+  }
+
+  /**
+   * @return Returns the class / interface whose supertypes and subtypes are to
+   *         be looked up in the index, null if the index is to be built.
+   */
+  public String getHierarchyQuery() {
+    return cmd.getOptionValue(OPTION_HIERARCHY_QUERY);
+  }
+
+  /**
+   * @return Returns the text to find in the constant pools, null if classes
+   *         are to be decompiled instead.
+   */
+  public String getSearchText() {
+    return cmd == null ? null : cmd.getOptionValue(OPTION_SEARCH);
+  }
+
+  /**
+   * @return Returns true, if the search text is a regular expression.
+   */
+  public boolean isSearchRegex() {
+    return cmd.hasOption(OPTION_SEARCH_REGEX);
+  }
+
+  /**
+   * @return Returns true, if the ldc instructions loading the string literals
+   *         found are to be reported.
+   */
+  public boolean isSearchLdc() {
+    return cmd.hasOption(OPTION_SEARCH_LDC);
+  }
+
   public String getJavaVersionToDecompile() {
     return javaVersionToDecompile;
   }
 
+  /**
+   * @return Returns the directory to write the output to, null if the output
+   *         is to be written to the console.
+   */
+  public String getOutputDirectory() {
+    return cmd.getOptionValue(OPTION_OUTPUT_DIR);
+  }
+
+  /**
+   * @return Returns the threads per stage of the batch pipeline, null if not
+   *         specified.
+   */
+  public String getParallelism() {
+    return cmd.getOptionValue(OPTION_PARALLELISM);
+  }
+
+  /**
+   * @return Returns the capacity of the queues of the batch pipeline, null if
+   *         not specified.
+   */
+  public String getQueueCapacity() {
+    return cmd.getOptionValue(OPTION_QUEUE_CAPACITY);
+  }
+
   private String javaVersionToDecompile = "1.4";
 
   private final Options options;
@@ -127,6 +330,8 @@ public class CommandLineInterface {
 
   private boolean guiEnabled;
 
+  private boolean serverEnabled;
+
   private static final String OPTION_INPUT = "i";
 
   private static final String OPTION_DISASSEMBLE = "a";
@@ -137,6 +342,42 @@ public class CommandLineInterface {
 
   private static final String OPTION_GUI = "u";
 
+  private static final String OPTION_OUTPUT_DIR = "o";
+
+  private static final String OPTION_PARALLELISM = "j";
+
+  private static final String OPTION_QUEUE_CAPACITY = "q";
+
+  private static final String OPTION_SERVE = "s";
+
+  private static final String OPTION_CLIENT = "c";
+
+  private static final String OPTION_PORT = "p";
+
+  private static final String OPTION_WORKERS = "n";
+
+  private static final String OPTION_SHARD_SIZE = "k";
+
+  private static final String OPTION_WORKER_HEAP = "x";
+
+  private static final String OPTION_LIMITS = "l";
+
+  private static final String OPTION_XREF_INDEX = "X";
+
+  private static final String OPTION_XREF_QUERY = "r";
+
+  private static final String OPTION_CALL_GRAPH = "g";
+
+  private static final String OPTION_HIERARCHY_INDEX = "H";
+
+  private static final String OPTION_HIERARCHY_QUERY = "y";
+
+  private static final String OPTION_SEARCH = "S";
+
+  private static final String OPTION_SEARCH_REGEX = "E";
+
+  private static final String OPTION_SEARCH_LDC = "L";
+
   // t may mean target as v is already used
   private static final String DECOMPILE_VERSION = "t";
 
@@ -19,16 +19,47 @@
  **/
 package org.jreversepro.cmd;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.logging.Logger;
+import java.util.regex.PatternSyntaxException;
 
+import org.apache.commons.io.IOUtils;
 import org.jreversepro.CustomLoggerFactory;
 import org.jreversepro.JReverseProContext;
 import org.jreversepro.JavaDecompileVersionContext;
+import org.jreversepro.callgraph.CallGraph;
+import org.jreversepro.callgraph.CallGraphExtractor;
+import org.jreversepro.daemon.DaemonClient;
+import org.jreversepro.daemon.DaemonRequestException;
+import org.jreversepro.daemon.DecompilerDaemon;
 import org.jreversepro.gui.GUIMain;
+import org.jreversepro.jls.JLSStringEncoder;
 import org.jreversepro.parser.ClassParserException;
+import org.jreversepro.pipeline.ClassSource;
+import org.jreversepro.pipeline.ClassSources;
+import org.jreversepro.pipeline.DecompilePipeline;
+import org.jreversepro.pipeline.DirectorySink;
+import org.jreversepro.pipeline.PipelineConfig;
+import org.jreversepro.pipeline.PipelineSink;
+import org.jreversepro.pipeline.PipelineStatistics;
+import org.jreversepro.pipeline.PrintStreamSink;
 import org.jreversepro.reflect.ClassInfo;
+import org.jreversepro.shard.ShardCoordinator;
+import org.jreversepro.shard.ShardStatistics;
+import org.jreversepro.xref.CrossReferenceIndex;
+import org.jreversepro.xref.CrossReferenceIndexBuilder;
+import org.jreversepro.xref.HierarchyIndex;
+import org.jreversepro.xref.HierarchyIndexBuilder;
+import org.jreversepro.xref.StringConstantSearch;
+import org.jreversepro.xref.StringMatch;
 
 
 /**
@@ -69,12 +100,47 @@ public class CommandMain {
 
     JavaDecompileVersionContext.setJavaVersionToDecompile(cli
         .getJavaVersionToDecompile());
+    if (cli.getLimits() != null) {
+      context.getDecompileLimits().setLimits(cli.getLimits());
+    }
 
     // If GUI is enabled.
     if (cli.isGuiEnabled()) {
       (new GUIMain(context)).setVisible(true);
       return;
     }
+    if (cli.isServerEnabled()) {
+      serve();
+      return;
+    }
+    if (cli.getXrefIndex() != null) {
+      processXref();
+      return;
+    }
+    if (cli.getSearchText() != null) {
+      processSearch();
+      return;
+    }
+    if (cli.getHierarchyIndex() != null) {
+      processHierarchy();
+      return;
+    }
+    if (cli.getCallGraphFile() != null) {
+      processCallGraph();
+      return;
+    }
+    if (cli.getWorkers() != null) {
+      processSharded();
+      return;
+    }
+    if (ClassSources.isBatch(cli.getInputResource())
+        || cli.getOutputDirectory() != null) {
+      processBatch();
+      return;
+    }
+    if (cli.isClientEnabled() && forwardToDaemon()) {
+      return;
+    }
     ClassInfo info;
     try {
       info = context.loadResource(cli.getInputResource());
@@ -91,6 +157,266 @@ public class CommandMain {
 
   }
 
+  /**
+   * Runs as a daemon till the process is killed.
+   */
+  private void serve() {
+    final DecompilerDaemon daemon = new DecompilerDaemon(context, cli
+        .getPort());
+    try {
+      daemon.start();
+    } catch (IOException e) {
+      LOGGER.severe("Unable to start daemon: " + e.getMessage());
+      return;
+    }
+    daemon.serve();
+  }
+
+  /**
+   * @return Returns true, if the daemon processed the request. False, if no
+   *         daemon is running, in which case the request is to be processed
+   *         in this process.
+   */
+  private boolean forwardToDaemon() {
+    final DaemonClient client = new DaemonClient(cli.getPort());
+    client.setLimits(cli.getLimits());
+    client.setJavaVersion(cli.getJavaVersionToDecompile());
+    try {
+      System.out.println(client.process(cli.getInputResource(), cli
+          .getOutputType()));
+    } catch (IOException e) {
+      LOGGER.fine("Daemon not available: " + e.getMessage());
+      return false;
+    } catch (DaemonRequestException e) {
+      LOGGER.severe(e.getMessage());
+    }
+    return true;
+  }
+
+  /**
+   * Runs the classes under the inputs (separated by the path separator) in
+   * worker processes.
+   */
+  private void processSharded() {
+    final ShardCoordinator coordinator = new ShardCoordinator();
+    coordinator.setWorkers(Integer.parseInt(cli.getWorkers()));
+    coordinator.setOutputType(cli.getOutputType());
+    if (cli.getShardSize() != null) {
+      coordinator.setShardSize(Integer.parseInt(cli.getShardSize()));
+    }
+    coordinator.setMaxHeap(cli.getWorkerHeap());
+    coordinator.setLimits(cli.getLimits());
+    if (cli.getParallelism() != null) {
+      coordinator.setParallelism(cli.getParallelism());
+    }
+    if (cli.getOutputDirectory() != null) {
+      coordinator.setOutputDir(new File(cli.getOutputDirectory()));
+    }
+    try {
+      final ShardStatistics stats = coordinator.run(Arrays.asList(cli
+          .getInputResource().split(File.pathSeparator)), System.out);
+      LOGGER.info(stats.toString());
+    } catch (IOException e) {
+      LOGGER.severe(e.getMessage());
+    } catch (InterruptedException e) {
+      LOGGER.severe("Interrupted " + e.getMessage());
+    }
+  }
 
+  /**
+   * Looks up the referrers in the cross reference index, or else builds it
+   * from the classes under the inputs (separated by the path separator).
+   */
+  private void processXref() {
+    final File indexFile = new File(cli.getXrefIndex());
+    if (cli.getXrefQuery() != null) {
+      try {
+        final CrossReferenceIndex index = CrossReferenceIndex.open(indexFile);
+        for (String referrer : index.findReferrers(cli.getXrefQuery())) {
+          System.out.println(referrer);
+        }
+      } catch (IOException e) {
+        LOGGER.severe(e.getMessage());
+      }
+      return;
+    }
+    final CrossReferenceIndexBuilder builder = new CrossReferenceIndexBuilder();
+    final ClassSources classSources = new ClassSources();
+    try {
+      for (String input : cli.getInputResource().split(File.pathSeparator)) {
+        for (ClassSource source : classSources.expand(input)) {
+          if (!builder.add(source)) {
+            LOGGER.warning("Skipped " + source.getName());
+          }
+        }
+      }
+      builder.write(indexFile);
+      LOGGER.info("Indexed " + builder.getClassCount() + " classes, "
+          + builder.getNameCount() + " names, skipped "
+          + builder.getSkippedCount());
+    } catch (IOException e) {
+      LOGGER.severe(e.getMessage());
+    } finally {
+      classSources.close();
+    }
+  }
+
+  /**
+   * Finds the text in the constant pools of the classes under the inputs
+   * (separated by the path separator), on a thread per processor. Writes a
+   * line per matching entry as the class, the index of the TAG_UTF8 entry, the
+   * index of the TAG_STRING entry ('-' for names and descriptors) and the
+   * value, followed by a line per ldc site if asked for.
+   */
+  private void processSearch() {
+    final ClassSources classSources = new ClassSources();
+    try {
+      final List<ClassSource> sources = new ArrayList<ClassSource>();
+      for (String input : cli.getInputResource().split(File.pathSeparator)) {
+        sources.addAll(classSources.expand(input));
+      }
+      final StringConstantSearch search = new StringConstantSearch(cli
+          .getSearchText(), cli.isSearchRegex(), Runtime.getRuntime()
+          .availableProcessors());
+      search.setLdcSites(cli.isSearchLdc());
+      final List<StringMatch> matches = search.search(sources);
+      for (StringMatch match : matches) {
+        final String literal = (match.getStringIndex() == -1) ? "-" : "#"
+            + match.getStringIndex();
+        System.out.println(match.getClassName() + "\t#" + match.getIndex()
+            + "\t" + literal + "\t"
+            + JLSStringEncoder.encodeStringInJLSSource(match.getValue()));
+        if (match.getLdcSites() != null) {
+          for (String site : match.getLdcSites()) {
+            System.out.println("\tldc\t" + site);
+          }
+        }
+      }
+      LOGGER.info("Found " + matches.size() + " entries in "
+          + sources.size() + " classes, skipped " + search.getSkippedCount());
+    } catch (IOException e) {
+      LOGGER.severe(e.getMessage());
+    } catch (InterruptedException e) {
+      LOGGER.severe("Interrupted " + e.getMessage());
+    } catch (PatternSyntaxException e) {
+      LOGGER.severe(e.getMessage());
+    } finally {
+      classSources.close();
+    }
+  }
+
+  /**
+   * Looks up the type in the class hierarchy index, or else builds the index
+   * from the classes under the inputs (separated by the path separator),
+   * rereading only the inputs changed since it was last built.
+   */
+  private void processHierarchy() {
+    final File indexFile = new File(cli.getHierarchyIndex());
+    if (cli.getHierarchyQuery() != null) {
+      try {
+        final HierarchyIndex index = HierarchyIndex.open(indexFile);
+        final String type = cli.getHierarchyQuery();
+        for (String supertype : index.getSupertypes(type)) {
+          System.out.println("supertype\t" + supertype);
+        }
+        for (String subtype : index.getSubtypes(type)) {
+          System.out.println("subtype\t" + subtype);
+        }
+        for (String implementor : index.getImplementors(type)) {
+          System.out.println("implementor\t" + implementor);
+        }
+      } catch (IOException e) {
+        LOGGER.severe(e.getMessage());
+      }
+      return;
+    }
+    HierarchyIndex previous = null;
+    if (indexFile.exists()) {
+      try {
+        previous = HierarchyIndex.open(indexFile);
+      } catch (IOException e) {
+        LOGGER.warning("Rebuilding " + indexFile + ": " + e.getMessage());
+      }
+    }
+    final HierarchyIndexBuilder builder = new HierarchyIndexBuilder(previous);
+    try {
+      for (String input : cli.getInputResource().split(File.pathSeparator)) {
+        builder.addOrigin(input);
+      }
+      builder.write(indexFile);
+      LOGGER.info("Indexed " + builder.getClassCount() + " classes, reused "
+          + builder.getReusedCount() + " unchanged inputs, skipped "
+          + builder.getSkippedCount());
+    } catch (IOException e) {
+      LOGGER.severe(e.getMessage());
+    }
+  }
+
+  /**
+   * Writes the call graph of the classes under the inputs (separated by the
+   * path separator), extracted on a thread per processor.
+   */
+  private void processCallGraph() {
+    final ClassSources classSources = new ClassSources();
+    PrintStream out = null;
+    try {
+      final List<ClassSource> sources = new ArrayList<ClassSource>();
+      for (String input : cli.getInputResource().split(File.pathSeparator)) {
+        sources.addAll(classSources.expand(input));
+      }
+      final CallGraphExtractor extractor = new CallGraphExtractor(Runtime
+          .getRuntime().availableProcessors());
+      final CallGraph graph = extractor.extract(sources);
+      out = new PrintStream(new BufferedOutputStream(new FileOutputStream(
+          cli.getCallGraphFile())));
+      graph.writeEdgeList(out, true);
+      LOGGER.info("Extracted " + graph.getEdgeCount() + " calls between "
+          + graph.getNodeCount() + " methods, skipped "
+          + extractor.getSkippedCount() + " classes");
+    } catch (IOException e) {
+      LOGGER.severe(e.getMessage());
+    } catch (InterruptedException e) {
+      LOGGER.severe("Interrupted " + e.getMessage());
+    } finally {
+      IOUtils.closeQuietly(out);
+      classSources.close();
+    }
+  }
+
+  /**
+   * Runs all the classes under the input (directory / archive) through the
+   * staged pipeline.
+   */
+  private void processBatch() {
+    final PipelineConfig config = new PipelineConfig();
+    config.setOutputType(cli.getOutputType());
+    if (cli.getParallelism() != null) {
+      config.setParallelism(cli.getParallelism());
+    }
+    if (cli.getQueueCapacity() != null) {
+      config.setQueueCapacity(Integer.parseInt(cli.getQueueCapacity()));
+    }
+    final PipelineSink sink;
+    if (cli.getOutputDirectory() != null) {
+      sink = new DirectorySink(new File(cli.getOutputDirectory()), cli
+          .getOutputType());
+    } else {
+      sink = new PrintStreamSink(System.out);
+    }
+    final ClassSources classSources = new ClassSources();
+    try {
+      final List<ClassSource> sources = classSources.expand(cli
+          .getInputResource());
+      final PipelineStatistics stats = new DecompilePipeline(context, config)
+          .run(sources, sink);
+      LOGGER.info(stats.toString());
+    } catch (IOException e) {
+      LOGGER.severe(e.getMessage());
+    } catch (InterruptedException e) {
+      LOGGER.severe("Interrupted " + e.getMessage());
+    } finally {
+      classSources.close();
+    }
+  }
 
 }
@@ -0,0 +1,238 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jreversepro.JReverseProContext.OutputType;
+
+/**
+ * Forwards requests to a {@link DecompilerDaemon} running on the same host.
+ * Every request is made over a connection of its own, and carries the options
+ * set on the client, so that the daemon processes the class as this process
+ * would have.
+ * <p>
+ * A daemon that does not respond within the read timeout is taken to be
+ * unavailable, like one that is not running.
+ * 
+ * @author Karthik Kumar
+ */
+public class DaemonClient {
+
+  /**
+   * @param _port
+   *          Port the daemon listens to.
+   */
+  public DaemonClient(int _port) {
+    port = _port;
+    readTimeout = DEFAULT_READ_TIMEOUT;
+    options = new LinkedHashMap<String, String>();
+  }
+
+  /**
+   * @param limits
+   *          Limits per method, as <code>millis,nodes[,blocks]</code>. Null,
+   *          for those of the daemon.
+   * @see org.jreversepro.decompile.DecompileLimits#setLimits(String)
+   */
+  public void setLimits(String limits) {
+    setOption(DaemonProtocol.OPTION_LIMITS, limits);
+  }
+
+  /**
+   * @param javaVersion
+   *          Version of Java to decompile to. Null, for that of the daemon.
+   */
+  public void setJavaVersion(String javaVersion) {
+    setOption(DaemonProtocol.OPTION_JAVA_VERSION, javaVersion);
+  }
+
+  /**
+   * @param _readTimeout
+   *          Milliseconds to wait for the daemon to respond, 0 to wait
+   *          forever.
+   */
+  public void setReadTimeout(int _readTimeout) {
+    readTimeout = _readTimeout;
+  }
+
+  private void setOption(String name, String value) {
+    if (value == null) {
+      options.remove(name);
+    } else {
+      options.put(name, value);
+    }
+  }
+
+  /**
+   * @return Returns true, if a daemon is listening on the port.
+   */
+  public boolean isRunning() {
+    try {
+      final Connection connection = new Connection();
+      try {
+        connection.dos.writeByte(DaemonProtocol.REQUEST_PING);
+        connection.readResponse();
+        return true;
+      } finally {
+        connection.close();
+      }
+    } catch (IOException ex) {
+      return false;
+    } catch (DaemonRequestException ex) {
+      return false;
+    }
+  }
+
+  /**
+   * @param pathToClass
+   *          Path to the class file. The daemon reads the file, hence relative
+   *          paths are resolved here against the current directory.
+   * @param outputType
+   *          Type of the output.
+   * @return Returns the output of the class.
+   * @throws IOException
+   *           Thrown if the daemon could not be reached, or did not respond
+   *           in time.
+   * @throws DaemonRequestException
+   *           Thrown if the daemon failed to process the class.
+   */
+  public String process(String pathToClass, OutputType outputType)
+      throws IOException, DaemonRequestException {
+    final Connection connection = new Connection();
+    try {
+      connection.dos.writeByte(DaemonProtocol.REQUEST_PATH);
+      connection.writeHeader(outputType);
+      connection.dos.writeUTF(new File(pathToClass).getAbsolutePath());
+      return connection.readResponse();
+    } finally {
+      connection.close();
+    }
+  }
+
+  /**
+   * @param bytes
+   *          Contents of the class file.
+   * @param name
+   *          Name by which the class is identified.
+   * @param outputType
+   *          Type of the output.
+   * @return Returns the output of the class.
+   * @throws IOException
+   *           Thrown if the daemon could not be reached, or did not respond
+   *           in time.
+   * @throws DaemonRequestException
+   *           Thrown if the daemon failed to process the class.
+   */
+  public String process(byte[] bytes, String name, OutputType outputType)
+      throws IOException, DaemonRequestException {
+    final Connection connection = new Connection();
+    try {
+      connection.dos.writeByte(DaemonProtocol.REQUEST_BYTES);
+      connection.writeHeader(outputType);
+      connection.dos.writeUTF(name);
+      connection.dos.writeInt(bytes.length);
+      connection.dos.write(bytes);
+      return connection.readResponse();
+    } finally {
+      connection.close();
+    }
+  }
+
+  private class Connection {
+
+    Connection() throws IOException {
+      socket = new Socket();
+      try {
+        socket.connect(new InetSocketAddress(DecompilerDaemon.LOOPBACK, port),
+            CONNECT_TIMEOUT);
+        // A read timing out throws SocketTimeoutException, an IOException
+        // like a daemon that is not there.
+        socket.setSoTimeout(readTimeout);
+      } catch (IOException ex) {
+        close();
+        throw ex;
+      }
+      dis = new DataInputStream(new BufferedInputStream(socket
+          .getInputStream()));
+      dos = new DataOutputStream(new BufferedOutputStream(socket
+          .getOutputStream()));
+      dos.writeInt(DaemonProtocol.VERSION);
+    }
+
+    void writeHeader(OutputType outputType) throws IOException {
+      dos.writeUTF(outputType.name());
+      dos.writeShort(options.size());
+      for (Map.Entry<String, String> option : options.entrySet()) {
+        dos.writeUTF(option.getKey());
+        dos.writeUTF(option.getValue());
+      }
+    }
+
+    String readResponse() throws IOException, DaemonRequestException {
+      dos.flush();
+      final byte status = dis.readByte();
+      final String text = DaemonProtocol.readText(dis);
+      if (status != DaemonProtocol.STATUS_OK) {
+        throw new DaemonRequestException(text);
+      }
+      return text;
+    }
+
+    void close() {
+      try {
+        socket.close();
+      } catch (IOException ex) {
+        // ignore - done with the connection.
+      }
+    }
+
+    final Socket socket;
+
+    final DataInputStream dis;
+
+    final DataOutputStream dos;
+  }
+
+  /**
+   * Milliseconds to wait for the daemon to respond, unless set otherwise.
+   * Long enough for a class with a few methods that run into their budget.
+   */
+  public static final int DEFAULT_READ_TIMEOUT = 60000;
+
+  /**
+   * Milliseconds to wait for the daemon to accept the connection.
+   */
+  private static final int CONNECT_TIMEOUT = 1000;
+
+  private final int port;
+
+  private int readTimeout;
+
+  private final Map<String, String> options;
+
+}
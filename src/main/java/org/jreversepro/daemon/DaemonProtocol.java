@@ -0,0 +1,111 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.daemon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Wire format between {@link DaemonClient} and {@link DecompilerDaemon}.
+ * <p>
+ * A connection carries any number of requests, one after the other. A
+ * request is the protocol version (int), the request type (byte), the output
+ * type (UTF), the options followed by the path of the class (UTF) for
+ * {@link #REQUEST_PATH} or the name (UTF) and the bytes (int length, bytes)
+ * of the class for {@link #REQUEST_BYTES}. {@link #REQUEST_PING} carries
+ * nothing more than the version and the type.
+ * <p>
+ * The options are a count (short) of name (UTF) and value (UTF) pairs -
+ * {@link #OPTION_LIMITS} and {@link #OPTION_JAVA_VERSION}, as given on the
+ * command line. They apply to the request alone.
+ * <p>
+ * The response is a status (byte) followed by the text (int length, UTF-8
+ * bytes) - the output of the class, or the error message.
+ * 
+ * @author Karthik Kumar
+ */
+public final class DaemonProtocol {
+
+  private DaemonProtocol() {
+  }
+
+  /**
+   * Writes text that could be longer than what
+   * {@link DataOutputStream#writeUTF(String)} allows.
+   */
+  static void writeText(DataOutputStream dos, String text) throws IOException {
+    final byte[] bytes = text.getBytes(ENCODING);
+    dos.writeInt(bytes.length);
+    dos.write(bytes);
+  }
+
+  static String readText(DataInputStream dis) throws IOException {
+    return new String(readBytes(dis), ENCODING);
+  }
+
+  static byte[] readBytes(DataInputStream dis) throws IOException {
+    final int length = dis.readInt();
+    if (length < 0 || length > MAX_LENGTH) {
+      throw new IOException("Invalid length " + length);
+    }
+    final byte[] bytes = new byte[length];
+    dis.readFully(bytes);
+    return bytes;
+  }
+
+  /**
+   * Port the daemon listens to, unless specified otherwise.
+   */
+  public static final int DEFAULT_PORT = 9127;
+
+  static final int VERSION = 2;
+
+  static final byte REQUEST_PATH = 1;
+
+  static final byte REQUEST_BYTES = 2;
+
+  static final byte REQUEST_PING = 3;
+
+  /**
+   * Limits per method, as <code>millis,nodes[,blocks]</code>.
+   * 
+   * @see org.jreversepro.decompile.DecompileLimits#setLimits(String)
+   */
+  static final String OPTION_LIMITS = "limits";
+
+  /**
+   * Version of Java to decompile to.
+   * 
+   * @see org.jreversepro.JavaDecompileVersionContext
+   */
+  static final String OPTION_JAVA_VERSION = "javaVersion";
+
+  static final byte STATUS_OK = 0;
+
+  static final byte STATUS_ERROR = 1;
+
+  /**
+   * Upper bound on a single class / output, to guard against garbage on the
+   * socket.
+   */
+  static final int MAX_LENGTH = 64 * 1024 * 1024;
+
+  static final String ENCODING = "UTF-8";
+
+}
@@ -0,0 +1,272 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.jreversepro.CustomLoggerFactory;
+import org.jreversepro.JReverseProContext;
+import org.jreversepro.JReverseProContext.OutputType;
+import org.jreversepro.JavaDecompileVersionContext;
+import org.jreversepro.decompile.DecompileLimits;
+import org.jreversepro.reflect.ClassInfo;
+
+/**
+ * Long running decompiler that serves requests over a loopback socket, so
+ * that the cost of starting the JVM and warming up the decompiler is paid
+ * once and not once per class. See {@link DaemonProtocol} for the format of
+ * the requests.
+ * <p>
+ * Every connection is served by a thread of its own. The threads are pooled,
+ * so that a client issuing one request per connection does not pay for
+ * creating a thread every time.
+ * 
+ * @author Karthik Kumar
+ */
+public class DecompilerDaemon {
+
+  /**
+   * @param _context
+   *          Context shared by all the requests.
+   * @param _port
+   *          Port to listen to, on the loopback interface.
+   */
+  public DecompilerDaemon(JReverseProContext _context, int _port) {
+    context = _context;
+    port = _port;
+  }
+
+  /**
+   * Binds to the port.
+   * 
+   * @throws IOException
+   *           Thrown if the port could not be bound to (say, another daemon is
+   *           running already).
+   */
+  public void start() throws IOException {
+    serverSocket = new ServerSocket(port, BACKLOG, InetAddress
+        .getByName(LOOPBACK));
+    executor = Executors.newCachedThreadPool(new ConnectionThreadFactory());
+    logger.info("Listening on " + serverSocket.getLocalSocketAddress());
+  }
+
+  /**
+   * Accepts connections till {@link #stop()} is called.
+   */
+  public void serve() {
+    while (!serverSocket.isClosed()) {
+      final Socket socket;
+      try {
+        socket = serverSocket.accept();
+      } catch (IOException ex) {
+        if (!serverSocket.isClosed()) {
+          logger.severe("Unable to accept connection " + ex.getMessage());
+        }
+        continue;
+      }
+      executor.execute(new Connection(socket));
+    }
+  }
+
+  /**
+   * Stops accepting connections and interrupts the ones being served.
+   */
+  public void stop() {
+    try {
+      serverSocket.close();
+    } catch (IOException ex) {
+      logger.warning(ex.getMessage());
+    }
+    executor.shutdownNow();
+  }
+
+  /**
+   * @return Returns the port the daemon is listening to. Useful when started
+   *         on port 0.
+   */
+  public int getLocalPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * Serves the requests that come in over a single connection.
+   */
+  private class Connection implements Runnable {
+
+    Connection(Socket _socket) {
+      socket = _socket;
+    }
+
+    public void run() {
+      try {
+        final DataInputStream dis = new DataInputStream(
+            new BufferedInputStream(socket.getInputStream()));
+        final DataOutputStream dos = new DataOutputStream(
+            new BufferedOutputStream(socket.getOutputStream()));
+        while (true) {
+          final int version;
+          try {
+            version = dis.readInt();
+          } catch (EOFException ex) {
+            // Client is done with the connection.
+            break;
+          }
+          if (version != DaemonProtocol.VERSION) {
+            respond(dos, DaemonProtocol.STATUS_ERROR,
+                "Unsupported protocol version " + version);
+            break;
+          }
+          if (!serve(dis, dos)) {
+            break;
+          }
+        }
+      } catch (SocketException ex) {
+        // Client went away in between.
+      } catch (IOException ex) {
+        logger.warning(ex.getMessage());
+      } finally {
+        try {
+          socket.close();
+        } catch (IOException ex) {
+          // ignore - connection is done with.
+        }
+      }
+    }
+
+    /**
+     * @return Returns false, if the request could not be read to its end - so
+     *         that the connection is of no further use.
+     */
+    private boolean serve(DataInputStream dis, DataOutputStream dos)
+        throws IOException {
+      final byte type = dis.readByte();
+      if (type == DaemonProtocol.REQUEST_PING) {
+        respond(dos, DaemonProtocol.STATUS_OK, JReverseProContext.VERSION);
+        return true;
+      }
+      final String outputType = dis.readUTF();
+      final Map<String, String> options = new HashMap<String, String>();
+      for (int i = dis.readUnsignedShort(); i > 0; i--) {
+        final String option = dis.readUTF();
+        options.put(option, dis.readUTF());
+      }
+      final String name = dis.readUTF();
+      byte[] bytes = null;
+      if (type == DaemonProtocol.REQUEST_BYTES) {
+        bytes = DaemonProtocol.readBytes(dis);
+      } else if (type != DaemonProtocol.REQUEST_PATH) {
+        respond(dos, DaemonProtocol.STATUS_ERROR, "Unknown request type "
+            + type);
+        return false;
+      }
+      // The request is read in full. Whatever goes wrong from here on - say,
+      // a class file that is not there - is sent back, or else the client
+      // would find the connection closed and process the class once more on
+      // its own.
+      final String output;
+      try {
+        final DecompileLimits limits = applyOptions(options);
+        final ClassInfo info = (bytes == null) ? context.loadResource(name)
+            : context.loadResource(new ByteArrayInputStream(bytes), name);
+        output = context.print(OutputType.valueOf(outputType), info, limits);
+      } catch (Throwable ex) {
+        logger.warning(name + ": " + ex);
+        respond(dos, DaemonProtocol.STATUS_ERROR, ex.toString());
+        return true;
+      }
+      respond(dos, DaemonProtocol.STATUS_OK, output);
+      return true;
+    }
+
+    /**
+     * Applies the options of a request.
+     * 
+     * @return Returns the limits of the context, overridden by those of the
+     *         request.
+     */
+    private DecompileLimits applyOptions(Map<String, String> options) {
+      final DecompileLimits limits = new DecompileLimits(context
+          .getDecompileLimits());
+      for (Map.Entry<String, String> option : options.entrySet()) {
+        if (DaemonProtocol.OPTION_LIMITS.equals(option.getKey())) {
+          limits.setLimits(option.getValue());
+        } else if (DaemonProtocol.OPTION_JAVA_VERSION.equals(option.getKey())) {
+          JavaDecompileVersionContext.setJavaVersionToDecompile(option
+              .getValue());
+        } else {
+          throw new IllegalArgumentException("Unknown option "
+              + option.getKey());
+        }
+      }
+      return limits;
+    }
+
+    private void respond(DataOutputStream dos, byte status, String text)
+        throws IOException {
+      dos.writeByte(status);
+      DaemonProtocol.writeText(dos, text == null ? "" : text);
+      dos.flush();
+    }
+
+    private final Socket socket;
+  }
+
+  private static class ConnectionThreadFactory implements ThreadFactory {
+
+    public Thread newThread(Runnable r) {
+      final Thread thread = new Thread(r, "jreversepro-daemon-"
+          + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+
+    private final AtomicInteger count = new AtomicInteger();
+  }
+
+  static final String LOOPBACK = "127.0.0.1";
+
+  private static final int BACKLOG = 50;
+
+  private final JReverseProContext context;
+
+  private final int port;
+
+  private ServerSocket serverSocket;
+
+  private ExecutorService executor;
+
+  private final Logger logger = CustomLoggerFactory.createLogger();
+
+}
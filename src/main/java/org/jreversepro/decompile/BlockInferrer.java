@@ -17,12 +17,16 @@
  */
 package org.jreversepro.decompile;
 
-import java.util.Stack;
-
 import org.jreversepro.ast.block.Block;
+import org.jreversepro.ast.block.Comment;
 import org.jreversepro.ast.block.ConditionalBlock;
 import org.jreversepro.ast.block.MethodBlock;
 import org.jreversepro.ast.expression.ConditionExpression;
+import org.jreversepro.decompile.flow.ControlFlowGraph;
+import org.jreversepro.decompile.flow.LoopNest;
+import org.jreversepro.decompile.simulate.BranchConstants;
+import org.jreversepro.jls.JLSConstants;
+import org.jreversepro.jvm.Opcodes;
 import org.jreversepro.reflect.instruction.Instruction;
 
 
@@ -36,14 +40,90 @@ public class BlockInferrer {
 
     currentBlock = mainBlock;
 
-    gotoStack = new Stack<Instruction>();
+    // The branch table and the loops are built only for a method that could
+    // jump - a method of a single basic block has no labels to look up.
+    byte[] code = decompiler.method.getBytes();
+    if (ControlFlowGraph.countLeaders(code, decompiler.method
+        .getExceptionBlocks()) > 1) {
+      jumpTargets = decompiler.getBranchTable().getJumpTargets();
+      flowGraph = decompiler.getControlFlowGraph();
+      loops = decompiler.getLoopNest();
+    } else {
+      jumpTargets = new int[0];
+      flowGraph = null;
+      loops = null;
+    }
+  }
+
+  /**
+   * Labels the pcs jumped to, up to the end of the line. Called with the
+   * instruction completing each line, before the line is inferred - the
+   * lines come in the order of their pcs.
+   */
+  public void beginLine(Instruction ins) {
+    while (nextJumpTarget < jumpTargets.length
+        && jumpTargets[nextJumpTarget] < ins.nextPc) {
+      int pc = jumpTargets[nextJumpTarget];
+      appendComment(getLabel(pc) + ":" + getLoopKind(pc));
+      nextJumpTarget++;
+    }
   }
 
-  public void pushGotoInstruction(Instruction ins) {
-    if (ins.getOffset() > 0) {
-      // Only forward-looking references are pushed.
-      gotoStack.push(ins);
+  /**
+   * @return Returns the kind of the loop headed by the block beginning at the
+   *         pc, after a space. Empty, if the pc heads no loop.
+   */
+  private String getLoopKind(int pc) {
+    int block = flowGraph.blockAt(pc);
+    if (block == -1 || flowGraph.getStartPc(block) != pc) {
+      return "";
     }
+    int loop = loops.getLoopHeadedBy(block);
+    if (loop == -1) {
+      return "";
+    }
+    if (loops.getType(loop) == BranchConstants.TYPE_WHILE) {
+      return JLSConstants.SPACE + JLSConstants.WHILE + LOOP_SUFFIX;
+    }
+    return JLSConstants.SPACE + JLSConstants.DO + "-" + JLSConstants.WHILE
+        + LOOP_SUFFIX;
+  }
+
+  /**
+   * Appends a conditional branch. Rendered as a comment, till the branches
+   * are structured into blocks.
+   */
+  public void appendBranch(Instruction ins, ConditionExpression expr) {
+    appendComment(JLSConstants.IF + JLSConstants.SPACE
+        + JLSConstants.OPEN_BRACKET + expr.getJLSCode()
+        + JLSConstants.CLOSE_BRACKET + JLSConstants.SPACE + JLSConstants.GOTO
+        + JLSConstants.SPACE + getLabel(ins.getTargetPc())
+        + JLSConstants.END_OF_STATEMENT);
+  }
+
+  /**
+   * Appends a goto. Rendered as a comment, like the branches. The wide
+   * prefix, handed over with the gotos, jumps nowhere.
+   */
+  public void appendGoto(Instruction ins) {
+    int targetPc;
+    if (ins.opcode == Opcodes.OPCODE_GOTO) {
+      targetPc = ins.getTargetPc();
+    } else if (ins.opcode == Opcodes.OPCODE_GOTOW) {
+      targetPc = ins.currentPc + ins.getArgInt();
+    } else {
+      return;
+    }
+    appendComment(JLSConstants.GOTO + JLSConstants.SPACE + getLabel(targetPc)
+        + JLSConstants.END_OF_STATEMENT);
+  }
+
+  private void appendComment(String text) {
+    appendChildBlock(new Comment(currentBlock, text));
+  }
+
+  private static String getLabel(int pc) {
+    return LABEL_PREFIX + pc;
   }
 
   public boolean isMultiConditionalExpression() {
@@ -88,9 +168,29 @@ public class BlockInferrer {
     return mainBlock;
   }
 
+  private static final String LABEL_PREFIX = "L";
+
+  private static final String LOOP_SUFFIX = " loop";
+
   private ConditionalBlock multiCondition;
 
-  private Stack<Instruction> gotoStack;
+  /**
+   * Pcs jumped to, sorted.
+   */
+  private final int[] jumpTargets;
+
+  /**
+   * Index into jumpTargets of the first pc not labelled yet.
+   */
+  private int nextJumpTarget;
+
+  /**
+   * Blocks of the method, and the loops among them. Null, if the method does
+   * not jump.
+   */
+  private final ControlFlowGraph flowGraph;
+
+  private final LoopNest loops;
 
   private Block currentBlock;
 
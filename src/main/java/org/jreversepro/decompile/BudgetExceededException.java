@@ -0,0 +1,36 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.decompile;
+
+/**
+ * Thrown if a method exceeds its {@link MethodBudget}.
+ * 
+ * @author Karthik Kumar
+ */
+@SuppressWarnings("serial")
+public class BudgetExceededException extends RuntimeException {
+
+  /**
+   * @param aMsg
+   *          Budget that was exceeded.
+   */
+  public BudgetExceededException(String aMsg) {
+    super(aMsg);
+  }
+
+}
@@ -20,9 +20,18 @@ package org.jreversepro.decompile;
 import java.util.logging.Logger;
 
 import org.jreversepro.CustomLoggerFactory;
+import org.jreversepro.ast.expression.CaughtException;
+import org.jreversepro.decompile.flow.ControlFlowGraph;
+import org.jreversepro.decompile.flow.Dominators;
+import org.jreversepro.decompile.flow.LoopNest;
+import org.jreversepro.decompile.flow.StackShapes;
+import org.jreversepro.decompile.simulate.BranchTable;
+import org.jreversepro.jvm.JVMConstants;
 import org.jreversepro.parser.instruction.InstructionListParserException;
 import org.jreversepro.parser.instruction.InstructionListParserFactory;
 import org.jreversepro.reflect.ConstantPool;
+import org.jreversepro.reflect.ExceptionRangeIndex;
+import org.jreversepro.reflect.ExceptionThrown;
 import org.jreversepro.reflect.Method;
 import org.jreversepro.reflect.instruction.InstructionList;
 
@@ -33,23 +42,180 @@ public class DecompilationContext {
 
   ConstantPool constantPool;
 
-  InstructionList list;
+  private InstructionList list;
+
+  MethodBudget budget;
+
+  private BranchTable branchTable;
+
+  private ControlFlowGraph flowGraph;
+
+  private Dominators dominators;
+
+  private Dominators postDominators;
+
+  private LoopNest loopNest;
+
+  private StackShapes stackShapes;
+
+  private int parallelBlocks;
+
+  private static final String CLASS_LANG_THROWABLE = "java/lang/Throwable";
 
   private static final Logger logger = CustomLoggerFactory.createLogger();
   
   public DecompilationContext(Method _method, ConstantPool _constantPool) {
+    this(_method, _constantPool, MethodBudget.UNBOUNDED);
+  }
+
+  /**
+   * @param _method
+   *          Method to be decompiled.
+   * @param _constantPool
+   *          Constant pool of the class.
+   * @param _budget
+   *          Budget charged by the phases of the decompiler.
+   */
+  public DecompilationContext(Method _method, ConstantPool _constantPool,
+      MethodBudget _budget) {
     method = _method;
     constantPool = _constantPool;
+    budget = _budget;
+  }
+
+  /**
+   * @return Returns the instructions of the method, decoded on first use. A
+   *         method decompiled in a single pass never decodes them into a list,
+   *         unless the flow of control is looked up.
+   */
+  public InstructionList getInstructionList() {
+    if (list == null) {
+      try {
+        list = InstructionListParserFactory.createInstructionListParser()
+            .parseBytes(method.getBytes());
+      } catch (InstructionListParserException e) {
+        logger.severe(e.toString());
+      }
+    }
+    return list;
+  }
+
+  /**
+   * @return Returns the branches of the method, built on first use - by the
+   *         block inference of a method that jumps, to label the pcs jumped
+   *         to.
+   */
+  public BranchTable getBranchTable() {
+    if (branchTable == null) {
+      branchTable = BranchTable.build(method, getInstructionList());
+    }
+    return branchTable;
+  }
 
-    try {
-      list = InstructionListParserFactory.createInstructionListParser()
-          .parseBytes(method.getBytes());
-    } catch (InstructionListParserException e) {
-      logger.severe(e.toString());
+  /**
+   * @return Returns the control-flow graph of the method, built on first use -
+   *         by a method large enough to be evaluated in parallel, or by the
+   *         block inference of a method that jumps.
+   */
+  public ControlFlowGraph getControlFlowGraph() {
+    if (flowGraph == null) {
+      flowGraph = ControlFlowGraph.build(getInstructionList(), method
+          .getExceptionBlocks());
     }
+    return flowGraph;
+  }
+
+  /**
+   * @return Returns the dominators of the blocks, computed on first use - for
+   *         the loops of a method that jumps.
+   */
+  public Dominators getDominators() {
+    if (dominators == null) {
+      dominators = Dominators.compute(getControlFlowGraph());
+    }
+    return dominators;
+  }
+
+  /**
+   * @return Returns the post-dominators of the blocks, computed on first use.
+   *         Not looked up by the block inference yet.
+   */
+  public Dominators getPostDominators() {
+    if (postDominators == null) {
+      postDominators = Dominators.computePost(getControlFlowGraph());
+    }
+    return postDominators;
+  }
+
+  /**
+   * @return Returns the loops of the method, computed on first use - by the
+   *         block inference of a method that jumps, to name the loop headed by
+   *         a label.
+   */
+  public LoopNest getLoopNest() {
+    if (loopNest == null) {
+      loopNest = LoopNest.compute(getControlFlowGraph(), getDominators());
+    }
+    return loopNest;
+  }
 
+  /**
+   * @return Returns the stack shapes on entry to the blocks, computed on first
+   *         use.
+   */
+  public StackShapes getStackShapes() {
+    if (stackShapes == null) {
+      stackShapes = StackShapes.compute(getControlFlowGraph(), constantPool);
+    }
+    return stackShapes;
   }
 
+  /**
+   * @param pc
+   *          Index of an instruction into the bytecode of the method.
+   * @return Returns the exception on the stack on entry to the handler that
+   *         begins at the instruction, null if none begins there.
+   */
+  CaughtException getCaughtException(int pc) {
+    ExceptionRangeIndex index = method.getExceptionBlocks().getRangeIndex();
+    if (!index.isHandler(pc)) {
+      return null;
+    }
+    for (ExceptionThrown exc : index.getTryBlocksHandledAt(pc)) {
+      String type = exc.getExceptionClass(pc);
+      if (type != null && !type.equals(JVMConstants.ANY)) {
+        return new CaughtException(type);
+      }
+    }
+    return new CaughtException(CLASS_LANG_THROWABLE);
+  }
 
+  /**
+   * @param _parallelBlocks
+   *          Number of basic blocks from which on the instructions are
+   *          evaluated in parallel. 0 to always evaluate in sequence.
+   */
+  public void setParallelBlocks(int _parallelBlocks) {
+    parallelBlocks = _parallelBlocks;
+  }
+
+  /**
+   * @return Returns true, if the method is large enough to evaluate its blocks
+   *         in parallel, and the stack on entry to each is known.
+   */
+  boolean isParallelEvaluation() {
+    if (parallelBlocks <= 0 || !ParallelEvaluator.isAvailable()) {
+      return false;
+    }
+    // Abstract and native methods have no code. A method that could not have
+    // the blocks is ruled out by a scan of its bytecode, before it is
+    // decoded into a graph.
+    byte[] code = method.getBytes();
+    return code != null
+        && ControlFlowGraph.countLeaders(code, method.getExceptionBlocks())
+            >= parallelBlocks
+        && getControlFlowGraph().getBlockCount() >= parallelBlocks
+        && getStackShapes().isKnown();
+  }
 
 }
@@ -0,0 +1,126 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.decompile;
+
+/**
+ * Limits on the effort spent decompiling a single method. A method that
+ * exceeds them is disassembled instead, so that one pathological method does
+ * not hold up the rest of the class (or the batch).
+ * 
+ * @author Karthik Kumar
+ */
+public class DecompileLimits {
+
+  public DecompileLimits() {
+    maxMillisPerMethod = DEFAULT_MAX_MILLIS_PER_METHOD;
+    maxNodesPerMethod = DEFAULT_MAX_NODES_PER_METHOD;
+    parallelBlocks = DEFAULT_PARALLEL_BLOCKS;
+  }
+
+  /**
+   * @param _limits
+   *          Limits to start out with.
+   */
+  public DecompileLimits(DecompileLimits _limits) {
+    maxMillisPerMethod = _limits.maxMillisPerMethod;
+    maxNodesPerMethod = _limits.maxNodesPerMethod;
+    parallelBlocks = _limits.parallelBlocks;
+  }
+
+  /**
+   * @return Returns the wall clock time a method could take, in milliseconds.
+   *         0 for no limit.
+   */
+  public long getMaxMillisPerMethod() {
+    return maxMillisPerMethod;
+  }
+
+  public void setMaxMillisPerMethod(long _maxMillisPerMethod) {
+    maxMillisPerMethod = _maxMillisPerMethod;
+  }
+
+  /**
+   * @return Returns the number of nodes (instructions evaluated, lines
+   *         inferred and blocks emitted) a method could take. 0 for no limit.
+   */
+  public int getMaxNodesPerMethod() {
+    return maxNodesPerMethod;
+  }
+
+  public void setMaxNodesPerMethod(int _maxNodesPerMethod) {
+    maxNodesPerMethod = _maxNodesPerMethod;
+  }
+
+  /**
+   * @return Returns the number of basic blocks from which on the instructions
+   *         of a method are evaluated in parallel. 0 to always evaluate in
+   *         sequence.
+   */
+  public int getParallelBlocks() {
+    return parallelBlocks;
+  }
+
+  public void setParallelBlocks(int _parallelBlocks) {
+    parallelBlocks = _parallelBlocks;
+  }
+
+  /**
+   * Parses the limits specified as <code>millis,nodes[,blocks]</code>.
+   * 
+   * @param spec
+   *          Comma separated limits. Any could be left empty to retain the
+   *          current value.
+   */
+  public void setLimits(String spec) {
+    final String[] values = spec.split(",");
+    try {
+      if (values.length > 0 && values[0].trim().length() > 0) {
+        setMaxMillisPerMethod(Long.parseLong(values[0].trim()));
+      }
+      if (values.length > 1 && values[1].trim().length() > 0) {
+        setMaxNodesPerMethod(Integer.parseInt(values[1].trim()));
+      }
+      if (values.length > 2 && values[2].trim().length() > 0) {
+        setParallelBlocks(Integer.parseInt(values[2].trim()));
+      }
+    } catch (NumberFormatException ex) {
+      throw new IllegalArgumentException("Invalid limits " + spec);
+    }
+  }
+
+  /**
+   * @return Returns a new budget for decompiling a method, the clock for which
+   *         starts now.
+   */
+  public MethodBudget newMethodBudget() {
+    return new MethodBudget(maxMillisPerMethod, maxNodesPerMethod);
+  }
+
+  public static final long DEFAULT_MAX_MILLIS_PER_METHOD = 10000;
+
+  public static final int DEFAULT_MAX_NODES_PER_METHOD = 500000;
+
+  public static final int DEFAULT_PARALLEL_BLOCKS = 1024;
+
+  private long maxMillisPerMethod;
+
+  private int maxNodesPerMethod;
+
+  private int parallelBlocks;
+
+}
@@ -21,10 +21,13 @@ import java.util.logging.Logger;
 
 import org.jreversepro.CustomLoggerFactory;
 import org.jreversepro.ast.block.Block;
-import org.jreversepro.ast.evaluator.EvaluatorContext;
 import org.jreversepro.ast.evaluator.RuntimeFrame;
+import org.jreversepro.ast.expression.CaughtException;
 import org.jreversepro.ast.intermediate.AbstractLineOfCode;
 import org.jreversepro.ast.intermediate.LineOfCodeList;
+import org.jreversepro.parser.instruction.InstructionHandler;
+import org.jreversepro.parser.instruction.InstructionListParserException;
+import org.jreversepro.parser.instruction.InstructionListParserFactory;
 import org.jreversepro.reflect.instruction.Instruction;
 import org.jreversepro.reflect.variabletable.VariableTable;
 
@@ -44,36 +47,54 @@ public class Decompiler {
   }
 
   public Block extractAST() {
-    EvaluatorContext evalInfo = evaluateInstructions();
-    // After evaluating all the instructions -
-    // the EvaluatorContext in RuntimeFrame
-    // would have consolidated the list of statements in the program/
-    // (ignoring all control flows).
-    // We are retrieving the same.
-    return inferBlocks(evalInfo.getStatements());
+    if (context.isParallelEvaluation()) {
+      // After evaluating all the instructions, the lines of code of the
+      // method (ignoring all control flows) are inferred into blocks.
+      return inferBlocks(new ParallelEvaluator(context).evaluate());
+    }
+    return streamBlocks();
   }
 
-  private Block inferBlocks(LineOfCodeList lines) {
+  Block inferBlocks(LineOfCodeList lines) {
     BlockInferrer ctx = new BlockInferrer(context);
-    int nextPc = 0;
-
+    context.budget.checkTime();
     for (AbstractLineOfCode line : lines.getAsList()) {
-      nextPc = line.feedToInferrer(ctx);
+      context.budget.charge();
+      line.feedToInferrer(ctx);
     }
 
     return ctx.getMainBlock();
   }
 
-  private EvaluatorContext evaluateInstructions() {
-    RuntimeFrame frame = new RuntimeFrame(context.constantPool, context.method
-        .getVariableTable());
-
-    for (Instruction ins : context.list.getAllInstructions()) {
-      frame.evaluateInstruction(ins);
+  /**
+   * Decodes, evaluates and infers the blocks in a single pass - every
+   * instruction is evaluated as it is decoded and every line of code is fed
+   * to the inferrer as it is completed, without collecting either.
+   * 
+   * @return Returns the block of the method.
+   */
+  private Block streamBlocks() {
+    BlockInferrer ctx = new BlockInferrer(context);
+    final RuntimeFrame frame = new RuntimeFrame(context.constantPool,
+        context.method.getVariableTable(), new InferringLineOfCodeList(ctx,
+            context.budget));
+    try {
+      InstructionListParserFactory.createInstructionListParser().parseBytes(
+          context.method.getBytes(), new InstructionHandler() {
+            public void handleInstruction(Instruction ins) {
+              context.budget.charge();
+              CaughtException exception = context
+                  .getCaughtException(ins.currentPc);
+              if (exception != null) {
+                frame.enterHandler(exception);
+              }
+              frame.evaluateInstruction(ins);
+            }
+          });
+    } catch (InstructionListParserException e) {
+      logger.severe(e.toString());
     }
-    return frame.getEvaluationContext();
-
+    return ctx.getMainBlock();
   }
 
-
 }
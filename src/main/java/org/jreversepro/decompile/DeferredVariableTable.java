@@ -0,0 +1,90 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.decompile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jreversepro.reflect.variabletable.VariableTable;
+
+/**
+ * Variable table that holds back the references recorded while a range of
+ * instructions is evaluated on its own, so that they could be applied to the
+ * table of the method in the order of the instructions later.
+ * <p>
+ * Names are looked up from the table of the method, which is complete by the
+ * time the code is emitted.
+ * 
+ * @author Karthik Kumar
+ */
+class DeferredVariableTable implements VariableTable {
+
+  /**
+   * @param _target
+   *          Variable table of the method.
+   */
+  DeferredVariableTable(VariableTable _target) {
+    target = _target;
+    variableIndices = new IntList();
+    types = new ArrayList<String>();
+    bytecodeIndices = new IntList();
+  }
+
+  public void recordLocalDatatypeReference(int localVariableIndex,
+      char jvmVariableType, int referredBytecodeIndex) {
+    recordLocalDatatypeReference(localVariableIndex, String
+        .valueOf(jvmVariableType), referredBytecodeIndex);
+  }
+
+  public void recordLocalDatatypeReference(int localVariableIndex,
+      String jvmVariableType, int referredBytecodeIndex) {
+    variableIndices.add(localVariableIndex);
+    types.add(jvmVariableType);
+    bytecodeIndices.add(referredBytecodeIndex);
+  }
+
+  public int getMaxVariables() {
+    return target.getMaxVariables();
+  }
+
+  public String getName(int aVarIndex, int aInsIndex) {
+    return target.getName(aVarIndex, aInsIndex);
+  }
+
+  /**
+   * Records the references held back to the variable table of the method.
+   */
+  void apply() {
+    for (int i = 0; i < types.size(); i++) {
+      target.recordLocalDatatypeReference(variableIndices.get(i), types
+          .get(i), bytecodeIndices.get(i));
+    }
+    variableIndices.clear();
+    types.clear();
+    bytecodeIndices.clear();
+  }
+
+  private final VariableTable target;
+
+  private final IntList variableIndices;
+
+  private final List<String> types;
+
+  private final IntList bytecodeIndices;
+
+}
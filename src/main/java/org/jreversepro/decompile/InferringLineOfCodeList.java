@@ -0,0 +1,63 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.decompile;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.jreversepro.ast.intermediate.AbstractLineOfCode;
+import org.jreversepro.ast.intermediate.LineOfCodeList;
+
+/**
+ * Lines of code that are fed to the block inferrer as soon as the evaluator
+ * completes them, in place of being collected.
+ * 
+ * @author Karthik Kumar
+ */
+class InferringLineOfCodeList extends LineOfCodeList {
+
+  /**
+   * @param _inferrer
+   *          Inferrer the lines are fed to.
+   * @param _budget
+   *          Budget charged for every line.
+   */
+  InferringLineOfCodeList(BlockInferrer _inferrer, MethodBudget _budget) {
+    inferrer = _inferrer;
+    budget = _budget;
+  }
+
+  @Override
+  public void append(AbstractLineOfCode ref) {
+    budget.charge();
+    ref.feedToInferrer(inferrer);
+  }
+
+  /**
+   * @return Returns an empty list, as the lines are not retained.
+   */
+  @Override
+  public List<AbstractLineOfCode> getAsList() {
+    return Collections.emptyList();
+  }
+
+  private final BlockInferrer inferrer;
+
+  private final MethodBudget budget;
+
+}
@@ -0,0 +1,80 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.decompile;
+
+/**
+ * Growable list of primitive ints, to hold pcs and indices without boxing
+ * them.
+ * 
+ * @author Karthik Kumar
+ */
+public class IntList {
+
+  public IntList() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param capacity
+   *          Initial capacity.
+   */
+  public IntList(int capacity) {
+    values = new int[Math.max(capacity, 1)];
+    size = 0;
+  }
+
+  public void add(int value) {
+    if (size == values.length) {
+      final int[] grown = new int[values.length * 2];
+      System.arraycopy(values, 0, grown, 0, size);
+      values = grown;
+    }
+    values[size++] = value;
+  }
+
+  public int get(int index) {
+    if (index >= size) {
+      throw new IndexOutOfBoundsException(index + " >= " + size);
+    }
+    return values[index];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * @return Returns a copy of the values, sized to fit.
+   */
+  public int[] toArray() {
+    final int[] result = new int[size];
+    System.arraycopy(values, 0, result, 0, size);
+    return result;
+  }
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private int[] values;
+
+  private int size;
+
+}
@@ -0,0 +1,109 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.decompile;
+
+/**
+ * Budget of a single method being decompiled. The phases of the decompiler
+ * charge it cooperatively, once per node they produce, and get a
+ * {@link BudgetExceededException} once it is exhausted.
+ * 
+ * @author Karthik Kumar
+ */
+public class MethodBudget {
+
+  /**
+   * @param maxMillis
+   *          Wall clock time allowed, 0 for no limit.
+   * @param _maxNodes
+   *          Nodes allowed, 0 for no limit.
+   */
+  MethodBudget(long maxMillis, int _maxNodes) {
+    maxNodes = _maxNodes;
+    timed = maxMillis > 0;
+    deadline = System.nanoTime() + maxMillis * 1000000L;
+    nodes = 0;
+  }
+
+  /**
+   * Charges the budget for a node.
+   * 
+   * @throws BudgetExceededException
+   *           Thrown if the budget is exhausted.
+   */
+  public void charge() {
+    charge(1);
+  }
+
+  /**
+   * Charges the budget for a number of nodes at once, say, for the
+   * instructions evaluated by another thread.
+   * 
+   * @param count
+   *          Number of nodes.
+   * @throws BudgetExceededException
+   *           Thrown if the budget is exhausted.
+   */
+  public void charge(int count) {
+    int before = nodes;
+    nodes += count;
+    if (maxNodes > 0 && nodes > maxNodes) {
+      throw new BudgetExceededException("More than " + maxNodes + " nodes");
+    }
+    // The clock is read once every so many nodes, as against on every one.
+    if (timed && (nodes & ~CLOCK_MASK) != (before & ~CLOCK_MASK)) {
+      checkTime();
+    }
+  }
+
+  /**
+   * Checks the time alone. Called between the phases of the decompiler.
+   * 
+   * @throws BudgetExceededException
+   *           Thrown if out of time.
+   */
+  public void checkTime() {
+    if (timed && System.nanoTime() - deadline > 0) {
+      throw new BudgetExceededException("Out of time after " + nodes
+          + " nodes");
+    }
+  }
+
+  public int getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Budget that is never exhausted.
+   */
+  public static final MethodBudget UNBOUNDED = new MethodBudget(0, 0) {
+    @Override
+    public void charge(int count) {
+    }
+  };
+
+  private static final int CLOCK_MASK = 0x3f;
+
+  private final int maxNodes;
+
+  private final boolean timed;
+
+  private final long deadline;
+
+  private int nodes;
+
+}
@@ -0,0 +1,244 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.decompile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.jreversepro.CustomLoggerFactory;
+import org.jreversepro.ast.evaluator.RuntimeFrame;
+import org.jreversepro.ast.expression.CaughtException;
+import org.jreversepro.ast.expression.Expression;
+import org.jreversepro.ast.intermediate.AbstractLineOfCode;
+import org.jreversepro.ast.intermediate.LineOfCodeList;
+import org.jreversepro.decompile.flow.ControlFlowGraph;
+import org.jreversepro.decompile.flow.StackShapes;
+import org.jreversepro.reflect.instruction.Instruction;
+
+/**
+ * Evaluates the instructions of a large method a range of basic blocks at a
+ * time, the ranges in parallel.
+ * <p>
+ * A range begins with a block that begins with an empty stack, or with an
+ * exception handler, that begins with the caught exception alone - so that
+ * the values flowing into the other blocks (say, the operands of a
+ * conditional expression) are still evaluated in sequence. Each handler,
+ * within a range or at its beginning, is entered with the exception it
+ * catches, the same as in a sequential evaluation. The lines of the ranges
+ * are joined in the order of the instructions, and the references to the
+ * local variables recorded in the same order, so that the result does not
+ * depend on the number of threads.
+ * 
+ * @author Karthik Kumar
+ */
+class ParallelEvaluator {
+
+  /**
+   * @param _context
+   *          Method being decompiled.
+   */
+  ParallelEvaluator(DecompilationContext _context) {
+    this(_context, MIN_RANGE_INSTRUCTIONS);
+  }
+
+  /**
+   * @param _context
+   *          Method being decompiled.
+   * @param _minRangeInstructions
+   *          Number of instructions below which a range is not split further.
+   */
+  ParallelEvaluator(DecompilationContext _context, int _minRangeInstructions) {
+    context = _context;
+    minRangeInstructions = _minRangeInstructions;
+    cfg = context.getControlFlowGraph();
+    shapes = context.getStackShapes();
+  }
+
+  /**
+   * @return Returns the lines of code of the method, in the order of the
+   *         instructions.
+   */
+  LineOfCodeList evaluate() {
+    List<int[]> ranges = split(THREADS * RANGES_PER_THREAD);
+    List<Future<LineOfCodeList>> results = new ArrayList<Future<LineOfCodeList>>(
+        ranges.size());
+    List<DeferredVariableTable> tables = new ArrayList<DeferredVariableTable>(
+        ranges.size());
+    try {
+      for (final int[] range : ranges) {
+        final DeferredVariableTable table = new DeferredVariableTable(
+            context.method.getVariableTable());
+        tables.add(table);
+        context.budget.charge(range[2]);
+        results.add(getExecutor().submit(new Callable<LineOfCodeList>() {
+          public LineOfCodeList call() {
+            return evaluateRange(range[0], range[1], table);
+          }
+        }));
+      }
+
+      LineOfCodeList lines = new LineOfCodeList();
+      for (int i = 0; i < results.size(); i++) {
+        for (AbstractLineOfCode line : await(results.get(i)).getAsList()) {
+          lines.append(line);
+        }
+        tables.get(i).apply();
+      }
+      return lines;
+    } finally {
+      for (Future<LineOfCodeList> result : results) {
+        result.cancel(true);
+      }
+    }
+  }
+
+  /**
+   * Splits the blocks into ranges of about the same number of instructions.
+   * 
+   * @param count
+   *          Number of ranges wanted.
+   * @return Returns the ranges as {first block, end block (exclusive),
+   *         instructions}.
+   */
+  private List<int[]> split(int count) {
+    int blocks = cfg.getBlockCount();
+    int total = context.getInstructionList().getAllInstructions().size();
+    int target = Math.max(total / count, minRangeInstructions);
+    List<int[]> ranges = new ArrayList<int[]>(count);
+    int first = 0;
+    int instructions = 0;
+    for (int b = 0; b < blocks; b++) {
+      if (b > first && instructions >= target && startsApart(b)) {
+        ranges.add(new int[] { first, b, instructions });
+        first = b;
+        instructions = 0;
+      }
+      instructions += cfg.getInstructions(b).length;
+    }
+    if (blocks > first) {
+      ranges.add(new int[] { first, blocks, instructions });
+    }
+    return ranges;
+  }
+
+  /**
+   * @return Returns true, if a range can begin with the block.
+   */
+  private boolean startsApart(int block) {
+    return shapes.getEntryDepth(block) == 0 || cfg.isHandler(block);
+  }
+
+  private LineOfCodeList evaluateRange(int first, int end,
+      DeferredVariableTable table) {
+    RuntimeFrame frame = new RuntimeFrame(context.constantPool, table);
+    frame.enterBlock(Collections.<Expression> emptyList(), (first == 0) ? 0
+        : cfg.getLastInstruction(first - 1).opcode);
+    for (int b = first; b < end; b++) {
+      CaughtException exception = context.getCaughtException(cfg
+          .getStartPc(b));
+      if (exception != null) {
+        frame.enterHandler(exception);
+      }
+      for (Instruction ins : cfg.getInstructions(b)) {
+        frame.evaluateInstruction(ins);
+      }
+    }
+    return frame.getEvaluationContext().getStatements();
+  }
+
+  /**
+   * Waits for the result of a range, checking the time of the method in the
+   * meanwhile.
+   */
+  private LineOfCodeList await(Future<LineOfCodeList> result) {
+    while (true) {
+      try {
+        return result.get(CLOCK_POLL_MILLIS, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException e) {
+        context.budget.checkTime();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new BudgetExceededException("Interrupted");
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new IllegalStateException(cause);
+      }
+    }
+  }
+
+  private static synchronized ExecutorService getExecutor() {
+    if (executor == null) {
+      executor = Executors.newFixedThreadPool(THREADS, new ThreadFactory() {
+        public Thread newThread(Runnable r) {
+          Thread thread = new Thread(r, "evaluator-"
+              + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+      logger.fine("Evaluating large methods on " + THREADS + " threads");
+    }
+    return executor;
+  }
+
+  /**
+   * @return Returns true, if there is more than a processor to evaluate on.
+   */
+  static boolean isAvailable() {
+    return THREADS > 1;
+  }
+
+  static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+  private static final int RANGES_PER_THREAD = 4;
+
+  private static final int MIN_RANGE_INSTRUCTIONS = 256;
+
+  private static final long CLOCK_POLL_MILLIS = 50;
+
+  private static ExecutorService executor;
+
+  private static final AtomicInteger threadCount = new AtomicInteger();
+
+  private static final Logger logger = CustomLoggerFactory.createLogger();
+
+  private final DecompilationContext context;
+
+  private final ControlFlowGraph cfg;
+
+  private final StackShapes shapes;
+
+  private final int minRangeInstructions;
+
+}
@@ -0,0 +1,552 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.decompile.flow;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+
+import org.jreversepro.decompile.IntList;
+import org.jreversepro.decompile.simulate.SwitchTable;
+import org.jreversepro.jvm.JVMInstructionSet;
+import org.jreversepro.jvm.Opcodes;
+import org.jreversepro.reflect.ExceptionList;
+import org.jreversepro.reflect.ExceptionRangeIndex;
+import org.jreversepro.reflect.ExceptionThrown;
+import org.jreversepro.reflect.instruction.Instruction;
+import org.jreversepro.reflect.instruction.InstructionList;
+
+/**
+ * Basic-block control-flow graph of a method.
+ * <p>
+ * Built once per method - a first pass over the instructions marks the
+ * leaders in a bitset (jump, switch and jsr targets, the instruction after a
+ * jump, the exception handlers and the bounds of the try blocks) and a second
+ * pass cuts the blocks and links them. Blocks are numbered in pc order and
+ * the edges are held in int arrays, so that the structuring phases can walk
+ * the graph instead of rescanning the instructions.
+ * <p>
+ * Successors include the edges to the exception handlers of the try blocks
+ * that a block belongs to. A block ending with a jsr flows into the
+ * subroutine and to the instruction after the jsr; a ret has no successors.
+ * 
+ * @author Karthik Kumar
+ */
+public class ControlFlowGraph implements Opcodes {
+
+  /**
+   * Builds the graph of the given instructions.
+   * 
+   * @param list
+   *          Instructions of the method.
+   * @param exceptions
+   *          Exception table of the method. Could be null.
+   * @return Returns the control-flow graph.
+   */
+  public static ControlFlowGraph build(InstructionList list,
+      ExceptionList exceptions) {
+    List<Instruction> insList = list.getAllInstructions();
+    List<ExceptionThrown> tryBlocks = (exceptions == null) ? null : exceptions
+        .getExceptions();
+    ExceptionRangeIndex tryIndex = (exceptions == null) ? null : exceptions
+        .getRangeIndex();
+    return new ControlFlowGraph(insList, tryBlocks, tryIndex);
+  }
+
+  /**
+   * Bounds the number of blocks of a method in a single pass over its
+   * bytecode, without decoding the instructions - so that a method too small
+   * to be worth a graph is ruled out for the price of a scan.
+   * 
+   * @param code
+   *          Bytecode of the method.
+   * @param exceptions
+   *          Exception table of the method. Could be null.
+   * @return Returns the number of leaders the method could have at most -
+   *         the first instruction, the targets of and the instruction after
+   *         every jump, and the bounds and handlers of the try blocks.
+   */
+  public static int countLeaders(byte[] code, ExceptionList exceptions) {
+    int leaders = (code.length > 0) ? 1 : 0;
+    boolean wide = false;
+    int pc = 0;
+    while (pc < code.length) {
+      int opcode = code[pc] & 0xff;
+      int nextPc;
+      if (opcode == OPCODE_TABLESWITCH) {
+        int index = pc + 4 - (pc % 4);
+        int cases = readInt(code, index + 8) - readInt(code, index + 4) + 1;
+        nextPc = index + 12 + 4 * cases;
+        leaders += cases + 2;
+      } else if (opcode == OPCODE_LOOKUPSWITCH) {
+        int index = pc + 4 - (pc % 4);
+        int cases = readInt(code, index + 4);
+        nextPc = index + 8 + 8 * cases;
+        leaders += cases + 2;
+      } else {
+        nextPc = pc + JVMInstructionSet.getOpcodeLength(opcode, wide);
+        if (isJump(opcode)) {
+          leaders += 2;
+        } else if (endsFlow(opcode)) {
+          leaders++;
+        }
+      }
+      wide = (opcode == OPCODE_WIDE);
+      pc = nextPc;
+    }
+    if (exceptions != null) {
+      for (ExceptionThrown exc : exceptions.getExceptions()) {
+        leaders += 2;
+        for (Enumeration<Map.Entry<Integer, String>> e = exc.getHandlers(); e
+            .hasMoreElements(); e.nextElement()) {
+          leaders++;
+        }
+      }
+    }
+    return leaders;
+  }
+
+  /**
+   * @return Returns the big-endian int at the index of the bytecode.
+   */
+  private static int readInt(byte[] code, int index) {
+    return ((code[index] & 0xff) << 24) | ((code[index + 1] & 0xff) << 16)
+        | ((code[index + 2] & 0xff) << 8) | (code[index + 3] & 0xff);
+  }
+
+  /**
+   * @return Returns true, if the opcode jumps to a single target.
+   */
+  private static boolean isJump(int opcode) {
+    return (opcode >= OPCODE_IFEQ && opcode <= OPCODE_JSR)
+        || opcode == OPCODE_IFNULL || opcode == OPCODE_IFNONNULL
+        || opcode == OPCODE_GOTOW || opcode == OPCODE_JSRW;
+  }
+
+  private ControlFlowGraph(List<Instruction> insList,
+      List<ExceptionThrown> tryBlocks, ExceptionRangeIndex tryIndex) {
+    instructions = insList.toArray(new Instruction[insList.size()]);
+    codeLength = (instructions.length == 0) ? 0
+        : instructions[instructions.length - 1].nextPc;
+
+    // Pass 1: the leaders.
+    BitSet leaders = new BitSet(codeLength + 1);
+    handlers = new BitSet();
+    if (instructions.length > 0) {
+      leaders.set(instructions[0].currentPc);
+    }
+    for (Instruction ins : instructions) {
+      int[] targets = jumpTargets(ins);
+      if (targets != null) {
+        for (int target : targets) {
+          leaders.set(target);
+        }
+        leaders.set(ins.nextPc);
+      } else if (endsFlow(ins.opcode)) {
+        leaders.set(ins.nextPc);
+      }
+    }
+    if (tryBlocks != null) {
+      for (ExceptionThrown exc : tryBlocks) {
+        leaders.set(exc.getStartPc());
+        leaders.set(exc.getEndPc());
+        for (Enumeration<Map.Entry<Integer, String>> e = exc.getHandlers(); e
+            .hasMoreElements();) {
+          int handlerPc = e.nextElement().getKey();
+          leaders.set(handlerPc);
+          handlers.set(handlerPc);
+        }
+      }
+    }
+
+    // Pass 2: the blocks, in pc order. Leaders off the instructions (say,
+    // the pc after the last return) begin no block.
+    int count = 0;
+    for (Instruction ins : instructions) {
+      if (leaders.get(ins.currentPc)) {
+        count++;
+      }
+    }
+    startPcs = new int[count];
+    endPcs = new int[count];
+    firstIns = new int[count];
+    int block = -1;
+    for (int i = 0; i < instructions.length; i++) {
+      if (leaders.get(instructions[i].currentPc)) {
+        block++;
+        startPcs[block] = instructions[i].currentPc;
+        firstIns[block] = i;
+      }
+      endPcs[block] = instructions[i].nextPc;
+    }
+
+    // Edges.
+    IntList[] out = new IntList[count];
+    int[] inCount = new int[count];
+    // Block the last edge into each block is from, to drop duplicate edges.
+    int[] lastFrom = new int[count];
+    Arrays.fill(lastFrom, -1);
+    int edges = 0;
+    for (int b = 0; b < count; b++) {
+      out[b] = new IntList(2);
+      Instruction last = instructions[lastInstructionIndex(b)];
+      int[] targets = jumpTargets(last);
+      if (targets != null) {
+        for (int target : targets) {
+          edges += link(b, out[b], inCount, lastFrom, blockAt(target));
+        }
+      }
+      if (!endsFlow(last.opcode) && last.nextPc < codeLength) {
+        edges += link(b, out[b], inCount, lastFrom, blockAt(last.nextPc));
+      }
+      if (tryIndex != null) {
+        // Try blocks begin and end at leaders, so that a block is in a try
+        // block if its start is.
+        for (ExceptionThrown exc : tryIndex.getTryBlocksCovering(startPcs[b])) {
+          for (Enumeration<Map.Entry<Integer, String>> e = exc.getHandlers(); e
+              .hasMoreElements();) {
+            edges += link(b, out[b], inCount, lastFrom, blockAt(e
+                .nextElement().getKey()));
+          }
+        }
+      }
+    }
+
+    successorStart = new int[count + 1];
+    successors = new int[edges];
+    predecessorStart = new int[count + 1];
+    predecessors = new int[edges];
+    for (int b = 0; b < count; b++) {
+      successorStart[b + 1] = successorStart[b] + out[b].size();
+      predecessorStart[b + 1] = predecessorStart[b] + inCount[b];
+    }
+    int[] fill = new int[count];
+    for (int b = 0; b < count; b++) {
+      for (int i = 0; i < out[b].size(); i++) {
+        int succ = out[b].get(i);
+        successors[successorStart[b] + i] = succ;
+        predecessors[predecessorStart[succ] + fill[succ]++] = b;
+      }
+    }
+  }
+
+  /**
+   * Adds an edge, unless present already (a switch with many cases to the
+   * same target). The edges out of a block are all added before those of the
+   * next, hence the edge is present if the last edge into the target is from
+   * the same block.
+   * 
+   * @return Returns 1, if the edge was added. 0, otherwise.
+   */
+  private static int link(int from, IntList out, int[] inCount,
+      int[] lastFrom, int to) {
+    if (to < 0 || lastFrom[to] == from) {
+      return 0;
+    }
+    lastFrom[to] = from;
+    out.add(to);
+    inCount[to]++;
+    return 1;
+  }
+
+  /**
+   * @param ins
+   *          Instruction.
+   * @return Returns the pcs the instruction jumps to, besides falling through.
+   *         Null, if the instruction does not jump.
+   */
+  static int[] jumpTargets(Instruction ins) {
+    switch (ins.opcode) {
+    case OPCODE_GOTO:
+    case OPCODE_JSR:
+    case OPCODE_IFEQ:
+    case OPCODE_IFNE:
+    case OPCODE_IFLT:
+    case OPCODE_IFGE:
+    case OPCODE_IFGT:
+    case OPCODE_IFLE:
+    case OPCODE_IF_ICMPEQ:
+    case OPCODE_IF_ICMPNE:
+    case OPCODE_IF_ICMPLT:
+    case OPCODE_IF_ICMPGE:
+    case OPCODE_IF_ICMPGT:
+    case OPCODE_IF_ICMPLE:
+    case OPCODE_IF_ACMPEQ:
+    case OPCODE_IF_ACMPNE:
+    case OPCODE_IFNULL:
+    case OPCODE_IFNONNULL:
+      return new int[] { ins.getTargetPc() };
+    case OPCODE_GOTOW:
+    case OPCODE_JSRW:
+      return new int[] { ins.currentPc + ins.getArgInt() };
+    case OPCODE_TABLESWITCH:
+    case OPCODE_LOOKUPSWITCH:
+      return SwitchTable.getTargets(ins);
+    default:
+      return null;
+    }
+  }
+
+  /**
+   * @param opcode
+   *          Opcode of an instruction.
+   * @return Returns true, if control never falls through to the next
+   *         instruction.
+   */
+  static boolean endsFlow(int opcode) {
+    switch (opcode) {
+    case OPCODE_GOTO:
+    case OPCODE_GOTOW:
+    case OPCODE_TABLESWITCH:
+    case OPCODE_LOOKUPSWITCH:
+    case OPCODE_RET:
+    case OPCODE_IRETURN:
+    case OPCODE_LRETURN:
+    case OPCODE_FRETURN:
+    case OPCODE_DRETURN:
+    case OPCODE_ARETURN:
+    case OPCODE_RETURN:
+    case OPCODE_ATHROW:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * @return Returns the number of basic blocks.
+   */
+  public int getBlockCount() {
+    return startPcs.length;
+  }
+
+  /**
+   * @param block
+   *          Index of the block.
+   * @return Returns the pc of the first instruction of the block.
+   */
+  public int getStartPc(int block) {
+    return startPcs[block];
+  }
+
+  /**
+   * @param block
+   *          Index of the block.
+   * @return Returns the pc past the last instruction of the block.
+   */
+  public int getEndPc(int block) {
+    return endPcs[block];
+  }
+
+  /**
+   * @param block
+   *          Index of the block.
+   * @return Returns the instructions of the block.
+   */
+  public Instruction[] getInstructions(int block) {
+    int first = firstIns[block];
+    int last = lastInstructionIndex(block);
+    Instruction[] result = new Instruction[last - first + 1];
+    System.arraycopy(instructions, first, result, 0, result.length);
+    return result;
+  }
+
+  /**
+   * @param block
+   *          Index of the block.
+   * @return Returns the last instruction of the block - the jump, if any.
+   */
+  public Instruction getLastInstruction(int block) {
+    return instructions[lastInstructionIndex(block)];
+  }
+
+  private int lastInstructionIndex(int block) {
+    return (block + 1 < firstIns.length) ? firstIns[block + 1] - 1
+        : instructions.length - 1;
+  }
+
+  /**
+   * @param pc
+   *          Pc of an instruction.
+   * @return Returns the index of the block containing the pc. -1, if the pc is
+   *         outside the code.
+   */
+  public int blockAt(int pc) {
+    if (pc < 0 || pc >= codeLength || startPcs.length == 0) {
+      return -1;
+    }
+    int low = 0;
+    int high = startPcs.length - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (startPcs[mid] <= pc) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * @param pc
+   *          Pc of an instruction.
+   * @return Returns true, if a block begins at the pc.
+   */
+  public boolean isLeader(int pc) {
+    int block = blockAt(pc);
+    return block != -1 && startPcs[block] == pc;
+  }
+
+  /**
+   * @param block
+   *          Index of the block.
+   * @return Returns true, if the block begins an exception handler.
+   */
+  public boolean isHandler(int block) {
+    return handlers.get(startPcs[block]);
+  }
+
+  /**
+   * @param block
+   *          Index of the block.
+   * @return Returns the indices of the successor blocks.
+   */
+  public int[] getSuccessors(int block) {
+    return slice(successors, successorStart[block], successorStart[block + 1]);
+  }
+
+  /**
+   * @param block
+   *          Index of the block.
+   * @return Returns the indices of the predecessor blocks, in block order.
+   */
+  public int[] getPredecessors(int block) {
+    return slice(predecessors, predecessorStart[block],
+        predecessorStart[block + 1]);
+  }
+
+  public int getSuccessorCount(int block) {
+    return successorStart[block + 1] - successorStart[block];
+  }
+
+  public int getPredecessorCount(int block) {
+    return predecessorStart[block + 1] - predecessorStart[block];
+  }
+
+  /**
+   * @param block
+   *          Index of the block.
+   * @param i
+   *          Index of the successor, below getSuccessorCount(block).
+   * @return Returns the index of the successor block, without copying the
+   *         edges.
+   */
+  public int getSuccessor(int block, int i) {
+    return successors[successorStart[block] + i];
+  }
+
+  /**
+   * @param block
+   *          Index of the block.
+   * @param i
+   *          Index of the predecessor, below getPredecessorCount(block).
+   * @return Returns the index of the predecessor block.
+   */
+  public int getPredecessor(int block, int i) {
+    return predecessors[predecessorStart[block] + i];
+  }
+
+  private static int[] slice(int[] edges, int from, int to) {
+    int[] result = new int[to - from];
+    System.arraycopy(edges, from, result, 0, result.length);
+    return result;
+  }
+
+  /**
+   * Finds the first goto at or after the start pc, below the end pc. Looks at
+   * the last instruction of the blocks alone, as a goto always ends one.
+   * 
+   * @param startPc
+   *          Pc to begin with.
+   * @param endPc
+   *          Pc to stop at, exclusive.
+   * @return Returns the goto instruction. Null, if none.
+   */
+  public Instruction findGoto(int startPc, int endPc) {
+    int block = blockAt(startPc);
+    if (block == -1) {
+      return null;
+    }
+    for (; block < startPcs.length && startPcs[block] < endPc; block++) {
+      Instruction last = getLastInstruction(block);
+      if (last.currentPc >= startPc && last.currentPc < endPc
+          && (last.opcode == OPCODE_GOTO || last.opcode == OPCODE_GOTOW)) {
+        return last;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (int b = 0; b < startPcs.length; b++) {
+      sb.append("B" + b + " [" + startPcs[b] + "," + endPcs[b] + ")");
+      if (isHandler(b)) {
+        sb.append(" handler");
+      }
+      sb.append(" ->");
+      for (int i = successorStart[b]; i < successorStart[b + 1]; i++) {
+        sb.append(" B" + successors[i]);
+      }
+      sb.append("\n");
+    }
+    return sb.toString();
+  }
+
+  private final Instruction[] instructions;
+
+  private final int codeLength;
+
+  private final BitSet handlers;
+
+  private final int[] startPcs;
+
+  private final int[] endPcs;
+
+  /**
+   * Index of the first instruction of every block.
+   */
+  private final int[] firstIns;
+
+  /**
+   * Successors of block b are successors[successorStart[b]] up to
+   * successors[successorStart[b + 1]].
+   */
+  private final int[] successorStart;
+
+  private final int[] successors;
+
+  private final int[] predecessorStart;
+
+  private final int[] predecessors;
+
+}
@@ -0,0 +1,283 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.decompile.flow;
+
+/**
+ * Dominator tree (or post-dominator tree) of the basic blocks of a method.
+ * <p>
+ * Computed with the iterative algorithm of Cooper, Harvey and Kennedy over a
+ * reverse postorder of the blocks, which converges in a couple of passes on
+ * reducible code. The tree is numbered by a depth-first walk, so that a
+ * dominance query is a comparison of two intervals.
+ * <p>
+ * Post-dominators are computed on the reversed graph, with a virtual exit
+ * joining the blocks that have no successors. Blocks that never reach an exit
+ * (an infinite loop) have no post-dominator.
+ * 
+ * @author Karthik Kumar
+ */
+public class Dominators {
+
+  /**
+   * @param cfg
+   *          Control-flow graph of the method.
+   * @return Returns the dominators of the blocks, rooted at the first block.
+   */
+  public static Dominators compute(ControlFlowGraph cfg) {
+    int count = cfg.getBlockCount();
+    int[][] forward = new int[count][];
+    int[][] backward = new int[count][];
+    for (int b = 0; b < count; b++) {
+      forward[b] = cfg.getSuccessors(b);
+      backward[b] = cfg.getPredecessors(b);
+    }
+    return new Dominators(forward, backward, 0, count);
+  }
+
+  /**
+   * @param cfg
+   *          Control-flow graph of the method.
+   * @return Returns the post-dominators of the blocks.
+   */
+  public static Dominators computePost(ControlFlowGraph cfg) {
+    int count = cfg.getBlockCount();
+    int exit = count;
+    int[][] forward = new int[count + 1][];
+    int[][] backward = new int[count + 1][];
+    int exits = 0;
+    for (int b = 0; b < count; b++) {
+      if (cfg.getSuccessorCount(b) == 0) {
+        exits++;
+      }
+    }
+    forward[exit] = new int[exits];
+    backward[exit] = new int[0];
+    for (int b = 0, e = 0; b < count; b++) {
+      forward[b] = cfg.getPredecessors(b);
+      if (cfg.getSuccessorCount(b) == 0) {
+        forward[exit][e++] = b;
+        backward[b] = new int[] { exit };
+      } else {
+        backward[b] = cfg.getSuccessors(b);
+      }
+    }
+    return new Dominators(forward, backward, exit, count);
+  }
+
+  /**
+   * @param forward
+   *          Edges to walk, by node.
+   * @param backward
+   *          Reversed edges, by node.
+   * @param root
+   *          Node to begin with.
+   * @param blocks
+   *          Number of real blocks. Nodes from here on are virtual.
+   */
+  private Dominators(int[][] forward, int[][] backward, int root, int blocks) {
+    int nodes = forward.length;
+    this.blocks = blocks;
+    this.root = root;
+    idom = new int[nodes];
+    if (nodes == 0) {
+      // A method without code.
+      enter = new int[0];
+      exit = new int[0];
+      return;
+    }
+
+    // Postorder of the nodes reachable from the root.
+    int[] postNumber = new int[nodes];
+    int[] order = new int[nodes];
+    int reached = postorder(forward, root, postNumber, order);
+
+    for (int i = 0; i < nodes; i++) {
+      idom[i] = -1;
+    }
+    idom[root] = root;
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      // Reverse postorder, skipping the root.
+      for (int i = reached - 2; i >= 0; i--) {
+        int node = order[i];
+        int newIdom = -1;
+        for (int pred : backward[node]) {
+          if (idom[pred] == -1) {
+            continue;
+          }
+          newIdom = (newIdom == -1) ? pred : intersect(pred, newIdom,
+              postNumber);
+        }
+        if (idom[node] != newIdom) {
+          idom[node] = newIdom;
+          changed = true;
+        }
+      }
+    }
+
+    numberTree(root, nodes);
+  }
+
+  /**
+   * Iterative depth-first walk, numbering the nodes in postorder.
+   * 
+   * @return Returns the number of nodes reached.
+   */
+  private static int postorder(int[][] forward, int root, int[] postNumber,
+      int[] order) {
+    int nodes = forward.length;
+    boolean[] visited = new boolean[nodes];
+    int[] stack = new int[nodes];
+    int[] nextEdge = new int[nodes];
+    int top = 0;
+    int count = 0;
+    stack[top++] = root;
+    visited[root] = true;
+    while (top > 0) {
+      int node = stack[top - 1];
+      if (nextEdge[node] < forward[node].length) {
+        int succ = forward[node][nextEdge[node]++];
+        if (!visited[succ]) {
+          visited[succ] = true;
+          stack[top++] = succ;
+        }
+      } else {
+        top--;
+        postNumber[node] = count;
+        order[count++] = node;
+      }
+    }
+    return count;
+  }
+
+  private int intersect(int b1, int b2, int[] postNumber) {
+    while (b1 != b2) {
+      while (postNumber[b1] < postNumber[b2]) {
+        b1 = idom[b1];
+      }
+      while (postNumber[b2] < postNumber[b1]) {
+        b2 = idom[b2];
+      }
+    }
+    return b1;
+  }
+
+  /**
+   * Numbers the dominator tree depth-first, for the interval test of
+   * dominates().
+   */
+  private void numberTree(int root, int nodes) {
+    // Children of the tree as linked lists over arrays.
+    int[] firstChild = new int[nodes];
+    int[] nextSibling = new int[nodes];
+    for (int i = 0; i < nodes; i++) {
+      firstChild[i] = -1;
+    }
+    for (int i = nodes - 1; i >= 0; i--) {
+      if (i != root && idom[i] != -1) {
+        nextSibling[i] = firstChild[idom[i]];
+        firstChild[idom[i]] = i;
+      }
+    }
+    enter = new int[nodes];
+    exit = new int[nodes];
+    for (int i = 0; i < nodes; i++) {
+      enter[i] = -1;
+    }
+    int[] stack = new int[nodes];
+    int[] child = new int[nodes];
+    int top = 0;
+    int clock = 0;
+    stack[top++] = root;
+    child[root] = firstChild[root];
+    enter[root] = clock++;
+    while (top > 0) {
+      int node = stack[top - 1];
+      int next = child[node];
+      if (next != -1) {
+        child[node] = nextSibling[next];
+        child[next] = firstChild[next];
+        enter[next] = clock++;
+        stack[top++] = next;
+      } else {
+        exit[node] = clock++;
+        top--;
+      }
+    }
+  }
+
+  /**
+   * @param block
+   *          Index of the block.
+   * @return Returns the immediate (post) dominator of the block. -1 for the
+   *         root, for a block that is not reached and, with post-dominators,
+   *         for a block that is post-dominated by the exit alone.
+   */
+  public int getImmediateDominator(int block) {
+    int dominator = idom[block];
+    if (block == root || dominator >= blocks) {
+      return -1;
+    }
+    return dominator;
+  }
+
+  /**
+   * @param dominator
+   *          Index of a block.
+   * @param block
+   *          Index of another block.
+   * @return Returns true, if every path from the root to the block passes
+   *         through the dominator. A block dominates itself.
+   */
+  public boolean dominates(int dominator, int block) {
+    if (enter[dominator] == -1 || enter[block] == -1) {
+      return false;
+    }
+    return enter[dominator] <= enter[block] && exit[block] <= exit[dominator];
+  }
+
+  /**
+   * @param block
+   *          Index of the block.
+   * @return Returns true, if the block is reached from the root.
+   */
+  public boolean isReachable(int block) {
+    return enter[block] != -1;
+  }
+
+  /**
+   * Immediate dominator by node. The root is its own dominator.
+   */
+  private final int[] idom;
+
+  private final int root;
+
+  /**
+   * Number of real blocks.
+   */
+  private final int blocks;
+
+  /**
+   * Depth-first entry and exit numbers of the nodes of the tree.
+   */
+  private int[] enter;
+
+  private int[] exit;
+
+}
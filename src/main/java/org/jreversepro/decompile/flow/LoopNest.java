@@ -0,0 +1,310 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.decompile.flow;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.jreversepro.decompile.IntList;
+import org.jreversepro.decompile.simulate.BranchConstants;
+
+/**
+ * Natural loops of a method and their nesting.
+ * <p>
+ * An edge from a block to one of its dominators is a back edge. The loop of a
+ * back edge is its header together with the blocks that reach the latch
+ * without passing through the header. Back edges to the same header make a
+ * single loop. Each block is a member of the innermost loop containing it.
+ * 
+ * @author Karthik Kumar
+ */
+public class LoopNest implements BranchConstants {
+
+  /**
+   * @param cfg
+   *          Control-flow graph of the method.
+   * @param dominators
+   *          Dominators of the blocks of the graph.
+   * @return Returns the loops of the method.
+   */
+  public static LoopNest compute(ControlFlowGraph cfg, Dominators dominators) {
+    return new LoopNest(cfg, dominators);
+  }
+
+  private LoopNest(ControlFlowGraph cfg, Dominators dominators) {
+    int count = cfg.getBlockCount();
+
+    // Back edges, grouped by header.
+    int[] loopOfHeader = new int[count];
+    for (int b = 0; b < count; b++) {
+      loopOfHeader[b] = -1;
+    }
+    List<Loop> found = new ArrayList<Loop>();
+    for (int b = 0; b < count; b++) {
+      for (int i = 0; i < cfg.getSuccessorCount(b); i++) {
+        int header = cfg.getSuccessor(b, i);
+        if (dominators.dominates(header, b)) {
+          if (loopOfHeader[header] == -1) {
+            loopOfHeader[header] = found.size();
+            found.add(new Loop(header, count));
+          }
+          found.get(loopOfHeader[header]).latches.add(b);
+        }
+      }
+    }
+
+    // Bodies - walk back from the latches up to the header.
+    int[] stack = new int[count];
+    for (Loop loop : found) {
+      loop.body.set(loop.header);
+      int top = 0;
+      for (int i = 0; i < loop.latches.size(); i++) {
+        int latch = loop.latches.get(i);
+        if (!loop.body.get(latch)) {
+          loop.body.set(latch);
+          stack[top++] = latch;
+        }
+      }
+      while (top > 0) {
+        int block = stack[--top];
+        for (int i = 0; i < cfg.getPredecessorCount(block); i++) {
+          int pred = cfg.getPredecessor(block, i);
+          if (!loop.body.get(pred) && dominators.isReachable(pred)) {
+            loop.body.set(pred);
+            stack[top++] = pred;
+          }
+        }
+      }
+      loop.size = loop.body.cardinality();
+    }
+
+    // Outermost loops first, so that the inner ones overwrite the blocks.
+    Collections.sort(found, new Comparator<Loop>() {
+      public int compare(Loop l1, Loop l2) {
+        if (l1.size != l2.size) {
+          return (l1.size > l2.size) ? -1 : 1;
+        }
+        return l1.header - l2.header;
+      }
+    });
+    int loops = found.size();
+    headers = new int[loops];
+    parents = new int[loops];
+    depths = new int[loops];
+    latches = new int[loops][];
+    bodies = new BitSet[loops];
+    types = new int[loops];
+    loopOf = new int[count];
+    for (int b = 0; b < count; b++) {
+      loopOf[b] = -1;
+    }
+    for (int l = 0; l < loops; l++) {
+      Loop loop = found.get(l);
+      headers[l] = loop.header;
+      latches[l] = loop.latches.toArray();
+      bodies[l] = loop.body;
+      parents[l] = loopOf[loop.header];
+      depths[l] = (parents[l] == -1) ? 1 : depths[parents[l]] + 1;
+      // A header that is a latch too tests the condition after the body.
+      types[l] = (exitsFrom(cfg, loop.header, loop.body) && !jumpsTo(cfg,
+          loop.header, loop.header)) ? TYPE_WHILE : TYPE_DO_WHILE;
+      for (int b = loop.body.nextSetBit(0); b >= 0; b = loop.body
+          .nextSetBit(b + 1)) {
+        loopOf[b] = l;
+      }
+    }
+  }
+
+  /**
+   * @return Returns true, if the block has a successor outside the body.
+   */
+  private static boolean exitsFrom(ControlFlowGraph cfg, int block,
+      BitSet body) {
+    for (int i = 0; i < cfg.getSuccessorCount(block); i++) {
+      if (!body.get(cfg.getSuccessor(block, i))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return Returns true, if the target is a successor of the block.
+   */
+  private static boolean jumpsTo(ControlFlowGraph cfg, int block, int target) {
+    for (int i = 0; i < cfg.getSuccessorCount(block); i++) {
+      if (cfg.getSuccessor(block, i) == target) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return Returns the number of loops. Loops are numbered outermost first.
+   */
+  public int getLoopCount() {
+    return headers.length;
+  }
+
+  /**
+   * @param loop
+   *          Index of the loop.
+   * @return Returns the header block of the loop - the target of its back
+   *         edges.
+   */
+  public int getHeader(int loop) {
+    return headers[loop];
+  }
+
+  /**
+   * @param loop
+   *          Index of the loop.
+   * @return Returns the blocks that jump back to the header.
+   */
+  public int[] getLatches(int loop) {
+    return latches[loop].clone();
+  }
+
+  /**
+   * @param loop
+   *          Index of the loop.
+   * @return Returns the blocks of the loop, in block order.
+   */
+  public int[] getBody(int loop) {
+    BitSet body = bodies[loop];
+    int[] result = new int[body.cardinality()];
+    for (int b = body.nextSetBit(0), i = 0; b >= 0; b = body
+        .nextSetBit(b + 1)) {
+      result[i++] = b;
+    }
+    return result;
+  }
+
+  /**
+   * @param loop
+   *          Index of the loop.
+   * @param block
+   *          Index of a block.
+   * @return Returns true, if the block belongs to the loop or to a loop nested
+   *         in it.
+   */
+  public boolean contains(int loop, int block) {
+    return bodies[loop].get(block);
+  }
+
+  /**
+   * @param loop
+   *          Index of the loop.
+   * @return Returns the innermost loop enclosing this loop. -1, if none.
+   */
+  public int getParent(int loop) {
+    return parents[loop];
+  }
+
+  /**
+   * @param loop
+   *          Index of the loop.
+   * @return Returns the nesting depth of the loop, 1 for an outermost loop.
+   */
+  public int getDepth(int loop) {
+    return depths[loop];
+  }
+
+  /**
+   * @param loop
+   *          Index of the loop.
+   * @return Returns TYPE_WHILE, if the loop is left from its header before
+   *         the body (the condition is tested first) and TYPE_DO_WHILE
+   *         otherwise.
+   */
+  public int getType(int loop) {
+    return types[loop];
+  }
+
+  /**
+   * @param block
+   *          Index of a block.
+   * @return Returns the innermost loop containing the block. -1, if none.
+   */
+  public int getLoopOf(int block) {
+    return loopOf[block];
+  }
+
+  /**
+   * @param block
+   *          Index of a block.
+   * @return Returns the number of loops enclosing the block.
+   */
+  public int getLoopDepth(int block) {
+    int loop = loopOf[block];
+    return (loop == -1) ? 0 : depths[loop];
+  }
+
+  /**
+   * @param block
+   *          Index of a block.
+   * @return Returns the loop headed by the block. -1, if the block heads no
+   *         loop.
+   */
+  public int getLoopHeadedBy(int block) {
+    int loop = loopOf[block];
+    return (loop != -1 && headers[loop] == block) ? loop : -1;
+  }
+
+  /**
+   * A loop while being collected.
+   */
+  private static class Loop {
+
+    Loop(int _header, int blocks) {
+      header = _header;
+      latches = new IntList(1);
+      body = new BitSet(blocks);
+    }
+
+    final int header;
+
+    final IntList latches;
+
+    final BitSet body;
+
+    int size;
+  }
+
+  private final int[] headers;
+
+  private final int[] parents;
+
+  private final int[] depths;
+
+  private final int[][] latches;
+
+  private final BitSet[] bodies;
+
+  private final int[] types;
+
+  /**
+   * Innermost loop by block.
+   */
+  private final int[] loopOf;
+
+}
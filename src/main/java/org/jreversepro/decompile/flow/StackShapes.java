@@ -0,0 +1,348 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.decompile.flow;
+
+import java.util.List;
+
+import org.jreversepro.jvm.JVMConstants;
+import org.jreversepro.jvm.Opcodes;
+import org.jreversepro.jvm.TypeInferrer;
+import org.jreversepro.reflect.ConstantPool;
+import org.jreversepro.reflect.instruction.Instruction;
+
+/**
+ * Shapes of the operand stack on entry to every basic block.
+ * <p>
+ * A cheap pre-pass over the control-flow graph that tracks just the kind of
+ * every value on the stack - one of I, J, F, D or A - without building any
+ * expressions. The shape is a string with a character per value, bottom of
+ * the stack first. The entry of an exception handler holds the exception
+ * alone.
+ * <p>
+ * If the flow into a block disagrees on the depth of the stack, or the method
+ * has an instruction that the pre-pass does not know, the shapes are
+ * unknown.
+ * 
+ * @author Karthik Kumar
+ */
+public class StackShapes implements Opcodes, JVMConstants {
+
+  /**
+   * @param cfg
+   *          Control-flow graph of the method.
+   * @param pool
+   *          Constant pool of the class, for the types of the fields, the
+   *          methods and the constants referred to.
+   * @return Returns the stack shapes of the blocks of the method.
+   */
+  public static StackShapes compute(ControlFlowGraph cfg, ConstantPool pool) {
+    return new StackShapes(cfg, pool);
+  }
+
+  private StackShapes(ControlFlowGraph cfg, ConstantPool pool) {
+    this.pool = pool;
+    int count = cfg.getBlockCount();
+    entries = new String[count];
+    if (count == 0) {
+      known = true;
+      return;
+    }
+    int[] worklist = new int[count];
+    boolean[] queued = new boolean[count];
+    int size = 0;
+    for (int b = 0; b < count; b++) {
+      if (b == 0 || cfg.isHandler(b)) {
+        entries[b] = (b == 0) ? "" : String.valueOf(JVM_TYPE_REFERENCE);
+        worklist[size++] = b;
+        queued[b] = true;
+      }
+    }
+    boolean consistent = true;
+    StringBuilder stack = new StringBuilder();
+    while (size > 0 && consistent) {
+      int block = worklist[--size];
+      queued[block] = false;
+      stack.setLength(0);
+      stack.append(entries[block]);
+      Instruction last = null;
+      for (Instruction ins : cfg.getInstructions(block)) {
+        if (!simulate(ins, stack)) {
+          consistent = false;
+          break;
+        }
+        last = ins;
+      }
+      if (!consistent) {
+        break;
+      }
+      String exit = stack.toString();
+      boolean jsr = last.opcode == OPCODE_JSR || last.opcode == OPCODE_JSRW;
+      for (int i = 0; i < cfg.getSuccessorCount(block); i++) {
+        int succ = cfg.getSuccessor(block, i);
+        if (cfg.isHandler(succ)) {
+          continue;
+        }
+        String shape = exit;
+        if (jsr && cfg.getStartPc(succ) != last.nextPc) {
+          // The subroutine is entered with the return address.
+          shape = exit + JVM_TYPE_REFERENCE;
+        }
+        if (entries[succ] == null) {
+          entries[succ] = shape;
+          if (!queued[succ]) {
+            worklist[size++] = succ;
+            queued[succ] = true;
+          }
+        } else if (entries[succ].length() != shape.length()) {
+          consistent = false;
+          break;
+        }
+      }
+    }
+    known = consistent;
+  }
+
+  /**
+   * Applies the effect of an instruction on the stack.
+   * 
+   * @return Returns false, if the effect is not known or the stack
+   *         underflows.
+   */
+  private boolean simulate(Instruction ins, StringBuilder stack) {
+    int op = ins.opcode;
+    if (op == OPCODE_NOP || op == OPCODE_IINC || op == OPCODE_WIDE
+        || op == OPCODE_GOTO || op == OPCODE_GOTOW || op == OPCODE_RET
+        || op == OPCODE_RETURN || op == OPCODE_JSR || op == OPCODE_JSRW) {
+      return true;
+    } else if (op == OPCODE_ACONST_NULL) {
+      return push(stack, JVM_TYPE_REFERENCE);
+    } else if (op >= OPCODE_ICONST_M1 && op <= OPCODE_ICONST_5
+        || op == OPCODE_BIPUSH || op == OPCODE_SIPUSH) {
+      return push(stack, JVM_TYPE_INT);
+    } else if (op == OPCODE_LCONST_0 || op == OPCODE_LCONST_1) {
+      return push(stack, JVM_TYPE_LONG);
+    } else if (op >= OPCODE_FCONST_0 && op <= OPCODE_FCONST_2) {
+      return push(stack, JVM_TYPE_FLOAT);
+    } else if (op == OPCODE_DCONST_0 || op == OPCODE_DCONST_1) {
+      return push(stack, JVM_TYPE_DOUBLE);
+    } else if (op == OPCODE_LDC || op == OPCODE_LDC_W || op == OPCODE_LDC2_W) {
+      int index = (op == OPCODE_LDC) ? ins.getArgUnsignedByte() : ins
+          .getArgUnsignedShort();
+      return push(stack, constantKind(pool.getTagByte(index)));
+    } else if (op >= OPCODE_ILOAD && op <= OPCODE_ALOAD) {
+      return push(stack, KINDS.charAt(op - OPCODE_ILOAD));
+    } else if (op >= OPCODE_ILOAD_0 && op <= OPCODE_ALOAD_3) {
+      return push(stack, KINDS.charAt((op - OPCODE_ILOAD_0) / 4));
+    } else if (op >= OPCODE_IALOAD && op <= OPCODE_SALOAD) {
+      return pop(stack, 2)
+          && push(stack, ARRAY_KINDS.charAt(op - OPCODE_IALOAD));
+    } else if (op >= OPCODE_ISTORE && op <= OPCODE_ASTORE_3) {
+      return pop(stack, 1);
+    } else if (op >= OPCODE_IASTORE && op <= OPCODE_SASTORE) {
+      return pop(stack, 3);
+    } else if (op == OPCODE_POP) {
+      return pop(stack, 1);
+    } else if (op == OPCODE_POP2) {
+      return pop(stack, values(stack, 0, 2));
+    } else if (op >= OPCODE_DUP && op <= OPCODE_DUP2_X2) {
+      // dup, dup_x1, dup_x2, dup2, dup2_x1, dup2_x2 - copy the top 1 or 2
+      // slots, under 0, 1 or 2 more slots.
+      int form = op - OPCODE_DUP;
+      int copied = values(stack, 0, (form < 3) ? 1 : 2);
+      int skipped = (copied < 0) ? -1 : values(stack, copied, form % 3);
+      if (copied < 0 || skipped < 0) {
+        return false;
+      }
+      int at = stack.length() - copied - skipped;
+      stack.insert(at, stack.substring(stack.length() - copied));
+      return true;
+    } else if (op == OPCODE_SWAP) {
+      if (stack.length() < 2) {
+        return false;
+      }
+      int top = stack.length() - 1;
+      char value = stack.charAt(top);
+      stack.setCharAt(top, stack.charAt(top - 1));
+      stack.setCharAt(top - 1, value);
+      return true;
+    } else if (op >= OPCODE_IADD && op <= OPCODE_DREM) {
+      return pop(stack, 2) && push(stack, KINDS.charAt((op - OPCODE_IADD) % 4));
+    } else if (op >= OPCODE_INEG && op <= OPCODE_DNEG) {
+      return pop(stack, 1) && push(stack, KINDS.charAt(op - OPCODE_INEG));
+    } else if (op >= OPCODE_ISHL && op <= OPCODE_LXOR) {
+      return pop(stack, 2)
+          && push(stack, ((op - OPCODE_ISHL) % 2 == 0) ? JVM_TYPE_INT
+              : JVM_TYPE_LONG);
+    } else if (op >= OPCODE_I2L && op <= OPCODE_I2S) {
+      return pop(stack, 1)
+          && push(stack, CONVERSION_KINDS.charAt(op - OPCODE_I2L));
+    } else if (op >= OPCODE_LCMP && op <= OPCODE_DCMPG) {
+      return pop(stack, 2) && push(stack, JVM_TYPE_INT);
+    } else if (op >= OPCODE_IFEQ && op <= OPCODE_IFLE || op == OPCODE_IFNULL
+        || op == OPCODE_IFNONNULL || op == OPCODE_TABLESWITCH
+        || op == OPCODE_LOOKUPSWITCH || op == OPCODE_ATHROW
+        || op == OPCODE_MONITORENTER || op == OPCODE_MONITOREXIT
+        || op == OPCODE_PUTSTATIC
+        || (op >= OPCODE_IRETURN && op <= OPCODE_ARETURN)) {
+      return pop(stack, 1);
+    } else if (op >= OPCODE_IF_ICMPEQ && op <= OPCODE_IF_ACMPNE
+        || op == OPCODE_PUTFIELD) {
+      return pop(stack, 2);
+    } else if (op == OPCODE_GETSTATIC || op == OPCODE_GETFIELD) {
+      String type = pool.getFieldType(pool.getPtr2(ins.getArgUnsignedShort()));
+      return pop(stack, (op == OPCODE_GETFIELD) ? 1 : 0)
+          && push(stack, kindOf(type));
+    } else if (op >= OPCODE_INVOKEVIRTUAL && op <= OPCODE_INVOKEINTERFACE) {
+      int nameIndex = pool.getPtr2(ins.getArgUnsignedShort());
+      String signature = pool.getEntryValue(pool.getPtr2(nameIndex));
+      List<String> args = TypeInferrer.getArguments(signature);
+      String returnType = TypeInferrer.getReturnType(signature);
+      int popped = args.size() + ((op == OPCODE_INVOKESTATIC) ? 0 : 1);
+      return pop(stack, popped)
+          && (returnType.equals(String.valueOf(JVM_TYPE_VOID)) || push(stack,
+              kindOf(returnType)));
+    } else if (op == OPCODE_NEW) {
+      return push(stack, JVM_TYPE_REFERENCE);
+    } else if (op == OPCODE_NEWARRAY || op == OPCODE_ANEWARRAY
+        || op == OPCODE_CHECKCAST) {
+      return pop(stack, 1) && push(stack, JVM_TYPE_REFERENCE);
+    } else if (op == OPCODE_ARRAYLENGTH || op == OPCODE_INSTANCEOF) {
+      return pop(stack, 1) && push(stack, JVM_TYPE_INT);
+    } else if (op == OPCODE_MULTIANEWARRAY) {
+      return pop(stack, ins.getArgUnsignedByte(2))
+          && push(stack, JVM_TYPE_REFERENCE);
+    }
+    return false;
+  }
+
+  private static boolean push(StringBuilder stack, char kind) {
+    stack.append(kind);
+    return true;
+  }
+
+  private static boolean pop(StringBuilder stack, int count) {
+    if (count < 0 || count > stack.length()) {
+      return false;
+    }
+    stack.setLength(stack.length() - count);
+    return true;
+  }
+
+  /**
+   * @param stack
+   *          Stack shape.
+   * @param skip
+   *          Number of values from the top to skip.
+   * @param slots
+   *          Number of slots (long and double take two) to count.
+   * @return Returns the number of values that make up the slots. -1, if the
+   *         slots split a long / double or the stack underflows.
+   */
+  private static int values(StringBuilder stack, int skip, int slots) {
+    int count = 0;
+    int index = stack.length() - 1 - skip;
+    while (slots > 0) {
+      if (index < 0) {
+        return -1;
+      }
+      char kind = stack.charAt(index--);
+      slots -= (kind == JVM_TYPE_LONG || kind == JVM_TYPE_DOUBLE) ? 2 : 1;
+      count++;
+    }
+    return (slots == 0) ? count : -1;
+  }
+
+  private static char constantKind(int tag) {
+    switch (tag) {
+    case ConstantPool.TAG_INTEGER:
+      return JVM_TYPE_INT;
+    case ConstantPool.TAG_FLOAT:
+      return JVM_TYPE_FLOAT;
+    case ConstantPool.TAG_LONG:
+      return JVM_TYPE_LONG;
+    case ConstantPool.TAG_DOUBLE:
+      return JVM_TYPE_DOUBLE;
+    default:
+      return JVM_TYPE_REFERENCE;
+    }
+  }
+
+  /**
+   * @param jvmType
+   *          Type in the JVM notation.
+   * @return Returns the kind of value of the type on the stack.
+   */
+  static char kindOf(String jvmType) {
+    switch (jvmType.charAt(0)) {
+    case JVM_TYPE_LONG:
+    case JVM_TYPE_FLOAT:
+    case JVM_TYPE_DOUBLE:
+      return jvmType.charAt(0);
+    case JVM_TYPE_CLASS:
+    case JVM_TYPE_ARRAY:
+      return JVM_TYPE_REFERENCE;
+    default:
+      return (jvmType.length() > 1) ? JVM_TYPE_REFERENCE : JVM_TYPE_INT;
+    }
+  }
+
+  /**
+   * @return Returns true, if the shapes of all the blocks are known.
+   */
+  public boolean isKnown() {
+    return known;
+  }
+
+  /**
+   * @param block
+   *          Index of the block.
+   * @return Returns the shape of the stack on entry to the block. Null, if
+   *         the block is never reached.
+   */
+  public String getEntryShape(int block) {
+    return entries[block];
+  }
+
+  /**
+   * @param block
+   *          Index of the block.
+   * @return Returns the number of values on the stack on entry to the block.
+   */
+  public int getEntryDepth(int block) {
+    return (entries[block] == null) ? 0 : entries[block].length();
+  }
+
+  /**
+   * Kinds of the loads, in the order of the opcodes.
+   */
+  private static final String KINDS = "IJFDA";
+
+  private static final String ARRAY_KINDS = "IJFDAIII";
+
+  /**
+   * Result kinds of the conversions i2l through i2s.
+   */
+  private static final String CONVERSION_KINDS = "JFDIFDIJDIJFIII";
+
+  private final ConstantPool pool;
+
+  private final String[] entries;
+
+  private final boolean known;
+
+}
@@ -23,6 +23,9 @@ package org.jreversepro.decompile.simulate;
 import org.jreversepro.reflect.Method;
 
 /**
+ * A branch (or block) of code, spanning from the pc where it starts executing
+ * till the pc where the block ends.
+ * 
  * @author Karthik Kumar
  */
 public class BranchEntry implements BranchConstants {
@@ -31,39 +34,84 @@ public class BranchEntry implements BranchConstants {
   public String opr2;
   public String operator;
 
-  public BranchEntry(Method method, int startPc, int startPc2, int retPc,
-      int typeJsr, String string, String string2, String string3) {
-    // TODO Auto-generated constructor stub
+  /**
+   * @param _method
+   *          Method the branch belongs to.
+   * @param _startPc
+   *          Pc of the instruction that begins the branch.
+   * @param _startExecPc
+   *          Pc from which the block executes.
+   * @param _endBlockPc
+   *          Pc at which the block ends (exclusive).
+   * @param _type
+   *          Type of the branch, one of the TYPE_* constants.
+   * @param _opr1
+   *          First operand of the branch condition.
+   * @param _opr2
+   *          Second operand of the branch condition.
+   * @param _operator
+   *          Operator of the branch condition.
+   */
+  public BranchEntry(Method _method, int _startPc, int _startExecPc,
+      int _endBlockPc, int _type, String _opr1, String _opr2, String _operator) {
+    method = _method;
+    startPc = _startPc;
+    startExecPc = _startExecPc;
+    endBlockPc = _endBlockPc;
+    type = _type;
+    opr1 = _opr1;
+    opr2 = _opr2;
+    operator = _operator;
   }
 
   public int getStartExecPc() {
-    // TODO Auto-generated method stub
-    return 0;
+    return startExecPc;
   }
 
   public int getEndBlockPc() {
-    // TODO Auto-generated method stub
-    return 0;
+    return endBlockPc;
   }
 
   public int getType() {
-    // TODO Auto-generated method stub
-    return 0;
+    return type;
   }
 
   public boolean doesStartWith(int insIndex) {
-    // TODO Auto-generated method stub
-    return false;
+    return startPc == insIndex;
   }
 
   public int getStartPc() {
-    // TODO Auto-generated method stub
-    return 0;
+    return startPc;
   }
 
-  public void setType(int typeElseIf) {
-    // TODO Auto-generated method stub
+  public void setType(int _type) {
+    type = _type;
+  }
 
+  /**
+   * @param pc
+   *          Pc of an instruction.
+   * @return Returns true, if the instruction is within the block of this
+   *         branch.
+   */
+  public boolean encloses(int pc) {
+    return startExecPc <= pc && pc < endBlockPc;
   }
 
+  @Override
+  public String toString() {
+    return startPc + " " + startExecPc + " " + endBlockPc + " type " + type
+        + " " + opr1 + " " + operator + " " + opr2;
+  }
+
+  private final Method method;
+
+  private final int startPc;
+
+  private final int startExecPc;
+
+  private final int endBlockPc;
+
+  private int type;
+
 }
@@ -16,25 +16,37 @@
  * limitations under the License. 
  **/
 
+
 package org.jreversepro.decompile.simulate;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Vector;
 import java.util.logging.Logger;
 
 import org.jreversepro.CustomLoggerFactory;
+import org.jreversepro.decompile.IntList;
 import org.jreversepro.jvm.Opcodes;
-import org.jreversepro.reflect.Method;
 import org.jreversepro.reflect.ExceptionThrown;
+import org.jreversepro.reflect.Method;
 import org.jreversepro.reflect.instruction.Instruction;
+import org.jreversepro.reflect.instruction.InstructionList;
 
 
 /**
  * BranchTable manages the objects of GotoEntry and BranchEntry.
+ * <p>
+ * The gotos and the branches are indexed on sorted primitive arrays, built
+ * lazily on the first query after a change. Lookups by pc - the target of a
+ * goto, whether a pc is the target of any goto, the branches starting at a
+ * pc and the blocks enclosing a pc - are binary searches, as against scans
+ * of all the entries.
  * 
  * @author Karthik Kumar
  */
@@ -47,12 +59,90 @@ public class BranchTable implements BranchConstants, Opcodes {
   public BranchTable(Method method) {
     mJSRTarget = new Vector<Integer>();
     mMonitor = new HashMap<Integer, String>();
-    branches = new Vector<BranchEntry>();
-    switches = new Vector<Instruction>();
-    gotos = new HashMap<Integer, Integer>();
+    branches = new ArrayList<BranchEntry>();
+    switches = new ArrayList<Instruction>();
+    gotoPcs = new IntList();
+    gotoTargets = new IntList();
+    branchTargets = new IntList();
     this.method = method;
   }
 
+  /**
+   * Collects the gotos, conditional branches, subroutines and try blocks of
+   * the method and identifies the else / while branches among them.
+   * 
+   * @param method
+   *          Method reference.
+   * @param list
+   *          Instructions of the method.
+   * @return Returns the branch table of the method.
+   */
+  public static BranchTable build(Method method, InstructionList list) {
+    BranchTable table = new BranchTable(method);
+    for (Instruction ins : list.getAllInstructions()) {
+      switch (ins.opcode) {
+      case OPCODE_GOTO:
+        table.addGotoEntry(ins.currentPc, ins.getTargetPc());
+        break;
+      case OPCODE_GOTOW:
+        table.addGotoEntry(ins.currentPc, ins.currentPc + ins.getArgInt());
+        break;
+      case OPCODE_JSR:
+        table.addJSRPc(ins.getTargetPc());
+        break;
+      case OPCODE_JSRW:
+        table.addJSRPc(ins.currentPc + ins.getArgInt());
+        break;
+      case OPCODE_RET:
+        if (!table.mJSRTarget.isEmpty()) {
+          table.addRetPc(ins.currentPc);
+        }
+        break;
+      case OPCODE_MONITORENTER:
+        table.addMonitorPc(ins.currentPc, "");
+        break;
+      case OPCODE_TABLESWITCH:
+      case OPCODE_LOOKUPSWITCH:
+        table.switches.add(ins);
+        break;
+      case OPCODE_IFEQ:
+      case OPCODE_IFNE:
+      case OPCODE_IFLT:
+      case OPCODE_IFGE:
+      case OPCODE_IFGT:
+      case OPCODE_IFLE:
+      case OPCODE_IF_ICMPEQ:
+      case OPCODE_IF_ICMPNE:
+      case OPCODE_IF_ICMPLT:
+      case OPCODE_IF_ICMPGE:
+      case OPCODE_IF_ICMPGT:
+      case OPCODE_IF_ICMPLE:
+      case OPCODE_IF_ACMPEQ:
+      case OPCODE_IF_ACMPNE:
+      case OPCODE_IFNULL:
+      case OPCODE_IFNONNULL:
+        int targetPc = ins.getTargetPc();
+        table.branchTargets.add(targetPc);
+        if (targetPc > ins.currentPc) {
+          table.add(new BranchEntry(method, ins.currentPc, ins.nextPc,
+              targetPc, TYPE_IF, "", "", ""));
+        } else {
+          // Jumping back - the condition of a loop.
+          table.add(new BranchEntry(method, targetPc, targetPc, ins.nextPc,
+              TYPE_DO_WHILE, "", "", ""));
+        }
+        break;
+      }
+    }
+    for (Instruction ins : table.switches) {
+      table.addSwitch(new SwitchTable(method, ins, table));
+    }
+    table.addTryBlocks(method.getExceptionBlocks().getExceptions());
+    table.sort();
+    table.identifyMoreBranches();
+    return table;
+  }
+
   /**
    * Setter method for the branch tables.
    * 
@@ -61,15 +151,22 @@ public class BranchTable implements BranchConstants, Opcodes {
    */
   public void setTables(List<BranchEntry> aBranches) {
     branches.addAll(aBranches);
+    branchIndex = null;
   }
 
   /**
    * Getter method for goto tables.
    * 
    * @return Map of goto table entries. key - goto pc. value - target of that
-   *         goto table.
+   *         goto table. The map is a copy, ordered by the pc of the gotos.
    */
   public Map<Integer, Integer> getGotoTable() {
+    GotoIndex index = getGotoIndex();
+    Map<Integer, Integer> gotos = new LinkedHashMap<Integer, Integer>();
+    for (int i = 0; i < index.pcs.length; i++) {
+      gotos.put(Integer.valueOf(index.pcs[i]), Integer
+          .valueOf(index.targets[i]));
+    }
     return gotos;
   }
 
@@ -82,11 +179,11 @@ public class BranchTable implements BranchConstants, Opcodes {
    *          TargetPc of the goto statement.
    */
   public void addGotoEntry(int startPc, int targetPc) {
-    gotos.put(Integer.valueOf(startPc), Integer.valueOf(targetPc));
+    gotoPcs.add(startPc);
+    gotoTargets.add(targetPc);
+    gotoIndex = null;
   }
 
-
-
   /**
    * Adds a new branch entry to the list of branches.
    * 
@@ -95,6 +192,7 @@ public class BranchTable implements BranchConstants, Opcodes {
    */
   public void add(BranchEntry ent) {
     branches.add(ent);
+    branchIndex = null;
   }
 
   /**
@@ -134,8 +232,7 @@ public class BranchTable implements BranchConstants, Opcodes {
    */
   public void addRetPc(int retPc) {
     int startPc = mJSRTarget.lastElement().intValue();
-    branches.add(new BranchEntry(method, startPc, startPc, retPc, TYPE_JSR, "",
-        "", ""));
+    add(new BranchEntry(method, startPc, startPc, retPc, TYPE_JSR, "", "", ""));
   }
 
   /**
@@ -144,6 +241,7 @@ public class BranchTable implements BranchConstants, Opcodes {
    */
   public void sort() {
     Collections.sort(branches, new BranchComparator());
+    branchIndex = null;
   }
 
   /**
@@ -172,34 +270,33 @@ public class BranchTable implements BranchConstants, Opcodes {
 
   /**
    * Identifies the else..if and else branches. Identifies catch.. branches.
-   * 
-   * @throws RevEngineException
-   *           Thrown in case of any error.
    */
   public void identifyMoreBranches() {
-
+    // The else branches found are added once done, so that the index built
+    // for the lookups below stays valid all through.
+    List<BranchEntry> elses = new ArrayList<BranchEntry>();
     for (BranchEntry jbe : branches) {
       int gotoStartPc = jbe.getEndBlockPc() - 3;
       int gotoNextPc = gotoStartPc + 3;
-      Integer obj = gotos.get( Integer.valueOf(gotoStartPc));
+      int gotoTargetPc = findGotoTarget(gotoStartPc);
       switch (jbe.getType()) {
       case TYPE_IF:
       case TYPE_ELSE_IF:
-        if (obj != null) {
+        if (gotoTargetPc != -1) {
           // Before adding else, check for else if.
-          int gotoTargetPc = obj.intValue();
           if (gotoTargetPc - gotoStartPc == 3) {
             break;
           }
-          BranchEntry elsif = contains(startsWith(gotoNextPc), TYPE_IF);
+          List<BranchEntry> next = startsWith(gotoNextPc);
+          BranchEntry elsif = contains(next, TYPE_IF);
 
           if (elsif == null) {
-            BranchEntry caseEntry = contains(startsWith(gotoNextPc), TYPE_CASE);
+            BranchEntry caseEntry = contains(next, TYPE_CASE);
             if (caseEntry == null) {
               BranchEntry elseEntry = new BranchEntry(method, gotoNextPc,
                   gotoNextPc, gotoTargetPc, TYPE_ELSE, jbe.opr1, jbe.opr2,
                   jbe.operator);
-              branches.add(elseEntry);
+              elses.add(elseEntry);
             }
           } else {
             elsif.setType(TYPE_ELSE_IF);
@@ -207,12 +304,16 @@ public class BranchTable implements BranchConstants, Opcodes {
         }
         break;
       case TYPE_DO_WHILE:
-        if (gotos.containsValue( Integer.valueOf(jbe.getStartPc()))) {
+        if (isGotoTarget(jbe.getStartPc())) {
           jbe.setType(TYPE_WHILE);
         }
         break;
       }
     }
+    if (!elses.isEmpty()) {
+      branches.addAll(elses);
+      sort();
+    }
   }
 
   /**
@@ -223,25 +324,15 @@ public class BranchTable implements BranchConstants, Opcodes {
    *          switch table containing entries about switch statements.
    */
   public void addSwitch(SwitchTable switchEntry) {
-    int defaultByte = switchEntry.getDefaultByte();
-    int maxTarget = defaultByte;
     List<CaseEntry> enumCases = switchEntry.getCases();
 
     logger.fine("No: Case Entries " + enumCases.size());
     for (CaseEntry singleCase : enumCases) {
-      int caseTarget = singleCase.getTarget();
-      int endCase = singleCase.getEndTarget();
-
-      List<String> caseValues = singleCase.getValues();
-      StringBuilder sb = new StringBuilder();
-      for (String singleCaseValue : caseValues) {
-        sb.append(singleCaseValue + ",");
-      }
-      BranchEntry ent = new BranchEntry(method, caseTarget, caseTarget,
-          endCase, TYPE_CASE, sb.toString(), "", "");
-      branches.add(ent);
+      // Labels are left to be rendered from the case entry when emitted.
+      branches.add(new CaseBranchEntry(method, singleCase));
     }
     branches.add(switchEntry.getBranchEntry());
+    branchIndex = null;
   }
 
   /**
@@ -267,6 +358,7 @@ public class BranchTable implements BranchConstants, Opcodes {
             .isAny()) ? TYPE_TRY_ANY : TYPE_TRY, "", "", ""));
       }
     }
+    branchIndex = null;
   }
 
   /**
@@ -275,16 +367,45 @@ public class BranchTable implements BranchConstants, Opcodes {
    * 
    * @param startPc
    *          Start Pc.
-   * @return the TargetPc for the goto instruction at the startPc
+   * @return the TargetPc for the goto instruction at the startPc, -1 if there
+   *         is no goto at the pc.
    */
   public int findGotoTarget(int startPc) {
-    Integer gotoStartPc = Integer.valueOf(startPc);
-    Integer obj = gotos.get(gotoStartPc);
-    if (obj == null) {
-      return -1;
-    } else {
-      return obj.intValue();
+    GotoIndex index = getGotoIndex();
+    int i = Arrays.binarySearch(index.pcs, startPc);
+    return (i < 0) ? -1 : index.targets[i];
+  }
+
+  /**
+   * @param pc
+   *          Pc of an instruction.
+   * @return Returns true, if some goto jumps to the pc.
+   */
+  public boolean isGotoTarget(int pc) {
+    return Arrays.binarySearch(getGotoIndex().sortedTargets, pc) >= 0;
+  }
+
+  /**
+   * @return Returns the pcs jumped to by the gotos and the conditional
+   *         branches, sorted and without duplicates.
+   */
+  public int[] getJumpTargets() {
+    int[] gotos = getGotoIndex().sortedTargets;
+    int[] targets = new int[gotos.length + branchTargets.size()];
+    System.arraycopy(gotos, 0, targets, 0, gotos.length);
+    for (int i = 0; i < branchTargets.size(); i++) {
+      targets[gotos.length + i] = branchTargets.get(i);
+    }
+    Arrays.sort(targets);
+    int count = 0;
+    for (int i = 0; i < targets.length; i++) {
+      if (count == 0 || targets[count - 1] != targets[i]) {
+        targets[count++] = targets[i];
+      }
     }
+    int[] distinct = new int[count];
+    System.arraycopy(targets, 0, distinct, 0, count);
+    return distinct;
   }
 
   /**
@@ -294,20 +415,58 @@ public class BranchTable implements BranchConstants, Opcodes {
    *          Instruction index.
    * @return List of JBranchEntry - list of branches that starts with the
    *         mentioned instruction index.
-   * @throws RevEngineException
-   *           thrown in case of an error.
    */
   public List<BranchEntry> startsWith(int aInsIndex) {
-
+    BranchIndex index = getBranchIndex();
+    int from = lowerBound(index.starts, aInsIndex);
     List<BranchEntry> branchEntries = new ArrayList<BranchEntry>();
-    for (BranchEntry jbe : branches) {
-      if (jbe.doesStartWith(aInsIndex)) {
-        branchEntries.add(jbe);
-      }
+    for (int i = from; i < index.starts.length && index.starts[i] == aInsIndex; i++) {
+      branchEntries.add(index.byStart[i]);
     }
     return branchEntries;
   }
 
+  /**
+   * Returns the blocks enclosing the given pc, innermost first. Blocks are
+   * expected to nest, as they do for code compiled from structured source.
+   * 
+   * @param pc
+   *          Pc of an instruction.
+   * @return List of branches whose blocks contain the pc.
+   */
+  public List<BranchEntry> getEnclosingBranches(int pc) {
+    BranchIndex index = getBranchIndex();
+    List<BranchEntry> enclosing = new ArrayList<BranchEntry>();
+    // Last block that begins at or before the pc. The blocks containing the
+    // pc are the ones on its chain of parents.
+    int i = lowerBound(index.execStarts, pc + 1) - 1;
+    while (i >= 0) {
+      if (index.byExec[i].encloses(pc)) {
+        enclosing.add(index.byExec[i]);
+      }
+      i = index.parents[i];
+    }
+    return enclosing;
+  }
+
+  /**
+   * @param pc
+   *          Pc of an instruction.
+   * @return Returns the innermost branch whose block contains the pc, null if
+   *         none.
+   */
+  public BranchEntry findEnclosingBranch(int pc) {
+    BranchIndex index = getBranchIndex();
+    int i = lowerBound(index.execStarts, pc + 1) - 1;
+    while (i >= 0) {
+      if (index.byExec[i].encloses(pc)) {
+        return index.byExec[i];
+      }
+      i = index.parents[i];
+    }
+    return null;
+  }
+
   /**
    * Delete the branch that corresponds to a else .. branch starting with the
    * given Pc
@@ -316,12 +475,13 @@ public class BranchTable implements BranchConstants, Opcodes {
    *          PC for which the else statement is to be deleted.
    */
   public void deleteElse(int startElse) {
-    for (int i = 0; i < branches.size(); i++) {
+    for (int i = branches.size() - 1; i >= 0; i--) {
       BranchEntry jbe = branches.get(i);
       if (jbe.getType() == TYPE_ELSE && jbe.getStartPc() == startElse) {
         branches.remove(i);
       }
     }
+    branchIndex = null;
   }
 
   /**
@@ -349,12 +509,10 @@ public class BranchTable implements BranchConstants, Opcodes {
   }
 
   /**
-   * @param byteIns
-   *          List of Instructions.
-   * @return null.
+   * @return Returns the switch instructions of the method.
    */
-  private Instruction getNextGoto(List<Instruction> byteIns) {
-    return null;
+  public List<Instruction> getSwitches() {
+    return switches;
   }
 
   /**
@@ -365,7 +523,10 @@ public class BranchTable implements BranchConstants, Opcodes {
    * @param end
    *          EndPc.
    * @return Returns a JInstruction reference.
+   * @deprecated Rescans the instructions. Use
+   *             {@link org.jreversepro.decompile.flow.ControlFlowGraph#findGoto(int, int)}.
    */
+  @Deprecated
   public Instruction findGotoIns(List<Instruction> byteIns, int start, int end) {
     int i;
     for (i = 0; i < byteIns.size(); i++) {
@@ -414,11 +575,11 @@ public class BranchTable implements BranchConstants, Opcodes {
   public String toString() {
     StringBuilder sb = new StringBuilder("");
     sb.append(branchesToString());
-    int size = gotos.size();
+    int size = gotoPcs.size();
     if (size > 0) {
       sb.append("Gotos:\n");
-      for (Object obj : gotos.entrySet()) {
-        sb.append(obj.toString() + "\n");
+      for (Map.Entry<Integer, Integer> entry : getGotoTable().entrySet()) {
+        sb.append(entry + "\n");
       }
     }
     size = mJSRTarget.size();
@@ -431,16 +592,152 @@ public class BranchTable implements BranchConstants, Opcodes {
     return sb.toString();
   }
 
+  private GotoIndex getGotoIndex() {
+    if (gotoIndex == null) {
+      gotoIndex = new GotoIndex(gotoPcs, gotoTargets);
+    }
+    return gotoIndex;
+  }
+
+  private BranchIndex getBranchIndex() {
+    if (branchIndex == null) {
+      branchIndex = new BranchIndex(branches);
+    }
+    return branchIndex;
+  }
+
+  /**
+   * @return Returns the first position in the sorted array whose value is not
+   *         less than key (array length, if none).
+   */
+  static int lowerBound(int[] sorted, int key) {
+    int low = 0;
+    int high = sorted.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (sorted[mid] < key) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Gotos sorted by their pc, with their targets sorted separately for the
+   * reverse lookup.
+   */
+  private static class GotoIndex {
+
+    GotoIndex(IntList pcList, IntList targetList) {
+      int size = pcList.size();
+      long[] pairs = new long[size];
+      for (int i = 0; i < size; i++) {
+        pairs[i] = ((long) pcList.get(i) << 32)
+            | (targetList.get(i) & 0xffffffffL);
+      }
+      Arrays.sort(pairs);
+      pcs = new int[size];
+      targets = new int[size];
+      for (int i = 0; i < size; i++) {
+        pcs[i] = (int) (pairs[i] >> 32);
+        targets[i] = (int) pairs[i];
+      }
+      sortedTargets = targetList.toArray();
+      Arrays.sort(sortedTargets);
+    }
+
+    final int[] pcs;
+
+    final int[] targets;
+
+    final int[] sortedTargets;
+  }
+
+  /**
+   * Branches sorted by the pc they start with, and by their blocks (outer
+   * blocks first) with the enclosing block of each.
+   */
+  private static class BranchIndex {
+
+    BranchIndex(List<BranchEntry> branches) {
+      int size = branches.size();
+      byStart = branches.toArray(new BranchEntry[size]);
+      Arrays.sort(byStart, new Comparator<BranchEntry>() {
+        public int compare(BranchEntry o1, BranchEntry o2) {
+          return o1.getStartPc() - o2.getStartPc();
+        }
+      });
+      starts = new int[size];
+      for (int i = 0; i < size; i++) {
+        starts[i] = byStart[i].getStartPc();
+      }
+
+      byExec = branches.toArray(new BranchEntry[size]);
+      Arrays.sort(byExec, new Comparator<BranchEntry>() {
+        public int compare(BranchEntry o1, BranchEntry o2) {
+          if (o1.getStartExecPc() != o2.getStartExecPc()) {
+            return o1.getStartExecPc() - o2.getStartExecPc();
+          }
+          return o2.getEndBlockPc() - o1.getEndBlockPc();
+        }
+      });
+      execStarts = new int[size];
+      parents = new int[size];
+      int[] stack = new int[size];
+      int top = -1;
+      for (int i = 0; i < size; i++) {
+        execStarts[i] = byExec[i].getStartExecPc();
+        while (top >= 0
+            && byExec[stack[top]].getEndBlockPc() <= execStarts[i]) {
+          top--;
+        }
+        parents[i] = (top >= 0) ? stack[top] : -1;
+        stack[++top] = i;
+      }
+    }
+
+    final BranchEntry[] byStart;
+
+    final int[] starts;
+
+    final BranchEntry[] byExec;
+
+    final int[] execStarts;
+
+    final int[] parents;
+  }
+
   /**
    * List of branch representations.
    */
   List<BranchEntry> branches;
 
   /**
-   * gotos Key - StartPc ( java.lang.Integer ) Value - TargetPc ( Absolute
-   * target -java.lang.Integer).
+   * Pcs of the goto statements, in the order added.
+   */
+  private final IntList gotoPcs;
+
+  /**
+   * Absolute targets of the goto statements, parallel to gotoPcs.
+   */
+  private final IntList gotoTargets;
+
+  /**
+   * Absolute targets of the conditional branches, in the order added.
+   */
+  private final IntList branchTargets;
+
+  /**
+   * Index of the gotos. Null, if to be rebuilt.
+   */
+  private GotoIndex gotoIndex;
+
+  /**
+   * Index of the branches. Null, if to be rebuilt.
    */
-  Map<Integer, Integer> gotos;
+  private BranchIndex branchIndex;
 
   /**
    * List of switch instructions. Individual members are JInstruction.
@@ -0,0 +1,62 @@
+/**
+ * @(#)BranchEntry.java
+ *
+ *
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+
+ **/
+package org.jreversepro.decompile.simulate;
+
+import org.jreversepro.reflect.Method;
+
+/**
+ * Branch of a case group of a switch statement. The labels of the cases are
+ * rendered from the case entry only when asked for.
+ * 
+ * @author Karthik Kumar
+ */
+public class CaseBranchEntry extends BranchEntry {
+
+  /**
+   * @param method
+   *          Method the switch belongs to.
+   * @param _caseEntry
+   *          Case group of the switch.
+   */
+  public CaseBranchEntry(Method method, CaseEntry _caseEntry) {
+    super(method, _caseEntry.getTarget(), _caseEntry.getTarget(), _caseEntry
+        .getEndTarget(), TYPE_CASE, "", "", "");
+    caseEntry = _caseEntry;
+  }
+
+  public CaseEntry getCaseEntry() {
+    return caseEntry;
+  }
+
+  /**
+   * @return Returns the labels of the cases, comma separated.
+   */
+  public String getCaseLabels() {
+    StringBuilder sb = new StringBuilder();
+    for (String value : caseEntry.getValues()) {
+      sb.append(value + ",");
+    }
+    return sb.toString();
+  }
+
+  private final CaseEntry caseEntry;
+
+}
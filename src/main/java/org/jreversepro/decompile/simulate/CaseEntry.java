@@ -22,7 +22,9 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 
+import org.jreversepro.decompile.IntList;
 import org.jreversepro.jls.JLSConstants;
+import org.jreversepro.jvm.TypeInferrer;
 
 
 public class CaseEntry {
@@ -32,6 +34,16 @@ public class CaseEntry {
    */
   public CaseEntry() {
     values = new ArrayList<String>();
+    keys = new IntList(1);
+  }
+
+  /**
+   * @param targetPc
+   *          PC of the corresponding handler for this case target.
+   */
+  public CaseEntry(int targetPc) {
+    this();
+    target = targetPc;
   }
 
   /**
@@ -41,11 +53,52 @@ public class CaseEntry {
    *          PC of the corresponding handler for this case target.
    */
   public CaseEntry(String name, int targetPc) {
-    target = targetPc;
-    values = new ArrayList<String>();
+    this(targetPc);
     values.add(name);
   }
 
+  /**
+   * Adds another case key, rendered as a label only when the values are
+   * asked for.
+   * 
+   * @param key
+   *          Value of the case.
+   */
+  public void addKey(int key) {
+    keys.add(key);
+    rendered = null;
+  }
+
+  /**
+   * @return Returns the keys of the cases that share this target.
+   */
+  public int[] getKeys() {
+    return keys.toArray();
+  }
+
+  /**
+   * @param _isDefault
+   *          True, if the default of the switch shares this target.
+   */
+  public void setDefault(boolean _isDefault) {
+    isDefault = _isDefault;
+    rendered = null;
+  }
+
+  public boolean isDefault() {
+    return isDefault;
+  }
+
+  /**
+   * @param _datatype
+   *          Type of the switch variable, that decides how the keys are
+   *          rendered (say, as chars).
+   */
+  public void setDatatype(String _datatype) {
+    datatype = _datatype;
+    rendered = null;
+  }
+
   /**
    * Adds another case target.
    * 
@@ -54,13 +107,27 @@ public class CaseEntry {
    */
   public void addValue(String name) {
     values.add(name);
+    rendered = null;
   }
 
   /**
    * @return Returns the List of case targets. Members are 'String'.
    */
   public List<String> getValues() {
-    return values;
+    if (rendered == null) {
+      List<String> labels = new ArrayList<String>(keys.size() + values.size()
+          + 1);
+      for (int i = 0; i < keys.size(); i++) {
+        labels.add(TypeInferrer.getValue(String.valueOf(keys.get(i)),
+            datatype));
+      }
+      labels.addAll(values);
+      if (isDefault) {
+        labels.add(JLSConstants.DEFAULT);
+      }
+      rendered = labels;
+    }
+    return rendered;
   }
 
   /**
@@ -105,8 +172,8 @@ public class CaseEntry {
    */
   public String disAssemble() {
     StringBuilder sb = new StringBuilder();
-    for (int i = 0; i < values.size(); i++) {
-      sb.append(values.get(i) + ":\n\t\t\t");
+    for (String value : getValues()) {
+      sb.append(value + ":\n\t\t\t");
     }
     sb.append("\n\t\t\t\t" + JLSConstants.GOTO + " " + target);
     return sb.toString();
@@ -132,6 +199,26 @@ public class CaseEntry {
    */
   List<String> values;
 
+  /**
+   * Keys of the cases that have this target.
+   */
+  private final IntList keys;
+
+  /**
+   * True, if the default case has this target.
+   */
+  private boolean isDefault;
+
+  /**
+   * Type of the switch variable.
+   */
+  private String datatype;
+
+  /**
+   * Labels rendered from the keys and values. Null, if to be rendered.
+   */
+  private List<String> rendered;
+
   /**
    * Target of this group of case entry.
    */
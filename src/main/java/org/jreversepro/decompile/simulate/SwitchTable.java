@@ -17,26 +17,26 @@
  */
 package org.jreversepro.decompile.simulate;
 
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.logging.Logger;
 
 
-import org.apache.commons.io.IOUtils;
 import org.jreversepro.CustomLoggerFactory;
 import org.jreversepro.ast.expression.Expression;
-import org.jreversepro.jls.JLSConstants;
 import org.jreversepro.jvm.Opcodes;
-import org.jreversepro.jvm.TypeInferrer;
 import org.jreversepro.reflect.Method;
 import org.jreversepro.reflect.instruction.Instruction;
 
+/**
+ * Case groups of a tableswitch / lookupswitch instruction.
+ * <p>
+ * The operands are read as ints straight off the instruction and grouped by
+ * their target with a sort over primitive arrays. The case labels are kept
+ * as int keys and rendered as source only when asked for, so that switches
+ * with thousands of cases do not allocate strings up front.
+ */
 public class SwitchTable {
 
   /**
@@ -45,30 +45,18 @@ public class SwitchTable {
    * @param ins
    *          Instruction that corresponds to a tableswitch or a lookupswitch
    *          instruction.
-   * @param gotos
-   *          Map of goto statements.
+   * @param branches
+   *          Branch table with the gotos of the method. Could be null.
    * 
-   * @throws IOException
-   *           thrown in case of any error.
-   * @throws RevEngineException
+   * @throws IllegalArgumentException
    *           if the instruction passed is not a switch opcode.
    */
-  public SwitchTable(Method method, Instruction ins, Map<Integer, Integer> gotos)
-      throws IOException {
-
+  public SwitchTable(Method method, Instruction ins, BranchTable branches) {
     this.method = method;
     insIndex = ins.currentPc;
-    cases = new ArrayList<CaseEntry>();
-
-    if (ins.opcode == Opcodes.OPCODE_TABLESWITCH) {
-      createTableSwitch(ins.args, ins.currentPc, gotos);
-    } else if (ins.opcode == Opcodes.OPCODE_LOOKUPSWITCH) {
-      createLookupSwitch(ins.args, ins.currentPc, gotos);
-    } else {
-      throw new IllegalArgumentException("Opcode " + ins.opcode
-          + " Not a switch statement");
-    }
     datatype = null;
+    decode(ins);
+    processData(branches);
   }
 
   /**
@@ -79,31 +67,15 @@ public class SwitchTable {
    *          instruction.
    * @param op1
    *          Operand that is to be used inside the switch statement.
-   * @param gotos
-   *          Map of goto statements.
-   * @throws IOException
-   *           thrown in case of any error.
-   * @throws RevEngineException
+   * @param branches
+   *          Branch table with the gotos of the method. Could be null.
+   * @throws IllegalArgumentException
    *           if the instruction passed is not a switch opcode.
    */
   public SwitchTable(Method method, Instruction ins, Expression op1,
-      Map<Integer, Integer> gotos) throws IOException {
-    this.datatype = op1.getType();
-    this.varName = op1.getJLSCode();
-
-    // Copy - paste from prev. constructor.
-    this.method = method;
-    insIndex = ins.currentPc;
-    cases = new ArrayList<CaseEntry>();
-
-    if (ins.opcode == Opcodes.OPCODE_TABLESWITCH) {
-      createTableSwitch(ins.args, ins.currentPc, gotos);
-    } else if (ins.opcode == Opcodes.OPCODE_LOOKUPSWITCH) {
-      createLookupSwitch(ins.args, ins.currentPc, gotos);
-    } else {
-      throw new IllegalArgumentException("Opcode " + ins.opcode
-          + " Not a switch statement");
-    }
+      BranchTable branches) {
+    this(method, ins, branches);
+    setTypeValue(op1.getType(), op1.getJLSCode());
     logger.fine("switch datatype " + datatype);
   }
 
@@ -115,91 +87,96 @@ public class SwitchTable {
   }
 
   /**
-   * For 'tableswitch' opcode this fills the data structure - JSwitchTable.
+   * Reads the default target and the (key, target) pairs of the switch and
+   * groups the keys by their target into case entries, ordered by target.
    * 
-   * @param entries
-   *          Bytecode entries that contain the case values and their target
-   *          opcodes.
-   * @param offset
-   *          offset is the index of the current tableswitch instruction into
-   *          the method bytecode array.
-   * @param gotos
-   *          Map of goto statements.
-   * @throws IOException
-   *           Thrown in case of an i/o error when reading from the bytes.
+   * @param ins
+   *          Switch instruction. The arguments begin with the default offset,
+   *          after the padding.
    */
-  private void createTableSwitch(byte[] entries, int offset,
-      Map<Integer, Integer> gotos) throws IOException {
-    DataInputStream dis = null;
-    try {
-      dis = new DataInputStream(new ByteArrayInputStream(entries));
-      defaultByte = dis.readInt() + offset;
-      int lowVal = dis.readInt();
-      int highVal = dis.readInt();
+  private void decode(Instruction ins) {
+    int[] keys;
+    int[] targets;
+    int pos = 0;
+    if (ins.opcode == Opcodes.OPCODE_TABLESWITCH) {
+      defaultByte = ins.getArgInt(pos) + insIndex;
+      int lowVal = ins.getArgInt(pos + 4);
+      int highVal = ins.getArgInt(pos + 8);
+      pos += 12;
+      int count = highVal - lowVal + 1;
+      keys = new int[count];
+      targets = new int[count];
+      for (int i = 0; i < count; i++, pos += 4) {
+        keys[i] = lowVal + i;
+        targets[i] = ins.getArgInt(pos) + insIndex;
+      }
+    } else if (ins.opcode == Opcodes.OPCODE_LOOKUPSWITCH) {
+      defaultByte = ins.getArgInt(pos) + insIndex;
+      int count = ins.getArgInt(pos + 4);
+      pos += 8;
+      keys = new int[count];
+      targets = new int[count];
+      for (int i = 0; i < count; i++, pos += 8) {
+        keys[i] = ins.getArgInt(pos);
+        targets[i] = ins.getArgInt(pos + 4) + insIndex;
+      }
+    } else {
+      throw new IllegalArgumentException("Opcode " + ins.opcode
+          + " Not a switch statement");
+    }
 
-      Map<Integer, CaseEntry> mapCases = new HashMap<Integer, CaseEntry>();
-      for (int i = lowVal; i <= highVal; i++) {
-        int curTarget = dis.readInt() + offset;
-        String value = TypeInferrer.getValue(String.valueOf(i), this.datatype);
-        CaseEntry ent = mapCases.get(Integer.valueOf(curTarget));
-        if (ent == null) {
-          mapCases.put(Integer.valueOf(curTarget), new CaseEntry(value,
-              curTarget));
-        } else {
-          ent.addValue(value);
-        }
+    // Sort (target, position) pairs - the keys of a target stay in the order
+    // they appear in the instruction, which is ascending for either opcode.
+    long[] order = new long[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      order[i] = ((long) targets[i] << 32) | i;
+    }
+    Arrays.sort(order);
+
+    cases = new ArrayList<CaseEntry>();
+    CaseEntry current = null;
+    for (long pair : order) {
+      int target = (int) (pair >> 32);
+      int key = keys[(int) pair];
+      if (current == null || current.getTarget() != target) {
+        current = new CaseEntry(target);
+        cases.add(current);
       }
-      cases = new ArrayList<CaseEntry>(mapCases.values());
-    } finally {
-      IOUtils.closeQuietly(dis);
+      current.addKey(key);
     }
-    processData(gotos);
   }
 
   /**
-   * For 'lookupswitch' opcode this fills the data structure - JSwitchTable.
-   * 
-   * @param entries
-   *          Bytecode entries that contain the case values and their target
-   *          opcodes.
-   * @param offset
-   *          offset is the index of the current lookupswitch instruction into
-   *          the method bytecode array.
-   * @param gotos
-   *          Map of goto statements.
+   * Reads the jump targets of a switch instruction, without building its case
+   * groups.
    * 
-   * @throws IOException
-   *           Thrown in case of an i/o error when reading from the bytes.
+   * @param ins
+   *          tableswitch / lookupswitch instruction.
+   * @return Returns the targets of the cases, followed by the default target.
+   *         Targets shared by several cases repeat.
+   * @throws IllegalArgumentException
+   *           if the instruction passed is not a switch opcode.
    */
-  private void createLookupSwitch(byte[] entries, int offset,
-      Map<Integer, Integer> gotos) throws IOException {
-    DataInputStream dis = null;
-    try {
-      dis = new DataInputStream(new ByteArrayInputStream(entries));
-
-      defaultByte = dis.readInt() + offset;
-      int numVal = dis.readInt();
-
-      Map<Integer, CaseEntry> mapCases = new HashMap<Integer, CaseEntry>();
-
-      for (int i = 0; i < numVal; i++) {
-        String value = TypeInferrer.getValue(String.valueOf(dis.readInt()),
-            datatype);
-        int curTarget = dis.readInt() + offset;
-
-        CaseEntry ent = mapCases.get(Integer.valueOf(curTarget));
-        if (ent == null) {
-          mapCases.put(Integer.valueOf(curTarget), new CaseEntry(value,
-              curTarget));
-        } else {
-          ent.addValue(value);
-        }
+  public static int[] getTargets(Instruction ins) {
+    int[] targets;
+    if (ins.opcode == Opcodes.OPCODE_TABLESWITCH) {
+      int count = ins.getArgInt(8) - ins.getArgInt(4) + 1;
+      targets = new int[count + 1];
+      for (int i = 0, pos = 12; i < count; i++, pos += 4) {
+        targets[i] = ins.getArgInt(pos) + ins.currentPc;
       }
-      cases = new ArrayList<CaseEntry>(mapCases.values());
-    } finally {
-      IOUtils.closeQuietly(dis);
+    } else if (ins.opcode == Opcodes.OPCODE_LOOKUPSWITCH) {
+      int count = ins.getArgInt(4);
+      targets = new int[count + 1];
+      for (int i = 0, pos = 12; i < count; i++, pos += 8) {
+        targets[i] = ins.getArgInt(pos) + ins.currentPc;
+      }
+    } else {
+      throw new IllegalArgumentException("Opcode " + ins.opcode
+          + " Not a switch statement");
     }
-    processData(gotos);
+    targets[targets.length - 1] = ins.getArgInt(0) + ins.currentPc;
+    return targets;
   }
 
   /**
@@ -231,53 +208,54 @@ public class SwitchTable {
     varName = rhsValue;
     datatype = rhsType;
     // dataType could be either int or char.
+    for (CaseEntry ent : cases) {
+      ent.setDatatype(datatype);
+    }
   }
 
   /**
-   * Process the bytecode stream of case values and targets to individual case
-   * blocks.
+   * Process the case groups to individual case blocks - marks the default
+   * case and assigns the end of every block.
    * 
-   * @param gotos
-   *          Map of goto statements.
+   * @param branches
+   *          Branch table with the gotos of the method. Could be null.
    */
-  public void processData(Map<Integer, Integer> gotos) {
+  public void processData(BranchTable branches) {
     maxTarget = defaultByte;
-    if (gotos != null) {
+    if (branches != null) {
       for (CaseEntry ent : cases) {
-        Integer obj = gotos.get(Integer.valueOf(ent.getTarget() - 3));
-        if (obj != null) {
-          int tempVal = obj.intValue();
-          maxTarget = (maxTarget > tempVal) ? maxTarget : tempVal;
-        }
+        maxTarget = Math.max(maxTarget, branches.findGotoTarget(ent
+            .getTarget() - 3));
       }
       if (maxTarget > defaultByte) {
         boolean targetPresent = false;
         for (int i = 0; i < cases.size() - 1; i++) {
           CaseEntry ent = cases.get(i);
           if (ent.getTarget() == defaultByte) {
-            ent.addValue(JLSConstants.DEFAULT);
-            // ent.setTarget(defa);
+            ent.setDefault(true);
             targetPresent = true;
           }
         }
         if (!targetPresent) {
-          cases.add(new CaseEntry(JLSConstants.DEFAULT, defaultByte));
+          CaseEntry defaultEntry = new CaseEntry(defaultByte);
+          defaultEntry.setDefault(true);
+          // Keep the entries ordered by target.
+          int i = 0;
+          while (i < cases.size() && cases.get(i).getTarget() < defaultByte) {
+            i++;
+          }
+          cases.add(i, defaultEntry);
         }
       }
     }
 
-    // Sort the entries
-    Collections.sort(cases, new CaseComparator());
-
     // Assign endTargets for all of them.
-    int i = 0;
-    for (; i < cases.size() - 1; i++) {
-      CaseEntry ent = cases.get(i);
-      CaseEntry entNext = cases.get(i + 1);
-      ent.setEndTarget(entNext.getTarget());
+    for (int i = 0; i < cases.size() - 1; i++) {
+      cases.get(i).setEndTarget(cases.get(i + 1).getTarget());
+    }
+    if (!cases.isEmpty()) {
+      cases.get(cases.size() - 1).setEndTarget(maxTarget);
     }
-    CaseEntry entLast = cases.get(i);
-    entLast.setEndTarget(maxTarget);
   }
 
   /**
@@ -312,7 +290,7 @@ public class SwitchTable {
   int insIndex;
 
   /**
-   * List of cases that are available. Individual elements are JCaseEntry.
+   * List of cases that are available, ordered by their targets.
    */
   List<CaseEntry> cases;
 
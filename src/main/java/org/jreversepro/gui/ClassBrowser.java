@@ -0,0 +1,210 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.gui;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.jreversepro.pipeline.ClassSource;
+import org.jreversepro.pipeline.ClassSources;
+import org.jreversepro.pipeline.ZipEntryClassSource;
+
+/**
+ * Index of the classes of a jar or a directory by package, for browsing. Of
+ * a jar, only the central directory is read - the classes are read when
+ * decompiled.
+ * 
+ * @author Karthik Kumar
+ */
+public class ClassBrowser {
+
+  /**
+   * @param aPath
+   *          Path to a jar / zip archive or a directory.
+   * @throws IOException
+   *           Thrown if the path does not exist or the archive could not be
+   *           opened.
+   */
+  public ClassBrowser(String aPath) throws IOException {
+    mPath = aPath;
+    mSources = new ClassSources();
+    mClasses = new HashMap<String, List<ClassSource>>();
+    mSubPackages = new HashMap<String, SortedSet<String>>();
+    mPackages = new HashMap<ClassSource, String>();
+
+    String root = new File(aPath).getPath() + File.separator;
+    for (ClassSource source : mSources.expand(aPath)) {
+      String name = getRelativeName(source, root);
+      int slash = name.lastIndexOf('/');
+      String pkg = (slash == -1) ? ROOT_PACKAGE : name.substring(0, slash);
+      List<ClassSource> classes = mClasses.get(pkg);
+      if (classes == null) {
+        classes = new ArrayList<ClassSource>();
+        mClasses.put(pkg, classes);
+        addPackage(pkg);
+      }
+      // Sources come sorted by name, and so the classes of a package too.
+      classes.add(source);
+      mPackages.put(source, pkg);
+    }
+  }
+
+  /**
+   * @return Returns the path browsed.
+   */
+  public String getPath() {
+    return mPath;
+  }
+
+  /**
+   * @param aPackage
+   *          Package, with '/' separators. Empty for the root.
+   * @return Returns the packages directly under the given package, sorted.
+   */
+  public List<String> getSubPackages(String aPackage) {
+    SortedSet<String> packages = mSubPackages.get(aPackage);
+    if (packages == null) {
+      return Collections.emptyList();
+    }
+    return new ArrayList<String>(packages);
+  }
+
+  /**
+   * @param aPackage
+   *          Package, with '/' separators. Empty for the root.
+   * @return Returns the classes of the package, sorted by name.
+   */
+  public List<ClassSource> getClasses(String aPackage) {
+    List<ClassSource> classes = mClasses.get(aPackage);
+    if (classes == null) {
+      return Collections.emptyList();
+    }
+    return Collections.unmodifiableList(classes);
+  }
+
+  /**
+   * @param aSource
+   *          Class of this browser.
+   * @return Returns the other classes of the package of the class, nearest
+   *         first - the one after it, the one before it and so on.
+   */
+  public List<ClassSource> getNeighbours(ClassSource aSource) {
+    List<ClassSource> classes = getClasses(mPackages.get(aSource));
+    int index = classes.indexOf(aSource);
+    List<ClassSource> neighbours = new ArrayList<ClassSource>();
+    if (index == -1) {
+      return neighbours;
+    }
+    for (int distance = 1; neighbours.size() < classes.size() - 1; distance++) {
+      if (index + distance < classes.size()) {
+        neighbours.add(classes.get(index + distance));
+      }
+      if (index - distance >= 0) {
+        neighbours.add(classes.get(index - distance));
+      }
+    }
+    return neighbours;
+  }
+
+  /**
+   * Closes the archive browsed, if any.
+   */
+  public void close() {
+    mSources.close();
+  }
+
+  /**
+   * @param aPackage
+   *          Package, with '/' separators.
+   * @return Returns the last component of the package name.
+   */
+  static String getSimpleName(String aPackage) {
+    return aPackage.substring(aPackage.lastIndexOf('/') + 1);
+  }
+
+  /**
+   * Adds the package to its parent, and so on up to the root.
+   */
+  private void addPackage(String aPackage) {
+    while (!aPackage.equals(ROOT_PACKAGE)) {
+      int slash = aPackage.lastIndexOf('/');
+      String parent = (slash == -1) ? ROOT_PACKAGE : aPackage.substring(0,
+          slash);
+      SortedSet<String> siblings = mSubPackages.get(parent);
+      if (siblings == null) {
+        siblings = new TreeSet<String>();
+        mSubPackages.put(parent, siblings);
+      }
+      if (!siblings.add(aPackage)) {
+        // Parents added already.
+        return;
+      }
+      aPackage = parent;
+    }
+  }
+
+  /**
+   * @return Returns the name of the class file relative to the root of the
+   *         archive or the directory, with '/' separators.
+   */
+  private static String getRelativeName(ClassSource aSource, String aRoot) {
+    if (aSource instanceof ZipEntryClassSource) {
+      return ((ZipEntryClassSource) aSource).getEntryName();
+    }
+    String name = aSource.getName();
+    if (name.startsWith(aRoot)) {
+      name = name.substring(aRoot.length());
+    }
+    return name.replace(File.separatorChar, '/');
+  }
+
+  /**
+   * Name of the package of the classes with no package.
+   */
+  static final String ROOT_PACKAGE = "";
+
+  private final String mPath;
+
+  private final ClassSources mSources;
+
+  /**
+   * Key - package. <br/>
+   * Value - classes of the package.
+   */
+  private final Map<String, List<ClassSource>> mClasses;
+
+  /**
+   * Key - package. <br/>
+   * Value - packages directly under it.
+   */
+  private final Map<String, SortedSet<String>> mSubPackages;
+
+  /**
+   * Key - class. <br/>
+   * Value - its package.
+   */
+  private final Map<ClassSource, String> mPackages;
+
+}
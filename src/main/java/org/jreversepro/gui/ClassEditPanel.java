@@ -35,9 +35,17 @@ import javax.swing.JScrollPane;
 import javax.swing.JSplitPane;
 import javax.swing.JTree;
 import javax.swing.SwingUtilities;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeSelectionListener;
+import javax.swing.event.TreeWillExpandListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Position;
 import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
 
 import org.apache.commons.io.IOUtils;
+import org.jreversepro.output.ClassSkeleton;
 
 /**
  * JClassEditPanel - is the Main Panel that appears in the application main
@@ -79,6 +87,13 @@ public class ClassEditPanel extends JPanel {
    **/
   private Font mAppFont;
 
+  /**
+   * Where the bodies of the methods go, in the skeleton last written.
+   **/
+  private Position[] mBodyStarts;
+
+  private Position[] mBodyEnds;
+
   /**
    * Constructor.
    **/
@@ -89,6 +104,21 @@ public class ClassEditPanel extends JPanel {
     // initTree
     mRoot = new DefaultMutableTreeNode(TREE_ROOT);
     mTreeFieldMethod = new JTree(mRoot);
+    mTreeFieldMethod.addTreeWillExpandListener(new TreeWillExpandListener() {
+
+      public void treeWillExpand(TreeExpansionEvent event) {
+        Object node = event.getPath().getLastPathComponent();
+        if (node instanceof PackageTreeNode
+            && ((PackageTreeNode) node).loadChildren()) {
+          ((DefaultTreeModel) mTreeFieldMethod.getModel())
+              .nodeStructureChanged((PackageTreeNode) node);
+        }
+      }
+
+      public void treeWillCollapse(TreeExpansionEvent event) {
+        // Children are kept once added.
+      }
+    });
 
     JScrollPane ScrDocument = new JScrollPane(mTxtJava);
     JScrollPane ScrTree = new JScrollPane(mTreeFieldMethod);
@@ -134,7 +164,55 @@ public class ClassEditPanel extends JPanel {
    *          Decompiled Java source code to be written onto the editor.
    **/
   public void writeCode(String aCode) {
-    mTxtJava.setText(aCode);
+    mTxtJava.setTextInChunks(aCode);
+  }
+
+  /**
+   * Writes the class with placeholders in place of the bodies of the
+   * methods, which are to be written with writeMethodBody as they are
+   * decompiled.
+   * 
+   * @param aSkeleton
+   *          Decompiled class, without the bodies of the methods.
+   **/
+  public void writeSkeleton(ClassSkeleton aSkeleton) {
+    mTxtJava.setText(aSkeleton.getCode());
+    // Positions move with the edits before them, unlike offsets.
+    Document document = mTxtJava.getDocument();
+    int count = aSkeleton.getMethodCount();
+    mBodyStarts = new Position[count];
+    mBodyEnds = new Position[count];
+    try {
+      for (int i = 0; i < count; i++) {
+        mBodyStarts[i] = document.createPosition(aSkeleton.getBodyStart(i));
+        mBodyEnds[i] = document.createPosition(aSkeleton.getBodyEnd(i));
+      }
+    } catch (BadLocationException ex) {
+      throw new IllegalArgumentException("Skeleton does not fit the editor",
+          ex);
+    }
+    mTxtJava.setCaretPosition(0);
+  }
+
+  /**
+   * Writes the body of a method in place of its placeholder.
+   * 
+   * @param aMethod
+   *          Index of the method in the skeleton last written.
+   * @param aCode
+   *          Decompiled body of the method.
+   **/
+  public void writeMethodBody(int aMethod, String aCode) {
+    int caret = mTxtJava.getCaretPosition();
+    int start = mBodyStarts[aMethod].getOffset();
+    int end = mBodyEnds[aMethod].getOffset();
+    mTxtJava.replaceRange(aCode, start, end);
+    // Keep the caret, and so the view, over the same text.
+    if (caret > start) {
+      caret = Math.max(start, caret + aCode.length() - (end - start));
+    }
+    mTxtJava.setCaretPosition(Math.min(caret, mTxtJava.getDocument()
+        .getLength()));
   }
 
   /**
@@ -192,6 +270,9 @@ public class ClassEditPanel extends JPanel {
    **/
   public void createModel(JFrame aParent, String aFileName,
       List<String> aChildren) {
+    if (mTreeFieldMethod.getModel().getRoot() != mRoot) {
+      mTreeFieldMethod.setModel(new DefaultTreeModel(mRoot));
+    }
     mRoot.removeAllChildren();
     DefaultMutableTreeNode ClassName = new DefaultMutableTreeNode(aFileName);
 
@@ -203,6 +284,28 @@ public class ClassEditPanel extends JPanel {
     mTreeFieldMethod.expandRow(1);
   }
 
+  /**
+   * Shows the packages and the classes browsed in the tree, in place of the
+   * fields and the methods of a class. Packages are expanded lazily.
+   * 
+   * @param aBrowser
+   *          Classes of a jar or a directory.
+   **/
+  public void createBrowserModel(ClassBrowser aBrowser) {
+    PackageTreeNode root = new PackageTreeNode(aBrowser,
+        ClassBrowser.ROOT_PACKAGE, new File(aBrowser.getPath()).getName());
+    mTreeFieldMethod.setModel(new DefaultTreeModel(root));
+    mTreeFieldMethod.expandRow(0);
+  }
+
+  /**
+   * @param aListener
+   *          Notified when a node of the tree is selected.
+   **/
+  public void addTreeSelectionListener(TreeSelectionListener aListener) {
+    mTreeFieldMethod.addTreeSelectionListener(aListener);
+  }
+
   /**
    * @param aParent
    *          Parent Frame
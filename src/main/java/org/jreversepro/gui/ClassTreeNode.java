@@ -0,0 +1,61 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.gui;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+
+import org.jreversepro.pipeline.ClassSource;
+
+/**
+ * Node of the tree of a ClassBrowser, for a class.
+ * 
+ * @author Karthik Kumar
+ */
+@SuppressWarnings("serial")
+public class ClassTreeNode extends DefaultMutableTreeNode {
+
+  /**
+   * @param aSource
+   *          Class file.
+   */
+  public ClassTreeNode(ClassSource aSource) {
+    super(getClassName(aSource), false);
+    mSource = aSource;
+  }
+
+  /**
+   * @return Returns the class file.
+   */
+  public ClassSource getSource() {
+    return mSource;
+  }
+
+  /**
+   * @return Returns the name of the class file, without the path and the
+   *         extension.
+   */
+  static String getClassName(ClassSource aSource) {
+    String name = aSource.getName().replace('\\', '/');
+    name = name.substring(name.lastIndexOf('/') + 1);
+    int dotIndex = name.lastIndexOf('.');
+    return (dotIndex == -1) ? name : name.substring(0, dotIndex);
+  }
+
+  private final ClassSource mSource;
+
+}
@@ -30,6 +30,8 @@ import javax.swing.SwingConstants;
 import java.awt.GridBagLayout;
 import java.awt.GridBagConstraints;
 
+import org.jreversepro.reflect.ConstantPool;
+
 /**
  * Provides a Custom List Panel.
  * 
@@ -72,6 +74,31 @@ public class CustomListPanel extends JPanel {
    **/
   public JButton mBtnFind;
 
+  /**
+   * Corresponds to the Label 'Show'.
+   **/
+  private JLabel mLblFilter;
+
+  /**
+   * Tag of the entries to be shown.
+   **/
+  public JComboBox<String> mChooseTag;
+
+  /**
+   * Text the values of the entries shown are to contain.
+   **/
+  public JTextField mTxtFilter;
+
+  /**
+   * Tags that can be chosen with mChooseTag, in order.
+   **/
+  private static final int[] FILTER_TAGS = { JPoolTableModel.ANY_TAG,
+      ConstantPool.TAG_UTF8, ConstantPool.TAG_INTEGER, ConstantPool.TAG_FLOAT,
+      ConstantPool.TAG_LONG, ConstantPool.TAG_DOUBLE, ConstantPool.TAG_CLASS,
+      ConstantPool.TAG_STRING, ConstantPool.TAG_FIELDREF,
+      ConstantPool.TAG_METHODREF, ConstantPool.TAG_INTERFACEREF,
+      ConstantPool.TAG_NAMETYPE };
+
   /**
    * @param aMaxEntries
    *          Maximum Entries of the ConstantPool Table.
@@ -91,6 +118,15 @@ public class CustomListPanel extends JPanel {
     mTxtSearch = new JTextField(10);
     mBtnFind = new JButton("Find Next");
 
+    mLblFilter = new JLabel("Show ", SwingConstants.CENTER);
+    String[] tags = new String[FILTER_TAGS.length];
+    tags[0] = "All Tags";
+    for (int i = 1; i < tags.length; i++) {
+      tags[i] = JPoolTableModel.getTagName(FILTER_TAGS[i]);
+    }
+    mChooseTag = new JComboBox<String>(tags);
+    mTxtFilter = new JTextField(10);
+
     setLayout(new GridBagLayout());
     setSize(100, 75);
     addComponents();
@@ -120,5 +156,18 @@ public class CustomListPanel extends JPanel {
     c.gridwidth = GridBagConstraints.REMAINDER;
     add(mBtnFind, c);
 
+    c.gridwidth = 1;
+    add(mLblFilter, c);
+    add(mChooseTag, c);
+
+    c.gridwidth = GridBagConstraints.REMAINDER;
+    add(mTxtFilter, c);
+  }
+
+  /**
+   * @return Tag of the entries to be shown, or JPoolTableModel.ANY_TAG.
+   **/
+  public int getFilterTag() {
+    return FILTER_TAGS[Math.max(0, mChooseTag.getSelectedIndex())];
   }
 }
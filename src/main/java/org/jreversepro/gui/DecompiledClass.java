@@ -0,0 +1,127 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.gui;
+
+import org.jreversepro.output.ClassSkeleton;
+import org.jreversepro.reflect.ClassInfo;
+
+/**
+ * A class parsed for the GUI, with the text rendered of it so far - the
+ * skeleton of the class and the bodies of its methods, as they are
+ * decompiled, and the disassembled class.
+ * 
+ * @author Karthik Kumar
+ */
+public class DecompiledClass {
+
+  /**
+   * @param aClassInfo
+   *          Class parsed.
+   */
+  public DecompiledClass(ClassInfo aClassInfo) {
+    mClassInfo = aClassInfo;
+  }
+
+  public ClassInfo getClassInfo() {
+    return mClassInfo;
+  }
+
+  /**
+   * @return Returns the class, with placeholders for the bodies of the
+   *         methods. Null, if not decompiled yet.
+   */
+  public synchronized ClassSkeleton getSkeleton() {
+    return mSkeleton;
+  }
+
+  /**
+   * @param aSkeleton
+   *          Class, with placeholders for the bodies of the methods.
+   */
+  public synchronized void setSkeleton(ClassSkeleton aSkeleton) {
+    mSkeleton = aSkeleton;
+    mBodies = new String[aSkeleton.getMethodCount()];
+    mBodiesDone = 0;
+  }
+
+  /**
+   * @param aMethod
+   *          Index of the method.
+   * @return Returns the body of the method. Null, if not decompiled yet.
+   */
+  public synchronized String getBody(int aMethod) {
+    return mBodies[aMethod];
+  }
+
+  /**
+   * @param aMethod
+   *          Index of the method.
+   * @param aBody
+   *          Decompiled body of the method.
+   */
+  public synchronized void setBody(int aMethod, String aBody) {
+    if (mBodies[aMethod] == null) {
+      mBodiesDone++;
+    }
+    mBodies[aMethod] = aBody;
+  }
+
+  /**
+   * @return Returns true, if the skeleton and the bodies of all the methods
+   *         are present.
+   */
+  public synchronized boolean isDecompiled() {
+    return mSkeleton != null && mBodiesDone == mBodies.length;
+  }
+
+  /**
+   * @return Returns the disassembled class. Null, if not disassembled yet.
+   */
+  public synchronized String getDisassembly() {
+    return mDisassembly;
+  }
+
+  public synchronized void setDisassembly(String aDisassembly) {
+    mDisassembly = aDisassembly;
+  }
+
+  /**
+   * @return Returns the number of characters of the text rendered.
+   */
+  public synchronized int getLength() {
+    int length = (mDisassembly == null) ? 0 : mDisassembly.length();
+    if (mSkeleton != null) {
+      length += mSkeleton.getCode().length();
+      for (String body : mBodies) {
+        length += (body == null) ? 0 : body.length();
+      }
+    }
+    return length;
+  }
+
+  private final ClassInfo mClassInfo;
+
+  private ClassSkeleton mSkeleton;
+
+  private String[] mBodies;
+
+  private int mBodiesDone;
+
+  private String mDisassembly;
+
+}
@@ -19,7 +19,8 @@ package org.jreversepro.gui;
 import javax.swing.JScrollPane;
 import javax.swing.JDialog;
 import javax.swing.JFrame;
-import javax.swing.JScrollBar;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 import org.jreversepro.reflect.ConstantPool;
 
@@ -31,16 +32,19 @@ import java.awt.event.MouseEvent;
 
 import java.awt.BorderLayout;
 import java.awt.Dimension;
+import java.awt.Toolkit;
 
 /**
- * JCpDialog is the Dialog containing the ConstantPool contents.
+ * JCpDialog is the Dialog containing the ConstantPool contents. The entries
+ * can be filtered by tag and value, and are searched as the text to find is
+ * typed.
  * 
  * @author Karthik Kumar
  * @version 1.3
  **/
 @SuppressWarnings("serial")
 public class DlgConstantPool extends JDialog implements ActionListener,
-    MouseListener {
+    MouseListener, DocumentListener {
 
   /**
    * @param aParent
@@ -61,7 +65,7 @@ public class DlgConstantPool extends JDialog implements ActionListener,
     mScrPoolData = new JScrollPane(mCpTable);
 
     setLocation(100, 100);
-    setSize(600, 225);
+    setSize(600, 250);
 
     // addComponents
     getContentPane().setLayout(new BorderLayout());
@@ -74,6 +78,10 @@ public class DlgConstantPool extends JDialog implements ActionListener,
 
     mPnlList.mBtnFind.addActionListener(this);
     mPnlList.mBtnGoto.addActionListener(this);
+    mPnlList.mChooseTag.addActionListener(this);
+    mPnlList.mChooseType.addActionListener(this);
+    mPnlList.mTxtFilter.getDocument().addDocumentListener(this);
+    mPnlList.mTxtSearch.getDocument().addDocumentListener(this);
 
     mCpTable.addMouseListener(this);
 
@@ -88,9 +96,54 @@ public class DlgConstantPool extends JDialog implements ActionListener,
    **/
   public void actionPerformed(ActionEvent aEvent) {
     if (aEvent.getSource() == mPnlList.mBtnFind) {
-      findText();
+      findText(mCpTable.getSelectedRow() + 1);
     } else if (aEvent.getSource() == mPnlList.mBtnGoto) {
       gotoIndex(getCpIndex());
+    } else if (aEvent.getSource() == mPnlList.mChooseTag) {
+      filter();
+    } else if (aEvent.getSource() == mPnlList.mChooseType) {
+      findText(mCpTable.getSelectedRow());
+    }
+  }
+
+  /**
+   * DocumentListener method.
+   * 
+   * @param aEvent
+   *          Event generated by the DocumentListener
+   **/
+  public void insertUpdate(DocumentEvent aEvent) {
+    textChanged(aEvent);
+  }
+
+  /**
+   * DocumentListener method.
+   * 
+   * @param aEvent
+   *          Event generated by the DocumentListener
+   **/
+  public void removeUpdate(DocumentEvent aEvent) {
+    textChanged(aEvent);
+  }
+
+  /**
+   * DocumentListener method.
+   * 
+   * @param aEvent
+   *          Event generated by the DocumentListener
+   **/
+  public void changedUpdate(DocumentEvent aEvent) {
+  }
+
+  /**
+   * Filters the entries again, or searches again from the selected entry,
+   * as the text of either is typed.
+   **/
+  private void textChanged(DocumentEvent aEvent) {
+    if (aEvent.getDocument() == mPnlList.mTxtFilter.getDocument()) {
+      filter();
+    } else {
+      findText(mCpTable.getSelectedRow());
     }
   }
 
@@ -149,11 +202,43 @@ public class DlgConstantPool extends JDialog implements ActionListener,
   }
 
   /**
-   * Looks for the specified text in the ConstantPool entries. Not yet
-   * implemented.
+   * Shows the entries of the tag and value chosen. The entries are filtered
+   * in the background.
    **/
-  private void findText() {
+  private void filter() {
+    mCpTable.getPoolModel().setFilter(mPnlList.getFilterTag(),
+        mPnlList.mTxtFilter.getText());
+  }
 
+  /**
+   * Looks for the specified text in the ConstantPool entries, in the column
+   * chosen, and selects the entry found.
+   * 
+   * @param aFromRow
+   *          Row to start looking from.
+   **/
+  private void findText(int aFromRow) {
+    String text = mPnlList.mTxtSearch.getText();
+    if (text.length() == 0) {
+      return;
+    }
+    int column = mPnlList.mChooseType.getSelectedIndex() + 2;
+    selectRow(mCpTable.getPoolModel().find(text, column, aFromRow));
+  }
+
+  /**
+   * Selects the given row of the table and scrolls it into view.
+   * 
+   * @param aRow
+   *          Row of the table, or -1 if there is none to be selected.
+   **/
+  private void selectRow(int aRow) {
+    if (aRow == -1) {
+      Toolkit.getDefaultToolkit().beep();
+      return;
+    }
+    mCpTable.setRowSelectionInterval(aRow, aRow);
+    mCpTable.scrollRectToVisible(mCpTable.getCellRect(aRow, 0, true));
   }
 
   /**
@@ -164,13 +249,7 @@ public class DlgConstantPool extends JDialog implements ActionListener,
    *          Index of the ConstantPool to be moved to.
    **/
   private void gotoIndex(int aTargetIndex) {
-    int StepValue;
-    int StartValue;
-
-    JScrollBar VBar = mScrPoolData.getVerticalScrollBar();
-    StepValue = (VBar.getMaximum() - VBar.getMinimum()) / mEntries;
-    StartValue = VBar.getMinimum();
-    VBar.setValue(StartValue + aTargetIndex * StepValue);
+    selectRow(mCpTable.getPoolModel().getViewRow(aTargetIndex));
   }
 
   /**
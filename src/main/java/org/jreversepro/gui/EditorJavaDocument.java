@@ -12,33 +12,309 @@
  * distributed under the License is distributed on an "AS IS" BASIS, 
  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
  * See the License for the specific language governing permissions and
- * limitations under the License.
- **/
+ * limitations under the License. 
+ * 
+ */
 package org.jreversepro.gui;
 
 import javax.swing.*;
 import javax.swing.event.*;
+import javax.swing.text.*;
 import java.awt.*;
+import java.awt.event.*;
+import java.util.BitSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 /**
- * JJavaDocumentEdit
+ * Editor of Java source, that stays responsive for very large outputs.
+ * 
+ * Long texts are loaded a chunk at a time, so that the first chunk is painted
+ * before the rest is in. Syntax is highlighted only for the lines in view that
+ * are not highlighted yet; lines are highlighted again from the place of an
+ * edit onwards. The text is scanned on a background thread and the styles are
+ * applied on the event dispatch thread, unless the text changed meanwhile.
+ * 
+ * Methods are to be called on the event dispatch thread.
  */
 @SuppressWarnings("serial")
-public class EditorJavaDocument extends JTextArea implements DocumentListener {
+public class EditorJavaDocument extends JTextPane implements DocumentListener {
+
+  /** Number of characters loaded onto the editor at a time. */
+  static final int CHUNK = 32 * 1024;
+
+  /** Milliseconds the editor is to be left alone before highlighting. */
+  static final int HIGHLIGHT_DELAY = 100;
 
   public EditorJavaDocument() {
     super();
+    mHighlighted = new BitSet();
+    initStyles();
     setFont(new Font("SansSerif", Font.PLAIN, DlgFont.OPTIMUM_SIZE));
     getDocument().addDocumentListener(this);
+
+    mHighlightTimer = new Timer(HIGHLIGHT_DELAY, new ActionListener() {
+      public void actionPerformed(ActionEvent e) {
+        highlightVisible();
+      }
+    });
+    mHighlightTimer.setRepeats(false);
+    // Scrolling moves the editor within its viewport.
+    addComponentListener(new ComponentAdapter() {
+      @Override
+      public void componentMoved(ComponentEvent e) {
+        mHighlightTimer.restart();
+      }
+
+      @Override
+      public void componentResized(ComponentEvent e) {
+        mHighlightTimer.restart();
+      }
+    });
+  }
+
+  private void initStyles() {
+    Style plain = getStyle(StyleContext.DEFAULT_STYLE);
+    mKeyword = addStyle("keyword", plain);
+    StyleConstants.setForeground(mKeyword, new Color(127, 0, 85));
+    StyleConstants.setBold(mKeyword, true);
+    mComment = addStyle("comment", plain);
+    StyleConstants.setForeground(mComment, new Color(63, 127, 95));
+    mLiteral = addStyle("literal", plain);
+    StyleConstants.setForeground(mLiteral, new Color(42, 0, 255));
+    mPlain = new SimpleAttributeSet();
+  }
+
+  /**
+   * Sets the font of the text, besides that of the editor.
+   */
+  @Override
+  public void setFont(Font aFont) {
+    super.setFont(aFont);
+    // Called by the super constructor, before the styles exist.
+    if (mPlain != null) {
+      Style plain = getStyle(StyleContext.DEFAULT_STYLE);
+      StyleConstants.setFontFamily(plain, aFont.getFamily());
+      StyleConstants.setFontSize(plain, aFont.getSize());
+    }
+  }
+
+  /**
+   * Lines are not wrapped, so the width of the editor is that of its longest
+   * line, unless the viewport is wider.
+   */
+  @Override
+  public boolean getScrollableTracksViewportWidth() {
+    Container parent = getParent();
+    return parent == null
+        || getUI().getPreferredSize(this).width <= parent.getSize().width;
+  }
+
+  /**
+   * Replaces the text, and stops the loading of any text set with
+   * setTextInChunks.
+   */
+  @Override
+  public void setText(String aText) {
+    mLoad++;
+    super.setText(aText);
+  }
+
+  /**
+   * Replaces the text. Only the first chunk is loaded at once, the rest are
+   * appended on later turns of the event dispatch thread.
+   * 
+   * @param aText
+   *          Text to be written onto the editor.
+   */
+  public void setTextInChunks(String aText) {
+    if (aText.length() <= CHUNK) {
+      setText(aText);
+    } else {
+      setText(aText.substring(0, CHUNK));
+      appendChunk(aText, CHUNK, mLoad);
+    }
+    setCaretPosition(0);
+  }
+
+  private void appendChunk(final String aText, final int aFrom,
+      final int aLoad) {
+    SwingUtilities.invokeLater(new Runnable() {
+      public void run() {
+        if (aLoad != mLoad) {
+          return;
+        }
+        int to = Math.min(aText.length(), aFrom + CHUNK);
+        Document document = getDocument();
+        try {
+          document.insertString(document.getLength(), aText.substring(aFrom,
+              to), null);
+        } catch (BadLocationException ex) {
+          throw new IllegalStateException(ex);
+        }
+        if (to < aText.length()) {
+          appendChunk(aText, to, aLoad);
+        }
+      }
+    });
+  }
+
+  /**
+   * Replaces the text between the given offsets.
+   * 
+   * @param aText
+   *          Text to be written in place.
+   * @param aStart
+   *          Offset of the first character replaced.
+   * @param aEnd
+   *          Offset past the last character replaced.
+   */
+  public void replaceRange(String aText, int aStart, int aEnd) {
+    Document document = getDocument();
+    try {
+      document.remove(aStart, aEnd - aStart);
+      document.insertString(aStart, aText, null);
+    } catch (BadLocationException ex) {
+      throw new IllegalArgumentException(ex.getMessage(), ex);
+    }
+  }
+
+  /**
+   * Highlights the lines in view that are not highlighted yet.
+   */
+  void highlightVisible() {
+    Rectangle visible = getVisibleRect();
+    if (visible.isEmpty()) {
+      return;
+    }
+    Element root = getDocument().getDefaultRootElement();
+    int first = root.getElementIndex(viewToModel(visible.getLocation()));
+    int last = root.getElementIndex(viewToModel(new Point(visible.x
+        + visible.width, visible.y + visible.height)));
+    int line = mHighlighted.nextClearBit(first);
+    while (line <= last) {
+      int end = mHighlighted.nextSetBit(line);
+      end = (end == -1 || end > last) ? last + 1 : end;
+      highlight(line, end);
+      line = mHighlighted.nextClearBit(end);
+    }
+  }
+
+  /**
+   * Scans the given lines in the background, to style them afterwards.
+   * 
+   * @param aFirst
+   *          Index of the first line.
+   * @param aEnd
+   *          Index past the last line.
+   */
+  private void highlight(final int aFirst, final int aEnd) {
+    Document document = getDocument();
+    Element root = document.getDefaultRootElement();
+    final int from = root.getElement(aFirst).getStartOffset();
+    int to = Math.min(root.getElement(aEnd - 1).getEndOffset(), document
+        .getLength());
+    final String text;
+    try {
+      text = document.getText(from, to - from);
+    } catch (BadLocationException ex) {
+      throw new IllegalStateException(ex);
+    }
+    final int version = mVersion;
+    mHighlighted.set(aFirst, aEnd);
+    SCANNER.execute(new Runnable() {
+      public void run() {
+        final int[] tokens = SyntaxScanner.scan(text);
+        SwingUtilities.invokeLater(new Runnable() {
+          public void run() {
+            applyStyles(version, aFirst, aEnd, from, text.length(), tokens);
+          }
+        });
+      }
+    });
+  }
+
+  private void applyStyles(int aVersion, int aFirst, int aEnd, int aFrom,
+      int aLength, int[] aTokens) {
+    if (aVersion != mVersion) {
+      // The offsets are stale: scan the lines again.
+      mHighlighted.clear(aFirst, aEnd);
+      mHighlightTimer.restart();
+      return;
+    }
+    StyledDocument document = getStyledDocument();
+    document.setCharacterAttributes(aFrom, aLength, mPlain, true);
+    for (int i = 0; i < aTokens.length; i += 3) {
+      Style style;
+      switch (aTokens[i + 2]) {
+      case SyntaxScanner.KEYWORD:
+        style = mKeyword;
+        break;
+      case SyntaxScanner.COMMENT:
+        style = mComment;
+        break;
+      default:
+        style = mLiteral;
+        break;
+      }
+      document.setCharacterAttributes(aFrom + aTokens[i], aTokens[i + 1],
+          style, true);
+    }
+  }
+
+  /**
+   * Marks the lines from that of the edit onwards to be highlighted again.
+   */
+  private void edited(int aOffset) {
+    mVersion++;
+    int line = getDocument().getDefaultRootElement().getElementIndex(aOffset);
+    mHighlighted.clear(line, Integer.MAX_VALUE);
+    mHighlightTimer.restart();
   }
 
   // Document Listeners
   public void insertUpdate(DocumentEvent e) {
+    edited(e.getOffset());
   }
 
   public void removeUpdate(DocumentEvent e) {
+    edited(e.getOffset());
   }
 
+  /**
+   * Changes of attributes alone, such as highlighting, leave the text as it
+   * is.
+   */
   public void changedUpdate(DocumentEvent e) {
   }
-}
\ No newline at end of file
+
+  /** Scans text for the editors, off the event dispatch thread. */
+  private static final ExecutorService SCANNER = Executors
+      .newSingleThreadExecutor(new ThreadFactory() {
+        public Thread newThread(Runnable r) {
+          Thread thread = new Thread(r, "Highlighter");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+
+  /** Lines highlighted, or being highlighted. */
+  private final BitSet mHighlighted;
+
+  private final Timer mHighlightTimer;
+
+  /** Incremented on each edit of the text. */
+  private int mVersion;
+
+  /** Incremented on each replacement of the whole text. */
+  private int mLoad;
+
+  private Style mKeyword;
+
+  private Style mComment;
+
+  private Style mLiteral;
+
+  private MutableAttributeSet mPlain;
+}
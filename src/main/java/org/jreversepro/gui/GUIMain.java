@@ -28,13 +28,21 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
 import javax.swing.WindowConstants;
+import javax.swing.event.TreeSelectionEvent;
+import javax.swing.event.TreeSelectionListener;
 
 import org.apache.commons.io.IOUtils;
 import org.jreversepro.JReverseProContext;
@@ -43,6 +51,8 @@ import org.jreversepro.jls.JLSConstants;
 import org.jreversepro.jvm.JVMConstants;
 import org.jreversepro.jvm.TypeInferrer;
 import org.jreversepro.parser.ClassParserException;
+import org.jreversepro.pipeline.ClassSource;
+import org.jreversepro.pipeline.FileClassSource;
 import org.jreversepro.reflect.ClassInfo;
 import org.jreversepro.reflect.Field;
 import org.jreversepro.reflect.Import;
@@ -97,6 +107,52 @@ public class GUIMain extends JFrame implements ActionListener,
    */
   private String mCurDir;
 
+  /**
+   * Decompiles the classes opened, in the background.
+   */
+  private final ExecutorService decompiler;
+
+  /**
+   * Decompilation in progress, if any. Accessed on the event dispatch thread.
+   */
+  private DecompileTask currentTask;
+
+  /**
+   * Jar or directory browsed, if any. Accessed on the event dispatch thread.
+   */
+  private ClassBrowser mBrowser;
+
+  /**
+   * Prefetches the neighbours of the class shown, when browsing.
+   */
+  private final ExecutorService prefetcher;
+
+  /**
+   * Incremented when the class shown changes, to drop the prefetches queued
+   * for the class shown before.
+   */
+  private final AtomicInteger prefetchGeneration;
+
+  /**
+   * Classes parsed and rendered so far.
+   */
+  private final OutputCache mCache;
+
+  /**
+   * Class shown, if any. Accessed on the event dispatch thread.
+   */
+  private ClassSource mCurrentSource;
+
+  /**
+   * Bound on the characters of the text of the classes cached.
+   */
+  private static final long CACHE_CHARACTERS = 8L * 1024 * 1024;
+
+  /**
+   * Number of the neighbours of a class to be prefetched.
+   */
+  private static final int PREFETCH_COUNT = 8;
+
   private static final String CURRENT_DIRECTORY = ".";
 
   /**
@@ -126,6 +182,25 @@ public class GUIMain extends JFrame implements ActionListener,
     mMbrGen.onViewCPool.setEnabled(false);
 
     context = _context;
+    decompiler = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "jreversepro-gui-decompiler");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    prefetcher = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "jreversepro-gui-prefetch");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+      }
+    });
+    prefetchGeneration = new AtomicInteger();
+    mCache = new OutputCache(CACHE_CHARACTERS);
     initAppState();
     addListeners();
   }
@@ -139,6 +214,14 @@ public class GUIMain extends JFrame implements ActionListener,
   public void actionPerformed(ActionEvent aEvent) {
     if (aEvent.getSource() == mMbrGen.onFileOpen) {
       openFile();
+    } else if (aEvent.getSource() == mMbrGen.onFileBrowse) {
+      openArchive();
+    } else if (aEvent.getSource() == mMbrGen.onDecompiler
+        || aEvent.getSource() == mMbrGen.onDisAssembler) {
+      // Shown again in the other view, from the cache.
+      if (mCurrentSource != null) {
+        reverseEngineer(mCurrentSource);
+      }
     } else if (aEvent.getSource() == mMbrGen.onFileSave) {
       saveFile();
     } else if (aEvent.getSource() == mMbrGen.onFileExit) {
@@ -165,39 +248,311 @@ public class GUIMain extends JFrame implements ActionListener,
     if (chooser.showChooser(this, "Decompile File") == JFileChooser.APPROVE_OPTION) {
       File f = chooser.getSelectedFile();
       mCurDir = f.getAbsolutePath();
+      closeBrowser();
+      reverseEngineer(new FileClassSource(f));
+    }
+  }
+
+  /**
+   * Method to browse the classes of a jar or a directory. Classes are
+   * decompiled when selected in the tree.
+   */
+  public synchronized void openArchive() {
+    CustomFileChooser chooser = new CustomFileChooser(mCurDir, "Jar Files",
+        ".jar", "Open Jar / Directory");
+    if (chooser.showChooser(this, "Browse") == JFileChooser.APPROVE_OPTION) {
+      File f = chooser.getSelectedFile();
+      mCurDir = f.getAbsolutePath();
+      closeBrowser();
       try {
-        reverseEngineer(f);
-        formatTitle(f.getAbsolutePath());
-      } catch (Exception _ex) {
+        mBrowser = new ClassBrowser(f.getAbsolutePath());
+      } catch (IOException _ex) {
         (new DlgError(this, f.toString(), _ex)).setVisible(true);
+        return;
       }
+      pnlEditor.createBrowserModel(mBrowser);
+      formatTitle(f.getAbsolutePath());
+    }
+  }
+
+  /**
+   * Stops browsing the jar or the directory, if any.
+   */
+  private void closeBrowser() {
+    if (mBrowser != null) {
+      prefetchGeneration.incrementAndGet();
+      mBrowser.close();
+      mBrowser = null;
     }
   }
 
   /**
-   * Method to reverse engineer a file.
+   * Method to reverse engineer a class, in the background - decompiled or
+   * disassembled, as chosen in the menu. A decompiled class is shown as soon
+   * as it is parsed, and the methods as they are decompiled. A decompilation
+   * in progress is cancelled.
    * 
-   * @param aFile
+   * @param aSource
    *          Class file to be reverse engineered.
-   * @throws ClassParserException
-   *           Thrown if class file not in proper format.
-   * @throws IOException
-   *           Thrown if error occured in reading class file.
-   * @throws RevEngineException
-   *           Thrown if error occured in reverse engineering file.
-   */
-  private synchronized void reverseEngineer(File aFile)
-      throws ClassParserException, IOException {
-    mClassInfo = context.loadResource(aFile.getAbsolutePath());
-
-    // Extract code.
-    // TODO: Select Disassembler / Decompiler based on a variable.
-    String code = context.print(OutputType.DECOMPILER, mClassInfo);
-
-    // Output the code
-    pnlEditor.writeCode(code);
+   */
+  private void reverseEngineer(ClassSource aSource) {
+    if (currentTask != null) {
+      currentTask.cancel();
+    }
+    // Prefetches for the class shown before are of no use now.
+    prefetchGeneration.incrementAndGet();
+    mCurrentSource = aSource;
+    currentTask = new DecompileTask(aSource, mBrowser, mMbrGen.onDecompiler
+        .isSelected());
+    mPnlStatusBar.startProgress("Loading "
+        + ClassTreeNode.getClassName(aSource), 1);
+    decompiler.execute(currentTask);
+  }
+
+  /**
+   * Parses and decompiles (or disassembles) a class, a method at a time,
+   * handing the results to the event dispatch thread as they are ready. The
+   * class parsed and the text rendered are taken from the cache, and added
+   * to it. When browsing, the neighbours of the class are prefetched once
+   * done.
+   */
+  private class DecompileTask implements Runnable {
+
+    DecompileTask(ClassSource _source, ClassBrowser _browser,
+        boolean _decompile) {
+      source = _source;
+      browser = _browser;
+      decompile = _decompile;
+      name = ClassTreeNode.getClassName(_source);
+    }
+
+    public void run() {
+      try {
+        DecompiledClass decompiled = mCache.get(source);
+        if (decompiled == null) {
+          decompiled = new DecompiledClass(load(source));
+        }
+        if (!decompile) {
+          disassemble(decompiled);
+        } else if (decompiled.isDecompiled()) {
+          show(decompiled);
+        } else if (!decompile(decompiled)) {
+          // Cancelled.
+          return;
+        }
+        mCache.put(source, decompiled);
+        SwingUtilities.invokeLater(new Runnable() {
+
+          public void run() {
+            if (isCurrent()) {
+              mPnlStatusBar.stopProgress((decompile ? "Decompiled "
+                  : "Disassembled ")
+                  + name);
+              currentTask = null;
+            }
+          }
+        });
+        if (browser != null && decompile) {
+          prefetch(browser.getNeighbours(source));
+        }
+      } catch (final Exception _ex) {
+        SwingUtilities.invokeLater(new Runnable() {
+
+          public void run() {
+            if (isCurrent()) {
+              mPnlStatusBar.stopProgress("Failed to decompile " + name);
+              currentTask = null;
+              (new DlgError(GUIMain.this, source.toString(), _ex))
+                  .setVisible(true);
+            }
+          }
+        });
+      }
+    }
+
+    /**
+     * Shows a class decompiled already.
+     */
+    private void show(final DecompiledClass decompiled) {
+      SwingUtilities.invokeLater(new Runnable() {
+
+        public void run() {
+          if (isCurrent()) {
+            showSkeleton(source, decompiled);
+            int count = decompiled.getSkeleton().getMethodCount();
+            for (int i = 0; i < count; i++) {
+              pnlEditor.writeMethodBody(i, decompiled.getBody(i));
+            }
+            mPnlStatusBar.setProgress(count);
+          }
+        }
+      });
+    }
+
+    /**
+     * Shows the class disassembled, disassembling it unless done already.
+     */
+    private void disassemble(final DecompiledClass decompiled) {
+      String disassembly = decompiled.getDisassembly();
+      if (disassembly == null) {
+        disassembly = context.print(OutputType.DISASSEMBLER, decompiled
+            .getClassInfo());
+        decompiled.setDisassembly(disassembly);
+      }
+      final String code = disassembly;
+      SwingUtilities.invokeLater(new Runnable() {
+
+        public void run() {
+          if (isCurrent()) {
+            showClass(source, decompiled.getClassInfo());
+            pnlEditor.writeCode(code);
+          }
+        }
+      });
+    }
+
+    /**
+     * @return Returns true, if the class is decompiled. false, if cancelled.
+     */
+    private boolean decompile(final DecompiledClass decompiled) {
+      ClassInfo info = decompiled.getClassInfo();
+      decompiled.setSkeleton(context.printSkeleton(info));
+      if (cancelled) {
+        return false;
+      }
+      SwingUtilities.invokeLater(new Runnable() {
+
+        public void run() {
+          if (isCurrent()) {
+            showSkeleton(source, decompiled);
+          }
+        }
+      });
+
+      List<Method> methods = info.getMethods();
+      for (int i = 0; i < methods.size(); i++) {
+        if (cancelled) {
+          return false;
+        }
+        final int index = i;
+        final String body = context.printMethodBody(info, methods.get(i));
+        decompiled.setBody(i, body);
+        SwingUtilities.invokeLater(new Runnable() {
+
+          public void run() {
+            if (isCurrent()) {
+              pnlEditor.writeMethodBody(index, body);
+              mPnlStatusBar.setProgress(index + 1);
+            }
+          }
+        });
+      }
+      return true;
+    }
+
+    /**
+     * Stops the task after the method being decompiled, if any.
+     */
+    void cancel() {
+      cancelled = true;
+    }
+
+    /**
+     * @return Returns true, if the results of this task are still to be
+     *         shown. To be called on the event dispatch thread.
+     */
+    boolean isCurrent() {
+      return !cancelled && currentTask == this;
+    }
+
+    private final ClassSource source;
+
+    private final ClassBrowser browser;
+
+    private final boolean decompile;
+
+    private final String name;
+
+    private volatile boolean cancelled;
+  }
+
+  /**
+   * Decompiles the given classes on the prefetch thread, unless decompiled
+   * already, till another class is selected.
+   * 
+   * @param aSources
+   *          Classes to be decompiled, in the order of preference.
+   */
+  private void prefetch(List<ClassSource> aSources) {
+    final int generation = prefetchGeneration.get();
+    int count = Math.min(aSources.size(), PREFETCH_COUNT);
+    for (final ClassSource source : aSources.subList(0, count)) {
+      prefetcher.execute(new Runnable() {
+
+        public void run() {
+          if (prefetchGeneration.get() != generation) {
+            return;
+          }
+          DecompiledClass cached = mCache.get(source);
+          if (cached != null && cached.isDecompiled()) {
+            return;
+          }
+          try {
+            ClassInfo info = load(source);
+            DecompiledClass decompiled = new DecompiledClass(info);
+            decompiled.setSkeleton(context.printSkeleton(info));
+            List<Method> methods = info.getMethods();
+            for (int i = 0; i < methods.size(); i++) {
+              if (prefetchGeneration.get() != generation) {
+                return;
+              }
+              decompiled.setBody(i, context.printMethodBody(info, methods
+                  .get(i)));
+            }
+            mCache.put(source, decompiled);
+          } catch (Exception _ex) {
+            // Left to be reported, if the class is selected.
+          }
+        }
+      });
+    }
+  }
+
+  /**
+   * @return Returns the class parsed from the source.
+   */
+  private ClassInfo load(ClassSource aSource) throws IOException,
+      ClassParserException {
+    InputStream is = aSource.openStream();
+    try {
+      return context.loadResource(is, aSource.getName());
+    } finally {
+      IOUtils.closeQuietly(is);
+    }
+  }
+
+  /**
+   * Shows the class, before its methods are decompiled.
+   */
+  private void showSkeleton(ClassSource aSource, DecompiledClass aDecompiled) {
+    showClass(aSource, aDecompiled.getClassInfo());
+    pnlEditor.writeSkeleton(aDecompiled.getSkeleton());
+    mPnlStatusBar.startProgress("Decompiling "
+        + ClassTreeNode.getClassName(aSource), aDecompiled.getSkeleton()
+        .getMethodCount());
+  }
+
+  /**
+   * Makes the class the one shown, for the views other than the editor.
+   */
+  private void showClass(ClassSource aSource, ClassInfo aClassInfo) {
+    mClassInfo = aClassInfo;
     mMbrGen.onViewCPool.setEnabled(true);
-    createTree(mClassInfo, mCurrentClass);
+    if (mBrowser == null) {
+      // The tree shows the classes browsed, otherwise.
+      createTree(mClassInfo, ClassTreeNode.getClassName(aSource));
+      formatTitle(aSource.getName());
+    }
   }
 
   /**
@@ -291,6 +646,7 @@ public class GUIMain extends JFrame implements ActionListener,
     } catch (FileNotFoundException fnfe) {
       setLocation(0, 0);
       setSize(800, 550);
+      mMbrGen.setFlag(Boolean.TRUE.toString());
       pnlEditor.setEditorFont(new Font(ClassEditPanel.DEFAULT_FONT, Font.PLAIN,
           DlgFont.OPTIMUM_SIZE));
       System.err.println("Failed to load property file");
@@ -306,12 +662,24 @@ public class GUIMain extends JFrame implements ActionListener,
    */
   private void addListeners() {
     mMbrGen.onFileOpen.addActionListener(this);
+    mMbrGen.onFileBrowse.addActionListener(this);
+    pnlEditor.addTreeSelectionListener(new TreeSelectionListener() {
+
+      public void valueChanged(TreeSelectionEvent e) {
+        Object node = e.getPath().getLastPathComponent();
+        if (e.isAddedPath() && node instanceof ClassTreeNode) {
+          reverseEngineer(((ClassTreeNode) node).getSource());
+        }
+      }
+    });
     mMbrGen.onFileSave.addActionListener(this);
     mMbrGen.onFileExit.addActionListener(this);
 
     mMbrGen.onEditCut.addActionListener(this);
     mMbrGen.onEditCopy.addActionListener(this);
     mMbrGen.onViewCPool.addActionListener(this);
+    mMbrGen.onDecompiler.addActionListener(this);
+    mMbrGen.onDisAssembler.addActionListener(this);
     mMbrGen.onOptFont.addActionListener(this);
 
     mMbrGen.onHelpAbout.addActionListener(this);
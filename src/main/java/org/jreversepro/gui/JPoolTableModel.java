@@ -0,0 +1,395 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+package org.jreversepro.gui;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+
+import org.jreversepro.reflect.ConstantPool;
+
+/**
+ * Has the JPoolTableModel for the JTable.
+ * <p>
+ * Each row is rendered once, when first shown. The rows shown are those of a
+ * view of the pool, filtered and sorted on a background thread; until a view
+ * is ready, the previous one is shown. Methods are to be called on the event
+ * dispatch thread.
+ */
+@SuppressWarnings("serial")
+class JPoolTableModel extends AbstractTableModel {
+  private final int TotRows;
+  private static final int MAX_COLUMNS = 5;
+
+  /** Tag to filter the entries with, to show entries of any tag. */
+  static final int ANY_TAG = Integer.MIN_VALUE;
+
+  String[] ColName;
+  ConstantPool CpInfo;
+
+  /** Rendered rows, by index to the pool. */
+  private final AtomicReferenceArray<Object[]> Rows;
+
+  /** Indices to the pool of the rows shown, or null to show the pool. */
+  private int[] View;
+
+  private int FilterTag = ANY_TAG;
+  private String FilterText = "";
+  private int SortColumn = 0;
+
+  /** Incremented on each change of the view, to drop views overtaken. */
+  private int Generation;
+
+  public JPoolTableModel(ConstantPool RhsCpInfo) {
+    TotRows = RhsCpInfo.getMaxCpEntry();
+
+    CpInfo = RhsCpInfo;
+    Rows = new AtomicReferenceArray<Object[]>(TotRows);
+    initColumnNames();
+  }
+
+  public int getColumnCount() {
+    return MAX_COLUMNS;
+  }
+
+  public int getRowCount() {
+    return (View == null) ? TotRows : View.length;
+  }
+
+  public Object getValueAt(int row, int col) {
+    // Col : 0..4 index.
+    if (col < 0 || col >= MAX_COLUMNS) {
+      return Integer.valueOf(0); // Error
+    }
+    return getCells(getPoolIndex(row))[col];
+  }
+
+  // The default implementations of these methods in
+  // AbstractTableModel would work, but we can refine them.
+  @Override
+  public boolean isCellEditable(int row, int col) {
+    return false;
+  }
+
+  @Override
+  public String getColumnName(int column) {
+    return ColName[column];
+  }
+
+  /**
+   * @param aRow
+   *          Row of the table.
+   * @return Index to the ConstantPool of the entry shown in the row.
+   */
+  public int getPoolIndex(int aRow) {
+    return (View == null) ? aRow : View[aRow];
+  }
+
+  /**
+   * @param aIndex
+   *          Index to the ConstantPool.
+   * @return Row of the table showing the entry, or -1 if it is filtered out.
+   */
+  public int getViewRow(int aIndex) {
+    if (View == null) {
+      return (aIndex >= 0 && aIndex < TotRows) ? aIndex : -1;
+    }
+    for (int i = 0; i < View.length; i++) {
+      if (View[i] == aIndex) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Shows only the entries of the given tag, whose value contains the given
+   * text.
+   * 
+   * @param aTag
+   *          Tag of the entries, or ANY_TAG.
+   * @param aText
+   *          Text to look for in the values, ignoring case.
+   */
+  public void setFilter(int aTag, String aText) {
+    FilterTag = aTag;
+    FilterText = aText;
+    updateView();
+  }
+
+  /**
+   * Sorts the entries shown by the given column, and then by index.
+   * 
+   * @param aColumn
+   *          Column to sort by.
+   */
+  public void setSortColumn(int aColumn) {
+    SortColumn = aColumn;
+    updateView();
+  }
+
+  /**
+   * Looks for the next entry matching the given text. For the Tag Info column
+   * the text is looked for in the values of TAG_UTF8 entries, ignoring case;
+   * for the pointer columns the text is the pointer itself. Rows are not
+   * rendered to be searched.
+   * 
+   * @param aText
+   *          Text to look for.
+   * @param aColumn
+   *          Column to be searched, one of 2, 3 and 4.
+   * @param aFromRow
+   *          Row to start from, wrapping around at the end.
+   * @return Row of the entry found, or -1 if none matches.
+   */
+  public int find(String aText, int aColumn, int aFromRow) {
+    int rows = getRowCount();
+    if (aText.length() == 0 || rows == 0) {
+      return -1;
+    }
+    int pointer = ConstantPool.PTR_INVALID;
+    if (aColumn != 2) {
+      try {
+        pointer = Integer.parseInt(aText.trim());
+      } catch (NumberFormatException ex) {
+        return -1;
+      }
+    }
+    String text = aText.toLowerCase();
+    int start = Math.max(0, Math.min(aFromRow, rows - 1));
+    for (int i = 0; i < rows; i++) {
+      int row = (start + i) % rows;
+      int index = getPoolIndex(row);
+      boolean found;
+      switch (aColumn) {
+      case 2:
+        found = CpInfo.getTagByte(index) == ConstantPool.TAG_UTF8
+            && containsIgnoreCase(CpInfo.getEntryValue(index), text);
+        break;
+      case 3:
+        found = CpInfo.getPtr1(index) == pointer;
+        break;
+      default:
+        found = CpInfo.getPtr2(index) == pointer;
+        break;
+      }
+      if (found) {
+        return row;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Computes the view in the background, and shows it if it is still the
+   * latest one asked for.
+   */
+  private void updateView() {
+    final int generation = ++Generation;
+    final int tag = FilterTag;
+    final String text = FilterText.toLowerCase();
+    final int column = SortColumn;
+    VIEWER.execute(new Runnable() {
+      public void run() {
+        final int[] view = computeView(tag, text, column);
+        SwingUtilities.invokeLater(new Runnable() {
+          public void run() {
+            if (generation == Generation) {
+              View = view;
+              fireTableDataChanged();
+            }
+          }
+        });
+      }
+    });
+  }
+
+  /**
+   * @param aTag
+   *          Tag of the entries, or ANY_TAG.
+   * @param aText
+   *          Text to look for in the values, in lower case.
+   * @param aColumn
+   *          Column to sort by.
+   * @return Indices to the pool of the rows of the view, or null for the pool
+   *         as it is.
+   */
+  int[] computeView(int aTag, String aText, final int aColumn) {
+    if (aTag == ANY_TAG && aText.length() == 0 && aColumn == 0) {
+      return null;
+    }
+    List<Integer> indices = new ArrayList<Integer>();
+    for (int i = 0; i < TotRows; i++) {
+      if ((aTag == ANY_TAG || CpInfo.getTagByte(i) == aTag)
+          && (aText.length() == 0 || containsIgnoreCase(
+              CpInfo.getEntryValue(i), aText))) {
+        indices.add(Integer.valueOf(i));
+      }
+    }
+    if (aColumn != 0) {
+      // The sort is stable, so equal entries stay in the order of the pool.
+      Collections.sort(indices, new Comparator<Integer>() {
+        public int compare(Integer aLeft, Integer aRight) {
+          return compareEntries(aLeft.intValue(), aRight.intValue(), aColumn);
+        }
+      });
+    }
+    int[] view = new int[indices.size()];
+    for (int i = 0; i < view.length; i++) {
+      view[i] = indices.get(i).intValue();
+    }
+    return view;
+  }
+
+  private int compareEntries(int aLeft, int aRight, int aColumn) {
+    switch (aColumn) {
+    case 1:
+      return compareInts(CpInfo.getTagByte(aLeft), CpInfo.getTagByte(aRight));
+    case 2:
+      return String.valueOf(CpInfo.getEntryValue(aLeft)).compareTo(
+          String.valueOf(CpInfo.getEntryValue(aRight)));
+    case 3:
+      return compareInts(CpInfo.getPtr1(aLeft), CpInfo.getPtr1(aRight));
+    case 4:
+      return compareInts(CpInfo.getPtr2(aLeft), CpInfo.getPtr2(aRight));
+    default:
+      return compareInts(aLeft, aRight);
+    }
+  }
+
+  private static int compareInts(int aLeft, int aRight) {
+    return (aLeft < aRight) ? -1 : ((aLeft == aRight) ? 0 : 1);
+  }
+
+  /**
+   * Entries without a value of their own, such as TAG_CLASS, contain no text.
+   */
+  private static boolean containsIgnoreCase(String aValue, String aLowerText) {
+    return aValue != null && !ConstantPool.STR_INVALID.equals(aValue)
+        && aValue.toLowerCase().indexOf(aLowerText) != -1;
+  }
+
+  /**
+   * @return Cells of the entry, rendered on first use.
+   */
+  private Object[] getCells(int aIndex) {
+    Object[] row = Rows.get(aIndex);
+    if (row == null) {
+      row = renderRow(aIndex);
+      Rows.set(aIndex, row);
+    }
+    return row;
+  }
+
+  private Object[] renderRow(int aIndex) {
+    if (aIndex == 0) {
+      Integer zero = Integer.valueOf(0);
+      return new Object[] { zero, zero, zero, zero, zero };
+    }
+    return new Object[] { String.valueOf(aIndex),
+        getTagName(CpInfo.getTagByte(aIndex)), fillValue(aIndex),
+        fillPtr1(aIndex), fillPtr2(aIndex) };
+  }
+
+  private void initColumnNames() {
+    ColName = new String[MAX_COLUMNS];
+
+    ColName[0] = "Index";
+    ColName[1] = "Tag Type";
+    ColName[2] = "Tag Info";
+    ColName[3] = "Pointer I";
+    ColName[4] = "Pointer II";
+  }
+
+  // Private Methods
+
+  private Object fillPtr1(int Index) {
+    int Ptr = CpInfo.getPtr1(Index);
+    if (Ptr == ConstantPool.PTR_INVALID) {
+      return "PTR_INVALID";
+    } else {
+      return Integer.valueOf(Ptr);
+    }
+  }
+
+  private Object fillPtr2(int Index) {
+    int Ptr = CpInfo.getPtr2(Index);
+    if (Ptr == ConstantPool.PTR_INVALID) {
+      return "PTR_INVALID";
+    } else {
+      return Integer.valueOf(Ptr);
+    }
+  }
+
+  /**
+   * @param aTag
+   *          Tag byte of a ConstantPool entry.
+   * @return Name of the tag.
+   */
+  static String getTagName(int aTag) {
+    switch (aTag) {
+    case ConstantPool.TAG_UTF8:
+      return ("TAG_UTF8");
+    case ConstantPool.TAG_INTEGER:
+      return ("TAG_INTEGER");
+    case ConstantPool.TAG_FLOAT:
+      return ("TAG_FLOAT");
+    case ConstantPool.TAG_LONG:
+      return ("TAG_LONG");
+    case ConstantPool.TAG_DOUBLE:
+      return ("TAG_DOUBLE");
+    case ConstantPool.TAG_CLASS:
+      return ("TAG_CLASS");
+    case ConstantPool.TAG_STRING:
+      return ("TAG_STRING");
+    case ConstantPool.TAG_FIELDREF:
+      return ("TAG_FIELDREF");
+    case ConstantPool.TAG_METHODREF:
+      return ("TAG_METHODREF");
+    case ConstantPool.TAG_INTERFACEREF:
+      return ("TAG_INTERFACEREF");
+    case ConstantPool.TAG_NAMETYPE:
+      return ("TAG_NAMETYPE");
+    case ConstantPool.TAG_NOTHING:
+      return ("");
+    default:
+      return ("Invalid Tag");
+    }
+  }
+
+  private Object fillValue(int Index) {
+    return (CpInfo.getEntryValue(Index));
+  }
+
+  /** Filters and sorts the views of the tables, off the event thread. */
+  private static final ExecutorService VIEWER = Executors
+      .newSingleThreadExecutor(new ThreadFactory() {
+        public Thread newThread(Runnable r) {
+          Thread thread = new Thread(r, "ConstantPool Viewer");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+}
@@ -37,6 +37,7 @@ public class MainMenu extends JMenuBar {
   JMenu onHelp;
 
   public JMenuItem onFileOpen;
+  public JMenuItem onFileBrowse;
   public JMenuItem onFileSave;
   public JMenuItem onFileExit;
 
@@ -72,6 +73,7 @@ public class MainMenu extends JMenuBar {
     initMenuItems();
 
     onFile.add(onFileOpen);
+    onFile.add(onFileBrowse);
     onFile.add(onFileSave);
     onFile.add(onFileExit);
 
@@ -109,6 +111,7 @@ public class MainMenu extends JMenuBar {
 
   private void initMenuItems() {
     onFileOpen = new JMenuItem("Open");
+    onFileBrowse = new JMenuItem("Browse Jar / Directory");
     onFileSave = new JMenuItem("Save");
     onFileExit = new JMenuItem("Exit");
 
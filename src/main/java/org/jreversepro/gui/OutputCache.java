@@ -0,0 +1,196 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.gui;
+
+import java.io.File;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jreversepro.pipeline.ClassSource;
+import org.jreversepro.pipeline.ZipEntryClassSource;
+
+/**
+ * Cache of the classes parsed and rendered for the GUI, so that revisiting a
+ * class or toggling between the decompiled and the disassembled views needs
+ * no parsing nor decompiling.
+ * <p>
+ * Classes are keyed by the name of the source, and dropped once the file
+ * containing them is modified. The cache is bounded by the characters of
+ * the text rendered, evicting the least recently used classes past the
+ * bound. The classes are held by soft references too, so that the garbage
+ * collector could evict them under memory pressure.
+ * <p>
+ * Thread-safe.
+ * 
+ * @author Karthik Kumar
+ */
+public class OutputCache {
+
+  /**
+   * @param aMaxCharacters
+   *          Bound on the characters of the text of the classes cached.
+   */
+  public OutputCache(long aMaxCharacters) {
+    mMaxCharacters = aMaxCharacters;
+    mEntries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    mCleared = new ReferenceQueue<DecompiledClass>();
+    mCharacters = 0;
+  }
+
+  /**
+   * @param aSource
+   *          Class file.
+   * @return Returns the class cached for the source. Null, if not cached,
+   *         evicted, or the file modified since.
+   */
+  public synchronized DecompiledClass get(ClassSource aSource) {
+    purge();
+    Entry entry = mEntries.get(aSource.getName());
+    if (entry == null) {
+      return null;
+    }
+    DecompiledClass decompiled = entry.get();
+    if (decompiled == null || entry.mModified != getModified(aSource)) {
+      remove(aSource.getName());
+      return null;
+    }
+    return decompiled;
+  }
+
+  /**
+   * @param aSource
+   *          Class file.
+   * @return Returns true, if a class is cached for the source.
+   */
+  public boolean contains(ClassSource aSource) {
+    return get(aSource) != null;
+  }
+
+  /**
+   * Adds the class, or accounts for the text rendered of it since added.
+   * 
+   * @param aSource
+   *          Class file.
+   * @param aDecompiled
+   *          Class parsed, and the text rendered of it.
+   */
+  public synchronized void put(ClassSource aSource,
+      DecompiledClass aDecompiled) {
+    purge();
+    remove(aSource.getName());
+    Entry entry = new Entry(aSource.getName(), getModified(aSource),
+        aDecompiled.getLength(), aDecompiled, mCleared);
+    mEntries.put(entry.mKey, entry);
+    mCharacters += entry.mLength;
+
+    // Least recently used first. The class just added stays, even if past
+    // the bound alone.
+    Iterator<Entry> it = mEntries.values().iterator();
+    while (mCharacters > mMaxCharacters && mEntries.size() > 1) {
+      Entry eldest = it.next();
+      it.remove();
+      mCharacters -= eldest.mLength;
+    }
+  }
+
+  /**
+   * Drops all the classes.
+   */
+  public synchronized void clear() {
+    mEntries.clear();
+    mCharacters = 0;
+    purge();
+  }
+
+  /**
+   * @return Returns the characters of the text of the classes cached.
+   */
+  public synchronized long getCharacters() {
+    purge();
+    return mCharacters;
+  }
+
+  /**
+   * Drops the entries of the classes evicted by the garbage collector.
+   */
+  private void purge() {
+    Reference<? extends DecompiledClass> ref;
+    while ((ref = mCleared.poll()) != null) {
+      Entry entry = (Entry) ref;
+      if (mEntries.get(entry.mKey) == entry) {
+        remove(entry.mKey);
+      }
+    }
+  }
+
+  private void remove(String aKey) {
+    Entry entry = mEntries.remove(aKey);
+    if (entry != null) {
+      mCharacters -= entry.mLength;
+    }
+  }
+
+  /**
+   * @return Returns the time the file containing the class - the class file
+   *         or the archive - was last modified.
+   */
+  static long getModified(ClassSource aSource) {
+    String path = aSource.getName();
+    int separator = path.indexOf(ZipEntryClassSource.ENTRY_SEPARATOR);
+    if (separator != -1) {
+      path = path.substring(0, separator);
+    }
+    return new File(path).lastModified();
+  }
+
+  /**
+   * A class cached, with what it is keyed and accounted by.
+   */
+  private static class Entry extends SoftReference<DecompiledClass> {
+
+    Entry(String _key, long _modified, int _length,
+        DecompiledClass _decompiled, ReferenceQueue<DecompiledClass> _queue) {
+      super(_decompiled, _queue);
+      mKey = _key;
+      mModified = _modified;
+      mLength = _length;
+    }
+
+    final String mKey;
+
+    final long mModified;
+
+    final int mLength;
+  }
+
+  private final long mMaxCharacters;
+
+  /**
+   * Classes by the name of the source, least recently used first.
+   */
+  private final Map<String, Entry> mEntries;
+
+  private final ReferenceQueue<DecompiledClass> mCleared;
+
+  private long mCharacters;
+
+}
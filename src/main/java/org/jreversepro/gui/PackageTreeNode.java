@@ -0,0 +1,81 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.gui;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+
+import org.jreversepro.pipeline.ClassSource;
+
+/**
+ * Node of the tree of a ClassBrowser, for a package. The children - the sub
+ * packages and the classes - are added when the node is first expanded.
+ * 
+ * @author Karthik Kumar
+ */
+@SuppressWarnings("serial")
+public class PackageTreeNode extends DefaultMutableTreeNode {
+
+  /**
+   * @param aBrowser
+   *          Classes browsed.
+   * @param aPackage
+   *          Package, with '/' separators. Empty for the root.
+   * @param aName
+   *          Name shown for the node.
+   */
+  public PackageTreeNode(ClassBrowser aBrowser, String aPackage, String aName) {
+    super(aName, true);
+    mBrowser = aBrowser;
+    mPackage = aPackage;
+    mLoaded = false;
+  }
+
+  /**
+   * Adds the children of the node, unless added already.
+   * 
+   * @return Returns true, if the children were added now.
+   */
+  public boolean loadChildren() {
+    if (mLoaded) {
+      return false;
+    }
+    mLoaded = true;
+    for (String pkg : mBrowser.getSubPackages(mPackage)) {
+      add(new PackageTreeNode(mBrowser, pkg, ClassBrowser.getSimpleName(pkg)));
+    }
+    for (ClassSource source : mBrowser.getClasses(mPackage)) {
+      add(new ClassTreeNode(source));
+    }
+    return true;
+  }
+
+  /**
+   * Packages are never leaves, even before their children are added.
+   */
+  @Override
+  public boolean isLeaf() {
+    return false;
+  }
+
+  private final ClassBrowser mBrowser;
+
+  private final String mPackage;
+
+  private boolean mLoaded;
+
+}
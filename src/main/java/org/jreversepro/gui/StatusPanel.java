@@ -23,13 +23,17 @@ import java.util.Date;
 import java.util.Calendar;
 
 /**
- * Represents the Status Panel of the Decompiler
+ * Represents the Status Panel of the Decompiler. Shows the progress of the
+ * decompilation in the background, and the time.
  * 
+ * Methods are to be called on the event dispatch thread.
  */
 @SuppressWarnings("serial")
 public class StatusPanel extends JPanel implements ActionListener {
 
   private final JLabel LblTime;
+  private final JLabel LblMessage;
+  private final JProgressBar PrgProgress;
   Timer SysTimer;
   Calendar Today;
 
@@ -37,9 +41,15 @@ public class StatusPanel extends JPanel implements ActionListener {
 
   public StatusPanel() {
     LblTime = new JLabel("", SwingConstants.RIGHT);
+    LblMessage = new JLabel("", SwingConstants.LEFT);
+    PrgProgress = new JProgressBar();
+    PrgProgress.setStringPainted(true);
+    PrgProgress.setVisible(false);
 
     // Right Justify Time
-    setLayout(new GridLayout(1, 1));
+    setLayout(new GridLayout(1, 3));
+    add(LblMessage);
+    add(PrgProgress);
     add(LblTime);
 
     Today = Calendar.getInstance();
@@ -48,6 +58,41 @@ public class StatusPanel extends JPanel implements ActionListener {
     SysTimer.start();
   }
 
+  /**
+   * Shows the progress bar, for a task of the given number of steps.
+   * 
+   * @param aMessage
+   *          Task in progress.
+   * @param aSteps
+   *          Number of steps of the task.
+   */
+  public void startProgress(String aMessage, int aSteps) {
+    LblMessage.setText(aMessage);
+    PrgProgress.setMinimum(0);
+    PrgProgress.setMaximum(aSteps);
+    PrgProgress.setValue(0);
+    PrgProgress.setVisible(true);
+  }
+
+  /**
+   * @param aStepsDone
+   *          Number of steps of the task done.
+   */
+  public void setProgress(int aStepsDone) {
+    PrgProgress.setValue(aStepsDone);
+  }
+
+  /**
+   * Hides the progress bar.
+   * 
+   * @param aMessage
+   *          Outcome of the task.
+   */
+  public void stopProgress(String aMessage) {
+    LblMessage.setText(aMessage);
+    PrgProgress.setVisible(false);
+  }
+
   public void actionPerformed(final ActionEvent e) {
     if (e.getSource() == SysTimer) {
       LblTime.setText(new Date(System.currentTimeMillis()).toString());
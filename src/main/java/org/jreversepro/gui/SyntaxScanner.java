@@ -0,0 +1,129 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.gui;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Splits Java source into the tokens the editor highlights: keywords,
+ * comments and literals. Everything else is left plain.
+ * 
+ * A region is scanned on its own, so a comment that starts before the region
+ * is not seen as one.
+ */
+final class SyntaxScanner {
+
+  /** Kind of a token that is a keyword. */
+  static final int KEYWORD = 0;
+
+  /** Kind of a token that is a comment. */
+  static final int COMMENT = 1;
+
+  /** Kind of a token that is a string or character literal. */
+  static final int LITERAL = 2;
+
+  private SyntaxScanner() {
+  }
+
+  /**
+   * @param aText
+   *          Source to scan.
+   * @return Tokens found, as triples of start, length and kind, in the
+   *         order of the source.
+   */
+  static int[] scan(String aText) {
+    int[] tokens = new int[48];
+    int count = 0;
+    int length = aText.length();
+    int i = 0;
+    while (i < length) {
+      char ch = aText.charAt(i);
+      int start = i;
+      int kind = -1;
+      if (ch == '/' && i + 1 < length && aText.charAt(i + 1) == '/') {
+        i = aText.indexOf('\n', i);
+        i = (i == -1) ? length : i;
+        kind = COMMENT;
+      } else if (ch == '/' && i + 1 < length && aText.charAt(i + 1) == '*') {
+        i = aText.indexOf("*/", i + 2);
+        i = (i == -1) ? length : i + 2;
+        kind = COMMENT;
+      } else if (ch == '"' || ch == '\'') {
+        i = endOfLiteral(aText, i + 1, ch);
+        kind = LITERAL;
+      } else if (Character.isJavaIdentifierStart(ch)) {
+        do {
+          i++;
+        } while (i < length && Character.isJavaIdentifierPart(aText.charAt(i)));
+        if (KEYWORDS.contains(aText.substring(start, i))) {
+          kind = KEYWORD;
+        }
+      } else {
+        i++;
+      }
+      if (kind != -1) {
+        if (count + 3 > tokens.length) {
+          tokens = resize(tokens, tokens.length * 2);
+        }
+        tokens[count++] = start;
+        tokens[count++] = i - start;
+        tokens[count++] = kind;
+      }
+    }
+    return resize(tokens, count);
+  }
+
+  private static int[] resize(int[] aArray, int aLength) {
+    int[] resized = new int[aLength];
+    System.arraycopy(aArray, 0, resized, 0, Math.min(aArray.length, aLength));
+    return resized;
+  }
+
+  /**
+   * @return Index past the closing quote of the literal, or of the end of
+   *         its line if it is not closed.
+   */
+  private static int endOfLiteral(String aText, int aFrom, char aQuote) {
+    int i = aFrom;
+    while (i < aText.length()) {
+      char ch = aText.charAt(i++);
+      if (ch == aQuote) {
+        break;
+      } else if (ch == '\\') {
+        i++;
+      } else if (ch == '\n') {
+        i--;
+        break;
+      }
+    }
+    return Math.min(i, aText.length());
+  }
+
+  private static final Set<String> KEYWORDS = new HashSet<String>(
+      Arrays.asList("abstract", "assert", "boolean", "break", "byte", "case",
+          "catch", "char", "class", "const", "continue", "default", "do",
+          "double", "else", "enum", "extends", "final", "finally", "float",
+          "for", "goto", "if", "implements", "import", "instanceof", "int",
+          "interface", "long", "native", "new", "package", "private",
+          "protected", "public", "return", "short", "static", "strictfp",
+          "super", "switch", "synchronized", "this", "throw", "throws",
+          "transient", "try", "void", "volatile", "while", "true", "false",
+          "null"));
+}
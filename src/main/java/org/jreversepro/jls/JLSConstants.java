@@ -120,6 +120,8 @@ public interface JLSConstants {
 
   String END_OF_STATEMENT = ";";
 
+  String SINGLE_LINE_COMMENT = "// ";
+
   char JLS_PACKAGE_DELIMITER = '.';
 
   String IMPLEMENTS = "implements";
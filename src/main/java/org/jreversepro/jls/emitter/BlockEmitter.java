@@ -29,6 +29,7 @@ public abstract class BlockEmitter {
 
   // The block may have
   public void emitJLSCode(EmitterTarget target, Block _block) {
+    target.charge();
     emitBlockBeginCode(target, _block);
     emitCurrentCode(target, _block);
     emitBlockEndCode(target, _block);
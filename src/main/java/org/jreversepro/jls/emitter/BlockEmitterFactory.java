@@ -16,8 +16,8 @@
  */
 package org.jreversepro.jls.emitter;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import org.jreversepro.CustomLoggerFactory;
@@ -40,7 +40,7 @@ public final class BlockEmitterFactory {
   }
 
   // Caching can be done as all method invoction are stateless
-  private static Map<Class<? extends Block>, BlockEmitter> emitterCache = new HashMap<Class<? extends Block>, BlockEmitter>();
+  private static Map<Class<? extends Block>, BlockEmitter> emitterCache = new ConcurrentHashMap<Class<? extends Block>, BlockEmitter>();
 
   public static final BlockEmitter getBlockEmitter(Class<? extends Block> clazz)
       throws Exception {
@@ -50,7 +50,8 @@ public final class BlockEmitterFactory {
     // Do not worry about any synchronization here.. No harm done by
     // creating it twice or more
     // during the window of vulnerability when simultaneous requests are
-    // coming in.
+    // coming in. The map itself has to be safe for concurrent puts though,
+    // since classes are decompiled in parallel by the pipeline.
     if (emitter == null) {
       emitter = Class.forName(BlockEmitterContext
           .getBlockEmitterFQCN(clazz.getName())).asSubclass(BlockEmitter.class).newInstance();
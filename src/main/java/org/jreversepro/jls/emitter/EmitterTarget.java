@@ -18,6 +18,8 @@
  ***/
 package org.jreversepro.jls.emitter;
 
+import org.jreversepro.decompile.MethodBudget;
+
 /**
  * @author akkumar
  * 
@@ -25,7 +27,23 @@ package org.jreversepro.jls.emitter;
 public class EmitterTarget {
 
   public EmitterTarget() {
+    this(MethodBudget.UNBOUNDED);
+  }
+
+  /**
+   * @param _budget
+   *          Budget of the method being emitted.
+   */
+  public EmitterTarget(MethodBudget _budget) {
     sb = new StringBuilder();
+    budget = _budget;
+  }
+
+  /**
+   * Charges the budget of the method for a block emitted.
+   */
+  public void charge() {
+    budget.charge();
   }
 
   public String getEmittedCode() {
@@ -38,4 +56,6 @@ public class EmitterTarget {
 
   private StringBuilder sb;
 
+  private final MethodBudget budget;
+
 }
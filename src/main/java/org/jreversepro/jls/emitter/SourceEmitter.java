@@ -17,8 +17,18 @@
 package org.jreversepro.jls.emitter;
 
 import org.jreversepro.ast.block.Block;
+import org.jreversepro.decompile.MethodBudget;
 
 public interface SourceEmitter {
 
   public String emitCode(Block block);
+
+  /**
+   * @param block
+   *          Block to be emitted.
+   * @param budget
+   *          Budget of the method, charged once per block emitted.
+   * @return Returns the code of the block.
+   */
+  public String emitCode(Block block, MethodBudget budget);
 }
@@ -19,6 +19,7 @@ package org.jreversepro.jls.emitter.java14;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.jreversepro.ast.block.Comment;
 import org.jreversepro.ast.block.MethodBlock;
 import org.jreversepro.ast.block.Statement;
 import org.jreversepro.jls.emitter.BlockEmitterConfig;
@@ -38,6 +39,7 @@ public class BlockEmitterConfigImpl_14 extends BlockEmitterConfig {
         MethodEmitter.class.getName());
     map.put(Statement.class.getName(),
         StatementEmitter.class.getName());
+    map.put(Comment.class.getName(), CommentEmitter.class.getName());
     return map;
   }
 
@@ -18,6 +18,7 @@ package org.jreversepro.jls.emitter.java14;
 
 import org.jreversepro.ast.block.Block;
 import org.jreversepro.ast.block.MethodBlock;
+import org.jreversepro.decompile.MethodBudget;
 import org.jreversepro.jls.emitter.EmitterTarget;
 import org.jreversepro.jls.emitter.SourceEmitter;
 
@@ -25,11 +26,15 @@ import org.jreversepro.jls.emitter.SourceEmitter;
 public class DefaultSourceEmitter implements SourceEmitter {
 
   public String emitCode(Block block) {
+    return emitCode(block, MethodBudget.UNBOUNDED);
+  }
+
+  public String emitCode(Block block, MethodBudget budget) {
     if (!(block instanceof MethodBlock)) {
       throw new IllegalArgumentException(
           "I take only MethodBlocks. Can't take " + block.getClass().getName());
     }
-    EmitterTarget target = new EmitterTarget();
+    EmitterTarget target = new EmitterTarget(budget);
     block.getEmitter().emitJLSCode(target, block);
     return target.getEmittedCode();
   }
@@ -20,6 +20,7 @@ package org.jreversepro.jls.emitter.java14;
 
 import org.jreversepro.ast.block.Block;
 import org.jreversepro.ast.block.Statement;
+import org.jreversepro.ast.expression.CatchParameter;
 import org.jreversepro.jls.JLSConstants;
 import org.jreversepro.jls.emitter.BlockEmitter;
 import org.jreversepro.jls.emitter.EmitterTarget;
@@ -44,8 +45,17 @@ public class StatementEmitter extends BlockEmitter {
   @Override
   protected void emitCurrentCode(EmitterTarget target, Block _block) {
     Statement stmt = (Statement) _block;
-    target.append(stmt.getExpression().getJLSCode()
-        + JLSConstants.END_OF_STATEMENT);
+    if (stmt.getExpression() instanceof CatchParameter) {
+      // The parameter of a catch clause heads the handler - it is not a
+      // statement of its own. Commented out, as the try / catch blocks are
+      // not structured yet and a catch clause without its try does not
+      // compile.
+      target.append(JLSConstants.SINGLE_LINE_COMMENT);
+      target.append(stmt.getExpression().getJLSCode());
+    } else {
+      target.append(stmt.getExpression().getJLSCode());
+      target.append(JLSConstants.END_OF_STATEMENT);
+    }
     target.append("\n");
   }
 
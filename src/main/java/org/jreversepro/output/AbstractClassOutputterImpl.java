@@ -28,6 +28,8 @@ import org.jreversepro.reflect.ClassInfo;
 import org.jreversepro.reflect.Field;
 import org.jreversepro.reflect.Import;
 import org.jreversepro.reflect.Method;
+import org.jreversepro.reflect.instruction.Instruction;
+import org.jreversepro.reflect.instruction.InstructionList;
 import org.jreversepro.reflect.variabletable.VariableTable;
 
 
@@ -350,6 +352,27 @@ abstract class AbstractClassOutputterImpl implements JVMConstants {
     sb.append(str);
   }
 
+  /**
+   * @return Returns the length of the contents so far.
+   */
+  protected int getContentsLength() {
+    return sb.length();
+  }
+
+  /**
+   * Outputs the instructions one per line.
+   * 
+   * @param list
+   *          Instructions of a method.
+   * @param linePrefix
+   *          Prefix of every line.
+   */
+  protected void outputInstructionList(InstructionList list, String linePrefix) {
+    for (Instruction ins : list.getAllInstructions()) {
+      outputString(styler.outputLine(linePrefix + ins.toString()));
+    }
+  }
+
   protected ClassInfo clazz;
 
   private final Logger logger = CustomLoggerFactory.createLogger();
@@ -0,0 +1,81 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.output;
+
+/**
+ * The source of a class, with a placeholder in place of the body of every
+ * method - so that the class could be shown before its methods are
+ * decompiled, and the bodies filled in as they are.
+ * 
+ * @author Karthik Kumar
+ */
+public class ClassSkeleton {
+
+  /**
+   * @param _code
+   *          Source of the class, with placeholders.
+   * @param _bodyStarts
+   *          Offset of the placeholder of every method into the code.
+   * @param _bodyEnds
+   *          Offset past the placeholder of every method.
+   */
+  ClassSkeleton(String _code, int[] _bodyStarts, int[] _bodyEnds) {
+    code = _code;
+    bodyStarts = _bodyStarts;
+    bodyEnds = _bodyEnds;
+  }
+
+  /**
+   * @return Returns the source of the class, with placeholders.
+   */
+  public String getCode() {
+    return code;
+  }
+
+  /**
+   * @return Returns the number of methods, in the order of the class.
+   */
+  public int getMethodCount() {
+    return bodyStarts.length;
+  }
+
+  /**
+   * @param method
+   *          Index of the method.
+   * @return Returns the offset of the placeholder of the method.
+   */
+  public int getBodyStart(int method) {
+    return bodyStarts[method];
+  }
+
+  /**
+   * @param method
+   *          Index of the method.
+   * @return Returns the offset past the placeholder of the method.
+   */
+  public int getBodyEnd(int method) {
+    return bodyEnds[method];
+  }
+
+  private final String code;
+
+  private final int[] bodyStarts;
+
+  private final int[] bodyEnds;
+
+}
@@ -16,24 +16,37 @@
  */
 package org.jreversepro.output;
 
+import java.util.List;
 import java.util.logging.Logger;
 
 import org.jreversepro.CustomLoggerFactory;
 import org.jreversepro.ast.block.Block;
+import org.jreversepro.ast.evaluator.UnsupportedOpcodeException;
+import org.jreversepro.decompile.BudgetExceededException;
 import org.jreversepro.decompile.DecompilationContext;
+import org.jreversepro.decompile.DecompileLimits;
 import org.jreversepro.decompile.Decompiler;
+import org.jreversepro.decompile.MethodBudget;
 import org.jreversepro.jls.emitter.SourceEmitter;
 import org.jreversepro.jls.emitter.SourceEmitterFactory;
 import org.jreversepro.jls.emitter.SourceEmitterFactory.JLSSource;
 import org.jreversepro.reflect.ClassInfo;
+import org.jreversepro.parser.instruction.InstructionListParserException;
+import org.jreversepro.parser.instruction.InstructionListParserFactory;
 import org.jreversepro.reflect.Method;
+import org.jreversepro.reflect.instruction.InstructionList;
 
 
 public class DecompilerOutputImpl extends AbstractClassOutputterImpl {
 
   protected DecompilerOutputImpl(ClassInfo _clazz, CodeStyler _styler) {
-    super(_clazz, _styler);
+    this(_clazz, _styler, new DecompileLimits());
+  }
 
+  protected DecompilerOutputImpl(ClassInfo _clazz, CodeStyler _styler,
+      DecompileLimits _limits) {
+    super(_clazz, _styler);
+    limits = _limits;
   }
 
   @Override
@@ -54,32 +67,115 @@ public class DecompilerOutputImpl extends AbstractClassOutputterImpl {
     closeBlock();
   }
 
+  /**
+   * Outputs the class with a placeholder in place of the body of every
+   * method. The methods are not decompiled.
+   * 
+   * @return Returns the class, and where the placeholders are.
+   */
+  public ClassSkeleton processSkeleton() {
+    List<Method> methods = clazz.getMethods();
+    bodyStarts = new int[methods.size()];
+    bodyEnds = new int[methods.size()];
+    process();
+    ClassSkeleton skeleton = new ClassSkeleton(getContents(), bodyStarts,
+        bodyEnds);
+    bodyStarts = null;
+    bodyEnds = null;
+    return skeleton;
+  }
+
+  /**
+   * Outputs the body of a single method, indented as it is in the class. The
+   * body takes the place of the placeholder of the method in the skeleton.
+   * 
+   * @param method
+   *          Method of the class.
+   */
+  public void processMethodBody(Method method) {
+    // Into the class and the method blocks.
+    openBlock();
+    openBlock();
+    clearContents();
+    processMethod(method);
+  }
+
   /**
    * Outputs  the stringified decompiled method.
    * 
    *
    */
   protected void outputMethods() {
-
+    int index = 0;
     for (Method method : clazz.getMethods()) {
       outputMethodHeader(method);
       openBlock();
-      processMethod(method);
+      if (bodyStarts == null) {
+        processMethod(method);
+      } else {
+        bodyStarts[index] = getContentsLength();
+        outputString(styler.outputLine(PLACEHOLDER));
+        bodyEnds[index] = getContentsLength();
+      }
       closeBlock();
+      index++;
     }
   }
 
   public void processMethod(Method method) {
-    DecompilationContext ctx = new DecompilationContext(method, clazz
-        .getConstantPool());
-    Decompiler decompiler = new Decompiler(ctx);
-    Block block = decompiler.extractAST();
-    SourceEmitter emitter = SourceEmitterFactory
-        .getSourceEmitter(JLSSource.JDK14);
-    outputString(emitter.emitCode(block));
+    if (method.getBytes() == null) {
+      // Abstract and native methods have no code to decompile.
+      return;
+    }
+    MethodBudget budget = limits.newMethodBudget();
+    String code;
+    try {
+      DecompilationContext ctx = new DecompilationContext(method, clazz
+          .getConstantPool(), budget);
+      ctx.setParallelBlocks(limits.getParallelBlocks());
+      Decompiler decompiler = new Decompiler(ctx);
+      Block block = decompiler.extractAST();
+      SourceEmitter emitter = SourceEmitterFactory
+          .getSourceEmitter(JLSSource.JDK14);
+      code = emitter.emitCode(block, budget);
+    } catch (BudgetExceededException e) {
+      outputFallback(method, e.getMessage());
+      return;
+    } catch (UnsupportedOpcodeException e) {
+      outputFallback(method, e.getMessage());
+      return;
+    }
+    outputString(code);
+  }
 
+  /**
+   * Disassembles the method (as comments) in place of the decompiled code,
+   * for a method that could not be decompiled.
+   */
+  private void outputFallback(Method method, String reason) {
+    logger.warning(clazz.getThisClass() + "." + method.getName()
+        + " disassembled: " + reason);
+    outputString(styler.outputLine("// Unable to decompile: " + reason));
+    try {
+      InstructionList list = InstructionListParserFactory
+          .createInstructionListParser().parseBytes(method.getBytes());
+      outputInstructionList(list, "// ");
+    } catch (InstructionListParserException e) {
+      logger.warning(e.toString());
+    }
   }
 
+  private final DecompileLimits limits;
+
+  /**
+   * Offsets of the placeholders, while outputting a skeleton.
+   */
+  private int[] bodyStarts;
+
+  private int[] bodyEnds;
+
+  private static final String PLACEHOLDER = "// Decompiling ...";
+
   private final Logger logger = CustomLoggerFactory.createLogger();
 
 }
@@ -16,10 +16,24 @@
  */
 package org.jreversepro.output;
 
+import org.jreversepro.decompile.DecompileLimits;
 import org.jreversepro.reflect.ClassInfo;
+import org.jreversepro.reflect.Method;
 
 public class DecompilerOutputter implements AbstractOutputter {
 
+  public DecompilerOutputter() {
+    this(new DecompileLimits());
+  }
+
+  /**
+   * @param _limits
+   *          Limits on the effort spent per method.
+   */
+  public DecompilerOutputter(DecompileLimits _limits) {
+    limits = _limits;
+  }
+
   /**
    * Returns the stringified disassembled/decompiled class, optionally with
    * metadata.
@@ -30,9 +44,39 @@ public class DecompilerOutputter implements AbstractOutputter {
    */
   public String output(ClassInfo _clazz) {
     CodeStyler styler = new BSDKNFCodeStyler();
-    AbstractClassOutputterImpl impl = new DecompilerOutputImpl(_clazz, styler);
+    AbstractClassOutputterImpl impl = new DecompilerOutputImpl(_clazz, styler,
+        limits);
     impl.process();
     return impl.getContents();
   }
 
+  /**
+   * @param _clazz
+   *          Class that needs to be outputted.
+   * @return Returns the class with placeholders in place of the bodies of the
+   *         methods, which are not decompiled.
+   */
+  public ClassSkeleton outputSkeleton(ClassInfo _clazz) {
+    DecompilerOutputImpl impl = new DecompilerOutputImpl(_clazz,
+        new BSDKNFCodeStyler(), limits);
+    return impl.processSkeleton();
+  }
+
+  /**
+   * @param _clazz
+   *          Class of the method.
+   * @param method
+   *          Method that needs to be decompiled.
+   * @return Returns the decompiled body of the method, to take the place of
+   *         its placeholder in the skeleton of the class.
+   */
+  public String outputMethodBody(ClassInfo _clazz, Method method) {
+    DecompilerOutputImpl impl = new DecompilerOutputImpl(_clazz,
+        new BSDKNFCodeStyler(), limits);
+    impl.processMethodBody(method);
+    return impl.getContents();
+  }
+
+  private final DecompileLimits limits;
+
 }
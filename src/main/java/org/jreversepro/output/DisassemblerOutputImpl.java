@@ -23,7 +23,6 @@ import org.jreversepro.parser.instruction.InstructionListParserException;
 import org.jreversepro.parser.instruction.InstructionListParserFactory;
 import org.jreversepro.reflect.ClassInfo;
 import org.jreversepro.reflect.Method;
-import org.jreversepro.reflect.instruction.Instruction;
 import org.jreversepro.reflect.instruction.InstructionList;
 
 
@@ -66,7 +65,7 @@ public class DisassemblerOutputImpl extends AbstractClassOutputterImpl {
       try {
         InstructionList list = InstructionListParserFactory
             .createInstructionListParser().parseBytes(method.getBytes());
-        outputInstructionList(list);
+        outputInstructionList(list, "");
       } catch (InstructionListParserException e) {
         logger.warning(e.toString());
       }
@@ -74,12 +73,6 @@ public class DisassemblerOutputImpl extends AbstractClassOutputterImpl {
     }
   }
 
-  private void outputInstructionList(InstructionList list) {
-    for (Instruction ins : list.getAllInstructions()) {
-      outputString(styler.outputLine(ins.toString()));
-    }
-  }
-
   private final Logger logger = CustomLoggerFactory.createLogger();
 
 }
@@ -482,6 +482,8 @@ public class AbstractClassFileParser {
       AttributeParser.readSynthetic(dis);
     } else if (attrName.equals(JVMConstants.ATTRIBUTE_DEPRECATED)) {
       AttributeParser.readDeprecated(dis);
+    } else {
+      AttributeParser.skipAttribute(dis);
     }
   }
 
@@ -516,6 +518,8 @@ public class AbstractClassFileParser {
       // TODO Should discuss with akkumar if he has implemented it
       // already in some other code location.
       AttributeParser.readInnerClasses(dis);
+    } else {
+      AttributeParser.skipAttribute(dis);
     }
   }
 
@@ -237,6 +237,21 @@ public final class AttributeParser {
     return classes;
   }
 
+  /**
+   * Skips an attribute not read otherwise - StackMapTable, Signature and the
+   * like.
+   * 
+   * @param aDis
+   *          DataInputStream containing the bytes of the class.
+   * @throws IOException
+   *           Error in Class Stream of bytes.
+   */
+  public static void skipAttribute(DataInputStream aDis) throws IOException {
+    int len = aDis.readInt();
+    byte[] btRead = new byte[len];
+    aDis.readFully(btRead);
+  }
+
   public static void readInnerClasses(DataInputStream dis) {
     // TODO Auto-generated method stub
     
@@ -266,6 +281,8 @@ public final class AttributeParser {
       readLineNumberTable(aDis);
     } else if (attrName.equals(JVMConstants.ATTRIBUTE_LOCALVARIABLETABLE)) {
       readLocalVariableTable(aDis, aCpInfo, method);
+    } else {
+      skipAttribute(aDis);
     }
   }
 
@@ -36,11 +36,21 @@ public class DefaultInstructionListParser implements InstructionListParser {
 
   public InstructionList parseBytes(byte[] _bytecodes)
       throws InstructionListParserException {
+    final InstructionList il = new InstructionList();
+    parseBytes(_bytecodes, new InstructionHandler() {
+      public void handleInstruction(Instruction ins) {
+        il.add(ins);
+      }
+    });
+    return il;
+  }
+
+  public void parseBytes(byte[] _bytecodes, InstructionHandler handler)
+      throws InstructionListParserException {
     bytecodes = _bytecodes;
     if (bytecodes == null) {
       throw new InstructionListParserException("bytecodes are null");
     }
-    InstructionList il = new InstructionList();
 
     int maxCode = bytecodes.length;
     int currentPc = 0;
@@ -62,11 +72,10 @@ public class DefaultInstructionListParser implements InstructionListParser {
       }
       Instruction ins = new Instruction(currentPc, curOpcode, getArgArray(
           startPc, nextPc), nextPc, bWide);
-      il.add(ins);
       bWide = (curOpcode == Opcodes.OPCODE_WIDE);
       currentPc = nextPc;
+      handler.handleInstruction(ins);
     }
-    return il;
 
   }
 
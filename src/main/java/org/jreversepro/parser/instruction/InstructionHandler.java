@@ -0,0 +1,35 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. * 
+ */
+package org.jreversepro.parser.instruction;
+
+import org.jreversepro.reflect.instruction.Instruction;
+
+/**
+ * Receives the instructions of a method as they are decoded, in the order of
+ * the bytecode.
+ * 
+ * @author Karthik Kumar
+ */
+public interface InstructionHandler {
+
+  /**
+   * @param ins
+   *          Instruction just decoded.
+   */
+  void handleInstruction(Instruction ins);
+
+}
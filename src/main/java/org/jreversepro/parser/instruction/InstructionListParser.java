@@ -23,4 +23,18 @@ public interface InstructionListParser {
   InstructionList parseBytes(byte[] bytes)
       throws InstructionListParserException;
 
+  /**
+   * Decodes the bytes and hands over the instructions one at a time, without
+   * collecting them into a list.
+   * 
+   * @param bytes
+   *          Bytecode of the method.
+   * @param handler
+   *          Receives the instructions, in the order of the bytecode.
+   * @throws InstructionListParserException
+   *           Thrown if the bytes could not be decoded.
+   */
+  void parseBytes(byte[] bytes, InstructionHandler handler)
+      throws InstructionListParserException;
+
 }
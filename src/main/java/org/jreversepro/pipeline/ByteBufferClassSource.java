@@ -0,0 +1,84 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.pipeline;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Class file present in memory. The buffer is read from its position to its
+ * limit, without disturbing either of them.
+ * 
+ * @author Karthik Kumar
+ */
+public class ByteBufferClassSource implements ClassSource {
+
+  /**
+   * @param _name
+   *          Name by which the class is identified.
+   * @param _buffer
+   *          Contents of the class file.
+   */
+  public ByteBufferClassSource(String _name, ByteBuffer _buffer) {
+    name = _name;
+    buffer = _buffer;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public InputStream openStream() {
+    final ByteBuffer bytes = buffer.duplicate();
+    return new InputStream() {
+
+      @Override
+      public int read() {
+        return bytes.hasRemaining() ? (bytes.get() & 0xff) : -1;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+          return 0;
+        }
+        if (!bytes.hasRemaining()) {
+          return -1;
+        }
+        final int count = Math.min(len, bytes.remaining());
+        bytes.get(b, off, count);
+        return count;
+      }
+
+      @Override
+      public int available() {
+        return bytes.remaining();
+      }
+    };
+  }
+
+  @Override
+  public String toString() {
+    return getName();
+  }
+
+  private final String name;
+
+  private final ByteBuffer buffer;
+
+}
@@ -0,0 +1,45 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.pipeline;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A class file that can be fed to the decompiler - a file on the disk, an
+ * entry in an archive or a buffer in memory.
+ * 
+ * @author Karthik Kumar
+ */
+public interface ClassSource {
+
+  /**
+   * @return Returns the name by which the class is identified (path of the
+   *         file or the archive entry).
+   */
+  String getName();
+
+  /**
+   * @return Returns a new stream containing the bytes of the class. The caller
+   *         is responsible for closing the same.
+   * @throws IOException
+   *           Thrown if the bytes of the class could not be read.
+   */
+  InputStream openStream() throws IOException;
+
+}
@@ -0,0 +1,176 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.pipeline;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Expands a path given by the user into the list of class files underneath
+ * it. A path could be a single class file, a directory (searched recursively)
+ * or a jar / zip archive. Archives opened in the process are kept open till
+ * {@link #close()} is called, since the sources read from them lazily.
+ * 
+ * @author Karthik Kumar
+ */
+public class ClassSources {
+
+  public ClassSources() {
+    archives = new ArrayList<ZipFile>();
+    archivesByPath = new HashMap<String, ZipFile>();
+  }
+
+  /**
+   * @param path
+   *          Path to a class file, directory or archive.
+   * @return Returns the class files present under the given path in a stable
+   *         (sorted) order.
+   * @throws IOException
+   *           Thrown if the path does not exist or an archive could not be
+   *           opened.
+   */
+  public List<ClassSource> expand(String path) throws IOException {
+    final File file = new File(path);
+    if (!file.exists()) {
+      throw new IOException(path + " does not exist");
+    }
+    final List<ClassSource> sources = new ArrayList<ClassSource>();
+    addFile(file, sources);
+    return sources;
+  }
+
+  /**
+   * Reverse of {@link ClassSource#getName()} for the sources returned by
+   * {@link #expand(String)}, for use by another process.
+   * 
+   * @param name
+   *          Name of a class file, or an entry of an archive.
+   * @return Returns the class source by the given name.
+   * @throws IOException
+   *           Thrown if the archive could not be opened, or does not contain
+   *           the entry.
+   */
+  public ClassSource resolve(String name) throws IOException {
+    final int separator = name.indexOf(ZipEntryClassSource.ENTRY_SEPARATOR);
+    if (separator < 0) {
+      return new FileClassSource(new File(name));
+    }
+    final String path = name.substring(0, separator);
+    ZipFile archive = archivesByPath.get(path);
+    if (archive == null) {
+      archive = new ZipFile(path);
+      archives.add(archive);
+      archivesByPath.put(path, archive);
+    }
+    final String entryName = name.substring(separator
+        + ZipEntryClassSource.ENTRY_SEPARATOR.length());
+    final ZipEntry entry = archive.getEntry(entryName);
+    if (entry == null) {
+      throw new IOException(path + " does not contain " + entryName);
+    }
+    return new ZipEntryClassSource(archive, entry);
+  }
+
+  /**
+   * Closes the archives opened by this instance.
+   */
+  public void close() {
+    for (ZipFile archive : archives) {
+      try {
+        archive.close();
+      } catch (IOException ex) {
+        // ignore - nothing more to be read from the archive.
+      }
+    }
+    archives.clear();
+    archivesByPath.clear();
+  }
+
+  /**
+   * @param path
+   *          Path given by the user.
+   * @return Returns true, if the path denotes more than a single class file.
+   */
+  public static boolean isBatch(String path) {
+    final File file = new File(path);
+    return file.isDirectory() || isArchive(file.getName());
+  }
+
+  private void addFile(File file, List<ClassSource> sources)
+      throws IOException {
+    if (file.isDirectory()) {
+      final File[] children = file.listFiles();
+      if (children == null) {
+        return;
+      }
+      Arrays.sort(children);
+      for (File child : children) {
+        addFile(child, sources);
+      }
+    } else if (isArchive(file.getName())) {
+      addArchive(file, sources);
+    } else if (file.getName().endsWith(CLASS_SUFFIX)) {
+      sources.add(new FileClassSource(file));
+    }
+  }
+
+  private void addArchive(File file, List<ClassSource> sources)
+      throws IOException {
+    final ZipFile archive = new ZipFile(file);
+    archives.add(archive);
+    final List<ZipEntryClassSource> entries = new ArrayList<ZipEntryClassSource>();
+    final Enumeration<? extends ZipEntry> e = archive.entries();
+    while (e.hasMoreElements()) {
+      final ZipEntry entry = e.nextElement();
+      if (!entry.isDirectory() && entry.getName().endsWith(CLASS_SUFFIX)) {
+        entries.add(new ZipEntryClassSource(archive, entry));
+      }
+    }
+    // Order of the entries in the central directory is up to the tool that
+    // created the archive.
+    Collections.sort(entries,
+        new Comparator<ZipEntryClassSource>() {
+          public int compare(ZipEntryClassSource o1, ZipEntryClassSource o2) {
+            return o1.getEntryName().compareTo(o2.getEntryName());
+          }
+        });
+    sources.addAll(entries);
+  }
+
+  private static boolean isArchive(String name) {
+    final String lower = name.toLowerCase();
+    return lower.endsWith(".jar") || lower.endsWith(".zip");
+  }
+
+  private static final String CLASS_SUFFIX = ".class";
+
+  private final List<ZipFile> archives;
+
+  private final Map<String, ZipFile> archivesByPath;
+
+}
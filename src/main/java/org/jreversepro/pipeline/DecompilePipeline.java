@@ -0,0 +1,382 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.pipeline;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.IOUtils;
+import org.jreversepro.CustomLoggerFactory;
+import org.jreversepro.JReverseProContext;
+import org.jreversepro.reflect.ClassInfo;
+
+/**
+ * Runs the steps of {@link JReverseProContext} - reading the class file,
+ * parsing it, decompiling / disassembling it and writing the output - as
+ * separate stages over a batch of classes. The stages are connected by
+ * bounded queues and have their own number of threads, so that the I/O bound
+ * stages overlap with the CPU bound ones while the memory held is bound by the
+ * size of the queues and not by the size of the input.
+ * <p>
+ * The sink receives the items in the order of the input irrespective of the
+ * order in which the stages complete them, one at a time. The writer threads
+ * hand the items over in the order they complete, and whichever finds the
+ * sink idle writes out the items next in order - while the others go on
+ * handing theirs over, so that a slow write does not hold up the stages
+ * before. An item failing in any of the
+ * stages is carried through to the sink with its error set and does not stop
+ * the rest of the batch.
+ * 
+ * @author Karthik Kumar
+ */
+public class DecompilePipeline {
+
+  /**
+   * @param _context
+   *          Context used to parse and print the classes.
+   * @param _config
+   *          Configuration of the stages.
+   */
+  public DecompilePipeline(JReverseProContext _context, PipelineConfig _config) {
+    context = _context;
+    config = _config;
+  }
+
+  /**
+   * Runs the given classes through the pipeline.
+   * 
+   * @param sources
+   *          Classes to be processed.
+   * @param sink
+   *          Receives the processed items in the order of <code>sources</code>.
+   * @return Returns the statistics of the run.
+   * @throws InterruptedException
+   *           Thrown if the calling thread is interrupted while waiting.
+   */
+  public PipelineStatistics run(List<ClassSource> sources, PipelineSink sink)
+      throws InterruptedException {
+    final Run run = new Run(sources, sink);
+    final int threads = config.getReaders() + config.getParsers()
+        + config.getDecompilers() + config.getWriters();
+    final ExecutorService executor = Executors.newFixedThreadPool(threads,
+        new StageThreadFactory());
+    final long start = System.nanoTime();
+    try {
+      final CompletionService<Void> completion = new ExecutorCompletionService<Void>(
+          executor);
+      submit(completion, run.new ReadStage(), config.getReaders());
+      submit(completion, run.new ParseStage(), config.getParsers());
+      submit(completion, run.new DecompileStage(), config.getDecompilers());
+      submit(completion, run.new WriteStage(), config.getWriters());
+      for (int i = 0; i < threads; i++) {
+        try {
+          completion.take().get();
+        } catch (ExecutionException ex) {
+          // Only errors escape the stages - nothing to carry on with.
+          throw new IllegalStateException("Pipeline stage failed", ex
+              .getCause());
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    run.stats.setElapsedNanos(System.nanoTime() - start);
+    return run.stats;
+  }
+
+  /**
+   * Stops reading any more classes. Classes already read are carried through
+   * to the sink, after which {@link #run} returns. The pipeline is not to be
+   * run again once cancelled.
+   */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  private static void submit(CompletionService<Void> completion,
+      Callable<Void> stage, int threads) {
+    for (int i = 0; i < threads; i++) {
+      completion.submit(stage);
+    }
+  }
+
+  /**
+   * State of a single invocation of {@link DecompilePipeline#run}.
+   */
+  private class Run {
+
+    Run(List<ClassSource> _sources, PipelineSink _sink) {
+      sources = _sources;
+      sink = _sink;
+      stats = new PipelineStatistics();
+      parseQueue = new ArrayBlockingQueue<PipelineItem>(config
+          .getQueueCapacity());
+      decompileQueue = new ArrayBlockingQueue<PipelineItem>(config
+          .getQueueCapacity());
+      writeQueue = new ArrayBlockingQueue<PipelineItem>(config
+          .getQueueCapacity());
+      inFlight = new Semaphore(config.getMaxInFlight());
+      nextToRead = new AtomicInteger();
+      activeReaders = new AtomicInteger(config.getReaders());
+      activeParsers = new AtomicInteger(config.getParsers());
+      activeDecompilers = new AtomicInteger(config.getDecompilers());
+      pending = new HashMap<Integer, PipelineItem>();
+      nextToWrite = 0;
+    }
+
+    /**
+     * Signals the end of the input to the next stage, once the last thread
+     * of the current stage is done.
+     */
+    private void endStage(AtomicInteger active, BlockingQueue<PipelineItem> next,
+        int consumers) throws InterruptedException {
+      if (active.decrementAndGet() == 0) {
+        for (int i = 0; i < consumers; i++) {
+          next.put(END);
+        }
+      }
+    }
+
+    class ReadStage implements Callable<Void> {
+      public Void call() throws InterruptedException {
+        try {
+          while (true) {
+            // Bounds the items waiting to be written behind a slow one.
+            inFlight.acquire();
+            final int index = nextToRead.getAndIncrement();
+            if (cancelled || index >= sources.size()) {
+              inFlight.release();
+              break;
+            }
+            final PipelineItem item = new PipelineItem(index, sources
+                .get(index));
+            final long start = System.nanoTime();
+            InputStream is = null;
+            try {
+              is = item.getSource().openStream();
+              item.setBytes(IOUtils.toByteArray(is));
+            } catch (IOException ex) {
+              item.setError(ex);
+            } finally {
+              IOUtils.closeQuietly(is);
+            }
+            item.setReadNanos(System.nanoTime() - start);
+            stats.readNanos.addAndGet(item.getReadNanos());
+            parseQueue.put(item);
+          }
+        } finally {
+          endStage(activeReaders, parseQueue, config.getParsers());
+        }
+        return null;
+      }
+    }
+
+    class ParseStage implements Callable<Void> {
+      public Void call() throws InterruptedException {
+        try {
+          PipelineItem item;
+          while ((item = parseQueue.take()) != END) {
+            if (!item.isFailed()) {
+              final long start = System.nanoTime();
+              try {
+                item.setClassInfo(context.loadResource(
+                    new ByteArrayInputStream(item.getBytes()), item
+                        .getSource().getName()));
+              } catch (Exception ex) {
+                item.setError(ex);
+              } catch (StackOverflowError ex) {
+                item.setError(ex);
+              }
+              item.setBytes(null);
+              item.setParseNanos(System.nanoTime() - start);
+              stats.parseNanos.addAndGet(item.getParseNanos());
+            }
+            decompileQueue.put(item);
+          }
+        } finally {
+          endStage(activeParsers, decompileQueue, config.getDecompilers());
+        }
+        return null;
+      }
+    }
+
+    class DecompileStage implements Callable<Void> {
+      public Void call() throws InterruptedException {
+        try {
+          PipelineItem item;
+          while ((item = decompileQueue.take()) != END) {
+            if (!item.isFailed()) {
+              final long start = System.nanoTime();
+              final ClassInfo info = item.getClassInfo();
+              item.setClassName(info.getThisClass());
+              try {
+                item.setOutput(context.print(config.getOutputType(), info));
+              } catch (Exception ex) {
+                item.setError(ex);
+              } catch (StackOverflowError ex) {
+                item.setError(ex);
+              }
+              item.setClassInfo(null);
+              item.setDecompileNanos(System.nanoTime() - start);
+              stats.decompileNanos.addAndGet(item.getDecompileNanos());
+            }
+            writeQueue.put(item);
+          }
+        } finally {
+          endStage(activeDecompilers, writeQueue, config.getWriters());
+        }
+        return null;
+      }
+    }
+
+    class WriteStage implements Callable<Void> {
+      public Void call() throws InterruptedException {
+        final List<PipelineItem> contiguous = new ArrayList<PipelineItem>();
+        PipelineItem item;
+        while ((item = writeQueue.take()) != END) {
+          synchronized (pending) {
+            pending.put(item.getSequence(), item);
+            if (writing) {
+              // Left to the thread writing, once done with what it has.
+              continue;
+            }
+            writing = true;
+          }
+          // Writes out whatever is contiguous with what is written so far,
+          // outside the lock, till nothing is left.
+          while (true) {
+            synchronized (pending) {
+              PipelineItem next;
+              while ((next = pending.remove(nextToWrite)) != null) {
+                contiguous.add(next);
+                nextToWrite++;
+              }
+              if (contiguous.isEmpty()) {
+                writing = false;
+                break;
+              }
+            }
+            for (PipelineItem next : contiguous) {
+              write(next);
+              inFlight.release();
+            }
+            contiguous.clear();
+          }
+        }
+        return null;
+      }
+
+      private void write(PipelineItem item) {
+        final long start = System.nanoTime();
+        try {
+          sink.write(item);
+        } catch (IOException ex) {
+          logger.severe(item.getSource().getName() + ": " + ex.getMessage());
+          item.setError(ex);
+        }
+        stats.writeNanos.addAndGet(System.nanoTime() - start);
+        if (item.isFailed()) {
+          stats.failed.incrementAndGet();
+        } else {
+          stats.succeeded.incrementAndGet();
+        }
+      }
+    }
+
+    private final List<ClassSource> sources;
+
+    private final PipelineSink sink;
+
+    final PipelineStatistics stats;
+
+    private final BlockingQueue<PipelineItem> parseQueue;
+
+    private final BlockingQueue<PipelineItem> decompileQueue;
+
+    private final BlockingQueue<PipelineItem> writeQueue;
+
+    private final Semaphore inFlight;
+
+    private final AtomicInteger nextToRead;
+
+    private final AtomicInteger activeReaders;
+
+    private final AtomicInteger activeParsers;
+
+    private final AtomicInteger activeDecompilers;
+
+    /**
+     * Items completed out of order, keyed by their sequence.
+     */
+    private final Map<Integer, PipelineItem> pending;
+
+    private int nextToWrite;
+
+    /**
+     * True, while a writer thread is writing to the sink. Guarded by pending.
+     */
+    private boolean writing;
+
+  }
+
+  /**
+   * Names the threads of the pipeline, for the sake of thread dumps.
+   */
+  private static class StageThreadFactory implements ThreadFactory {
+
+    public Thread newThread(Runnable r) {
+      final Thread thread = new Thread(r, "jreversepro-pipeline-"
+          + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+
+    private final AtomicInteger count = new AtomicInteger();
+  }
+
+  /**
+   * Marks the end of the input in a queue.
+   */
+  private static final PipelineItem END = new PipelineItem(-1, null);
+
+  private final JReverseProContext context;
+
+  private final PipelineConfig config;
+
+  private volatile boolean cancelled;
+
+  private final Logger logger = CustomLoggerFactory.createLogger();
+
+}
@@ -0,0 +1,202 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.pipeline;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jreversepro.JReverseProContext;
+import org.jreversepro.pipeline.Flow.Publisher;
+import org.jreversepro.pipeline.Flow.Subscriber;
+import org.jreversepro.pipeline.Flow.Subscription;
+
+/**
+ * Publishes the classes of a batch as and when they are decompiled, for
+ * callers that consume the output incrementally. Every subscriber gets a run
+ * of {@link DecompilePipeline} of its own. Items are published in the order
+ * of the input, and only as many as the subscriber has requested - the
+ * pipeline stalls (with its queues full) till there is more demand, so the
+ * output held in memory is bound by the configuration of the pipeline.
+ * 
+ * @author Karthik Kumar
+ */
+public class DecompilePublisher implements Publisher<PipelineItem> {
+
+  /**
+   * @param _context
+   *          Context used to parse and print the classes.
+   * @param _config
+   *          Configuration of the pipeline.
+   * @param _sources
+   *          Classes to be published.
+   */
+  public DecompilePublisher(JReverseProContext _context,
+      PipelineConfig _config, List<ClassSource> _sources) {
+    context = _context;
+    config = _config;
+    sources = _sources;
+  }
+
+  /**
+   * @param context
+   *          Context used to parse and print the classes.
+   * @param config
+   *          Configuration of the pipeline.
+   * @param buffers
+   *          Contents of the class files, named by their position as
+   *          <code>class-&lt;n&gt;</code>.
+   * @return Returns a publisher of the classes in the buffers.
+   */
+  public static DecompilePublisher fromBuffers(JReverseProContext context,
+      PipelineConfig config, Iterable<ByteBuffer> buffers) {
+    final List<ClassSource> sources = new ArrayList<ClassSource>();
+    for (ByteBuffer buffer : buffers) {
+      sources.add(new ByteBufferClassSource("class-" + sources.size(), buffer));
+    }
+    return new DecompilePublisher(context, config, sources);
+  }
+
+  /**
+   * @param context
+   *          Context used to parse and print the classes.
+   * @param config
+   *          Configuration of the pipeline.
+   * @param classSources
+   *          Expands the path. The caller closes the same once the
+   *          subscribers are done.
+   * @param path
+   *          Path to a class file, directory or jar.
+   * @return Returns a publisher of the classes under the path.
+   * @throws IOException
+   *           Thrown if the path could not be read.
+   */
+  public static DecompilePublisher fromPath(JReverseProContext context,
+      PipelineConfig config, ClassSources classSources, String path)
+      throws IOException {
+    return new DecompilePublisher(context, config, classSources.expand(path));
+  }
+
+  public void subscribe(Subscriber<? super PipelineItem> subscriber) {
+    if (subscriber == null) {
+      throw new NullPointerException("subscriber");
+    }
+    final DemandSubscription subscription = new DemandSubscription(subscriber);
+    subscriber.onSubscribe(subscription);
+    final Thread thread = new Thread(subscription, "jreversepro-publisher-"
+        + count.incrementAndGet());
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Drives a run of the pipeline for a single subscriber, handing over items
+   * from the write stage as the subscriber's demand permits.
+   */
+  private class DemandSubscription implements Subscription, PipelineSink,
+      Runnable {
+
+    DemandSubscription(Subscriber<? super PipelineItem> _subscriber) {
+      subscriber = _subscriber;
+      pipeline = new DecompilePipeline(context, config);
+    }
+
+    public synchronized void request(long n) {
+      if (n <= 0) {
+        invalidRequest = new IllegalArgumentException(
+            "Non-positive request " + n);
+        cancel();
+        return;
+      }
+      demand += n;
+      if (demand < 0) {
+        // Overflow - as good as unbounded.
+        demand = Long.MAX_VALUE;
+      }
+      notifyAll();
+    }
+
+    public synchronized void cancel() {
+      cancelled = true;
+      pipeline.cancel();
+      notifyAll();
+    }
+
+    public void write(PipelineItem item) throws IOException {
+      synchronized (this) {
+        while (demand == 0 && !cancelled) {
+          try {
+            wait();
+          } catch (InterruptedException ex) {
+            cancel();
+            Thread.currentThread().interrupt();
+          }
+        }
+        if (cancelled) {
+          return;
+        }
+        demand--;
+      }
+      subscriber.onNext(item);
+    }
+
+    public void run() {
+      try {
+        pipeline.run(sources, this);
+      } catch (InterruptedException ex) {
+        subscriber.onError(ex);
+        return;
+      } catch (RuntimeException ex) {
+        subscriber.onError(ex);
+        return;
+      }
+      final IllegalArgumentException error;
+      final boolean done;
+      synchronized (this) {
+        error = invalidRequest;
+        done = !cancelled;
+      }
+      if (error != null) {
+        subscriber.onError(error);
+      } else if (done) {
+        subscriber.onComplete();
+      }
+    }
+
+    private final Subscriber<? super PipelineItem> subscriber;
+
+    private final DecompilePipeline pipeline;
+
+    private long demand;
+
+    private boolean cancelled;
+
+    private IllegalArgumentException invalidRequest;
+  }
+
+  private final AtomicInteger count = new AtomicInteger();
+
+  private final JReverseProContext context;
+
+  private final PipelineConfig config;
+
+  private final List<ClassSource> sources;
+
+}
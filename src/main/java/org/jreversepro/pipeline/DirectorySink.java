@@ -0,0 +1,73 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.pipeline;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.jreversepro.JReverseProContext.OutputType;
+
+/**
+ * Writes the output of every class to a file of its own under a directory,
+ * laid out by the package of the class.
+ * 
+ * @author Karthik Kumar
+ */
+public class DirectorySink implements PipelineSink {
+
+  /**
+   * @param _outputDir
+   *          Directory under which the files are to be written.
+   * @param outputType
+   *          Type of the output, that decides the extension of the files.
+   */
+  public DirectorySink(File _outputDir, OutputType outputType) {
+    outputDir = _outputDir;
+    extension = (outputType == OutputType.DISASSEMBLER) ? ".txt" : ".java";
+  }
+
+  public void write(PipelineItem item) throws IOException {
+    if (item.isFailed()) {
+      return;
+    }
+    final String path = item.getClassName().replace('/', File.separatorChar)
+        .replace('.', File.separatorChar);
+    final File file = new File(outputDir, path + extension);
+    final File parent = file.getParentFile();
+    if (!parent.isDirectory() && !parent.mkdirs()) {
+      throw new IOException("Unable to create directory " + parent);
+    }
+    OutputStream os = null;
+    try {
+      os = new FileOutputStream(file);
+      os.write(item.getOutput().getBytes(ENCODING));
+    } finally {
+      IOUtils.closeQuietly(os);
+    }
+  }
+
+  private static final String ENCODING = "UTF-8";
+
+  private final File outputDir;
+
+  private final String extension;
+
+}
@@ -0,0 +1,63 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.pipeline;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Class file present in the file system.
+ * 
+ * @author Karthik Kumar
+ */
+public class FileClassSource implements ClassSource {
+
+  /**
+   * @param _file
+   *          Class file.
+   */
+  public FileClassSource(File _file) {
+    file = _file;
+  }
+
+  public String getName() {
+    return file.getPath();
+  }
+
+  public InputStream openStream() throws IOException {
+    return new FileInputStream(file);
+  }
+
+  /**
+   * @return Returns the class file, for those who would rather map it than
+   *         read it.
+   */
+  public File getFile() {
+    return file;
+  }
+
+  @Override
+  public String toString() {
+    return getName();
+  }
+
+  private final File file;
+
+}
@@ -0,0 +1,90 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.pipeline;
+
+/**
+ * Interfaces for publishing items to subscribers with demand driven
+ * backpressure. These mirror <code>java.util.concurrent.Flow</code> member
+ * for member, so that the publishers here could be adapted to the former by
+ * delegation where the platform provides it.
+ * 
+ * @author Karthik Kumar
+ */
+public final class Flow {
+
+  private Flow() {
+  }
+
+  /**
+   * Producer of items received by subscribers.
+   * 
+   * @param <T>
+   *          Type of the items published.
+   */
+  public static interface Publisher<T> {
+
+    /**
+     * Adds the subscriber. The subscriber receives
+     * {@link Subscriber#onSubscribe(Subscription)} and then the items as and
+     * when it requests for the same.
+     * 
+     * @param subscriber
+     *          Subscriber to be added.
+     */
+    void subscribe(Subscriber<? super T> subscriber);
+  }
+
+  /**
+   * Receiver of the items. The methods of a subscriber are invoked one at a
+   * time, never concurrently.
+   * 
+   * @param <T>
+   *          Type of the items received.
+   */
+  public static interface Subscriber<T> {
+
+    void onSubscribe(Subscription subscription);
+
+    void onNext(T item);
+
+    void onError(Throwable throwable);
+
+    void onComplete();
+  }
+
+  /**
+   * Link between a publisher and a subscriber.
+   */
+  public static interface Subscription {
+
+    /**
+     * Adds <code>n</code> items to the demand of the subscriber.
+     * 
+     * @param n
+     *          Number of items. Non-positive values signal onError.
+     */
+    void request(long n);
+
+    /**
+     * Stops publishing items to the subscriber. Items may still be received
+     * for a while.
+     */
+    void cancel();
+  }
+
+}
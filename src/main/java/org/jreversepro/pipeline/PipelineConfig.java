@@ -0,0 +1,168 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.pipeline;
+
+import org.jreversepro.JReverseProContext.OutputType;
+
+/**
+ * Parallelism and queue sizes of the stages of {@link DecompilePipeline}.
+ * 
+ * @author Karthik Kumar
+ */
+public class PipelineConfig {
+
+  public PipelineConfig() {
+    readers = 1;
+    parsers = 1;
+    decompilers = Runtime.getRuntime().availableProcessors();
+    writers = 1;
+    queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    maxInFlight = 4 * DEFAULT_QUEUE_CAPACITY;
+    outputType = OutputType.DECOMPILER;
+  }
+
+  public int getReaders() {
+    return readers;
+  }
+
+  public void setReaders(int _readers) {
+    readers = checkPositive(_readers, "readers");
+  }
+
+  public int getParsers() {
+    return parsers;
+  }
+
+  public void setParsers(int _parsers) {
+    parsers = checkPositive(_parsers, "parsers");
+  }
+
+  public int getDecompilers() {
+    return decompilers;
+  }
+
+  public void setDecompilers(int _decompilers) {
+    decompilers = checkPositive(_decompilers, "decompilers");
+  }
+
+  /**
+   * @return Returns the number of threads taking the items off the queue
+   *         before the sink. The sink is written to by one of them at a time,
+   *         in the order of the input.
+   */
+  public int getWriters() {
+    return writers;
+  }
+
+  public void setWriters(int _writers) {
+    writers = checkPositive(_writers, "writers");
+  }
+
+  /**
+   * @return Returns the capacity of each of the queues between the stages.
+   */
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  public void setQueueCapacity(int _queueCapacity) {
+    queueCapacity = checkPositive(_queueCapacity, "queueCapacity");
+  }
+
+  /**
+   * @return Returns the maximum number of items read but not yet written.
+   *         This bounds the items waiting in the reorder buffer of the write
+   *         stage behind a slow item.
+   */
+  public int getMaxInFlight() {
+    return maxInFlight;
+  }
+
+  public void setMaxInFlight(int _maxInFlight) {
+    maxInFlight = checkPositive(_maxInFlight, "maxInFlight");
+  }
+
+  public OutputType getOutputType() {
+    return outputType;
+  }
+
+  public void setOutputType(OutputType _outputType) {
+    if (_outputType != OutputType.DECOMPILER
+        && _outputType != OutputType.DISASSEMBLER) {
+      throw new IllegalArgumentException("Unsupported output type "
+          + _outputType);
+    }
+    outputType = _outputType;
+  }
+
+  /**
+   * Parses the parallelism of the stages specified as
+   * <code>readers,parsers,decompilers,writers</code>. Trailing values could be
+   * omitted, in which case the current values are retained.
+   * 
+   * @param spec
+   *          Comma separated parallelism of the stages.
+   */
+  public void setParallelism(String spec) {
+    final String[] values = spec.split(",");
+    if (values.length > 4) {
+      throw new IllegalArgumentException("Invalid parallelism " + spec);
+    }
+    try {
+      if (values.length > 0 && values[0].trim().length() > 0) {
+        setReaders(Integer.parseInt(values[0].trim()));
+      }
+      if (values.length > 1) {
+        setParsers(Integer.parseInt(values[1].trim()));
+      }
+      if (values.length > 2) {
+        setDecompilers(Integer.parseInt(values[2].trim()));
+      }
+      if (values.length > 3) {
+        setWriters(Integer.parseInt(values[3].trim()));
+      }
+    } catch (NumberFormatException ex) {
+      throw new IllegalArgumentException("Invalid parallelism " + spec);
+    }
+  }
+
+  private static int checkPositive(int value, String name) {
+    if (value <= 0) {
+      throw new IllegalArgumentException(name + " should be positive: "
+          + value);
+    }
+    return value;
+  }
+
+  public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+  private int readers;
+
+  private int parsers;
+
+  private int decompilers;
+
+  private int writers;
+
+  private int queueCapacity;
+
+  private int maxInFlight;
+
+  private OutputType outputType;
+
+}
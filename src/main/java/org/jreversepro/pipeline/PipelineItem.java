@@ -0,0 +1,159 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.pipeline;
+
+import org.jreversepro.reflect.ClassInfo;
+
+/**
+ * Unit of work that travels through the stages of {@link DecompilePipeline}.
+ * Every stage drops the intermediate state that the later stages do not need
+ * so that only the queued items are held in memory.
+ * 
+ * @author Karthik Kumar
+ */
+public class PipelineItem {
+
+  /**
+   * @param _sequence
+   *          Position of the source in the input.
+   * @param _source
+   *          Class file to be processed.
+   */
+  PipelineItem(int _sequence, ClassSource _source) {
+    sequence = _sequence;
+    source = _source;
+  }
+
+  /**
+   * @return Returns the position of the item in the input.
+   */
+  public int getSequence() {
+    return sequence;
+  }
+
+  public ClassSource getSource() {
+    return source;
+  }
+
+  /**
+   * @return Returns the fully qualified name of the class (once parsed).
+   */
+  public String getClassName() {
+    return className;
+  }
+
+  /**
+   * @return Returns the decompiled / disassembled output.
+   */
+  public String getOutput() {
+    return output;
+  }
+
+  /**
+   * @return Returns the error that stopped the item, if any.
+   */
+  public Throwable getError() {
+    return error;
+  }
+
+  public boolean isFailed() {
+    return error != null;
+  }
+
+  /**
+   * @return Returns the time taken to read the class.
+   */
+  public long getReadNanos() {
+    return readNanos;
+  }
+
+  /**
+   * @return Returns the time taken to parse the class.
+   */
+  public long getParseNanos() {
+    return parseNanos;
+  }
+
+  /**
+   * @return Returns the time taken to decompile / disassemble the class.
+   */
+  public long getDecompileNanos() {
+    return decompileNanos;
+  }
+
+  byte[] getBytes() {
+    return bytes;
+  }
+
+  void setBytes(byte[] _bytes) {
+    bytes = _bytes;
+  }
+
+  ClassInfo getClassInfo() {
+    return classInfo;
+  }
+
+  void setClassInfo(ClassInfo _classInfo) {
+    classInfo = _classInfo;
+  }
+
+  void setClassName(String _className) {
+    className = _className;
+  }
+
+  void setOutput(String _output) {
+    output = _output;
+  }
+
+  void setError(Throwable _error) {
+    error = _error;
+  }
+
+  void setReadNanos(long _readNanos) {
+    readNanos = _readNanos;
+  }
+
+  void setParseNanos(long _parseNanos) {
+    parseNanos = _parseNanos;
+  }
+
+  void setDecompileNanos(long _decompileNanos) {
+    decompileNanos = _decompileNanos;
+  }
+
+  private final int sequence;
+
+  private final ClassSource source;
+
+  private byte[] bytes;
+
+  private ClassInfo classInfo;
+
+  private String className;
+
+  private String output;
+
+  private Throwable error;
+
+  private long readNanos;
+
+  private long parseNanos;
+
+  private long decompileNanos;
+
+}
@@ -0,0 +1,40 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.pipeline;
+
+import java.io.IOException;
+
+/**
+ * Final stage of {@link DecompilePipeline}. Items are handed over in the
+ * order of the input, one at a time.
+ * 
+ * @author Karthik Kumar
+ */
+public interface PipelineSink {
+
+  /**
+   * @param item
+   *          Item that has passed through all the stages. The item could have
+   *          failed in one of the stages, in which case
+   *          {@link PipelineItem#getError()} is set.
+   * @throws IOException
+   *           Thrown in case the output could not be written.
+   */
+  void write(PipelineItem item) throws IOException;
+
+}
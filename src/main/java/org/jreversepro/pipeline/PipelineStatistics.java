@@ -0,0 +1,103 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.pipeline;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters collected by a run of {@link DecompilePipeline}. The time of each
+ * stage is the sum across the threads of the stage, so could be more than the
+ * elapsed time.
+ * 
+ * @author Karthik Kumar
+ */
+public class PipelineStatistics {
+
+  PipelineStatistics() {
+    succeeded = new AtomicInteger();
+    failed = new AtomicInteger();
+    readNanos = new AtomicLong();
+    parseNanos = new AtomicLong();
+    decompileNanos = new AtomicLong();
+    writeNanos = new AtomicLong();
+  }
+
+  public int getSucceeded() {
+    return succeeded.get();
+  }
+
+  public int getFailed() {
+    return failed.get();
+  }
+
+  public long getReadNanos() {
+    return readNanos.get();
+  }
+
+  public long getParseNanos() {
+    return parseNanos.get();
+  }
+
+  public long getDecompileNanos() {
+    return decompileNanos.get();
+  }
+
+  public long getWriteNanos() {
+    return writeNanos.get();
+  }
+
+  /**
+   * @return Returns the wall clock time taken by the run.
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    return "classes: " + getSucceeded() + " ok, " + getFailed()
+        + " failed; elapsed " + millis(elapsedNanos) + " ms; read "
+        + millis(getReadNanos()) + " ms, parse " + millis(getParseNanos())
+        + " ms, decompile " + millis(getDecompileNanos()) + " ms, write "
+        + millis(getWriteNanos()) + " ms";
+  }
+
+  void setElapsedNanos(long _elapsedNanos) {
+    elapsedNanos = _elapsedNanos;
+  }
+
+  private static long millis(long nanos) {
+    return nanos / 1000000L;
+  }
+
+  final AtomicInteger succeeded;
+
+  final AtomicInteger failed;
+
+  final AtomicLong readNanos;
+
+  final AtomicLong parseNanos;
+
+  final AtomicLong decompileNanos;
+
+  final AtomicLong writeNanos;
+
+  private volatile long elapsedNanos;
+
+}
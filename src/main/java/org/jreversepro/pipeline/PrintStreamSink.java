@@ -0,0 +1,48 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.pipeline;
+
+import java.io.PrintStream;
+
+/**
+ * Writes the output of all the classes one after the other to a stream.
+ * 
+ * @author Karthik Kumar
+ */
+public class PrintStreamSink implements PipelineSink {
+
+  /**
+   * @param _out
+   *          Stream to which the output is written.
+   */
+  public PrintStreamSink(PrintStream _out) {
+    out = _out;
+  }
+
+  public void write(PipelineItem item) {
+    if (item.isFailed()) {
+      out.println("// " + item.getSource().getName() + ": "
+          + item.getError());
+    } else {
+      out.println(item.getOutput());
+    }
+  }
+
+  private final PrintStream out;
+
+}
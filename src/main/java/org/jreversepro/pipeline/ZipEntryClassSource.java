@@ -0,0 +1,73 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.pipeline;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Class file present as an entry of a jar / zip archive. The archive is owned
+ * (and closed) by {@link ClassSources}.
+ * 
+ * @author Karthik Kumar
+ */
+public class ZipEntryClassSource implements ClassSource {
+
+  /**
+   * @param _archive
+   *          Archive containing the entry.
+   * @param _entry
+   *          Entry of the class file in the archive.
+   */
+  public ZipEntryClassSource(ZipFile _archive, ZipEntry _entry) {
+    archive = _archive;
+    entry = _entry;
+  }
+
+  public String getName() {
+    return archive.getName() + ENTRY_SEPARATOR + entry.getName();
+  }
+
+  public InputStream openStream() throws IOException {
+    return archive.getInputStream(entry);
+  }
+
+  /**
+   * @return Returns the name of the entry within the archive.
+   */
+  public String getEntryName() {
+    return entry.getName();
+  }
+
+  @Override
+  public String toString() {
+    return getName();
+  }
+
+  /**
+   * Separates the archive path and the entry name in {@link #getName()}.
+   */
+  public static final String ENTRY_SEPARATOR = "!/";
+
+  private final ZipFile archive;
+
+  private final ZipEntry entry;
+
+}
@@ -18,6 +18,7 @@ package org.jreversepro.reflect;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.jreversepro.jls.JLSConstants;
 import org.jreversepro.jls.JLSStringEncoder;
@@ -362,6 +363,17 @@ public class ConstantPool {
    * @return Returns value of that Cp Entry.
    */
   public String getLdcString(int index) {
+    AtomicReferenceArray<String> cache = getLiteralCache(ldcLiterals);
+    ldcLiterals = cache;
+    String result = cache.get(index);
+    if (result == null) {
+      result = renderLdcString(index);
+      cache.set(index, result);
+    }
+    return result;
+  }
+
+  private String renderLdcString(int index) {
     String result = STR_INVALID;
     int tagByte = getTagByte(index);
 
@@ -425,6 +437,17 @@ public class ConstantPool {
    * @return Returns value of that Cp Entry.
    */
   public String getBasicDataTypeValue(int index) {
+    AtomicReferenceArray<String> cache = getLiteralCache(basicLiterals);
+    basicLiterals = cache;
+    String result = cache.get(index);
+    if (result == null) {
+      result = renderBasicDataTypeValue(index);
+      cache.set(index, result);
+    }
+    return result;
+  }
+
+  private String renderBasicDataTypeValue(int index) {
     int tagByte = getTagByte(index);
     switch (tagByte) {
     case TAG_LONG:
@@ -443,6 +466,24 @@ public class ConstantPool {
     }
   }
 
+  /**
+   * The literals are cached by index, once rendered. The methods of a class
+   * could be decompiled in parallel, hence the atomic arrays - the same
+   * literal rendered twice is harmless.
+   * 
+   * @param cache
+   *          Cache of the literals so far. Could be null.
+   * @return Returns the cache, with an entry for every index of the pool.
+   */
+  private AtomicReferenceArray<String> getLiteralCache(
+      AtomicReferenceArray<String> cache) {
+    if (cache == null || cache.length() != listEntries.size()) {
+      // Entries added since.
+      cache = new AtomicReferenceArray<String>(listEntries.size());
+    }
+    return cache;
+  }
+
   /**
    * Returns the actual name of the tag . according to their types.
    * 
@@ -686,4 +727,14 @@ public class ConstantPool {
    */
   private Import importedClasses;
 
+  /**
+   * Rendered literals by index, for ldc.
+   */
+  private volatile AtomicReferenceArray<String> ldcLiterals;
+
+  /**
+   * Rendered literals by index, for the basic data types.
+   */
+  private volatile AtomicReferenceArray<String> basicLiterals;
+
 }
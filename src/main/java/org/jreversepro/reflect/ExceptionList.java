@@ -1,6 +1,7 @@
 package org.jreversepro.reflect;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -16,8 +17,20 @@ public class ExceptionList {
   
   private final List<ExceptionThrown> exceptions;
 
+  /**
+   * The try blocks, by themselves - equal by their code blocks { startpc,
+   * endpc }.
+   */
+  private final Map<ExceptionThrown, ExceptionThrown> tryBlocks;
+
+  /**
+   * Built on the first query after a try block is added.
+   */
+  private volatile ExceptionRangeIndex rangeIndex;
+
   public ExceptionList() {
     this.exceptions = new ArrayList<ExceptionThrown>();
+    this.tryBlocks = new HashMap<ExceptionThrown, ExceptionThrown>();
   }
 
   /**
@@ -34,6 +47,25 @@ public class ExceptionList {
     return newMap;
   }
 
+  /**
+   * @return Returns the try blocks, in the order of the exception table.
+   */
+  public List<ExceptionThrown> getExceptions() {
+    return Collections.unmodifiableList(exceptions);
+  }
+
+  /**
+   * @return Returns the index of the try blocks by pc.
+   */
+  public ExceptionRangeIndex getRangeIndex() {
+    ExceptionRangeIndex index = rangeIndex;
+    if (index == null) {
+      index = new ExceptionRangeIndex(exceptions);
+      rangeIndex = index;
+    }
+    return index;
+  }
+
   /**
    * Add an exception block.
    * 
@@ -52,13 +84,14 @@ public class ExceptionList {
     ExceptionThrown exc = new ExceptionThrown(startPc, endPc,
         handlerPc, datatype);
     // Probably some changes to the keys put in the list.
-    int tryIndex = exceptions.indexOf(exc);
-    if (tryIndex == -1) {
+    ExceptionThrown oldTry = tryBlocks.get(exc);
+    if (oldTry == null) {
       exceptions.add(exc);
+      tryBlocks.put(exc, exc);
     } else {
-      ExceptionThrown oldTry = exceptions.get(tryIndex);
       oldTry.addCatchBlock(handlerPc, datatype);
     }
+    rangeIndex = null;
   }
 
   @Override
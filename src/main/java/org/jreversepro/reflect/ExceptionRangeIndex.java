@@ -0,0 +1,248 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.reflect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the try blocks of an exception table by pc. Answers the try blocks
+ * covering a pc, through an interval tree over the blocks sorted by their
+ * start pcs, and the try blocks whose handlers begin at a pc, through the
+ * sorted handler pcs.
+ * <p>
+ * The index is immutable, and so could be shared across threads.
+ * 
+ * @author Karthik Kumar
+ */
+public final class ExceptionRangeIndex {
+
+  /**
+   * @param _tryBlocks
+   *          Try blocks, in the order of the exception table.
+   */
+  ExceptionRangeIndex(List<ExceptionThrown> _tryBlocks) {
+    tryBlocks = _tryBlocks.toArray(new ExceptionThrown[_tryBlocks.size()]);
+
+    Integer[] byStart = new Integer[tryBlocks.length];
+    for (int i = 0; i < byStart.length; i++) {
+      byStart[i] = Integer.valueOf(i);
+    }
+    Arrays.sort(byStart, new Comparator<Integer>() {
+
+      public int compare(Integer o1, Integer o2) {
+        int s1 = tryBlocks[o1.intValue()].getStartPc();
+        int s2 = tryBlocks[o2.intValue()].getStartPc();
+        return (s1 < s2) ? -1 : ((s1 == s2) ? 0 : 1);
+      }
+    });
+    order = new int[tryBlocks.length];
+    starts = new int[tryBlocks.length];
+    ends = new int[tryBlocks.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = byStart[i].intValue();
+      starts[i] = tryBlocks[order[i]].getStartPc();
+      ends[i] = tryBlocks[order[i]].getEndPc();
+    }
+    maxEnds = new int[tryBlocks.length];
+    buildMaxEnds(0, tryBlocks.length);
+
+    // The handler pcs, each with the try block it belongs to.
+    List<long[]> handlers = new ArrayList<long[]>();
+    for (int i = 0; i < tryBlocks.length; i++) {
+      for (Enumeration<Map.Entry<Integer, String>> e = tryBlocks[i]
+          .getHandlers(); e.hasMoreElements();) {
+        handlers.add(new long[] { e.nextElement().getKey().intValue(), i });
+      }
+    }
+    Collections.sort(handlers, new Comparator<long[]>() {
+
+      public int compare(long[] o1, long[] o2) {
+        long diff = (o1[0] != o2[0]) ? o1[0] - o2[0] : o1[1] - o2[1];
+        return (diff < 0) ? -1 : ((diff == 0) ? 0 : 1);
+      }
+    });
+    handlerPcs = new int[handlers.size()];
+    handlerTryBlocks = new int[handlers.size()];
+    for (int i = 0; i < handlerPcs.length; i++) {
+      handlerPcs[i] = (int) handlers.get(i)[0];
+      handlerTryBlocks[i] = (int) handlers.get(i)[1];
+    }
+  }
+
+  /**
+   * @return Returns the number of try blocks.
+   */
+  public int size() {
+    return tryBlocks.length;
+  }
+
+  /**
+   * @param pc
+   *          Pc of an instruction.
+   * @return Returns the try blocks such that startPc &lt;= pc &lt; endPc, in
+   *         the order of the exception table.
+   */
+  public List<ExceptionThrown> getTryBlocksCovering(int pc) {
+    // Counted first, so that the cost is in the blocks found and not in all
+    // the blocks of the table.
+    int count = collectCovering(0, tryBlocks.length, pc, null, 0);
+    if (count == 0) {
+      return Collections.emptyList();
+    }
+    int[] found = new int[count];
+    collectCovering(0, tryBlocks.length, pc, found, 0);
+    return toTryBlocks(found, count);
+  }
+
+  /**
+   * @param handlerPc
+   *          Pc of an instruction.
+   * @return Returns the try blocks that have a handler beginning at the pc,
+   *         in the order of the exception table.
+   */
+  public List<ExceptionThrown> getTryBlocksHandledAt(int handlerPc) {
+    int from = lowerBound(handlerPcs, handlerPc);
+    int to = lowerBound(handlerPcs, handlerPc + 1);
+    int[] found = new int[to - from];
+    for (int i = from; i < to; i++) {
+      found[i - from] = handlerTryBlocks[i];
+    }
+    return toTryBlocks(found, found.length);
+  }
+
+  /**
+   * @param pc
+   *          Pc of an instruction.
+   * @return Returns true, if an exception handler begins at the pc.
+   */
+  public boolean isHandler(int pc) {
+    return Arrays.binarySearch(handlerPcs, pc) >= 0;
+  }
+
+  /**
+   * The tree over the blocks sorted by start pcs is implicit - the root of
+   * [from, to) is the middle one - and every node keeps the greatest end pc
+   * of its subtree.
+   * 
+   * @return Returns the greatest end pc in [from, to).
+   */
+  private int buildMaxEnds(int from, int to) {
+    if (from >= to) {
+      return Integer.MIN_VALUE;
+    }
+    int mid = (from + to) >>> 1;
+    int max = Math.max(ends[mid], Math.max(buildMaxEnds(from, mid),
+        buildMaxEnds(mid + 1, to)));
+    maxEnds[mid] = max;
+    return max;
+  }
+
+  /**
+   * @param found
+   *          Receives the try blocks found, null to only count them.
+   * @return Returns the count of the try blocks found so far.
+   */
+  private int collectCovering(int from, int to, int pc, int[] found,
+      int count) {
+    if (from >= to) {
+      return count;
+    }
+    int mid = (from + to) >>> 1;
+    if (maxEnds[mid] <= pc) {
+      // Every block of the subtree ends at or before the pc.
+      return count;
+    }
+    count = collectCovering(from, mid, pc, found, count);
+    if (starts[mid] <= pc) {
+      if (pc < ends[mid]) {
+        if (found != null) {
+          found[count] = order[mid];
+        }
+        count++;
+      }
+      // The blocks on the right start after the pc, otherwise.
+      count = collectCovering(mid + 1, to, pc, found, count);
+    }
+    return count;
+  }
+
+  private List<ExceptionThrown> toTryBlocks(int[] found, int count) {
+    if (count == 0) {
+      return Collections.emptyList();
+    }
+    Arrays.sort(found, 0, count);
+    List<ExceptionThrown> result = new ArrayList<ExceptionThrown>(count);
+    for (int i = 0; i < count; i++) {
+      result.add(tryBlocks[found[i]]);
+    }
+    return result;
+  }
+
+  /**
+   * @return Returns the index of the first value not less than the key.
+   */
+  private static int lowerBound(int[] sorted, int key) {
+    int low = 0;
+    int high = sorted.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (sorted[mid] < key) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Try blocks, in the order of the exception table.
+   */
+  private final ExceptionThrown[] tryBlocks;
+
+  /**
+   * Indices into tryBlocks, sorted by start pc.
+   */
+  private final int[] order;
+
+  private final int[] starts;
+
+  private final int[] ends;
+
+  /**
+   * Greatest end pc of the subtree rooted at each position.
+   */
+  private final int[] maxEnds;
+
+  /**
+   * Sorted pcs of the handlers.
+   */
+  private final int[] handlerPcs;
+
+  /**
+   * Indices into tryBlocks of the try block of each handler.
+   */
+  private final int[] handlerTryBlocks;
+
+}
@@ -151,6 +151,14 @@ public class ExceptionThrown {
     }
   }
 
+  /**
+   * @return Hashcode of the code block { startpc, endpc }.
+   */
+  @Override
+  public int hashCode() {
+    return 31 * startPc + endPc;
+  }
+
   /**
    * Checks if the new exception block passed as parameter has the same code
    * block { startpc, endpc } as the current one.
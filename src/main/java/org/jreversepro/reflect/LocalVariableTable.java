@@ -24,6 +24,7 @@ import java.util.logging.Logger;
 
 import org.jreversepro.CustomLoggerFactory;
 import org.jreversepro.jls.JLSConstants;
+import org.jreversepro.reflect.variabletable.SlotIndex;
 import org.jreversepro.reflect.variabletable.VariableTable;
 
 
@@ -57,7 +58,7 @@ public class LocalVariableTable implements VariableTable {
     LocalVariable localVar = new LocalVariable(startPc, length, nameIndx,
         descindx, name, desc, frameIndex);
     variableList.add(localVar);
-
+    scopeIndex = null;
   }
 
   public int getMaxVariables() {
@@ -69,12 +70,13 @@ public class LocalVariableTable implements VariableTable {
     // when long or double is in the argument it increments index by two.
     // so the varIndex should be adjusted as per that
 
-    for (final LocalVariable locVar : variableList) {
-      if (locVar.getIndex() == (varIndex)
-          && (locVar.getStartPc() + locVar.getLength()) >= insIndex) {
+    SlotIndex<LocalVariable> index = getScopeIndex();
+    if (varIndex >= 0 && varIndex < index.getSlots()) {
+      // The scope of the slot that ends first, at or after the instruction.
+      LocalVariable locVar = index.ceiling(varIndex, insIndex);
+      if (locVar != null) {
         return locVar.getName();
       }
-
     }
     throw new IllegalArgumentException("varIndex: " + varIndex + " , "
         + " insIndex: " + insIndex + " not present in LocalVariableTable");
@@ -91,8 +93,31 @@ public class LocalVariableTable implements VariableTable {
     // This would be a NOP for this class
   }
 
+  /**
+   * @return Returns the local variables by frame index, sorted by the end of
+   *         their scopes. Built on the first lookup after a variable is added.
+   */
+  private SlotIndex<LocalVariable> getScopeIndex() {
+    SlotIndex<LocalVariable> index = scopeIndex;
+    if (index == null) {
+      int slots = 0;
+      for (final LocalVariable locVar : variableList) {
+        slots = Math.max(slots, locVar.getIndex() + 1);
+      }
+      index = new SlotIndex<LocalVariable>(slots);
+      for (final LocalVariable locVar : variableList) {
+        index.add(locVar.getIndex(), locVar.getStartPc() + locVar.getLength(),
+            locVar);
+      }
+      scopeIndex = index;
+    }
+    return index;
+  }
+
   private final List<LocalVariable> variableList;
 
+  private volatile SlotIndex<LocalVariable> scopeIndex;
+
   public static class LocalVariable {
     short startPc;
     short length;
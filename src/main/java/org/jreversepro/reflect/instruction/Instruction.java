@@ -96,7 +96,8 @@ public class Instruction {
    * @return Returns the offset.
    */
   public int getOffset() {
-    return getArgShort() & 0xffff;
+    // Signed, as backward jumps have negative offsets.
+    return getArgShort();
   }
 
   /**
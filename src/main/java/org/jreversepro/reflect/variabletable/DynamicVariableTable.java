@@ -17,7 +17,6 @@
  */
 package org.jreversepro.reflect.variabletable;
 
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -46,10 +45,17 @@ public class DynamicVariableTable implements VariableTable {
    * 
    * Key - local variable index // 0-based index
    * 
-   * Value - List of LocalEntry. since for the same localvariable index, more
-   * than one datatypes may exist (of different scope within the method).
+   * Value - LocalEntries by store index. since for the same localvariable
+   * index, more than one datatypes may exist (of different scope within the
+   * method).
    */
-  List<List<VariableEntry>> variables;
+  SlotIndex<VariableEntry> variables;
+
+  /**
+   * Local variable index and datatype of every entry, to tell whether an
+   * entry exists without scanning the entries of the index.
+   */
+  Set<String> entryKeys;
 
   /**
    * List of symbol names of all 'LocalEntry' variables in the method.
@@ -112,11 +118,8 @@ public class DynamicVariableTable implements VariableTable {
 
     maxVariables = context.maxSymbols;
 
-    variables = new ArrayList<List<VariableEntry>>(context.maxSymbols);
-    for (int i = 0; i < maxVariables; ++i) {
-      List<VariableEntry> singleVariableIndexList = new ArrayList<VariableEntry>();
-      variables.add(singleVariableIndexList);
-    }
+    variables = new SlotIndex<VariableEntry>(maxVariables);
+    entryKeys = new HashSet<String>();
 
     localVariableNameBasis = DEFAULT_LOCAL_VARIABLE_NAME_BASIS;
 
@@ -246,17 +249,9 @@ public class DynamicVariableTable implements VariableTable {
    *         the instruction index.
    */
   private VariableEntry retrieveActiveLocalEntry(int aVarIndex, int aInsIndex) {
-    List<VariableEntry> currentList = variables.get(aVarIndex);
-    VariableEntry rightEntry = null;
-    //Find the most recent variable entry in the list, whose store index is lower than 
+    // Find the most recent variable entry, whose store index is lower than
     // the instruction index and retrieve the same.
-    for (int i = currentList.size() - 1; i >= 0; i--) {
-      VariableEntry ent = currentList.get(i);
-      if (aInsIndex >= ent.getStoreIndex()) {
-        rightEntry = ent;
-      }
-    }
-    return rightEntry;
+    return variables.floor(aVarIndex, aInsIndex);
   }
 
   /**
@@ -270,13 +265,12 @@ public class DynamicVariableTable implements VariableTable {
    *          Datatype of the local variable entry.
    */
   private void addEntry(int localVariableIndex, int storeIndex, String jvmType) {
-    List<VariableEntry> currentList = variables.get(localVariableIndex);
-
     String name = generateLocalVariableName(jvmType, localVariableIndex);
     VariableEntry ent = new VariableEntry(localVariableIndex, storeIndex, jvmType,
         name);
-    if (!currentList.contains(ent)) {
-      currentList.add(ent);
+    // Entries are equal by datatype.
+    if (entryKeys.add(localVariableIndex + ":" + jvmType)) {
+      variables.add(localVariableIndex, storeIndex, ent);
       if (!variableNames.add(name)) {
         logger.warning("Symbol Name " + name + " already exists.");
         throw new RuntimeException(
@@ -344,11 +338,11 @@ public class DynamicVariableTable implements VariableTable {
   public String toString() {
     StringBuilder sb = new StringBuilder();
     int i = 0;
-    for (List<VariableEntry> entries : variables) {
-      if (entries.size() > 0) {
+    for (int slot = 0; slot < variables.getSlots(); slot++) {
+      if (variables.size(slot) > 0) {
         sb.append(i + " = ");
-        for (VariableEntry ent : entries) {
-          sb.append(ent);
+        for (int j = 0; j < variables.size(slot); j++) {
+          sb.append(variables.get(slot, j));
         }
         ++i;
       }
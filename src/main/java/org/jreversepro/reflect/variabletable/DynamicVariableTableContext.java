@@ -20,6 +20,7 @@ package org.jreversepro.reflect.variabletable;
 import java.util.List;
 import java.util.Map;
 
+import org.jreversepro.jvm.JVMConstants;
 import org.jreversepro.reflect.Method;
 
 
@@ -41,12 +42,30 @@ public class DynamicVariableTableContext {
    *          Method Instance for SymbolTableContext needs to be created.
    */
   public DynamicVariableTableContext(Method method) {
-    maxSymbols = method.getMaxLocals();
     args = method.getArgList();
     isMethodStatic = method.isStatic();
+    // Abstract and native methods have no Code, and so no max locals, but
+    // their arguments are named all the same.
+    maxSymbols = Math.max(method.getMaxLocals(), getArgumentSlots());
     mapMethodExceptions = method.getExceptionBlocks().getAllExceptionsAsMap();
     jvmMethodReturnType = method.getReturnType();
   }
 
+  /**
+   * @return Returns the number of local variable slots taken by this and the
+   *         arguments.
+   */
+  private int getArgumentSlots() {
+    int slots = isMethodStatic ? 0 : 1;
+    for (String argType : args) {
+      slots++;
+      if (argType.equals(String.valueOf(JVMConstants.JVM_TYPE_LONG))
+          || argType.equals(String.valueOf(JVMConstants.JVM_TYPE_DOUBLE))) {
+        slots++;
+      }
+    }
+    return slots;
+  }
+
   
 }
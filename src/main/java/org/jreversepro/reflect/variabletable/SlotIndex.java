@@ -0,0 +1,152 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.reflect.variabletable;
+
+/**
+ * Entries of the local variables by slot, each slot sorted by a pc (the store
+ * index, say, or the end of the scope), for binary searches by pc.
+ * <p>
+ * Entries with the same pc are kept in the order they were added.
+ * 
+ * @author Karthik Kumar
+ * @param <T>
+ *          Type of the entries.
+ */
+public class SlotIndex<T> {
+
+  /**
+   * @param slots
+   *          Number of local variable slots.
+   */
+  public SlotIndex(int slots) {
+    pcs = new int[slots][];
+    entries = new Object[slots][];
+    sizes = new int[slots];
+  }
+
+  /**
+   * @param slot
+   *          Local variable slot.
+   * @param pc
+   *          Pc the entry is sorted by.
+   * @param entry
+   *          Entry to be added.
+   */
+  public void add(int slot, int pc, T entry) {
+    int size = sizes[slot];
+    if (pcs[slot] == null) {
+      pcs[slot] = new int[INITIAL_CAPACITY];
+      entries[slot] = new Object[INITIAL_CAPACITY];
+    } else if (size == pcs[slot].length) {
+      int[] grownPcs = new int[size * 2];
+      Object[] grownEntries = new Object[size * 2];
+      System.arraycopy(pcs[slot], 0, grownPcs, 0, size);
+      System.arraycopy(entries[slot], 0, grownEntries, 0, size);
+      pcs[slot] = grownPcs;
+      entries[slot] = grownEntries;
+    }
+    // After the entries with the same pc. Entries mostly come in the order
+    // of the pcs, so that this is an append.
+    int at = upperBound(pcs[slot], size, pc);
+    System.arraycopy(pcs[slot], at, pcs[slot], at + 1, size - at);
+    System.arraycopy(entries[slot], at, entries[slot], at + 1, size - at);
+    pcs[slot][at] = pc;
+    entries[slot][at] = entry;
+    sizes[slot] = size + 1;
+  }
+
+  /**
+   * @param slot
+   *          Local variable slot.
+   * @param pc
+   *          Pc to look up.
+   * @return Returns the entry with the greatest pc not above the given one -
+   *         the last added of those with that pc. Null, if none.
+   */
+  public T floor(int slot, int pc) {
+    int at = upperBound(pcs[slot], sizes[slot], pc);
+    return (at == 0) ? null : get(slot, at - 1);
+  }
+
+  /**
+   * @param slot
+   *          Local variable slot.
+   * @param pc
+   *          Pc to look up.
+   * @return Returns the entry with the least pc not below the given one - the
+   *         first added of those with that pc. Null, if none.
+   */
+  public T ceiling(int slot, int pc) {
+    int at = upperBound(pcs[slot], sizes[slot], pc - 1);
+    return (at == sizes[slot]) ? null : get(slot, at);
+  }
+
+  /**
+   * @return Returns the number of slots.
+   */
+  public int getSlots() {
+    return sizes.length;
+  }
+
+  /**
+   * @param slot
+   *          Local variable slot.
+   * @return Returns the number of entries in the slot.
+   */
+  public int size(int slot) {
+    return sizes[slot];
+  }
+
+  /**
+   * @param slot
+   *          Local variable slot.
+   * @param i
+   *          Index of the entry, in the order of the pcs.
+   * @return Returns the entry.
+   */
+  @SuppressWarnings("unchecked")
+  public T get(int slot, int i) {
+    return (T) entries[slot][i];
+  }
+
+  /**
+   * @return Returns the index of the first pc above the key.
+   */
+  private static int upperBound(int[] sorted, int size, int key) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (sorted[mid] <= key) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private static final int INITIAL_CAPACITY = 2;
+
+  private final int[][] pcs;
+
+  private final Object[][] entries;
+
+  private final int[] sizes;
+
+}
@@ -0,0 +1,88 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.shard;
+
+import java.util.List;
+
+/**
+ * A contiguous slice of the classes of a batch, processed by a single worker
+ * process.
+ * 
+ * @author Karthik Kumar
+ */
+class Shard {
+
+  /**
+   * @param _first
+   *          Position of the first class of the shard in the batch.
+   * @param _names
+   *          Names of the classes of the shard.
+   */
+  Shard(int _first, List<String> _names) {
+    first = _first;
+    names = _names;
+    attempts = 0;
+  }
+
+  /**
+   * @return Returns the position of the first class in the batch. Orders the
+   *         output of the shards.
+   */
+  int getFirst() {
+    return first;
+  }
+
+  List<String> getNames() {
+    return names;
+  }
+
+  int getAttempts() {
+    return attempts;
+  }
+
+  void incrementAttempts() {
+    attempts++;
+  }
+
+  /**
+   * @return Returns the first half of the shard.
+   */
+  Shard head() {
+    return new Shard(first, names.subList(0, names.size() / 2));
+  }
+
+  /**
+   * @return Returns the second half of the shard.
+   */
+  Shard tail() {
+    final int half = names.size() / 2;
+    return new Shard(first + half, names.subList(half, names.size()));
+  }
+
+  @Override
+  public String toString() {
+    return "shard[" + first + ".." + (first + names.size() - 1) + "]";
+  }
+
+  private final int first;
+
+  private final List<String> names;
+
+  private int attempts;
+
+}
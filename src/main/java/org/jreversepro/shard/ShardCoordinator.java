@@ -0,0 +1,460 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.shard;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.IOUtils;
+import org.jreversepro.CustomLoggerFactory;
+import org.jreversepro.JReverseProContext.OutputType;
+import org.jreversepro.pipeline.ClassSource;
+import org.jreversepro.pipeline.ClassSources;
+
+/**
+ * Splits the classes of one or more jars / directories into shards and runs
+ * every shard in a worker JVM of its own ({@link ShardWorker}), so that the
+ * heap of no single process has to hold the whole batch.
+ * <p>
+ * A shard whose worker dies (out of memory, stack overflow or killed by a
+ * signal) is run again. If it keeps failing it is split in halves, till the
+ * class bringing the worker down is singled out and reported as failed, while
+ * the rest of the batch goes through. Any other failure of a worker ends the
+ * run, as it would fail the same way for every shard.
+ * 
+ * @author Karthik Kumar
+ */
+public class ShardCoordinator {
+
+  public ShardCoordinator() {
+    workers = Runtime.getRuntime().availableProcessors();
+    shardSize = DEFAULT_SHARD_SIZE;
+    maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    parallelism = "1,1,1,1";
+    outputType = OutputType.DECOMPILER;
+  }
+
+  /**
+   * @param _workers
+   *          Number of worker processes run at a time.
+   */
+  public void setWorkers(int _workers) {
+    if (_workers <= 0) {
+      throw new IllegalArgumentException("workers should be positive: "
+          + _workers);
+    }
+    workers = _workers;
+  }
+
+  /**
+   * @param _shardSize
+   *          Number of classes per shard.
+   */
+  public void setShardSize(int _shardSize) {
+    if (_shardSize <= 0) {
+      throw new IllegalArgumentException("shardSize should be positive: "
+          + _shardSize);
+    }
+    shardSize = _shardSize;
+  }
+
+  /**
+   * @param _maxHeap
+   *          Maximum heap of a worker as accepted by <code>-Xmx</code> (say,
+   *          512m). Null, for the default of the JVM.
+   */
+  public void setMaxHeap(String _maxHeap) {
+    maxHeap = _maxHeap;
+  }
+
+  /**
+   * @param _maxAttempts
+   *          Number of times a shard is run before it is split.
+   */
+  public void setMaxAttempts(int _maxAttempts) {
+    maxAttempts = _maxAttempts;
+  }
+
+  /**
+   * @param _parallelism
+   *          Threads per stage of the pipeline within a worker.
+   * @see org.jreversepro.pipeline.PipelineConfig#setParallelism(String)
+   */
+  public void setParallelism(String _parallelism) {
+    parallelism = _parallelism;
+  }
+
+  /**
+   * @param _limits
+   *          Limits per method within a worker, as
+   *          <code>millis,nodes[,blocks]</code>.
+   *          Null for the defaults.
+   * @see org.jreversepro.decompile.DecompileLimits#setLimits(String)
+   */
+  public void setLimits(String _limits) {
+    limits = _limits;
+  }
+
+  public void setOutputType(OutputType _outputType) {
+    outputType = _outputType;
+  }
+
+  /**
+   * @param _outputDir
+   *          Directory the workers write the classes to. Null, to have the
+   *          output collected and written to the stream passed to
+   *          {@link #run(List, PrintStream)}.
+   */
+  public void setOutputDir(File _outputDir) {
+    outputDir = _outputDir;
+  }
+
+  /**
+   * @param paths
+   *          Class files, directories and jars to be processed.
+   * @param out
+   *          Receives the output of the classes in order, if no output
+   *          directory is set.
+   * @return Returns the totals of the run.
+   * @throws IOException
+   *           Thrown if the inputs could not be read, the work directory
+   *           could not be created or a worker failed other than by dying.
+   * @throws InterruptedException
+   *           Thrown if interrupted while waiting for the workers.
+   */
+  public ShardStatistics run(List<String> paths, PrintStream out)
+      throws IOException, InterruptedException {
+    final long start = System.nanoTime();
+    final List<String> names = listClasses(paths);
+    final File workDir = createWorkDir();
+    final ShardStatistics stats = new ShardStatistics();
+    final List<Result> done = new ArrayList<Result>();
+    final ExecutorService executor = Executors.newFixedThreadPool(workers);
+    try {
+      final CompletionService<Result> completion = new ExecutorCompletionService<Result>(
+          executor);
+      final LinkedList<Shard> pending = new LinkedList<Shard>();
+      for (int i = 0; i < names.size(); i += shardSize) {
+        pending.add(new Shard(i, names.subList(i, Math.min(names.size(), i
+            + shardSize))));
+      }
+      int running = 0;
+      while (!pending.isEmpty() || running > 0) {
+        while (running < workers && !pending.isEmpty()) {
+          completion.submit(new Worker(pending.removeFirst(), workDir));
+          running++;
+        }
+        final Result result;
+        try {
+          result = completion.take().get();
+        } catch (ExecutionException ex) {
+          throw new IllegalStateException("Unable to run worker", ex
+              .getCause());
+        }
+        running--;
+        if (result.exitCode == ShardWorker.EXIT_OK) {
+          stats.add(readStatistics(result.statsFile));
+          done.add(result);
+          continue;
+        }
+        final Shard shard = result.shard;
+        if (!isRetried(result.exitCode)) {
+          // Fails the same way whatever the classes - arguments, output
+          // directory, disk.
+          throw new IOException(shard + " worker failed: "
+              + describe(result.exitCode));
+        }
+        logger.warning(shard + " worker died: " + describe(result.exitCode));
+        if (shard.getAttempts() < maxAttempts) {
+          stats.addRetry();
+          pending.addFirst(shard);
+        } else if (shard.getNames().size() > 1) {
+          stats.addRetry();
+          pending.addFirst(shard.tail());
+          pending.addFirst(shard.head());
+        } else {
+          logger.severe(shard.getNames().get(0) + " failed: "
+              + describe(result.exitCode));
+          stats.addFailed(1);
+          done.add(result);
+        }
+      }
+      if (outputDir == null) {
+        writeOutput(done, out);
+      }
+    } finally {
+      executor.shutdownNow();
+      deleteQuietly(workDir);
+    }
+    stats.setElapsedNanos(System.nanoTime() - start);
+    return stats;
+  }
+
+  private List<String> listClasses(List<String> paths) throws IOException {
+    final List<String> names = new ArrayList<String>();
+    final ClassSources classSources = new ClassSources();
+    try {
+      for (String path : paths) {
+        for (ClassSource source : classSources.expand(path)) {
+          names.add(source.getName());
+        }
+      }
+    } finally {
+      classSources.close();
+    }
+    return names;
+  }
+
+  /**
+   * Writes out the output of the shards in the order of the classes.
+   */
+  private void writeOutput(List<Result> done, PrintStream out)
+      throws IOException {
+    Collections.sort(done, new Comparator<Result>() {
+      public int compare(Result o1, Result o2) {
+        return o1.shard.getFirst() - o2.shard.getFirst();
+      }
+    });
+    final byte[] buffer = new byte[BUFFER_SIZE];
+    for (Result result : done) {
+      if (result.exitCode != ShardWorker.EXIT_OK) {
+        out.println("// " + result.shard.getNames().get(0) + ": "
+            + describe(result.exitCode));
+        continue;
+      }
+      InputStream is = null;
+      try {
+        is = new FileInputStream(result.outputFile);
+        int read;
+        while ((read = is.read(buffer)) != -1) {
+          out.write(buffer, 0, read);
+        }
+      } finally {
+        IOUtils.closeQuietly(is);
+      }
+    }
+    out.flush();
+  }
+
+  private static Properties readStatistics(File file) throws IOException {
+    final Properties props = new Properties();
+    InputStream is = null;
+    try {
+      is = new FileInputStream(file);
+      props.load(is);
+    } finally {
+      IOUtils.closeQuietly(is);
+    }
+    return props;
+  }
+
+  /**
+   * @return Returns true if the worker died of the classes it was given - out
+   *         of memory, a stack overflow or killed by a signal - and so the
+   *         shard is worth running again or splitting.
+   */
+  private static boolean isRetried(int exitCode) {
+    return exitCode == ShardWorker.EXIT_OUT_OF_MEMORY
+        || exitCode == ShardWorker.EXIT_STACK_OVERFLOW
+        || exitCode > EXIT_SIGNAL;
+  }
+
+  private static String describe(int exitCode) {
+    switch (exitCode) {
+    case ShardWorker.EXIT_OUT_OF_MEMORY:
+      return "out of memory";
+    case ShardWorker.EXIT_STACK_OVERFLOW:
+      return "stack overflow";
+    default:
+      return "exit code " + exitCode;
+    }
+  }
+
+  private static File createWorkDir() throws IOException {
+    final File dir = File.createTempFile("jreversepro-shards", "");
+    if (!dir.delete() || !dir.mkdir()) {
+      throw new IOException("Unable to create work directory " + dir);
+    }
+    return dir;
+  }
+
+  private static void deleteQuietly(File dir) {
+    final File[] files = dir.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    dir.delete();
+  }
+
+  /**
+   * Runs a shard in a worker process.
+   */
+  private class Worker implements Callable<Result> {
+
+    Worker(Shard _shard, File _workDir) {
+      shard = _shard;
+      workDir = _workDir;
+    }
+
+    public Result call() throws IOException, InterruptedException {
+      shard.incrementAttempts();
+      final String prefix = "shard-" + shard.getFirst() + "-"
+          + shard.getNames().size() + "-" + shard.getAttempts();
+      final File shardFile = new File(workDir, prefix + ".lst");
+      final File statsFile = new File(workDir, prefix + ".properties");
+      final File outputFile = new File(workDir, prefix + ".out");
+      writeLines(shard.getNames(), shardFile);
+
+      final List<String> command = new ArrayList<String>();
+      command.add(System.getProperty("java.home") + File.separator + "bin"
+          + File.separator + "java");
+      if (maxHeap != null) {
+        command.add("-Xmx" + maxHeap);
+      }
+      command.add("-cp");
+      command.add(System.getProperty("java.class.path"));
+      command.add(ShardWorker.class.getName());
+      command.add(shardFile.getPath());
+      command.add(outputType.name());
+      if (outputDir != null) {
+        command.add(ShardWorker.TARGET_DIRECTORY);
+        command.add(outputDir.getPath());
+      } else {
+        command.add(ShardWorker.TARGET_FILE);
+        command.add(outputFile.getPath());
+      }
+      command.add(statsFile.getPath());
+      command.add(parallelism);
+      if (limits != null) {
+        command.add(limits);
+      }
+
+      final ProcessBuilder builder = new ProcessBuilder(command);
+      builder.redirectErrorStream(true);
+      final Process process = builder.start();
+      try {
+        // The worker blocks if its output is not drained.
+        final InputStream is = process.getInputStream();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = is.read(buffer)) != -1) {
+          System.err.write(buffer, 0, read);
+        }
+        int exitCode = process.waitFor();
+        if (exitCode == ShardWorker.EXIT_OK && !statsFile.isFile()) {
+          exitCode = ShardWorker.EXIT_FAILED;
+        }
+        return new Result(shard, exitCode, statsFile, outputFile);
+      } finally {
+        process.destroy();
+        shardFile.delete();
+      }
+    }
+
+    private final Shard shard;
+
+    private final File workDir;
+  }
+
+  private static void writeLines(List<String> lines, File file)
+      throws IOException {
+    Writer writer = null;
+    try {
+      writer = new OutputStreamWriter(new FileOutputStream(file),
+          ShardWorker.ENCODING);
+      for (String line : lines) {
+        writer.write(line);
+        writer.write('\n');
+      }
+    } finally {
+      IOUtils.closeQuietly(writer);
+    }
+  }
+
+  /**
+   * Outcome of running a shard.
+   */
+  private static class Result {
+
+    Result(Shard _shard, int _exitCode, File _statsFile, File _outputFile) {
+      shard = _shard;
+      exitCode = _exitCode;
+      statsFile = _statsFile;
+      outputFile = _outputFile;
+    }
+
+    final Shard shard;
+
+    final int exitCode;
+
+    final File statsFile;
+
+    final File outputFile;
+  }
+
+  public static final int DEFAULT_SHARD_SIZE = 1000;
+
+  public static final int DEFAULT_MAX_ATTEMPTS = 2;
+
+  private static final int BUFFER_SIZE = 8192;
+
+  /**
+   * Exit codes above this are of processes killed by a signal (128 + signal).
+   */
+  private static final int EXIT_SIGNAL = 128;
+
+  private int workers;
+
+  private int shardSize;
+
+  private String maxHeap;
+
+  private int maxAttempts;
+
+  private String parallelism;
+
+  private String limits;
+
+  private OutputType outputType;
+
+  private File outputDir;
+
+  private final Logger logger = CustomLoggerFactory.createLogger();
+
+}
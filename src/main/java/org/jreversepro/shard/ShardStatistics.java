@@ -0,0 +1,108 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.shard;
+
+import java.util.Properties;
+
+/**
+ * Totals of the statistics reported by the workers of a
+ * {@link ShardCoordinator} run.
+ * 
+ * @author Karthik Kumar
+ */
+public class ShardStatistics {
+
+  public int getSucceeded() {
+    return succeeded;
+  }
+
+  /**
+   * @return Returns the classes that failed, including the ones that brought
+   *         down the worker process every time they were run.
+   */
+  public int getFailed() {
+    return failed;
+  }
+
+  /**
+   * @return Returns the number of times a shard was run again as its worker
+   *         died.
+   */
+  public int getRetries() {
+    return retries;
+  }
+
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    return "classes: " + succeeded + " ok, " + failed + " failed; shards: "
+        + shards + " completed, " + retries + " retried; elapsed "
+        + (elapsedNanos / 1000000L) + " ms; read " + (readNanos / 1000000L)
+        + " ms, parse " + (parseNanos / 1000000L) + " ms, decompile "
+        + (decompileNanos / 1000000L) + " ms, write "
+        + (writeNanos / 1000000L) + " ms";
+  }
+
+  void add(Properties props) {
+    shards++;
+    succeeded += Integer.parseInt(props.getProperty(
+        ShardWorker.STAT_SUCCEEDED, "0"));
+    failed += Integer.parseInt(props.getProperty(ShardWorker.STAT_FAILED, "0"));
+    readNanos += Long.parseLong(props.getProperty(ShardWorker.STAT_READ, "0"));
+    parseNanos += Long
+        .parseLong(props.getProperty(ShardWorker.STAT_PARSE, "0"));
+    decompileNanos += Long.parseLong(props.getProperty(
+        ShardWorker.STAT_DECOMPILE, "0"));
+    writeNanos += Long
+        .parseLong(props.getProperty(ShardWorker.STAT_WRITE, "0"));
+  }
+
+  void addFailed(int count) {
+    failed += count;
+  }
+
+  void addRetry() {
+    retries++;
+  }
+
+  void setElapsedNanos(long _elapsedNanos) {
+    elapsedNanos = _elapsedNanos;
+  }
+
+  private int shards;
+
+  private int succeeded;
+
+  private int failed;
+
+  private int retries;
+
+  private long readNanos;
+
+  private long parseNanos;
+
+  private long decompileNanos;
+
+  private long writeNanos;
+
+  private long elapsedNanos;
+
+}
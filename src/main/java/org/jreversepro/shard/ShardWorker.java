@@ -0,0 +1,193 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.shard;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.io.IOUtils;
+import org.jreversepro.JReverseProContext;
+import org.jreversepro.JReverseProContext.OutputType;
+import org.jreversepro.pipeline.ClassSource;
+import org.jreversepro.pipeline.ClassSources;
+import org.jreversepro.pipeline.DecompilePipeline;
+import org.jreversepro.pipeline.DirectorySink;
+import org.jreversepro.pipeline.PipelineConfig;
+import org.jreversepro.pipeline.PipelineSink;
+import org.jreversepro.pipeline.PipelineStatistics;
+import org.jreversepro.pipeline.PrintStreamSink;
+
+/**
+ * Entry point of the worker processes launched by {@link ShardCoordinator}.
+ * Runs the classes listed in a shard file through the pipeline and records
+ * the statistics in a properties file.
+ * <p>
+ * Usage: <code>ShardWorker shardFile outputType (dir|file) target statsFile
+ * parallelism [limits]</code>
+ * <p>
+ * The exit code tells the coordinator why a worker died. A shard is run
+ * again only if the worker ran out of memory or overflowed the stack;
+ * {@link #EXIT_FAILED} ends the run.
+ * 
+ * @author Karthik Kumar
+ */
+public class ShardWorker {
+
+  public static void main(String[] args) {
+    int status = EXIT_OK;
+    try {
+      run(args);
+    } catch (Throwable ex) {
+      status = exitStatus(ex);
+      if (status == EXIT_FAILED) {
+        ex.printStackTrace();
+      }
+    }
+    // Pipeline threads are daemons, but an error could leave others behind.
+    System.exit(status);
+  }
+
+  private static void run(String[] args) throws IOException,
+      InterruptedException {
+    if (args.length != 6 && args.length != 7) {
+      throw new IllegalArgumentException(
+          "Usage: ShardWorker shardFile outputType (dir|file) target statsFile parallelism [limits]");
+    }
+    final JReverseProContext context = new JReverseProContext();
+    if (args.length == 7) {
+      context.getDecompileLimits().setLimits(args[6]);
+    }
+    final OutputType outputType = OutputType.valueOf(args[1]);
+    final PipelineConfig config = new PipelineConfig();
+    config.setOutputType(outputType);
+    config.setParallelism(args[5]);
+
+    final ClassSources classSources = new ClassSources();
+    OutputStream os = null;
+    try {
+      final List<ClassSource> sources = new ArrayList<ClassSource>();
+      for (String name : readLines(new File(args[0]))) {
+        sources.add(classSources.resolve(name));
+      }
+      final PipelineSink sink;
+      if (TARGET_DIRECTORY.equals(args[2])) {
+        sink = new DirectorySink(new File(args[3]), outputType);
+      } else {
+        os = new FileOutputStream(args[3]);
+        sink = new PrintStreamSink(new PrintStream(os, false, ENCODING));
+      }
+      final PipelineStatistics stats = new DecompilePipeline(context, config)
+          .run(sources, sink);
+      if (os != null) {
+        os.flush();
+      }
+      writeStatistics(stats, new File(args[4]));
+    } finally {
+      IOUtils.closeQuietly(os);
+      classSources.close();
+    }
+  }
+
+  /**
+   * Errors in the pipeline threads reach here wrapped, hence the causes are
+   * looked at as well.
+   */
+  private static int exitStatus(Throwable ex) {
+    for (Throwable t = ex; t != null; t = t.getCause()) {
+      if (t instanceof OutOfMemoryError) {
+        return EXIT_OUT_OF_MEMORY;
+      } else if (t instanceof StackOverflowError) {
+        return EXIT_STACK_OVERFLOW;
+      }
+    }
+    return EXIT_FAILED;
+  }
+
+  static List<String> readLines(File file) throws IOException {
+    final List<String> lines = new ArrayList<String>();
+    BufferedReader reader = null;
+    try {
+      reader = new BufferedReader(new InputStreamReader(new FileInputStream(
+          file), ENCODING));
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.length() > 0) {
+          lines.add(line);
+        }
+      }
+    } finally {
+      IOUtils.closeQuietly(reader);
+    }
+    return lines;
+  }
+
+  private static void writeStatistics(PipelineStatistics stats, File file)
+      throws IOException {
+    final Properties props = new Properties();
+    props.setProperty(STAT_SUCCEEDED, String.valueOf(stats.getSucceeded()));
+    props.setProperty(STAT_FAILED, String.valueOf(stats.getFailed()));
+    props.setProperty(STAT_READ, String.valueOf(stats.getReadNanos()));
+    props.setProperty(STAT_PARSE, String.valueOf(stats.getParseNanos()));
+    props.setProperty(STAT_DECOMPILE, String
+        .valueOf(stats.getDecompileNanos()));
+    props.setProperty(STAT_WRITE, String.valueOf(stats.getWriteNanos()));
+    OutputStream os = null;
+    try {
+      os = new FileOutputStream(file);
+      props.store(os, null);
+    } finally {
+      IOUtils.closeQuietly(os);
+    }
+  }
+
+  static final String TARGET_DIRECTORY = "dir";
+
+  static final String TARGET_FILE = "file";
+
+  static final String ENCODING = "UTF-8";
+
+  static final String STAT_SUCCEEDED = "succeeded";
+
+  static final String STAT_FAILED = "failed";
+
+  static final String STAT_READ = "readNanos";
+
+  static final String STAT_PARSE = "parseNanos";
+
+  static final String STAT_DECOMPILE = "decompileNanos";
+
+  static final String STAT_WRITE = "writeNanos";
+
+  static final int EXIT_OK = 0;
+
+  static final int EXIT_FAILED = 1;
+
+  static final int EXIT_OUT_OF_MEMORY = 3;
+
+  static final int EXIT_STACK_OVERFLOW = 4;
+
+}
@@ -0,0 +1,184 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.xref;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Index from the classes, fields and methods referred to, to the classes
+ * referring to them. Built by {@link CrossReferenceIndexBuilder}.
+ * <p>
+ * The file is mapped, not read, and searched in place: it holds the names
+ * sorted by their UTF-8 bytes, so that a name is found by binary search, and
+ * for each name the sorted ids of the classes referring to it. The layout is
+ * <ul>
+ * <li>magic, version, count of names, count of references</li>
+ * <li>offset of each name into the names, and the end of the names</li>
+ * <li>offset of the classes referring to each name into the references, and
+ * the end of the references</li>
+ * <li>the references, as ids of the classes referring</li>
+ * <li>the names, in UTF-8</li>
+ * </ul>
+ * <p>
+ * Classes are named as in class files, <code>com/acme/Main</code>; fields as
+ * <code>com/acme/Main.name:Ljava/lang/String;</code>; methods as
+ * <code>com/acme/Main.run(I)V</code>.
+ * 
+ * @author Karthik Kumar
+ */
+public class CrossReferenceIndex {
+
+  private CrossReferenceIndex(ByteBuffer _buffer) throws IOException {
+    buffer = _buffer;
+    if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+      throw new IOException("Not a cross reference index");
+    }
+    if (buffer.getInt(4) != VERSION) {
+      throw new IOException("Unsupported cross reference index version "
+          + buffer.getInt(4));
+    }
+    final int nameCount = buffer.getInt(8);
+    final int referenceCount = buffer.getInt(12);
+    referenceOffsets = HEADER_SIZE + 4 * (nameCount + 1);
+    references = referenceOffsets + 4 * (nameCount + 1);
+    names = new MappedNames(buffer, HEADER_SIZE, references + 4
+        * referenceCount, nameCount);
+  }
+
+  /**
+   * Maps an index.
+   * 
+   * @param file
+   *          File written by {@link CrossReferenceIndexBuilder}.
+   * @return Returns the index.
+   * @throws IOException
+   *           Thrown if the file could not be mapped or is not an index.
+   */
+  public static CrossReferenceIndex open(File file) throws IOException {
+    final RandomAccessFile raf = new RandomAccessFile(file, "r");
+    try {
+      // The mapping outlives the file being closed.
+      return new CrossReferenceIndex(raf.getChannel().map(
+          FileChannel.MapMode.READ_ONLY, 0, raf.length()));
+    } finally {
+      raf.close();
+    }
+  }
+
+  /**
+   * Finds the classes referring to a class, a field or a method. The name may
+   * use '.' in place of '/' outside the descriptor. A field or method without
+   * a descriptor stands for all the fields and methods of that name in the
+   * class; a name without a descriptor is also taken to be that of a class.
+   * 
+   * @param name
+   *          Say <code>com.acme.Main</code>, <code>com.acme.Main.run</code>,
+   *          or <code>com.acme.Main.run(I)V</code>.
+   * @return Returns the names of the classes referring to it, sorted.
+   */
+  public SortedSet<String> findReferrers(String name) {
+    final SortedSet<String> referrers = new TreeSet<String>();
+    int descriptor = name.indexOf('(');
+    if (descriptor == -1) {
+      descriptor = name.indexOf(FIELD_TYPE_SEPARATOR);
+    }
+    if (descriptor == -1) {
+      // Either a class, or a member without a descriptor.
+      addReferrers(toInternal(name), false, referrers);
+      descriptor = name.length();
+    }
+    final int member = name.lastIndexOf(MEMBER_SEPARATOR, descriptor - 1);
+    if (member > 0) {
+      addReferrers(toInternal(name.substring(0, member))
+          + name.substring(member, descriptor)
+          + name.substring(descriptor), descriptor == name.length(),
+          referrers);
+    }
+    return referrers;
+  }
+
+  /**
+   * @return Returns the number of names in the index.
+   */
+  public int getNameCount() {
+    return names.getCount();
+  }
+
+  /**
+   * @param id
+   *          Id of a name.
+   * @return Returns the name.
+   */
+  public String getName(int id) {
+    return names.getName(id);
+  }
+
+  /**
+   * Adds the classes referring to the given name, or, if any descriptor is
+   * allowed, to the names made of it followed by a descriptor.
+   */
+  private void addReferrers(String name, boolean anyDescriptor,
+      SortedSet<String> referrers) {
+    final byte[] key = CrossReferenceIndexBuilder.toUtf8(name);
+    for (int id = names.lowerBound(key); id < names.getCount(); id++) {
+      final int match = names.matchPrefix(id, key);
+      if (match == MappedNames.NO_MATCH) {
+        break;
+      }
+      if (match == MappedNames.EXACT_MATCH
+          || (anyDescriptor && (match == '(' || match == ':'))) {
+        final int end = buffer.getInt(referenceOffsets + 4 * id + 4);
+        for (int i = buffer.getInt(referenceOffsets + 4 * id); i < end; i++) {
+          referrers.add(getName(buffer.getInt(references + 4 * i)));
+        }
+      }
+    }
+  }
+
+  static String toInternal(String className) {
+    return className.replace('.', '/');
+  }
+
+  static final int MAGIC = 0x4a525852;
+
+  static final int VERSION = 1;
+
+  static final int HEADER_SIZE = 16;
+
+  static final String ENCODING = "UTF-8";
+
+  static final String MEMBER_SEPARATOR = ".";
+
+  static final String FIELD_TYPE_SEPARATOR = ":";
+
+  private final ByteBuffer buffer;
+
+  /** Positions of the sections of the file. */
+  private final int referenceOffsets;
+
+  private final int references;
+
+  private final MappedNames names;
+
+}
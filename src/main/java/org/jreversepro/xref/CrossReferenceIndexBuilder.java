@@ -0,0 +1,314 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.xref;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+import org.jreversepro.parser.ClassFileParserFactory;
+import org.jreversepro.parser.ClassParserException;
+import org.jreversepro.parser.common.AbstractClassFileParser;
+import org.jreversepro.pipeline.ClassSource;
+import org.jreversepro.reflect.ConstantPool;
+
+/**
+ * Builds a {@link CrossReferenceIndex} from the constant pools of classes.
+ * Only the constant pool and the name of each class are read; the members and
+ * the code are not.
+ * <p>
+ * A class refers to the classes, fields and methods named by the TAG_CLASS,
+ * TAG_FIELDREF, TAG_METHODREF and TAG_INTERFACEREF entries of its pool.
+ * Names are interned to integer ids as they come, and each reference is kept
+ * as a pair of ids till the index is written.
+ * 
+ * @author Karthik Kumar
+ */
+public class CrossReferenceIndexBuilder {
+
+  public CrossReferenceIndexBuilder() {
+    ids = new HashMap<String, Integer>();
+    names = new ArrayList<String>();
+    references = new long[1024];
+  }
+
+  /**
+   * Adds the references of a class.
+   * 
+   * @param source
+   *          Class file.
+   * @return Returns false if the class file could not be parsed, in which
+   *         case it is skipped.
+   * @throws IOException
+   *           Thrown if the class file could not be read.
+   */
+  public boolean add(ClassSource source) throws IOException {
+    InputStream is = null;
+    try {
+      is = source.openStream();
+      final DataInputStream dis = new DataInputStream(new BufferedInputStream(
+          is));
+      // Reads the magic number and the version.
+      ClassFileParserFactory.getClassFileParser(dis);
+      final ConstantPool pool = AbstractClassFileParser.readConstantPool(dis);
+      AbstractClassFileParser.readAccess(dis);
+      final int thisClass = AbstractClassFileParser.readThisClassIndex(dis)
+          & 0xffff;
+      add(pool.getClassName(thisClass), pool);
+      classCount++;
+      return true;
+    } catch (ClassParserException ex) {
+      skippedCount++;
+      return false;
+    } finally {
+      IOUtils.closeQuietly(is);
+    }
+  }
+
+  /**
+   * Adds the references in the given pool.
+   * 
+   * @param className
+   *          Name of the class the pool belongs to.
+   * @param pool
+   *          ConstantPool of the class.
+   */
+  void add(String className, ConstantPool pool) {
+    final int classId = intern(className);
+    for (int i = 1; i < pool.getMaxCpEntry(); i++) {
+      switch (pool.getTagByte(i)) {
+      case ConstantPool.TAG_CLASS:
+        final String referred = getElementClass(pool.getClassName(i));
+        if (referred != null && !referred.equals(className)) {
+          addReference(intern(referred), classId);
+        }
+        break;
+      case ConstantPool.TAG_FIELDREF:
+        addReference(intern(getMember(pool, i,
+            CrossReferenceIndex.FIELD_TYPE_SEPARATOR)), classId);
+        break;
+      case ConstantPool.TAG_METHODREF:
+      case ConstantPool.TAG_INTERFACEREF:
+        addReference(intern(getMember(pool, i, "")), classId);
+        break;
+      default:
+        break;
+      }
+    }
+  }
+
+  /**
+   * Writes the index, and maps the file to do so.
+   * 
+   * @param file
+   *          File to write the index to. Replaced if present.
+   * @throws IOException
+   *           Thrown if the file could not be written.
+   */
+  public void write(File file) throws IOException {
+    // Names sorted by their bytes, so that the index is searched by bytes.
+    final int nameCount = names.size();
+    final byte[][] encoded = new byte[nameCount][];
+    final Integer[] order = new Integer[nameCount];
+    int namesSize = 0;
+    for (int i = 0; i < nameCount; i++) {
+      encoded[i] = toUtf8(names.get(i));
+      order[i] = Integer.valueOf(i);
+      namesSize += encoded[i].length;
+    }
+    Arrays.sort(order, new Comparator<Integer>() {
+      public int compare(Integer left, Integer right) {
+        return compareBytes(encoded[left.intValue()], encoded[right
+            .intValue()]);
+      }
+    });
+    final int[] newIds = new int[nameCount];
+    for (int i = 0; i < nameCount; i++) {
+      newIds[order[i].intValue()] = i;
+    }
+
+    // References sorted by the name referred to, and then by the class.
+    final long[] pairs = new long[referenceCount];
+    for (int i = 0; i < referenceCount; i++) {
+      pairs[i] = ((long) newIds[(int) (references[i] >>> 32)] << 32)
+          | newIds[(int) references[i]];
+    }
+    Arrays.sort(pairs);
+    int pairCount = 0;
+    for (int i = 0; i < pairs.length; i++) {
+      if (i == 0 || pairs[i] != pairs[i - 1]) {
+        pairs[pairCount++] = pairs[i];
+      }
+    }
+
+    final long size = CrossReferenceIndex.HEADER_SIZE + 8L * (nameCount + 1)
+        + 4L * pairCount + namesSize;
+    final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+    try {
+      raf.setLength(0);
+      final FileChannel channel = raf.getChannel();
+      final MappedByteBuffer buffer = channel.map(
+          FileChannel.MapMode.READ_WRITE, 0, size);
+      buffer.putInt(CrossReferenceIndex.MAGIC);
+      buffer.putInt(CrossReferenceIndex.VERSION);
+      buffer.putInt(nameCount);
+      buffer.putInt(pairCount);
+      // Offsets of the names, in bytes into the names.
+      int offset = 0;
+      for (int i = 0; i < nameCount; i++) {
+        buffer.putInt(offset);
+        offset += encoded[order[i].intValue()].length;
+      }
+      buffer.putInt(offset);
+      // Offsets of the classes referring to each name, into the postings.
+      int pair = 0;
+      for (int i = 0; i < nameCount; i++) {
+        buffer.putInt(pair);
+        while (pair < pairCount && (int) (pairs[pair] >>> 32) == i) {
+          pair++;
+        }
+      }
+      buffer.putInt(pair);
+      for (int i = 0; i < pairCount; i++) {
+        buffer.putInt((int) pairs[i]);
+      }
+      for (int i = 0; i < nameCount; i++) {
+        buffer.put(encoded[order[i].intValue()]);
+      }
+      buffer.force();
+    } finally {
+      raf.close();
+    }
+  }
+
+  /**
+   * @return Returns the number of classes added.
+   */
+  public int getClassCount() {
+    return classCount;
+  }
+
+  /**
+   * @return Returns the number of class files that could not be parsed.
+   */
+  public int getSkippedCount() {
+    return skippedCount;
+  }
+
+  /**
+   * @return Returns the number of names interned.
+   */
+  public int getNameCount() {
+    return names.size();
+  }
+
+  /**
+   * @return Returns the class of the elements of an array, the class itself
+   *         if not an array, or null for arrays of primitives.
+   */
+  static String getElementClass(String name) {
+    if (!name.startsWith("[")) {
+      return name;
+    }
+    final int start = name.lastIndexOf('[') + 1;
+    if (name.charAt(start) != 'L') {
+      return null;
+    }
+    return name.substring(start + 1, name.length() - 1);
+  }
+
+  /**
+   * @return Returns the name of the member referred to by the entry, as the
+   *         class, '.', the name, the separator and the descriptor.
+   */
+  private static String getMember(ConstantPool pool, int index,
+      String separator) {
+    final int nameType = pool.getPtr2(index);
+    return pool.getClassName(pool.getPtr1(index))
+        + CrossReferenceIndex.MEMBER_SEPARATOR + pool.getFieldName(nameType)
+        + separator + pool.getFieldType(nameType);
+  }
+
+  private int intern(String name) {
+    final Integer id = ids.get(name);
+    if (id != null) {
+      return id.intValue();
+    }
+    ids.put(name, Integer.valueOf(names.size()));
+    names.add(name);
+    return names.size() - 1;
+  }
+
+  private void addReference(int referredId, int classId) {
+    if (referenceCount == references.length) {
+      final long[] grown = new long[references.length * 2];
+      System.arraycopy(references, 0, grown, 0, referenceCount);
+      references = grown;
+    }
+    references[referenceCount++] = ((long) referredId << 32) | classId;
+  }
+
+  /**
+   * Compares as unsigned bytes, which orders UTF-8 as the code points.
+   */
+  static int compareBytes(byte[] left, byte[] right) {
+    final int length = Math.min(left.length, right.length);
+    for (int i = 0; i < length; i++) {
+      final int diff = (left[i] & 0xff) - (right[i] & 0xff);
+      if (diff != 0) {
+        return diff;
+      }
+    }
+    return left.length - right.length;
+  }
+
+  static byte[] toUtf8(String text) {
+    try {
+      return text.getBytes(CrossReferenceIndex.ENCODING);
+    } catch (UnsupportedEncodingException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private final Map<String, Integer> ids;
+
+  private final List<String> names;
+
+  /** Ids of the name referred to and of the class referring to it. */
+  private long[] references;
+
+  private int referenceCount;
+
+  private int classCount;
+
+  private int skippedCount;
+
+}
@@ -0,0 +1,409 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.xref;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.jreversepro.jvm.JVMConstants;
+
+/**
+ * Index of the supertypes and the subtypes of the classes under a set of
+ * archives / directories, answered without loading any class file. Built, and
+ * brought up to date when an archive changes, by
+ * {@link HierarchyIndexBuilder}.
+ * <p>
+ * The file is mapped, not read. Every class named, whether defined in the
+ * indexed classes or only extended / implemented by them, has an id, its
+ * position in the names sorted by their UTF-8 bytes, as do the paths of the
+ * origins. The layout is
+ * <ul>
+ * <li>magic, version, count of names, count of origins, count of
+ * interfaces, count of subtypes</li>
+ * <li>offset of each name into the names, and the end of the names</li>
+ * <li>access flags of each class, -1 if not defined in the indexed classes</li>
+ * <li>id of the superclass of each class, -1 if none</li>
+ * <li>origin each class was read from, -1 if none</li>
+ * <li>offset of the interfaces of each class into the interfaces, and the
+ * end</li>
+ * <li>offset of the direct subtypes of each class into the subtypes, and the
+ * end</li>
+ * <li>the interfaces, as ids</li>
+ * <li>the subtypes, as ids</li>
+ * <li>the origins, as id of the path, length and last modified time</li>
+ * <li>the names, in UTF-8</li>
+ * </ul>
+ * <p>
+ * Classes are named as in class files, <code>com/acme/Main</code>, though
+ * '.' may be used in place of '/' when asking.
+ * 
+ * @author Karthik Kumar
+ */
+public class HierarchyIndex {
+
+  private HierarchyIndex(ByteBuffer _buffer) throws IOException {
+    buffer = _buffer;
+    if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+      throw new IOException("Not a class hierarchy index");
+    }
+    if (buffer.getInt(4) != VERSION) {
+      throw new IOException("Unsupported class hierarchy index version "
+          + buffer.getInt(4));
+    }
+    final int nameCount = buffer.getInt(8);
+    originCount = buffer.getInt(12);
+    final int interfaceCount = buffer.getInt(16);
+    final int subtypeCount = buffer.getInt(20);
+    access = HEADER_SIZE + 4 * (nameCount + 1);
+    superclasses = access + 4 * nameCount;
+    classOrigins = superclasses + 4 * nameCount;
+    interfaceOffsets = classOrigins + 4 * nameCount;
+    subtypeOffsets = interfaceOffsets + 4 * (nameCount + 1);
+    interfaces = subtypeOffsets + 4 * (nameCount + 1);
+    subtypes = interfaces + 4 * interfaceCount;
+    origins = subtypes + 4 * subtypeCount;
+    names = new MappedNames(buffer, HEADER_SIZE, origins + ORIGIN_SIZE
+        * originCount, nameCount);
+  }
+
+  /**
+   * Maps an index.
+   * 
+   * @param file
+   *          File written by {@link HierarchyIndexBuilder}.
+   * @return Returns the index.
+   * @throws IOException
+   *           Thrown if the file could not be mapped or is not an index.
+   */
+  public static HierarchyIndex open(File file) throws IOException {
+    final RandomAccessFile raf = new RandomAccessFile(file, "r");
+    try {
+      // The mapping outlives the file being closed.
+      return new HierarchyIndex(raf.getChannel().map(
+          FileChannel.MapMode.READ_ONLY, 0, raf.length()));
+    } finally {
+      raf.close();
+    }
+  }
+
+  /**
+   * @param name
+   *          Name of a class.
+   * @return Returns true, if the class is defined in the indexed classes.
+   */
+  public boolean contains(String name) {
+    return getAccess(find(name)) != -1;
+  }
+
+  /**
+   * @param name
+   *          Name of a class.
+   * @return Returns true, if the class is an interface defined in the indexed
+   *         classes.
+   */
+  public boolean isInterface(String name) {
+    return isInterface(find(name));
+  }
+
+  /**
+   * @param name
+   *          Name of a class.
+   * @return Returns the superclass, null if the class is not defined in the
+   *         indexed classes or is java/lang/Object.
+   */
+  public String getSuperclass(String name) {
+    final int id = find(name);
+    if (id == -1) {
+      return null;
+    }
+    final int superclass = buffer.getInt(superclasses + 4 * id);
+    return (superclass == -1) ? null : names.getName(superclass);
+  }
+
+  /**
+   * @param name
+   *          Name of a class.
+   * @return Returns the interfaces the class directly implements (or an
+   *         interface directly extends), in the order declared.
+   */
+  public List<String> getInterfaces(String name) {
+    final List<String> result = new ArrayList<String>();
+    final int id = find(name);
+    if (id != -1) {
+      final int end = buffer.getInt(interfaceOffsets + 4 * id + 4);
+      for (int i = buffer.getInt(interfaceOffsets + 4 * id); i < end; i++) {
+        result.add(names.getName(buffer.getInt(interfaces + 4 * i)));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @param name
+   *          Name of a class.
+   * @return Returns all the superclasses and interfaces of the class, as far
+   *         as they are known from the indexed classes.
+   */
+  public SortedSet<String> getSupertypes(String name) {
+    final SortedSet<String> result = new TreeSet<String>();
+    final int id = find(name);
+    if (id == -1) {
+      return result;
+    }
+    final BitSet seen = new BitSet(names.getCount());
+    final List<Integer> pending = new ArrayList<Integer>();
+    pending.add(Integer.valueOf(id));
+    while (!pending.isEmpty()) {
+      final int type = pending.remove(pending.size() - 1).intValue();
+      final int superclass = buffer.getInt(superclasses + 4 * type);
+      if (superclass != -1 && !seen.get(superclass)) {
+        seen.set(superclass);
+        pending.add(Integer.valueOf(superclass));
+      }
+      final int end = buffer.getInt(interfaceOffsets + 4 * type + 4);
+      for (int i = buffer.getInt(interfaceOffsets + 4 * type); i < end; i++) {
+        final int parent = buffer.getInt(interfaces + 4 * i);
+        if (!seen.get(parent)) {
+          seen.set(parent);
+          pending.add(Integer.valueOf(parent));
+        }
+      }
+    }
+    for (int i = seen.nextSetBit(0); i >= 0; i = seen.nextSetBit(i + 1)) {
+      result.add(names.getName(i));
+    }
+    return result;
+  }
+
+  /**
+   * @param name
+   *          Name of a class.
+   * @return Returns the classes directly extending the class or implementing
+   *         the interface, and the interfaces directly extending it.
+   */
+  public SortedSet<String> getDirectSubtypes(String name) {
+    final SortedSet<String> result = new TreeSet<String>();
+    final int id = find(name);
+    if (id != -1) {
+      final int end = buffer.getInt(subtypeOffsets + 4 * id + 4);
+      for (int i = buffer.getInt(subtypeOffsets + 4 * id); i < end; i++) {
+        result.add(names.getName(buffer.getInt(subtypes + 4 * i)));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @param name
+   *          Name of a class.
+   * @return Returns all the classes and interfaces extending the class or
+   *         implementing the interface, directly or not.
+   */
+  public SortedSet<String> getSubtypes(String name) {
+    return getSubtypes(name, false);
+  }
+
+  /**
+   * @param name
+   *          Name of an interface (or a class).
+   * @return Returns all the classes implementing the interface, directly or
+   *         through a superclass or a subinterface. Abstract classes are
+   *         included; interfaces are not.
+   */
+  public SortedSet<String> getImplementors(String name) {
+    return getSubtypes(name, true);
+  }
+
+  /**
+   * @return Returns the number of names in the index.
+   */
+  public int getNameCount() {
+    return names.getCount();
+  }
+
+  /**
+   * @param id
+   *          Id of a name.
+   * @return Returns the name.
+   */
+  public String getName(int id) {
+    return names.getName(id);
+  }
+
+  /**
+   * @return Returns the number of archives / directories indexed.
+   */
+  public int getOriginCount() {
+    return originCount;
+  }
+
+  /**
+   * @param origin
+   *          Index of an origin.
+   * @return Returns the path of the archive / directory.
+   */
+  public String getOriginPath(int origin) {
+    return names.getName(buffer.getInt(origins + ORIGIN_SIZE * origin));
+  }
+
+  /**
+   * @param origin
+   *          Index of an origin.
+   * @param file
+   *          The archive / directory at the path of the origin.
+   * @return Returns true, if the file has not changed since it was indexed.
+   *         Directories are never taken to be unchanged, since a change to a
+   *         class underneath need not change the directory.
+   */
+  boolean isCurrent(int origin, File file) {
+    final int position = origins + ORIGIN_SIZE * origin;
+    return file.isFile() && buffer.getLong(position + 4) == file.length()
+        && buffer.getLong(position + 12) == file.lastModified();
+  }
+
+  /**
+   * @return Returns the classes read from each origin, by id.
+   */
+  int[][] getClassesByOrigin() {
+    final int[] counts = new int[originCount];
+    for (int id = 0; id < names.getCount(); id++) {
+      final int origin = buffer.getInt(classOrigins + 4 * id);
+      if (origin != -1) {
+        counts[origin]++;
+      }
+    }
+    final int[][] result = new int[originCount][];
+    for (int i = 0; i < originCount; i++) {
+      result[i] = new int[counts[i]];
+      counts[i] = 0;
+    }
+    for (int id = 0; id < names.getCount(); id++) {
+      final int origin = buffer.getInt(classOrigins + 4 * id);
+      if (origin != -1) {
+        result[origin][counts[origin]++] = id;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return Returns the access flags of the class by the given id, -1 if not
+   *         defined in the indexed classes.
+   */
+  int getAccess(int id) {
+    return (id == -1) ? -1 : buffer.getInt(access + 4 * id);
+  }
+
+  /**
+   * @return Returns the id of the superclass, -1 if none.
+   */
+  int getSuperclass(int id) {
+    return buffer.getInt(superclasses + 4 * id);
+  }
+
+  /**
+   * @return Returns the ids of the interfaces, in the order declared.
+   */
+  int[] getInterfaces(int id) {
+    final int start = buffer.getInt(interfaceOffsets + 4 * id);
+    final int[] result = new int[buffer.getInt(interfaceOffsets + 4 * id + 4)
+        - start];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = buffer.getInt(interfaces + 4 * (start + i));
+    }
+    return result;
+  }
+
+  private SortedSet<String> getSubtypes(String name, boolean classesOnly) {
+    final SortedSet<String> result = new TreeSet<String>();
+    final int id = find(name);
+    if (id == -1) {
+      return result;
+    }
+    final BitSet seen = new BitSet(names.getCount());
+    final List<Integer> pending = new ArrayList<Integer>();
+    pending.add(Integer.valueOf(id));
+    while (!pending.isEmpty()) {
+      final int type = pending.remove(pending.size() - 1).intValue();
+      final int end = buffer.getInt(subtypeOffsets + 4 * type + 4);
+      for (int i = buffer.getInt(subtypeOffsets + 4 * type); i < end; i++) {
+        final int child = buffer.getInt(subtypes + 4 * i);
+        if (!seen.get(child)) {
+          seen.set(child);
+          pending.add(Integer.valueOf(child));
+        }
+      }
+    }
+    for (int i = seen.nextSetBit(0); i >= 0; i = seen.nextSetBit(i + 1)) {
+      if (!classesOnly || !isInterface(i)) {
+        result.add(names.getName(i));
+      }
+    }
+    return result;
+  }
+
+  private boolean isInterface(int id) {
+    final int flags = getAccess(id);
+    return flags != -1 && (flags & JVMConstants.ACC_INTERFACE) != 0;
+  }
+
+  private int find(String name) {
+    return names.find(CrossReferenceIndex.toInternal(name));
+  }
+
+  static final int MAGIC = 0x4a524849;
+
+  static final int VERSION = 1;
+
+  static final int HEADER_SIZE = 24;
+
+  /** Id of the path, length and last modified time. */
+  static final int ORIGIN_SIZE = 20;
+
+  private final ByteBuffer buffer;
+
+  private final int originCount;
+
+  /** Positions of the sections of the file. */
+  private final int access;
+
+  private final int superclasses;
+
+  private final int classOrigins;
+
+  private final int interfaceOffsets;
+
+  private final int subtypeOffsets;
+
+  private final int interfaces;
+
+  private final int subtypes;
+
+  private final int origins;
+
+  private final MappedNames names;
+
+}
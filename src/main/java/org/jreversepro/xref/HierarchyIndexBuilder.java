@@ -0,0 +1,438 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.xref;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+import org.jreversepro.parser.ClassFileParserFactory;
+import org.jreversepro.parser.ClassParserException;
+import org.jreversepro.parser.common.AbstractClassFileParser;
+import org.jreversepro.pipeline.ClassSource;
+import org.jreversepro.pipeline.ClassSources;
+import org.jreversepro.reflect.ConstantPool;
+
+/**
+ * Builds a {@link HierarchyIndex} from the headers of classes - the access
+ * flags, the name, the superclass and the interfaces. The fields, the methods
+ * and the attributes are not read.
+ * <p>
+ * Given the index built before, the classes of the archives that have not
+ * changed since (by their length and last modified time) are copied from it
+ * rather than read again, so that a change to one archive of a classpath
+ * rereads that archive alone. A class defined by more than one origin is
+ * taken from the first, as a class loader would.
+ * 
+ * @author Karthik Kumar
+ */
+public class HierarchyIndexBuilder {
+
+  /**
+   * Builds an index afresh.
+   */
+  public HierarchyIndexBuilder() {
+    this(null);
+  }
+
+  /**
+   * @param _previous
+   *          Index built before from the same origins, null if none.
+   */
+  public HierarchyIndexBuilder(HierarchyIndex _previous) {
+    previous = _previous;
+    ids = new HashMap<String, Integer>();
+    names = new ArrayList<String>();
+    defined = new BitSet();
+    classes = new ArrayList<ClassHeader>();
+    origins = new ArrayList<Origin>();
+  }
+
+  /**
+   * Adds the classes under an archive / directory, copied from the previous
+   * index if the archive has not changed since.
+   * 
+   * @param path
+   *          Path to an archive, a directory or a class file.
+   * @return Returns true, if the classes were copied from the previous index.
+   * @throws IOException
+   *           Thrown if the path could not be read.
+   */
+  public boolean addOrigin(String path) throws IOException {
+    final File file = new File(path).getAbsoluteFile();
+    final int origin = newOrigin(file.getPath(), file.length(), file
+        .lastModified());
+    final int previousOrigin = findPreviousOrigin(file);
+    if (previousOrigin != -1) {
+      copyFromPrevious(previousOrigin, origin);
+      reusedCount++;
+      return true;
+    }
+    final ClassSources classSources = new ClassSources();
+    try {
+      for (ClassSource source : classSources.expand(file.getPath())) {
+        add(source, origin);
+      }
+    } finally {
+      classSources.close();
+    }
+    return false;
+  }
+
+  /**
+   * Writes the index. The index is written to a file alongside and then
+   * renamed, so that a reader who mapped the file before sees it whole.
+   * 
+   * @param file
+   *          File to write the index to. Replaced if present.
+   * @throws IOException
+   *           Thrown if the file could not be written.
+   */
+  public void write(File file) throws IOException {
+    // Names sorted by their bytes, so that the index is searched by bytes.
+    final int nameCount = names.size();
+    final byte[][] encoded = new byte[nameCount][];
+    final Integer[] order = new Integer[nameCount];
+    int namesSize = 0;
+    for (int i = 0; i < nameCount; i++) {
+      encoded[i] = CrossReferenceIndexBuilder.toUtf8(names.get(i));
+      order[i] = Integer.valueOf(i);
+      namesSize += encoded[i].length;
+    }
+    Arrays.sort(order, new Comparator<Integer>() {
+      public int compare(Integer left, Integer right) {
+        return CrossReferenceIndexBuilder.compareBytes(encoded[left
+            .intValue()], encoded[right.intValue()]);
+      }
+    });
+    final int[] newIds = new int[nameCount];
+    for (int i = 0; i < nameCount; i++) {
+      newIds[order[i].intValue()] = i;
+    }
+
+    final ClassHeader[] byId = new ClassHeader[nameCount];
+    int interfaceCount = 0;
+    // Subtypes sorted by the supertype, and then by the subtype.
+    long[] pairs = new long[16];
+    int pairCount = 0;
+    for (ClassHeader header : classes) {
+      final int id = newIds[header.name];
+      byId[id] = header;
+      interfaceCount += header.interfaces.length;
+      if (pairCount + header.interfaces.length + 1 > pairs.length) {
+        final long[] grown = new long[Math.max(pairs.length * 2, pairCount
+            + header.interfaces.length + 1)];
+        System.arraycopy(pairs, 0, grown, 0, pairCount);
+        pairs = grown;
+      }
+      if (header.superclass != -1) {
+        pairs[pairCount++] = ((long) newIds[header.superclass] << 32) | id;
+      }
+      for (int parent : header.interfaces) {
+        pairs[pairCount++] = ((long) newIds[parent] << 32) | id;
+      }
+    }
+    Arrays.sort(pairs, 0, pairCount);
+    int subtypeCount = 0;
+    for (int i = 0; i < pairCount; i++) {
+      if (i == 0 || pairs[i] != pairs[i - 1]) {
+        pairs[subtypeCount++] = pairs[i];
+      }
+    }
+
+    final long size = HierarchyIndex.HEADER_SIZE + 4L * (nameCount + 1) + 12L
+        * nameCount + 8L * (nameCount + 1) + 4L * interfaceCount + 4L
+        * subtypeCount + (long) HierarchyIndex.ORIGIN_SIZE * origins.size()
+        + namesSize;
+    final File temp = new File(file.getPath() + TEMP_SUFFIX);
+    final RandomAccessFile raf = new RandomAccessFile(temp, "rw");
+    try {
+      raf.setLength(0);
+      final FileChannel channel = raf.getChannel();
+      final MappedByteBuffer buffer = channel.map(
+          FileChannel.MapMode.READ_WRITE, 0, size);
+      buffer.putInt(HierarchyIndex.MAGIC);
+      buffer.putInt(HierarchyIndex.VERSION);
+      buffer.putInt(nameCount);
+      buffer.putInt(origins.size());
+      buffer.putInt(interfaceCount);
+      buffer.putInt(subtypeCount);
+      int offset = 0;
+      for (int i = 0; i < nameCount; i++) {
+        buffer.putInt(offset);
+        offset += encoded[order[i].intValue()].length;
+      }
+      buffer.putInt(offset);
+      for (int i = 0; i < nameCount; i++) {
+        buffer.putInt((byId[i] == null) ? -1 : byId[i].access);
+      }
+      for (int i = 0; i < nameCount; i++) {
+        buffer.putInt((byId[i] == null || byId[i].superclass == -1) ? -1
+            : newIds[byId[i].superclass]);
+      }
+      for (int i = 0; i < nameCount; i++) {
+        buffer.putInt((byId[i] == null) ? -1 : byId[i].origin);
+      }
+      offset = 0;
+      for (int i = 0; i < nameCount; i++) {
+        buffer.putInt(offset);
+        offset += (byId[i] == null) ? 0 : byId[i].interfaces.length;
+      }
+      buffer.putInt(offset);
+      int pair = 0;
+      for (int i = 0; i < nameCount; i++) {
+        buffer.putInt(pair);
+        while (pair < subtypeCount && (int) (pairs[pair] >>> 32) == i) {
+          pair++;
+        }
+      }
+      buffer.putInt(pair);
+      for (int i = 0; i < nameCount; i++) {
+        if (byId[i] != null) {
+          for (int parent : byId[i].interfaces) {
+            buffer.putInt(newIds[parent]);
+          }
+        }
+      }
+      for (int i = 0; i < subtypeCount; i++) {
+        buffer.putInt((int) pairs[i]);
+      }
+      for (Origin origin : origins) {
+        buffer.putInt(newIds[origin.path]);
+        buffer.putLong(origin.length);
+        buffer.putLong(origin.lastModified);
+      }
+      for (int i = 0; i < nameCount; i++) {
+        buffer.put(encoded[order[i].intValue()]);
+      }
+      buffer.force();
+    } finally {
+      raf.close();
+    }
+    // Renaming over an existing file fails on some platforms.
+    if (!temp.renameTo(file) && !(file.delete() && temp.renameTo(file))) {
+      throw new IOException("Unable to replace " + file);
+    }
+  }
+
+  /**
+   * @return Returns the number of classes added.
+   */
+  public int getClassCount() {
+    return classes.size();
+  }
+
+  /**
+   * @return Returns the number of class files that could not be parsed.
+   */
+  public int getSkippedCount() {
+    return skippedCount;
+  }
+
+  /**
+   * @return Returns the number of origins copied from the previous index.
+   */
+  public int getReusedCount() {
+    return reusedCount;
+  }
+
+  /**
+   * Adds a class from its header alone.
+   */
+  private void add(ClassSource source, int origin) throws IOException {
+    InputStream is = null;
+    try {
+      is = source.openStream();
+      final DataInputStream dis = new DataInputStream(new BufferedInputStream(
+          is));
+      // Reads the magic number and the version.
+      ClassFileParserFactory.getClassFileParser(dis);
+      final ConstantPool pool = AbstractClassFileParser.readConstantPool(dis);
+      final int flags = AbstractClassFileParser.readAccess(dis) & 0xffff;
+      final String name = pool.getClassName(AbstractClassFileParser
+          .readThisClassIndex(dis) & 0xffff);
+      final int superIndex = AbstractClassFileParser.readSuperClassIndex(dis)
+          & 0xffff;
+      addClass(name, flags, (superIndex == 0) ? null : pool
+          .getClassName(superIndex), AbstractClassFileParser.readInterfaces(
+          dis, pool), origin);
+    } catch (ClassParserException ex) {
+      skippedCount++;
+    } finally {
+      IOUtils.closeQuietly(is);
+    }
+  }
+
+  /**
+   * Adds a class, unless an origin before has defined it.
+   * 
+   * @param name
+   *          Name of the class.
+   * @param flags
+   *          Access flags of the class.
+   * @param superclass
+   *          Name of the superclass, null if none.
+   * @param interfaces
+   *          Names of the interfaces, in the order declared.
+   * @param origin
+   *          Index of the origin of the class.
+   */
+  void addClass(String name, int flags, String superclass,
+      List<String> interfaces, int origin) {
+    final int id = intern(name);
+    if (defined.get(id)) {
+      return;
+    }
+    defined.set(id);
+    final int[] interfaceIds = new int[interfaces.size()];
+    for (int i = 0; i < interfaceIds.length; i++) {
+      interfaceIds[i] = intern(interfaces.get(i));
+    }
+    classes.add(new ClassHeader(id, flags, (superclass == null) ? -1
+        : intern(superclass), interfaceIds, origin));
+  }
+
+  /**
+   * @return Returns the index of the new origin.
+   */
+  int newOrigin(String path, long length, long lastModified) {
+    origins.add(new Origin(intern(path), length, lastModified));
+    return origins.size() - 1;
+  }
+
+  /**
+   * @return Returns the index of the origin in the previous index that is
+   *         the given file, unchanged, -1 if none.
+   */
+  private int findPreviousOrigin(File file) {
+    if (previous == null) {
+      return -1;
+    }
+    for (int i = 0; i < previous.getOriginCount(); i++) {
+      if (previous.getOriginPath(i).equals(file.getPath())) {
+        return previous.isCurrent(i, file) ? i : -1;
+      }
+    }
+    return -1;
+  }
+
+  private void copyFromPrevious(int previousOrigin, int origin) {
+    if (previousClasses == null) {
+      previousClasses = previous.getClassesByOrigin();
+    }
+    for (int id : previousClasses[previousOrigin]) {
+      final int superclass = previous.getSuperclass(id);
+      final List<String> interfaces = new ArrayList<String>();
+      for (int parent : previous.getInterfaces(id)) {
+        interfaces.add(previous.getName(parent));
+      }
+      addClass(previous.getName(id), previous.getAccess(id),
+          (superclass == -1) ? null : previous.getName(superclass),
+          interfaces, origin);
+    }
+  }
+
+  private int intern(String name) {
+    final Integer id = ids.get(name);
+    if (id != null) {
+      return id.intValue();
+    }
+    ids.put(name, Integer.valueOf(names.size()));
+    names.add(name);
+    return names.size() - 1;
+  }
+
+  /**
+   * Header of a class, by the ids of the names.
+   */
+  private static class ClassHeader {
+
+    ClassHeader(int _name, int _access, int _superclass, int[] _interfaces,
+        int _origin) {
+      name = _name;
+      access = _access;
+      superclass = _superclass;
+      interfaces = _interfaces;
+      origin = _origin;
+    }
+
+    final int name;
+
+    final int access;
+
+    final int superclass;
+
+    final int[] interfaces;
+
+    final int origin;
+  }
+
+  /**
+   * Archive / directory the classes were read from.
+   */
+  private static class Origin {
+
+    Origin(int _path, long _length, long _lastModified) {
+      path = _path;
+      length = _length;
+      lastModified = _lastModified;
+    }
+
+    final int path;
+
+    final long length;
+
+    final long lastModified;
+  }
+
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  private final HierarchyIndex previous;
+
+  /** Classes of the previous index, by origin, once asked for. */
+  private int[][] previousClasses;
+
+  private final Map<String, Integer> ids;
+
+  private final List<String> names;
+
+  /** Ids of the classes added. */
+  private final BitSet defined;
+
+  private final List<ClassHeader> classes;
+
+  private final List<Origin> origins;
+
+  private int skippedCount;
+
+  private int reusedCount;
+
+}
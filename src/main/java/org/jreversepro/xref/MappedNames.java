@@ -0,0 +1,146 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.xref;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+
+/**
+ * Names in a mapped index, sorted by their UTF-8 bytes so that a name is found
+ * by binary search without being decoded. The names are stored as the offset
+ * of each name into the names, followed by the end of the names, and the
+ * names themselves elsewhere in the buffer.
+ * 
+ * @author Karthik Kumar
+ */
+class MappedNames {
+
+  /**
+   * @param _buffer
+   *          Mapped index.
+   * @param _offsets
+   *          Position of the offsets of the names.
+   * @param _names
+   *          Position of the names.
+   * @param _count
+   *          Number of names.
+   */
+  MappedNames(ByteBuffer _buffer, int _offsets, int _names, int _count) {
+    buffer = _buffer;
+    offsets = _offsets;
+    names = _names;
+    count = _count;
+  }
+
+  int getCount() {
+    return count;
+  }
+
+  /**
+   * @param id
+   *          Id of a name.
+   * @return Returns the name.
+   */
+  String getName(int id) {
+    final int start = buffer.getInt(offsets + 4 * id);
+    final byte[] bytes = new byte[buffer.getInt(offsets + 4 * id + 4)
+        - start];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = buffer.get(names + start + i);
+    }
+    try {
+      return new String(bytes, CrossReferenceIndex.ENCODING);
+    } catch (UnsupportedEncodingException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  /**
+   * @return Returns the id of the name, -1 if not present.
+   */
+  int find(String name) {
+    final byte[] key = CrossReferenceIndexBuilder.toUtf8(name);
+    final int id = lowerBound(key);
+    return (id < count && matchPrefix(id, key) == EXACT_MATCH) ? id : -1;
+  }
+
+  /**
+   * @return Returns the id of the first name not less than the key.
+   */
+  int lowerBound(byte[] key) {
+    int low = 0;
+    int high = count;
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (compare(mid, key) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * @return Returns NO_MATCH if the name does not start with the key,
+   *         EXACT_MATCH if it is the key, or else the byte following the key.
+   */
+  int matchPrefix(int id, byte[] key) {
+    final int start = names + buffer.getInt(offsets + 4 * id);
+    final int length = names + buffer.getInt(offsets + 4 * id + 4) - start;
+    if (length < key.length) {
+      return NO_MATCH;
+    }
+    for (int i = 0; i < key.length; i++) {
+      if (buffer.get(start + i) != key[i]) {
+        return NO_MATCH;
+      }
+    }
+    return (length == key.length) ? EXACT_MATCH : buffer.get(start
+        + key.length) & 0xff;
+  }
+
+  /**
+   * Compares the name of the given id with the key, as unsigned bytes.
+   */
+  private int compare(int id, byte[] key) {
+    final int start = names + buffer.getInt(offsets + 4 * id);
+    final int length = names + buffer.getInt(offsets + 4 * id + 4) - start;
+    final int common = Math.min(length, key.length);
+    for (int i = 0; i < common; i++) {
+      final int diff = (buffer.get(start + i) & 0xff) - (key[i] & 0xff);
+      if (diff != 0) {
+        return diff;
+      }
+    }
+    return length - key.length;
+  }
+
+  static final int NO_MATCH = -1;
+
+  static final int EXACT_MATCH = -2;
+
+  private final ByteBuffer buffer;
+
+  private final int offsets;
+
+  private final int names;
+
+  private final int count;
+
+}
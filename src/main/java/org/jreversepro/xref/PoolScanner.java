@@ -0,0 +1,448 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.xref;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.IOUtils;
+import org.jreversepro.jvm.JVMConstants;
+import org.jreversepro.jvm.Opcodes;
+import org.jreversepro.parser.instruction.InstructionHandler;
+import org.jreversepro.parser.instruction.InstructionListParser;
+import org.jreversepro.parser.instruction.InstructionListParserException;
+import org.jreversepro.parser.instruction.InstructionListParserFactory;
+import org.jreversepro.pipeline.ClassSource;
+import org.jreversepro.pipeline.FileClassSource;
+import org.jreversepro.reflect.ConstantPool;
+import org.jreversepro.reflect.instruction.Instruction;
+
+/**
+ * Scans the TAG_UTF8 entries of a constant pool in the bytes of the class
+ * file, as they are. The entries are compared as modified UTF-8 bytes with
+ * the needle, or else decoded into a buffer reused for the regular
+ * expression; no strings or pool entries are created but for the entries
+ * that match.
+ * <p>
+ * Holds the buffers reused from one class to the next, and so is meant for a
+ * thread alone.
+ * 
+ * @author Karthik Kumar
+ */
+class PoolScanner {
+
+  /**
+   * @param _needle
+   *          Modified UTF-8 bytes to look for, null if a pattern is given.
+   * @param _pattern
+   *          Expression to look for, null if a needle is given.
+   */
+  PoolScanner(byte[] _needle, Pattern _pattern) {
+    needle = _needle;
+    matcher = (_pattern == null) ? null : _pattern.matcher("");
+    shifts = new int[256];
+    if (needle != null) {
+      // Shifts of Horspool's search, by the last byte of the window.
+      for (int i = 0; i < shifts.length; i++) {
+        shifts[i] = needle.length;
+      }
+      for (int i = 0; i < needle.length - 1; i++) {
+        shifts[needle[i] & 0xff] = needle.length - 1 - i;
+      }
+    }
+    bytes = new byte[INITIAL_SIZE];
+    entries = new int[INITIAL_SIZE];
+    matches = new int[16];
+    chars = new char[INITIAL_SIZE];
+    charBuffer = CharBuffer.wrap(chars);
+  }
+
+  /**
+   * @param source
+   *          Class file.
+   * @return Returns the bytes of the class file - mapped for a file, and read
+   *         into a buffer reused by the next call otherwise.
+   * @throws IOException
+   *           Thrown if the class file could not be read.
+   */
+  ByteBuffer load(ClassSource source) throws IOException {
+    if (source instanceof FileClassSource) {
+      final RandomAccessFile raf = new RandomAccessFile(
+          ((FileClassSource) source).getFile(), "r");
+      try {
+        return raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0,
+            raf.length());
+      } finally {
+        raf.close();
+      }
+    }
+    InputStream is = null;
+    try {
+      is = source.openStream();
+      int count = 0;
+      int read;
+      while ((read = is.read(bytes, count, bytes.length - count)) != -1) {
+        count += read;
+        if (count == bytes.length) {
+          final byte[] grown = new byte[bytes.length * 2];
+          System.arraycopy(bytes, 0, grown, 0, count);
+          bytes = grown;
+        }
+      }
+      return ByteBuffer.wrap(bytes, 0, count);
+    } finally {
+      IOUtils.closeQuietly(is);
+    }
+  }
+
+  /**
+   * @param source
+   *          Name of the class file.
+   * @param buffer
+   *          Bytes of the class file, from index 0.
+   * @param ldcSites
+   *          If true, the ldc / ldc_w instructions loading the matching
+   *          string literals are looked up.
+   * @return Returns the matching entries, null if the bytes are not those of
+   *         a class file.
+   */
+  List<StringMatch> scan(String source, ByteBuffer buffer, boolean ldcSites) {
+    try {
+      if (buffer.getInt(0) != JVMConstants.MAGIC) {
+        return null;
+      }
+      final int count = buffer.getShort(8) & 0xffff;
+      if (entries.length < count) {
+        entries = new int[count];
+      }
+      matchCount = 0;
+      int position = 10;
+      for (int i = 1; i < count; i++) {
+        entries[i] = position;
+        switch (buffer.get(position)) {
+        case ConstantPool.TAG_UTF8:
+          final int length = buffer.getShort(position + 1) & 0xffff;
+          if (matches(buffer, position + 3, length)) {
+            addMatch(i);
+          }
+          position += 3 + length;
+          break;
+        case ConstantPool.TAG_INTEGER:
+        case ConstantPool.TAG_FLOAT:
+          position += 5;
+          break;
+        case ConstantPool.TAG_LONG:
+        case ConstantPool.TAG_DOUBLE:
+          // Takes two entries.
+          position += 9;
+          i++;
+          break;
+        case ConstantPool.TAG_CLASS:
+        case ConstantPool.TAG_STRING:
+        case TAG_METHOD_TYPE:
+        case TAG_MODULE:
+        case TAG_PACKAGE:
+          position += 3;
+          break;
+        case TAG_METHOD_HANDLE:
+          position += 4;
+          break;
+        case ConstantPool.TAG_FIELDREF:
+        case ConstantPool.TAG_METHODREF:
+        case ConstantPool.TAG_INTERFACEREF:
+        case ConstantPool.TAG_NAMETYPE:
+        case TAG_DYNAMIC:
+        case TAG_INVOKE_DYNAMIC:
+          position += 5;
+          break;
+        default:
+          return null;
+        }
+      }
+      if (matchCount == 0) {
+        return Collections.emptyList();
+      }
+      return getMatches(source, buffer, count, position, ldcSites);
+    } catch (IndexOutOfBoundsException ex) {
+      // Truncated.
+      return null;
+    }
+  }
+
+  /**
+   * Encodes as in class files - '\u0000' in two bytes, and the characters
+   * beyond the basic plane as the two surrogates of three bytes each.
+   */
+  static byte[] toModifiedUtf8(String text) {
+    int length = 0;
+    for (int i = 0; i < text.length(); i++) {
+      final char c = text.charAt(i);
+      length += (c >= 0x0001 && c <= 0x007f) ? 1 : (c <= 0x07ff) ? 2 : 3;
+    }
+    final byte[] result = new byte[length];
+    int position = 0;
+    for (int i = 0; i < text.length(); i++) {
+      final char c = text.charAt(i);
+      if (c >= 0x0001 && c <= 0x007f) {
+        result[position++] = (byte) c;
+      } else if (c <= 0x07ff) {
+        result[position++] = (byte) (0xc0 | (c >> 6));
+        result[position++] = (byte) (0x80 | (c & 0x3f));
+      } else {
+        result[position++] = (byte) (0xe0 | (c >> 12));
+        result[position++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+        result[position++] = (byte) (0x80 | (c & 0x3f));
+      }
+    }
+    return result;
+  }
+
+  private boolean matches(ByteBuffer buffer, int start, int length) {
+    if (matcher != null) {
+      final int count = decode(buffer, start, length);
+      charBuffer.clear();
+      charBuffer.limit(count);
+      return matcher.reset(charBuffer).find();
+    }
+    final int last = needle.length - 1;
+    if (last < 0) {
+      return true;
+    }
+    final int end = start + length - last;
+    for (int i = start; i < end; i += shifts[buffer.get(i + last) & 0xff]) {
+      int j = last;
+      while (buffer.get(i + j) == needle[j]) {
+        if (j == 0) {
+          return true;
+        }
+        j--;
+      }
+    }
+    return false;
+  }
+
+  private void addMatch(int index) {
+    if (matchCount == matches.length) {
+      final int[] grown = new int[matches.length * 2];
+      System.arraycopy(matches, 0, grown, 0, matchCount);
+      matches = grown;
+    }
+    matches[matchCount++] = index;
+  }
+
+  /**
+   * Decodes modified UTF-8 into chars.
+   * 
+   * @return Returns the number of chars decoded.
+   */
+  private int decode(ByteBuffer buffer, int start, int length) {
+    if (chars.length < length) {
+      chars = new char[Math.max(length, chars.length * 2)];
+      charBuffer = CharBuffer.wrap(chars);
+    }
+    int count = 0;
+    final int end = start + length;
+    for (int i = start; i < end;) {
+      final int b = buffer.get(i++) & 0xff;
+      if (b < 0x80) {
+        chars[count++] = (char) b;
+      } else if (b < 0xe0) {
+        chars[count++] = (char) (((b & 0x1f) << 6) | (buffer.get(i++) & 0x3f));
+      } else {
+        chars[count++] = (char) (((b & 0x0f) << 12)
+            | ((buffer.get(i) & 0x3f) << 6) | (buffer.get(i + 1) & 0x3f));
+        i += 2;
+      }
+    }
+    return count;
+  }
+
+  private String getUtf8(ByteBuffer buffer, int index) {
+    final int entry = entries[index];
+    return new String(chars, 0, decode(buffer, entry + 3,
+        buffer.getShort(entry + 1) & 0xffff));
+  }
+
+  private int getPtr(ByteBuffer buffer, int index) {
+    return buffer.getShort(entries[index] + 1) & 0xffff;
+  }
+
+  /**
+   * @param end
+   *          Position following the pool.
+   */
+  private List<StringMatch> getMatches(String source, ByteBuffer buffer,
+      int count, int end, boolean ldcSites) {
+    // TAG_STRING entries referring to the matches.
+    final int[] literals = new int[matchCount];
+    final BitSet literalSet = new BitSet(count);
+    for (int i = 1; i < count; i++) {
+      if (buffer.get(entries[i]) == ConstantPool.TAG_STRING) {
+        final int utf8 = getPtr(buffer, i);
+        for (int m = 0; m < matchCount; m++) {
+          if (matches[m] == utf8 && literals[m] == 0) {
+            literals[m] = i;
+            literalSet.set(i);
+          }
+        }
+      } else if (buffer.get(entries[i]) == ConstantPool.TAG_LONG
+          || buffer.get(entries[i]) == ConstantPool.TAG_DOUBLE) {
+        i++;
+      }
+    }
+    final String className = getUtf8(buffer, getPtr(buffer, buffer
+        .getShort(end + 2) & 0xffff));
+    final List<List<String>> sites = new ArrayList<List<String>>();
+    for (int m = 0; m < matchCount; m++) {
+      sites.add(ldcSites ? new ArrayList<String>() : null);
+    }
+    if (ldcSites && !literalSet.isEmpty()) {
+      addLdcSites(buffer, end, literals, literalSet, sites);
+    }
+    final List<StringMatch> result = new ArrayList<StringMatch>(matchCount);
+    for (int m = 0; m < matchCount; m++) {
+      result.add(new StringMatch(source, className, matches[m],
+          (literals[m] == 0) ? -1 : literals[m], getUtf8(buffer, matches[m]),
+          sites.get(m)));
+    }
+    return result;
+  }
+
+  /**
+   * Walks the fields and the methods that follow the pool, and decodes the
+   * code of the methods to find the ldc / ldc_w instructions of the literals.
+   */
+  private void addLdcSites(ByteBuffer buffer, int end, final int[] literals,
+      final BitSet literalSet, final List<List<String>> sites) {
+    // Access, this class and super class, followed by the interfaces.
+    int position = end + 6;
+    position += 2 + 2 * (buffer.getShort(position) & 0xffff);
+    position = skipMembers(buffer, position);
+    final InstructionListParser parser = InstructionListParserFactory
+        .createInstructionListParser();
+    final int methodCount = buffer.getShort(position) & 0xffff;
+    position += 2;
+    for (int i = 0; i < methodCount; i++) {
+      final String method = getUtf8(buffer, buffer.getShort(position + 2)
+          & 0xffff)
+          + getUtf8(buffer, buffer.getShort(position + 4) & 0xffff);
+      final int attributeCount = buffer.getShort(position + 6) & 0xffff;
+      position += 8;
+      for (int a = 0; a < attributeCount; a++) {
+        if (CODE.equals(getUtf8(buffer, buffer.getShort(position) & 0xffff))) {
+          final byte[] code = new byte[buffer.getInt(position + 10)];
+          for (int b = 0; b < code.length; b++) {
+            code[b] = buffer.get(position + 14 + b);
+          }
+          try {
+            parser.parseBytes(code, new InstructionHandler() {
+              public void handleInstruction(Instruction ins) {
+                final int index;
+                if (ins.opcode == Opcodes.OPCODE_LDC) {
+                  index = ins.getArgUnsignedByte();
+                } else if (ins.opcode == Opcodes.OPCODE_LDC_W) {
+                  index = ins.getArgUnsignedShort();
+                } else {
+                  return;
+                }
+                if (literalSet.get(index)) {
+                  for (int m = 0; m < literals.length; m++) {
+                    if (literals[m] == index) {
+                      sites.get(m).add(method + SITE_SEPARATOR
+                          + ins.currentPc);
+                    }
+                  }
+                }
+              }
+            });
+          } catch (InstructionListParserException ex) {
+            // The sites found before the bad instruction stand.
+          }
+        }
+        position += 6 + buffer.getInt(position + 2);
+      }
+    }
+  }
+
+  /**
+   * @return Returns the position following the fields (or methods).
+   */
+  private static int skipMembers(ByteBuffer buffer, int position) {
+    final int memberCount = buffer.getShort(position) & 0xffff;
+    position += 2;
+    for (int i = 0; i < memberCount; i++) {
+      final int attributeCount = buffer.getShort(position + 6) & 0xffff;
+      position += 8;
+      for (int a = 0; a < attributeCount; a++) {
+        position += 6 + buffer.getInt(position + 2);
+      }
+    }
+    return position;
+  }
+
+  /** Tags of the pool entries added after Java 6. */
+  private static final int TAG_METHOD_HANDLE = 15;
+
+  private static final int TAG_METHOD_TYPE = 16;
+
+  private static final int TAG_DYNAMIC = 17;
+
+  private static final int TAG_INVOKE_DYNAMIC = 18;
+
+  private static final int TAG_MODULE = 19;
+
+  private static final int TAG_PACKAGE = 20;
+
+  private static final String CODE = "Code";
+
+  static final String SITE_SEPARATOR = "@";
+
+  private static final int INITIAL_SIZE = 4096;
+
+  private final byte[] needle;
+
+  private final Matcher matcher;
+
+  private final int[] shifts;
+
+  /** Bytes of the last class read from a stream. */
+  private byte[] bytes;
+
+  /** Positions of the pool entries of the class being scanned. */
+  private int[] entries;
+
+  /** Indexes of the matching TAG_UTF8 entries. */
+  private int[] matches;
+
+  private int matchCount;
+
+  private char[] chars;
+
+  private CharBuffer charBuffer;
+
+}
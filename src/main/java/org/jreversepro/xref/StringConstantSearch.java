@@ -0,0 +1,155 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.xref;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.jreversepro.pipeline.ClassSource;
+
+/**
+ * Finds the classes whose constant pools hold a string - a literal, an error
+ * message, a fragment of SQL - or a match of an expression, a class per task
+ * on a pool of threads.
+ * <p>
+ * The pools are scanned in the bytes of the class files, without parsing the
+ * classes: class files on the disk are mapped, and archive entries are read
+ * into a buffer kept by each thread. Names and descriptors are TAG_UTF8
+ * entries too, and match just as the literals do.
+ * 
+ * @author Karthik Kumar
+ */
+public class StringConstantSearch {
+
+  /**
+   * @param _text
+   *          Text to look for, or the regular expression.
+   * @param _regex
+   *          If true, the text is a regular expression to be found in the
+   *          entries, else the text is to be found as such.
+   * @param _threads
+   *          Number of classes searched at a time.
+   */
+  public StringConstantSearch(String _text, boolean _regex, int _threads) {
+    needle = _regex ? null : PoolScanner.toModifiedUtf8(_text);
+    pattern = _regex ? Pattern.compile(_text) : null;
+    threads = _threads;
+    scanners = new ThreadLocal<PoolScanner>() {
+      @Override
+      protected PoolScanner initialValue() {
+        return new PoolScanner(needle, pattern);
+      }
+    };
+  }
+
+  /**
+   * @param _ldcSites
+   *          If true, the ldc / ldc_w instructions loading the matching
+   *          literals are found as well.
+   */
+  public void setLdcSites(boolean _ldcSites) {
+    ldcSites = _ldcSites;
+  }
+
+  /**
+   * @param sources
+   *          Classes to search.
+   * @return Returns the matching entries, in the order of the classes and
+   *         then of the entries.
+   * @throws IOException
+   *           Thrown if a class file could not be read.
+   * @throws InterruptedException
+   *           Thrown if interrupted while waiting for the threads.
+   */
+  public List<StringMatch> search(List<ClassSource> sources)
+      throws IOException, InterruptedException {
+    final List<StringMatch> matches = new ArrayList<StringMatch>();
+    final ExecutorService executor = Executors.newFixedThreadPool(threads,
+        new SearchThreadFactory());
+    try {
+      final List<Future<List<StringMatch>>> results = new ArrayList<Future<List<StringMatch>>>();
+      for (final ClassSource source : sources) {
+        results.add(executor.submit(new Callable<List<StringMatch>>() {
+          public List<StringMatch> call() throws IOException {
+            final PoolScanner scanner = scanners.get();
+            return scanner.scan(source.getName(), scanner.load(source),
+                ldcSites);
+          }
+        }));
+      }
+      for (Future<List<StringMatch>> result : results) {
+        final List<StringMatch> classMatches = result.get();
+        if (classMatches == null) {
+          skippedCount.incrementAndGet();
+        } else {
+          matches.addAll(classMatches);
+        }
+      }
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof IOException) {
+        throw (IOException) ex.getCause();
+      }
+      throw new IllegalStateException(ex.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    return matches;
+  }
+
+  /**
+   * @return Returns the number of class files that could not be scanned.
+   */
+  public int getSkippedCount() {
+    return skippedCount.get();
+  }
+
+  private static class SearchThreadFactory implements ThreadFactory {
+
+    public Thread newThread(Runnable r) {
+      final Thread thread = new Thread(r, "jreversepro-search-"
+          + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+
+    private final AtomicInteger count = new AtomicInteger();
+  }
+
+  private final byte[] needle;
+
+  private final Pattern pattern;
+
+  private final int threads;
+
+  /** Scanner of each thread, with the buffers it reuses. */
+  private final ThreadLocal<PoolScanner> scanners;
+
+  private boolean ldcSites;
+
+  private final AtomicInteger skippedCount = new AtomicInteger();
+
+}
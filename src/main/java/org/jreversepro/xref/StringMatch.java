@@ -0,0 +1,97 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.xref;
+
+import java.util.List;
+
+/**
+ * A TAG_UTF8 entry of a constant pool matching a {@link StringConstantSearch}.
+ * 
+ * @author Karthik Kumar
+ */
+public class StringMatch {
+
+  StringMatch(String _source, String _className, int _index,
+      int _stringIndex, String _value, List<String> _ldcSites) {
+    source = _source;
+    className = _className;
+    index = _index;
+    stringIndex = _stringIndex;
+    value = _value;
+    ldcSites = _ldcSites;
+  }
+
+  /**
+   * @return Returns the name of the class file, or the archive entry.
+   */
+  public String getSource() {
+    return source;
+  }
+
+  /**
+   * @return Returns the name of the class, as in the class file.
+   */
+  public String getClassName() {
+    return className;
+  }
+
+  /**
+   * @return Returns the index of the TAG_UTF8 entry in the pool.
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  /**
+   * @return Returns the index of the TAG_STRING entry referring to the
+   *         TAG_UTF8 entry, -1 if it is not a string literal but a name or a
+   *         descriptor.
+   */
+  public int getStringIndex() {
+    return stringIndex;
+  }
+
+  /**
+   * @return Returns the value of the entry.
+   */
+  public String getValue() {
+    return value;
+  }
+
+  /**
+   * @return Returns the ldc / ldc_w instructions loading the literal, as the
+   *         method and the pc, say <code>run(I)V@12</code>. Null if they
+   *         were not asked for.
+   */
+  public List<String> getLdcSites() {
+    return ldcSites;
+  }
+
+  private final String source;
+
+  private final String className;
+
+  private final int index;
+
+  private final int stringIndex;
+
+  private final String value;
+
+  private final List<String> ldcSites;
+
+}
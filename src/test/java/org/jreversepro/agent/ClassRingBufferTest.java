@@ -0,0 +1,93 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.agent;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ClassRingBufferTest {
+
+  @Test
+  public void testLatestWins() {
+    ClassRingBuffer buffer = new ClassRingBuffer(100);
+    buffer.add("a/A", new byte[] { 1 });
+    buffer.add("b/B", new byte[] { 2 });
+    buffer.add("a/A", new byte[] { 3 });
+    Map<String, ByteBuffer> classes = buffer.get(ALL);
+    assertEquals(Arrays.asList("b/B", "a/A"), new ArrayList<String>(classes
+        .keySet()));
+    assertArrayEquals(new byte[] { 3 }, classes.get("a/A").array());
+    assertEquals(3, buffer.getCount());
+  }
+
+  @Test
+  public void testOverwritesOldest() {
+    // Records of 8 + 3 + 10 bytes: two fit, the third wraps around.
+    ClassRingBuffer buffer = new ClassRingBuffer(50);
+    for (int i = 0; i < 7; i++) {
+      byte[] classFile = new byte[10];
+      Arrays.fill(classFile, (byte) i);
+      assertTrue(buffer.add("c/" + i, classFile));
+      Map<String, ByteBuffer> classes = buffer.get(ALL);
+      assertEquals(Math.min(i + 1, 2), classes.size());
+      assertEquals((byte) i, classes.get("c/" + i).get(9));
+    }
+    assertEquals(2, buffer.getCount());
+    assertEquals(Arrays.asList("c/5", "c/6"), new ArrayList<String>(buffer
+        .getNames()));
+  }
+
+  @Test
+  public void testTooBig() {
+    ClassRingBuffer buffer = new ClassRingBuffer(20);
+    assertFalse(buffer.add("big", new byte[20]));
+    assertEquals(1, buffer.getDropped());
+    assertTrue(buffer.add("fits", new byte[8]));
+    assertTrue(buffer.add("fits", new byte[8]));
+    assertEquals(1, buffer.getCount());
+  }
+
+  @Test
+  public void testMatches() {
+    List<String> patterns = Arrays.asList("com/acme/*", "x/Y");
+    assertTrue(AgentCommandWatcher.matches(patterns, "com/acme/Main"));
+    assertTrue(AgentCommandWatcher.matches(patterns, "com/acme/a/B$1"));
+    assertTrue(AgentCommandWatcher.matches(patterns, "x/Y"));
+    assertFalse(AgentCommandWatcher.matches(patterns, "com/acmeX"));
+    assertFalse(AgentCommandWatcher.matches(patterns, "x/YZ"));
+  }
+
+  private static final ClassRingBuffer.ClassFilter ALL;
+  static {
+    ALL = new ClassRingBuffer.ClassFilter() {
+      public boolean accept(String name) {
+        return true;
+      }
+    };
+  }
+}
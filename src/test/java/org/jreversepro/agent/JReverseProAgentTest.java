@@ -0,0 +1,76 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.agent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+
+import org.jreversepro.JReverseProContext.OutputType;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JReverseProAgentTest {
+
+  @Test
+  public void testOptionsParsed() {
+    String dir = new File(System.getProperty("java.io.tmpdir")).getPath();
+    JReverseProAgent.Options options = JReverseProAgent.parseOptions("dir="
+        + dir + ",size=2047,output=disassemble,interval=10");
+    assertEquals(new File(dir), options.directory);
+    assertEquals(2047, options.size);
+    assertEquals(OutputType.DISASSEMBLER, options.outputType);
+    assertEquals(10, options.interval);
+  }
+
+  @Test
+  public void testInvalidOptionsRejected() {
+    String dir = "dir=" + System.getProperty("java.io.tmpdir");
+    String[] invalid = { null, "size=8", dir + ",size=abc",
+        dir + ",size=2048", dir + ",size=0", dir + ",interval=1s",
+        dir + ",interval=-1", dir + ",output=source", dir + ",bogus=1",
+        dir + ",size", "dir=" + new File("nonexistent-" + System.nanoTime()) };
+    for (String agentArgs : invalid) {
+      try {
+        JReverseProAgent.parseOptions(agentArgs);
+        fail(agentArgs);
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void testPremainWithInvalidOptionsReturns() {
+    ByteArrayOutputStream err = new ByteArrayOutputStream();
+    PrintStream stderr = System.err;
+    System.setErr(new PrintStream(err, true));
+    try {
+      // Not started, so the instrumentation is never touched.
+      JReverseProAgent.premain("dir=" + System.getProperty("java.io.tmpdir")
+          + ",size=4096", null);
+    } finally {
+      System.setErr(stderr);
+    }
+    assertTrue(err.toString(), err.toString().startsWith(
+        "jreversepro agent not started: Invalid agent option size=4096"));
+  }
+}
@@ -0,0 +1,39 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.ast.evaluator;
+
+import org.jreversepro.ast.expression.Constant;
+import org.jreversepro.jvm.JVMConstants;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class ConstantInternerTest {
+
+  @Test
+  public void testSameLiteralSharesConstant() {
+    ConstantInterner constants = new ConstantInterner();
+    Constant one = constants.intern(1, JVMConstants.JVM_TYPE_INT);
+    assertSame(one, constants.intern("1", "I"));
+    assertEquals("1", one.getJLSCode());
+    assertNotSame(one, constants.intern(1, JVMConstants.JVM_TYPE_LONG));
+    assertNotSame(one, constants.intern(2, JVMConstants.JVM_TYPE_INT));
+  }
+}
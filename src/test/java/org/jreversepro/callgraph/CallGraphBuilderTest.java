@@ -0,0 +1,60 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.callgraph;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class CallGraphBuilderTest {
+
+  @Test
+  public void testDuplicateCallsAreOneEdge() {
+    CallGraphBuilder builder = new CallGraphBuilder();
+    builder.addCalls(Arrays.asList("a.f()V", "b.g()V", "a.f()V", "c.h()V"));
+    builder.addCalls(Arrays.asList("a.f()V", "b.g()V", "b.g()V", "c.h()V"));
+    CallGraph graph = builder.build();
+
+    assertEquals(3, graph.getNodeCount());
+    assertEquals(3, graph.getEdgeCount());
+    int f = graph.getNode("a.f()V");
+    int g = graph.getNode("b.g()V");
+    int h = graph.getNode("c.h()V");
+    assertArrayEquals(new int[] { g, h }, graph.getCallees(f));
+    assertArrayEquals(new int[] { h }, graph.getCallees(g));
+    assertArrayEquals(new int[0], graph.getCallees(h));
+    assertEquals(-1, graph.getNode("d.i()V"));
+  }
+
+  @Test
+  public void testWriteEdgeList() {
+    CallGraphBuilder builder = new CallGraphBuilder();
+    builder.addCalls(Arrays.asList("a.f()V", "b.g()V"));
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    PrintStream out = new PrintStream(bytes);
+    builder.build().writeEdgeList(out, true);
+    out.flush();
+    assertEquals("a.f()V\tb.g()V", bytes.toString().trim());
+  }
+
+}
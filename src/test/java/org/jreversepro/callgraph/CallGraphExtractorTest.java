@@ -0,0 +1,119 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.callgraph;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.jreversepro.pipeline.ByteBufferClassSource;
+import org.jreversepro.pipeline.ClassSource;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CallGraphExtractorTest {
+
+  @Test
+  public void testUnparseableClassIsSkipped() throws Exception {
+    final String resource = "/" + Sample.class.getName().replace('.', '/')
+        + ".class";
+    final InputStream is = getClass().getResourceAsStream(resource);
+    final byte[] sample;
+    try {
+      sample = IOUtils.toByteArray(is);
+    } finally {
+      is.close();
+    }
+    final List<ClassSource> sources = new ArrayList<ClassSource>();
+    sources.add(new ByteBufferClassSource("Bad.class", ByteBuffer
+        .wrap(getBadClass())));
+    sources.add(new ByteBufferClassSource(resource, ByteBuffer.wrap(sample)));
+
+    final CallGraphExtractor extractor = new CallGraphExtractor(2);
+    final CallGraph graph = extractor.extract(sources);
+    assertEquals(1, extractor.getSkippedCount());
+    final int caller = graph.getNode(Sample.class.getName().replace('.', '/')
+        + ".twice(I)I");
+    final int callee = graph.getNode("java/lang/Math.abs(I)I");
+    assertTrue(caller != -1 && callee != -1);
+    assertArrayEquals(new int[] { callee }, graph.getCallees(caller));
+  }
+
+  /**
+   * @return Returns a class whose only method has the descriptor "V", that
+   *         the parser rejects with a RuntimeException.
+   */
+  private static byte[] getBadClass() throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final DataOutputStream dos = new DataOutputStream(bytes);
+    dos.writeInt(0xCAFEBABE);
+    dos.writeShort(0); // minor
+    dos.writeShort(49); // major
+    dos.writeShort(8); // constant pool count
+    dos.writeByte(1); // #1 Utf8
+    dos.writeUTF("Bad");
+    dos.writeByte(7); // #2 Class #1
+    dos.writeShort(1);
+    dos.writeByte(1); // #3 Utf8
+    dos.writeUTF("java/lang/Object");
+    dos.writeByte(7); // #4 Class #3
+    dos.writeShort(3);
+    dos.writeByte(1); // #5 Utf8
+    dos.writeUTF("m");
+    dos.writeByte(1); // #6 Utf8
+    dos.writeUTF("V");
+    dos.writeByte(1); // #7 Utf8
+    dos.writeUTF("Code");
+    dos.writeShort(0x21); // public super
+    dos.writeShort(2); // this
+    dos.writeShort(4); // super
+    dos.writeShort(0); // interfaces
+    dos.writeShort(0); // fields
+    dos.writeShort(1); // methods
+    dos.writeShort(0x09); // public static
+    dos.writeShort(5); // name
+    dos.writeShort(6); // descriptor
+    dos.writeShort(1); // attributes
+    dos.writeShort(7); // Code
+    dos.writeInt(13); // attribute length
+    dos.writeShort(0); // max stack
+    dos.writeShort(0); // max locals
+    dos.writeInt(1); // code length
+    dos.writeByte(0xb1); // return
+    dos.writeShort(0); // exception table
+    dos.writeShort(0); // attributes
+    dos.close();
+    return bytes.toByteArray();
+  }
+
+  static class Sample {
+
+    int twice(int a) {
+      return Math.abs(a) * 2;
+    }
+  }
+
+}
@@ -0,0 +1,170 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.daemon;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+
+import org.apache.commons.io.IOUtils;
+import org.jreversepro.JReverseProContext;
+import org.jreversepro.JReverseProContext.OutputType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DecompilerDaemonTest {
+
+  @Before
+  public void setUp() throws Exception {
+    daemon = new DecompilerDaemon(new JReverseProContext(), 0);
+    daemon.start();
+    final Thread thread = new Thread(new Runnable() {
+      public void run() {
+        daemon.serve();
+      }
+    });
+    thread.setDaemon(true);
+    thread.start();
+    client = new DaemonClient(daemon.getLocalPort());
+  }
+
+  @After
+  public void tearDown() {
+    daemon.stop();
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    assertTrue(client.isRunning());
+    final String resource = "/" + Sample.class.getName().replace('.', '/')
+        + ".class";
+    final byte[] bytes = getSampleBytes();
+    final String output = client.process(bytes, resource,
+        OutputType.DISASSEMBLER);
+    assertTrue(output, output.contains("DecompilerDaemonTest$Sample"));
+    assertEquals(output, client.process(bytes, resource,
+        OutputType.DISASSEMBLER));
+  }
+
+  @Test
+  public void testOptionsApplyToRequest() throws Exception {
+    final byte[] bytes = getSampleBytes();
+    client.setLimits("0,1");
+    final String limited = client.process(bytes, "Sample",
+        OutputType.DECOMPILER);
+    assertTrue(limited, limited.contains("// Unable to decompile"));
+
+    // The limits of the daemon are left as they were.
+    client.setLimits(null);
+    final String output = client.process(bytes, "Sample",
+        OutputType.DECOMPILER);
+    assertFalse(output, output.contains("// Unable to decompile"));
+  }
+
+  @Test
+  public void testInvalidOptionReported() throws Exception {
+    client.setLimits("bogus");
+    try {
+      client.process(getSampleBytes(), "Sample", OutputType.DECOMPILER);
+      fail("Expected the daemon to report the invalid limits");
+    } catch (DaemonRequestException ex) {
+      assertTrue(ex.getMessage(), ex.getMessage().contains("Invalid limits"));
+    }
+    assertTrue(client.isRunning());
+  }
+
+  @Test
+  public void testReadTimeout() throws Exception {
+    // Accepts connections, but never responds.
+    final ServerSocket wedged = new ServerSocket(0, 1, InetAddress
+        .getByName(DecompilerDaemon.LOOPBACK));
+    try {
+      final DaemonClient wedgedClient = new DaemonClient(wedged
+          .getLocalPort());
+      wedgedClient.setReadTimeout(100);
+      try {
+        wedgedClient.process(getSampleBytes(), "Sample",
+            OutputType.DECOMPILER);
+        fail("Expected the request to time out");
+      } catch (SocketTimeoutException ex) {
+        // expected
+      }
+      assertFalse(wedgedClient.isRunning());
+    } finally {
+      wedged.close();
+    }
+  }
+
+  @Test
+  public void testMissingFileReported() throws Exception {
+    final File missing = new File("nonexistent-" + System.nanoTime()
+        + ".class");
+    try {
+      client.process(missing.getPath(), OutputType.DECOMPILER);
+      fail("Expected the daemon to report the missing file");
+    } catch (DaemonRequestException ex) {
+      assertTrue(ex.getMessage(), ex.getMessage().contains(
+          "FileNotFoundException"));
+    }
+    // The daemon goes on serving.
+    assertTrue(client.isRunning());
+  }
+
+  @Test
+  public void testInvalidClassReported() throws Exception {
+    try {
+      client.process(new byte[] { 1, 2, 3, 4 }, "Garbage",
+          OutputType.DECOMPILER);
+      fail("Expected the daemon to report the invalid class");
+    } catch (DaemonRequestException ex) {
+      // expected
+    }
+    assertTrue(client.isRunning());
+  }
+
+  private byte[] getSampleBytes() throws IOException {
+    final InputStream is = getClass().getResourceAsStream(
+        "/" + Sample.class.getName().replace('.', '/') + ".class");
+    try {
+      return IOUtils.toByteArray(is);
+    } finally {
+      is.close();
+    }
+  }
+
+  static class Sample {
+
+    int twice(int a) {
+      return a * 2;
+    }
+  }
+
+  private DecompilerDaemon daemon;
+
+  private DaemonClient client;
+
+}
@@ -0,0 +1,119 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.decompile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jreversepro.JReverseProContext;
+import org.jreversepro.jls.emitter.SourceEmitterFactory;
+import org.jreversepro.jls.emitter.SourceEmitterFactory.JLSSource;
+import org.jreversepro.parser.ClassParserException;
+import org.jreversepro.reflect.ClassInfo;
+import org.jreversepro.reflect.Method;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BlockInferrerTest {
+
+  @Test
+  public void testJumpsLabelled() throws Exception {
+    String code = decompile("halve");
+    assertTrue(code, code.contains("// if (i<=0) goto L"));
+    assertTrue(code, code.contains("// if (j>0) goto L"));
+
+    // Every pc jumped to is labelled, once.
+    Matcher jump = Pattern.compile("goto (L\\d+);").matcher(code);
+    int jumps = 0;
+    while (jump.find()) {
+      String label = "// " + jump.group(1) + ":";
+      int at = code.indexOf(label);
+      assertTrue(code, at >= 0);
+      assertEquals(code, at, code.lastIndexOf(label));
+      jumps++;
+    }
+    assertEquals(code, 2, jumps);
+  }
+
+  @Test
+  public void testLoopsNamed() throws Exception {
+    String code = decompile("halve");
+    assertTrue(code, code.matches("(?s).*// L\\d+: do-while loop\n.*"));
+
+    code = decompile("grow");
+    assertTrue(code, code.matches("(?s).*// L\\d+: while loop\n.*"));
+    assertFalse(code, code.contains("do-while"));
+  }
+
+  @Test
+  public void testStraightLineUnlabelled() throws Exception {
+    String code = decompile("twice");
+    assertFalse(code, code.contains("//"));
+  }
+
+  private String decompile(String name) throws IOException,
+      ClassParserException {
+    final String resource = "/" + Jumps.class.getName().replace('.', '/')
+        + ".class";
+    final InputStream is = getClass().getResourceAsStream(resource);
+    ClassInfo info;
+    try {
+      info = new JReverseProContext().loadResource(is, resource);
+    } finally {
+      is.close();
+    }
+    for (Method method : info.getMethods()) {
+      if (method.getName().equals(name)) {
+        DecompilationContext ctx = new DecompilationContext(method, info
+            .getConstantPool());
+        return SourceEmitterFactory.getSourceEmitter(JLSSource.JDK14)
+            .emitCode(new Decompiler(ctx).extractAST());
+      }
+    }
+    throw new AssertionError(name + " not found");
+  }
+
+  static class Jumps {
+
+    int halve(int a, int b) {
+      if (a > 0) {
+        b = a;
+      }
+      do {
+        b = b / 2;
+      } while (b > 0);
+      return b;
+    }
+
+    int grow(int a, int b) {
+      while (a < b) {
+        a = a * 2;
+      }
+      return a;
+    }
+
+    int twice(int a) {
+      return a * 2;
+    }
+  }
+}
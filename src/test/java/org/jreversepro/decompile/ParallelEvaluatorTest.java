@@ -0,0 +1,107 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.decompile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.jreversepro.JReverseProContext;
+import org.jreversepro.ast.block.Block;
+import org.jreversepro.jls.emitter.SourceEmitterFactory;
+import org.jreversepro.jls.emitter.SourceEmitterFactory.JLSSource;
+import org.jreversepro.parser.ClassParserException;
+import org.jreversepro.reflect.ClassInfo;
+import org.jreversepro.reflect.Method;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelEvaluatorTest {
+
+  @Test
+  public void testHandlersSameAsSequential() throws Exception {
+    String sequential = emit(sequential());
+    assertTrue(sequential, sequential.contains(
+        "// catch (NumberFormatException"));
+    assertTrue(sequential, sequential.contains("// catch (RuntimeException"));
+
+    // Every block a range of its own, where the stack allows.
+    DecompilationContext ctx = load();
+    Block parallel = new Decompiler(ctx).inferBlocks(new ParallelEvaluator(
+        ctx, 1).evaluate());
+    assertEquals(sequential, emit(parallel));
+  }
+
+  private Block sequential() throws Exception {
+    return new Decompiler(load()).extractAST();
+  }
+
+  private static String emit(Block block) {
+    return SourceEmitterFactory.getSourceEmitter(JLSSource.JDK14).emitCode(
+        block);
+  }
+
+  /**
+   * @return Returns the context of the method with the handlers, parsed
+   *         afresh so that the variables named by one evaluation are not seen
+   *         by the other.
+   */
+  private DecompilationContext load() throws IOException,
+      ClassParserException {
+    final String resource = "/" + Handlers.class.getName().replace('.', '/')
+        + ".class";
+    final InputStream is = getClass().getResourceAsStream(resource);
+    ClassInfo info;
+    try {
+      info = new JReverseProContext().loadResource(is, resource);
+    } finally {
+      is.close();
+    }
+    for (Method method : info.getMethods()) {
+      if (method.getName().equals("run")) {
+        return new DecompilationContext(method, info.getConstantPool());
+      }
+    }
+    throw new AssertionError("run not found");
+  }
+
+  static class Handlers {
+
+    int run(int a, String s) {
+      int x = 0;
+      if (a > 1) {
+        x = 1;
+      }
+      try {
+        x = Integer.parseInt(s);
+      } catch (NumberFormatException e) {
+        x = e.hashCode();
+      }
+      if (a > 3) {
+        x = 3;
+      }
+      try {
+        x = s.length();
+      } catch (RuntimeException e) {
+        x = e.hashCode() + a;
+      }
+      return x;
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.decompile.flow;
+
+import org.jreversepro.reflect.ExceptionList;
+import org.jreversepro.reflect.instruction.Instruction;
+import org.jreversepro.reflect.instruction.InstructionList;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ControlFlowGraphTest {
+
+  @Test
+  public void testIfElseDiamond() {
+    // return (x == 0) ? 0 : 1;
+    InstructionList list = new InstructionList();
+    add(list, 0, 0x1a, null); // iload_0
+    add(list, 1, 0x99, new byte[] { 0, 7 }); // ifeq 8
+    add(list, 4, 0x04, null); // iconst_1
+    add(list, 5, 0xa7, new byte[] { 0, 4 }); // goto 9
+    add(list, 8, 0x03, null); // iconst_0
+    add(list, 9, 0xac, null); // ireturn
+
+    ControlFlowGraph cfg = ControlFlowGraph.build(list, null);
+    assertEquals(4, cfg.getBlockCount());
+    assertEquals(4, cfg.getStartPc(1));
+    assertEquals(8, cfg.getEndPc(1));
+    assertArrayEquals(new int[] { 2, 1 }, cfg.getSuccessors(0));
+    assertArrayEquals(new int[] { 3 }, cfg.getSuccessors(1));
+    assertArrayEquals(new int[] { 3 }, cfg.getSuccessors(2));
+    assertArrayEquals(new int[0], cfg.getSuccessors(3));
+    assertArrayEquals(new int[] { 1, 2 }, cfg.getPredecessors(3));
+    assertEquals(1, cfg.blockAt(6));
+    assertTrue(cfg.isLeader(8));
+    assertFalse(cfg.isLeader(5));
+    assertEquals(5, cfg.findGoto(0, 10).currentPc);
+    assertNull(cfg.findGoto(8, 10));
+  }
+
+  @Test
+  public void testExceptionHandlers() {
+    InstructionList list = new InstructionList();
+    add(list, 0, 0x00, null); // nop
+    add(list, 1, 0x00, null); // nop
+    add(list, 2, 0xb1, null); // return
+    add(list, 3, 0x4c, null); // astore_1
+    add(list, 4, 0xb1, null); // return
+    ExceptionList exceptions = new ExceptionList();
+    exceptions.addExceptionBlock(0, 1, 3, "java/lang/Exception");
+
+    ControlFlowGraph cfg = ControlFlowGraph.build(list, exceptions);
+    assertEquals(3, cfg.getBlockCount());
+    assertArrayEquals(new int[] { 1, 2 }, cfg.getSuccessors(0));
+    assertTrue(cfg.isHandler(2));
+    assertFalse(cfg.isHandler(1));
+    assertArrayEquals(new int[] { 0 }, cfg.getPredecessors(2));
+  }
+
+  @Test
+  public void testSwitchTargetsAreOneEdge() {
+    InstructionList list = new InstructionList();
+    add(list, 0, 0x1a, null); // iload_0
+    // tableswitch 0..2 at pc 1, padded to pc 4: cases to 28, 28 and 29, the
+    // default to 29.
+    list.add(new Instruction(1, 0xaa, new byte[] { 0, 0, 0, 28, 0, 0, 0, 0,
+        0, 0, 0, 2, 0, 0, 0, 27, 0, 0, 0, 27, 0, 0, 0, 28 }, 28, false));
+    add(list, 28, 0xb1, null); // return
+    add(list, 29, 0xb1, null); // return
+
+    ControlFlowGraph cfg = ControlFlowGraph.build(list, null);
+    assertEquals(3, cfg.getBlockCount());
+    assertArrayEquals(new int[] { 1, 2 }, cfg.getSuccessors(0));
+    assertArrayEquals(new int[] { 0 }, cfg.getPredecessors(1));
+    assertArrayEquals(new int[] { 0 }, cfg.getPredecessors(2));
+  }
+
+  @Test
+  public void testCountLeaders() {
+    // The diamond of testIfElseDiamond, then a tableswitch at pc 10 of two
+    // cases, padded to pc 12, jumping to the return at pc 32.
+    byte[] code = new byte[] { 0x1a, (byte) 0x99, 0, 7, 0x04, (byte) 0xa7, 0,
+        4, 0x03, 0x1a, (byte) 0xaa, 0, 0, 0, 0, 22, 0, 0, 0, 0, 0, 0, 0, 1,
+        0, 0, 0, 22, 0, 0, 0, 22, (byte) 0xac };
+    // first, ifeq and goto (target and next), tableswitch (two cases, the
+    // default and next), ireturn (next)
+    assertEquals(1 + 2 + 2 + 4 + 1, ControlFlowGraph.countLeaders(code,
+        null));
+
+    ExceptionList exceptions = new ExceptionList();
+    exceptions.addExceptionBlock(0, 1, 3, "java/lang/Exception");
+    // first, the two returns, the bounds of the try block and its handler
+    assertEquals(1 + 2 + 2 + 1, ControlFlowGraph.countLeaders(new byte[] {
+        0x00, 0x00, (byte) 0xb1, 0x4c, (byte) 0xb1 }, exceptions));
+  }
+
+  private static void add(InstructionList list, int pc, int opcode,
+      byte[] args) {
+    int next = pc + 1 + ((args == null) ? 0 : args.length);
+    list.add(new Instruction(pc, opcode, args, next, false));
+  }
+}
@@ -0,0 +1,96 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.decompile.flow;
+
+import org.jreversepro.decompile.simulate.BranchConstants;
+import org.jreversepro.reflect.instruction.Instruction;
+import org.jreversepro.reflect.instruction.InstructionList;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LoopNestTest implements BranchConstants {
+
+  @Test
+  public void testWhileInDoWhile() {
+    // do { while (a) { x; } } while (b); return;
+    InstructionList list = new InstructionList();
+    add(list, 0, 0xa7, new byte[] { 0, 4 }); // B0 goto 4
+    add(list, 3, 0x00, null); // B1 nop
+    add(list, 4, 0x1a, null); // B2 iload_0
+    add(list, 5, 0x9a, new byte[] { -1, -2 }); // ifne 3
+    add(list, 8, 0x1b, null); // B3 iload_1
+    add(list, 9, 0x9a, new byte[] { -1, -9 }); // ifne 0
+    add(list, 12, 0xb1, null); // B4 return
+
+    ControlFlowGraph cfg = ControlFlowGraph.build(list, null);
+    assertEquals(5, cfg.getBlockCount());
+
+    Dominators dom = Dominators.compute(cfg);
+    assertEquals(-1, dom.getImmediateDominator(0));
+    assertEquals(0, dom.getImmediateDominator(2));
+    assertEquals(2, dom.getImmediateDominator(1));
+    assertEquals(2, dom.getImmediateDominator(3));
+    assertTrue(dom.dominates(0, 4));
+    assertTrue(dom.dominates(2, 2));
+    assertFalse(dom.dominates(1, 3));
+
+    Dominators postDom = Dominators.computePost(cfg);
+    assertEquals(2, postDom.getImmediateDominator(1));
+    assertEquals(3, postDom.getImmediateDominator(2));
+    assertEquals(-1, postDom.getImmediateDominator(4));
+    assertTrue(postDom.dominates(4, 0));
+
+    LoopNest loops = LoopNest.compute(cfg, dom);
+    assertEquals(2, loops.getLoopCount());
+    int outer = loops.getLoopHeadedBy(0);
+    int inner = loops.getLoopHeadedBy(2);
+    assertEquals(TYPE_DO_WHILE, loops.getType(outer));
+    assertEquals(TYPE_WHILE, loops.getType(inner));
+    assertEquals(outer, loops.getParent(inner));
+    assertEquals(2, loops.getDepth(inner));
+    assertArrayEquals(new int[] { 1, 2 }, loops.getBody(inner));
+    assertArrayEquals(new int[] { 3 }, loops.getLatches(outer));
+    assertEquals(inner, loops.getLoopOf(1));
+    assertEquals(outer, loops.getLoopOf(3));
+    assertEquals(0, loops.getLoopDepth(4));
+  }
+
+  @Test
+  public void testSingleBlockDoWhile() {
+    // do { x; } while (a); return;
+    InstructionList list = new InstructionList();
+    add(list, 0, 0x1a, null); // B0 iload_0
+    add(list, 1, 0x9a, new byte[] { -1, -1 }); // ifne 0
+    add(list, 4, 0xb1, null); // B1 return
+
+    ControlFlowGraph cfg = ControlFlowGraph.build(list, null);
+    LoopNest loops = LoopNest.compute(cfg, Dominators.compute(cfg));
+    assertEquals(1, loops.getLoopCount());
+    assertEquals(TYPE_DO_WHILE, loops.getType(loops.getLoopHeadedBy(0)));
+  }
+
+  private static void add(InstructionList list, int pc, int opcode,
+      byte[] args) {
+    int next = pc + 1 + ((args == null) ? 0 : args.length);
+    list.add(new Instruction(pc, opcode, args, next, false));
+  }
+}
@@ -0,0 +1,78 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.decompile.flow;
+
+import org.jreversepro.reflect.ConstantPool;
+import org.jreversepro.reflect.ExceptionList;
+import org.jreversepro.reflect.instruction.Instruction;
+import org.jreversepro.reflect.instruction.InstructionList;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StackShapesTest {
+
+  @Test
+  public void testConditionalExpressionAndHandler() {
+    // try { return (x == 0) ? 0L : 1L; } catch (...) { return 0L; }
+    InstructionList list = new InstructionList();
+    add(list, 0, 0x1a, null); // B0 iload_0
+    add(list, 1, 0x99, new byte[] { 0, 7 }); // ifeq 8
+    add(list, 4, 0x0a, null); // B1 lconst_1
+    add(list, 5, 0xa7, new byte[] { 0, 4 }); // goto 9
+    add(list, 8, 0x09, null); // B2 lconst_0
+    add(list, 9, 0x5c, null); // B3 dup2
+    add(list, 10, 0x58, null); // pop2
+    add(list, 11, 0xad, null); // lreturn
+    add(list, 12, 0x4c, null); // B4 astore_1
+    add(list, 13, 0x09, null); // lconst_0
+    add(list, 14, 0xad, null); // lreturn
+    ExceptionList exceptions = new ExceptionList();
+    exceptions.addExceptionBlock(0, 9, 12, "java/lang/Exception");
+
+    ControlFlowGraph cfg = ControlFlowGraph.build(list, exceptions);
+    StackShapes shapes = StackShapes.compute(cfg, new ConstantPool(1));
+    assertTrue(shapes.isKnown());
+    assertEquals("", shapes.getEntryShape(0));
+    assertEquals("", shapes.getEntryShape(2));
+    assertEquals("J", shapes.getEntryShape(cfg.blockAt(9)));
+    assertEquals("A", shapes.getEntryShape(cfg.blockAt(12)));
+    assertEquals(1, shapes.getEntryDepth(cfg.blockAt(12)));
+  }
+
+  @Test
+  public void testInconsistentDepth() {
+    InstructionList list = new InstructionList();
+    add(list, 0, 0x1a, null); // iload_0
+    add(list, 1, 0x99, new byte[] { 0, 5 }); // ifeq 6
+    add(list, 4, 0x03, null); // iconst_0
+    add(list, 5, 0x03, null); // iconst_0
+    add(list, 6, 0xb1, null); // return
+
+    ControlFlowGraph cfg = ControlFlowGraph.build(list, null);
+    assertFalse(StackShapes.compute(cfg, new ConstantPool(1)).isKnown());
+  }
+
+  private static void add(InstructionList list, int pc, int opcode,
+      byte[] args) {
+    int next = pc + 1 + ((args == null) ? 0 : args.length);
+    list.add(new Instruction(pc, opcode, args, next, false));
+  }
+}
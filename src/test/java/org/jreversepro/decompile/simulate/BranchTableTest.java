@@ -0,0 +1,94 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.decompile.simulate;
+
+import java.util.List;
+
+import org.jreversepro.reflect.Method;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BranchTableTest implements BranchConstants {
+
+  @Test
+  public void testGotoLookups() {
+    BranchTable table = new BranchTable(new Method());
+    table.addGotoEntry(40, 4);
+    table.addGotoEntry(10, 30);
+    table.addGotoEntry(25, 30);
+
+    assertEquals(30, table.findGotoTarget(10));
+    assertEquals(4, table.findGotoTarget(40));
+    assertEquals(-1, table.findGotoTarget(11));
+    assertTrue(table.isGotoTarget(30));
+    assertTrue(table.isGotoTarget(4));
+    assertFalse(table.isGotoTarget(10));
+  }
+
+  @Test
+  public void testEnclosingBranches() {
+    Method method = new Method();
+    BranchTable table = new BranchTable(method);
+    BranchEntry outer = new BranchEntry(method, 0, 2, 50, TYPE_IF, "", "", "");
+    BranchEntry inner = new BranchEntry(method, 10, 12, 20, TYPE_IF, "", "",
+        "");
+    BranchEntry sibling = new BranchEntry(method, 20, 22, 40, TYPE_IF, "", "",
+        "");
+    table.add(sibling);
+    table.add(outer);
+    table.add(inner);
+
+    assertSame(inner, table.findEnclosingBranch(15));
+    assertSame(sibling, table.findEnclosingBranch(22));
+    assertSame(outer, table.findEnclosingBranch(20));
+    assertSame(outer, table.findEnclosingBranch(45));
+    assertNull(table.findEnclosingBranch(60));
+
+    List<BranchEntry> enclosing = table.getEnclosingBranches(15);
+    assertEquals(2, enclosing.size());
+    assertSame(inner, enclosing.get(0));
+    assertSame(outer, enclosing.get(1));
+
+    assertEquals(1, table.startsWith(10).size());
+    assertEquals(0, table.startsWith(11).size());
+  }
+
+  @Test
+  public void testIdentifyElseAndWhile() {
+    Method method = new Method();
+    BranchTable table = new BranchTable(method);
+    // if (..) { 3..10 goto 20 } else { 10..20 }
+    table.add(new BranchEntry(method, 0, 3, 10, TYPE_IF, "", "", ""));
+    table.addGotoEntry(7, 20);
+    // while loop entered by a goto to its condition at 30.
+    table.addGotoEntry(25, 30);
+    table.add(new BranchEntry(method, 30, 30, 40, TYPE_DO_WHILE, "", "", ""));
+    table.identifyMoreBranches();
+
+    BranchEntry elseEntry = BranchTable.contains(table.startsWith(10),
+        TYPE_ELSE);
+    assertEquals(20, elseEntry.getEndBlockPc());
+    assertEquals(TYPE_WHILE, table.startsWith(30).get(0).getType());
+  }
+
+}
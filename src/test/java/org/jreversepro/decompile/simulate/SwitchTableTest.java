@@ -0,0 +1,176 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.decompile.simulate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jreversepro.parser.instruction.DefaultInstructionListParser;
+import org.jreversepro.reflect.Method;
+import org.jreversepro.reflect.instruction.Instruction;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SwitchTableTest {
+
+  @Test
+  public void testTableSwitchAtEveryAlignment() throws Exception {
+    for (int pc = 0; pc < 4; pc++) {
+      // case 65: case 67: -> end, case 66: -> end + 1, case 68: -> end + 2,
+      // default: -> end + 3. The targets are the returns after the switch.
+      int end = pc + 1 + padding(pc) + 12 + 4 * 4;
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream dos = begin(bytes, pc, 0xaa);
+      dos.writeInt(end + 3 - pc);
+      dos.writeInt(65);
+      dos.writeInt(68);
+      dos.writeInt(end - pc);
+      dos.writeInt(end + 1 - pc);
+      dos.writeInt(end - pc);
+      dos.writeInt(end + 2 - pc);
+      Instruction ins = parseSwitch(bytes, dos, pc, end);
+
+      assertArrayEquals("pc " + pc, new int[] { end, end + 1, end, end + 2,
+          end + 3 }, SwitchTable.getTargets(ins));
+      SwitchTable table = new SwitchTable(new Method(), ins, null);
+      assertEquals(end + 3, table.getDefaultByte());
+      List<CaseEntry> cases = table.getCases();
+      assertEquals(3, cases.size());
+      assertCase(cases.get(0), end, end + 1, 65, 67);
+      assertCase(cases.get(1), end + 1, end + 2, 66);
+      assertCase(cases.get(2), end + 2, end + 3, 68);
+      assertEquals(Arrays.asList("65", "67"), cases.get(0).getValues());
+    }
+  }
+
+  @Test
+  public void testLookupSwitchAtEveryAlignment() throws Exception {
+    for (int pc = 0; pc < 4; pc++) {
+      // case -5: case 100000: -> end + 1, case 7: -> end, default: -> end + 2.
+      int end = pc + 1 + padding(pc) + 8 + 3 * 8;
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream dos = begin(bytes, pc, 0xab);
+      dos.writeInt(end + 2 - pc);
+      dos.writeInt(3);
+      dos.writeInt(-5);
+      dos.writeInt(end + 1 - pc);
+      dos.writeInt(7);
+      dos.writeInt(end - pc);
+      dos.writeInt(100000);
+      dos.writeInt(end + 1 - pc);
+      Instruction ins = parseSwitch(bytes, dos, pc, end);
+
+      assertArrayEquals("pc " + pc, new int[] { end + 1, end, end + 1,
+          end + 2 }, SwitchTable.getTargets(ins));
+      // A case ending with a goto past the default places the default among
+      // the cases.
+      BranchTable branches = new BranchTable(new Method());
+      branches.addGotoEntry(end + 1 - 3, end + 10);
+      SwitchTable table = new SwitchTable(new Method(), ins, branches);
+      List<CaseEntry> cases = table.getCases();
+      assertEquals(3, cases.size());
+      assertCase(cases.get(0), end, end + 1, 7);
+      assertCase(cases.get(1), end + 1, end + 2, -5, 100000);
+      assertCase(cases.get(2), end + 2, end + 10);
+      assertTrue(cases.get(2).isDefault());
+      assertFalse(cases.get(1).isDefault());
+      assertEquals(Arrays.asList("default"), cases.get(2).getValues());
+    }
+  }
+
+  @Test
+  public void testLabelsRenderedLazily() throws Exception {
+    int end = 1 + padding(0) + 12 + 2 * 4;
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream dos = begin(bytes, 0, 0xaa);
+    dos.writeInt(end + 1);
+    dos.writeInt(65);
+    dos.writeInt(66);
+    dos.writeInt(end);
+    dos.writeInt(end);
+    SwitchTable table = new SwitchTable(new Method(), parseSwitch(bytes, dos,
+        0, end), null);
+    CaseEntry entry = table.getCases().get(0);
+    List<String> labels = entry.getValues();
+    assertEquals(Arrays.asList("65", "66"), labels);
+    // Asked for again, the labels are not rendered anew.
+    assertSame(labels, entry.getValues());
+
+    // The type of the switch variable renders the keys afresh.
+    table.setTypeValue("C", "c");
+    assertEquals(Arrays.asList("'A'", "'B'"), entry.getValues());
+  }
+
+  private static void assertCase(CaseEntry entry, int target, int endTarget,
+      int... keys) {
+    assertEquals(target, entry.getTarget());
+    assertEquals(endTarget, entry.getEndTarget());
+    assertArrayEquals(keys, entry.getKeys());
+  }
+
+  /**
+   * @return Returns the bytes of padding after a switch opcode at the pc.
+   */
+  private static int padding(int pc) {
+    return 3 - (pc % 4);
+  }
+
+  /**
+   * Writes the nops before the switch, the switch opcode and the padding.
+   */
+  private static DataOutputStream begin(ByteArrayOutputStream bytes, int pc,
+      int opcode) throws IOException {
+    DataOutputStream dos = new DataOutputStream(bytes);
+    for (int i = 0; i < pc; i++) {
+      dos.writeByte(0x00); // nop
+    }
+    dos.writeByte(opcode);
+    for (int i = 0; i < padding(pc); i++) {
+      // Not zero, so that padding read as operands would show.
+      dos.writeByte(0x7f);
+    }
+    return dos;
+  }
+
+  /**
+   * Appends the returns the switch jumps to, decodes the method and returns
+   * the switch.
+   */
+  private static Instruction parseSwitch(ByteArrayOutputStream bytes,
+      DataOutputStream dos, int pc, int end) throws Exception {
+    assertEquals(end, dos.size());
+    for (int i = 0; i < 4; i++) {
+      dos.writeByte(0xb1); // return
+    }
+    List<Instruction> list = new DefaultInstructionListParser().parseBytes(
+        bytes.toByteArray()).getAllInstructions();
+    Instruction ins = list.get(pc);
+    assertEquals(pc, ins.currentPc);
+    assertEquals(end, ins.nextPc);
+    assertEquals(pc + 5, list.size());
+    return ins;
+  }
+}
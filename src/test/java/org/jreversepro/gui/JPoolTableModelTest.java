@@ -0,0 +1,75 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.gui;
+
+import org.jreversepro.reflect.ConstantPool;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class JPoolTableModelTest {
+
+  @Before
+  public void setUp() {
+    ConstantPool pool = new ConstantPool(6);
+    pool.addNullEntry();
+    pool.addUtf8Entry("java/lang/Object");
+    pool.addClassEntry(1);
+    pool.addUtf8Entry("toString");
+    pool.addStringEntry(3);
+    pool.addUtf8Entry("Main");
+    model = new JPoolTableModel(pool);
+  }
+
+  @Test
+  public void testComputeView() {
+    assertNull(model.computeView(JPoolTableModel.ANY_TAG, "", 0));
+    assertArrayEquals(new int[] { 1, 3, 5 }, model.computeView(
+        ConstantPool.TAG_UTF8, "", 0));
+    assertArrayEquals(new int[] { 1, 3 }, model.computeView(
+        JPoolTableModel.ANY_TAG, "t", 0));
+    // By value, "Main" before "java/lang/Object" before "toString".
+    assertArrayEquals(new int[] { 5, 1, 3 }, model.computeView(
+        ConstantPool.TAG_UTF8, "", 2));
+  }
+
+  @Test
+  public void testFind() {
+    assertEquals(3, model.find("STR", 2, 0));
+    assertEquals(1, model.find("o", 2, 4));
+    assertEquals(-1, model.find("nothing", 2, 0));
+    // Pointer I of the class and the string entries.
+    assertEquals(2, model.find("1", 3, 0));
+    assertEquals(4, model.find("3", 3, 0));
+    assertEquals(-1, model.find("x", 3, 0));
+  }
+
+  @Test
+  public void testRows() {
+    assertEquals(6, model.getRowCount());
+    assertEquals("TAG_CLASS", model.getValueAt(2, 1));
+    assertEquals(Integer.valueOf(1), model.getValueAt(2, 3));
+    assertEquals("PTR_INVALID", model.getValueAt(2, 4));
+    assertEquals(3, model.getViewRow(3));
+  }
+
+  private JPoolTableModel model;
+}
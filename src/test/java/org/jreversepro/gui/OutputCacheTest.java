@@ -0,0 +1,101 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.gui;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.jreversepro.pipeline.ClassSource;
+import org.jreversepro.pipeline.FileClassSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class OutputCacheTest {
+
+  @Before
+  public void setUp() throws IOException {
+    file1 = File.createTempFile("cache1", ".class");
+    file2 = File.createTempFile("cache2", ".class");
+    file3 = File.createTempFile("cache3", ".class");
+  }
+
+  @After
+  public void tearDown() {
+    file1.delete();
+    file2.delete();
+    file3.delete();
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEvictedPastBound() {
+    OutputCache cache = new OutputCache(10);
+    ClassSource source1 = new FileClassSource(file1);
+    ClassSource source2 = new FileClassSource(file2);
+    ClassSource source3 = new FileClassSource(file3);
+    DecompiledClass class1 = disassembled("1234");
+    DecompiledClass class2 = disassembled("1234");
+    cache.put(source1, class1);
+    cache.put(source2, class2);
+    assertEquals(8, cache.getCharacters());
+
+    // 1 is used after 2, and so 2 is evicted.
+    assertSame(class1, cache.get(source1));
+    cache.put(source3, disassembled("1234"));
+    assertSame(class1, cache.get(source1));
+    assertNull(cache.get(source2));
+    assertEquals(8, cache.getCharacters());
+  }
+
+  @Test
+  public void testTextAddedAccountedOnPut() {
+    OutputCache cache = new OutputCache(100);
+    ClassSource source1 = new FileClassSource(file1);
+    DecompiledClass class1 = disassembled("12");
+    cache.put(source1, class1);
+    class1.setDisassembly("123456");
+    cache.put(source1, class1);
+    assertEquals(6, cache.getCharacters());
+  }
+
+  @Test
+  public void testModifiedFileDropped() {
+    OutputCache cache = new OutputCache(100);
+    ClassSource source1 = new FileClassSource(file1);
+    cache.put(source1, disassembled("12"));
+    file1.setLastModified(file1.lastModified() - 10000);
+    assertNull(cache.get(source1));
+    assertEquals(0, cache.getCharacters());
+  }
+
+  private static DecompiledClass disassembled(String text) {
+    DecompiledClass decompiled = new DecompiledClass(null);
+    decompiled.setDisassembly(text);
+    return decompiled;
+  }
+
+  private File file1;
+
+  private File file2;
+
+  private File file3;
+}
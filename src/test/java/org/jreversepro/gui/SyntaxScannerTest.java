@@ -0,0 +1,57 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.gui;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SyntaxScannerTest {
+
+  @Test
+  public void testKeywordsOnly() {
+    // "int" is a keyword, "interval" and "x" are not.
+    String text = "int interval = x; return";
+    assertArrayEquals(new int[] { 0, 3, SyntaxScanner.KEYWORD, 18, 6,
+        SyntaxScanner.KEYWORD }, SyntaxScanner.scan(text));
+  }
+
+  @Test
+  public void testComments() {
+    String text = "a // if\nb /* else\n */ c";
+    assertArrayEquals(new int[] { 2, 5, SyntaxScanner.COMMENT, 10, 11,
+        SyntaxScanner.COMMENT }, SyntaxScanner.scan(text));
+  }
+
+  @Test
+  public void testLiterals() {
+    String text = "s = \"new \\\" \"; c = '\\''; \"open\nnull";
+    int[] tokens = SyntaxScanner.scan(text);
+    assertArrayEquals(new int[] { 4, 9, SyntaxScanner.LITERAL, 19, 4,
+        SyntaxScanner.LITERAL, 25, 5, SyntaxScanner.LITERAL, 31, 4,
+        SyntaxScanner.KEYWORD }, tokens);
+  }
+
+  @Test
+  public void testUnclosedComment() {
+    assertArrayEquals(new int[] { 0, 6, SyntaxScanner.COMMENT }, SyntaxScanner
+        .scan("/* for"));
+    assertEquals(0, SyntaxScanner.scan("").length);
+  }
+}
@@ -0,0 +1,85 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.output;
+
+import java.io.InputStream;
+
+import org.jreversepro.JReverseProContext;
+import org.jreversepro.JReverseProContext.OutputType;
+import org.jreversepro.reflect.ClassInfo;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DecompilerOutputImplTest {
+
+  @Test
+  public void testOverBudgetMethodDisassembled() throws Exception {
+    final JReverseProContext context = new JReverseProContext();
+    // No limit on the time, 20 nodes per method.
+    context.getDecompileLimits().setLimits("0,20");
+    final String resource = "/" + Budget.class.getName().replace('.', '/')
+        + ".class";
+    final InputStream is = getClass().getResourceAsStream(resource);
+    final ClassInfo info;
+    try {
+      info = context.loadResource(is, resource);
+    } finally {
+      is.close();
+    }
+    final String output = context.print(OutputType.DECOMPILER, info);
+    final int large = output.indexOf("int large(");
+    assertTrue(output, large != -1);
+
+    // The methods within the budget are decompiled.
+    final String before = output.substring(0, large);
+    assertTrue(output, before.contains("+1;"));
+    assertEquals(output, -1, before.indexOf(UNABLE));
+
+    // The one over it is disassembled, as comments alone.
+    final String body = output.substring(output.indexOf('{', large) + 1,
+        output.indexOf('}', large)).trim();
+    assertTrue(output, body.startsWith(UNABLE + ": More than 20 nodes"));
+    assertTrue(output, body.contains("ireturn"));
+    for (String line : body.split("\n")) {
+      assertTrue(line, line.trim().startsWith("//"));
+    }
+  }
+
+  static class Budget {
+
+    int small(int a) {
+      return a + 1;
+    }
+
+    int large(int a) {
+      int b = a * 2;
+      int c = b * 3;
+      int d = c * 4;
+      int e = d * 5;
+      int f = e * 6;
+      int g = f * 7;
+      int h = g * 8;
+      return a + b + c + d + e + f + g + h;
+    }
+  }
+
+  private static final String UNABLE = "// Unable to decompile";
+
+}
@@ -0,0 +1,137 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.pipeline;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jreversepro.JReverseProContext;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DecompilePipelineTest {
+
+  @Test
+  public void testOutputInInputOrder() throws InterruptedException {
+    final int count = 40;
+    final List<ClassSource> sources = new ArrayList<ClassSource>();
+    for (int i = 0; i < count; i++) {
+      // Earlier sources take longer to read, so complete out of order.
+      sources.add(new SlowSource("Class" + i, (count - i) % 7));
+    }
+    final PipelineConfig config = new PipelineConfig();
+    config.setParallelism("4,2,2,2");
+    config.setQueueCapacity(2);
+    config.setMaxInFlight(6);
+
+    final List<Integer> written = new ArrayList<Integer>();
+    final PipelineSink sink = new PipelineSink() {
+      public void write(PipelineItem item) {
+        written.add(item.getSequence());
+      }
+    };
+    final PipelineStatistics stats = new DecompilePipeline(
+        new JReverseProContext(), config).run(sources, sink);
+
+    assertEquals(count, written.size());
+    for (int i = 0; i < count; i++) {
+      assertEquals(i, written.get(i).intValue());
+    }
+    // Not valid class files - reported per item, without stopping the batch.
+    assertEquals(count, stats.getFailed());
+  }
+
+  @Test
+  public void testSlowWriteDoesNotHoldUpHandOver()
+      throws InterruptedException {
+    final int count = 20;
+    final CountDownLatch opened = new CountDownLatch(count);
+    final List<ClassSource> sources = new ArrayList<ClassSource>();
+    for (int i = 0; i < count; i++) {
+      sources.add(new SlowSource("Class" + i, 0) {
+        @Override
+        public InputStream openStream() throws IOException {
+          opened.countDown();
+          return super.openStream();
+        }
+      });
+    }
+    final PipelineConfig config = new PipelineConfig();
+    config.setParallelism("1,1,1,2");
+    config.setQueueCapacity(1);
+    config.setMaxInFlight(count);
+
+    final AtomicBoolean handedOver = new AtomicBoolean();
+    final List<Integer> written = new ArrayList<Integer>();
+    final PipelineSink sink = new PipelineSink() {
+      public void write(PipelineItem item) {
+        if (item.getSequence() == 0) {
+          // Every class gets read only if the other writer takes the items
+          // off the queue meanwhile.
+          try {
+            handedOver.set(opened.await(5, TimeUnit.SECONDS));
+          } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        written.add(item.getSequence());
+      }
+    };
+    new DecompilePipeline(new JReverseProContext(), config).run(sources,
+        sink);
+
+    assertTrue(handedOver.get());
+    assertEquals(count, written.size());
+    for (int i = 0; i < count; i++) {
+      assertEquals(i, written.get(i).intValue());
+    }
+  }
+
+  private static class SlowSource implements ClassSource {
+
+    SlowSource(String _name, long _delay) {
+      name = _name;
+      delay = _delay;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public InputStream openStream() throws IOException {
+      try {
+        Thread.sleep(delay);
+      } catch (InterruptedException ex) {
+        throw new IOException("Interrupted");
+      }
+      return new ByteArrayInputStream(name.getBytes());
+    }
+
+    private final String name;
+
+    private final long delay;
+  }
+}
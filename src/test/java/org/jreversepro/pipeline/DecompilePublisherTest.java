@@ -0,0 +1,210 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.pipeline;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.jreversepro.JReverseProContext;
+import org.jreversepro.pipeline.Flow.Subscriber;
+import org.jreversepro.pipeline.Flow.Subscription;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DecompilePublisherTest {
+
+  @Test
+  public void testDeliversNoMoreThanRequested() throws InterruptedException {
+    final RecordingSubscriber subscriber = new RecordingSubscriber(3);
+    publisher(COUNT).subscribe(subscriber);
+    subscriber.awaitItems(3);
+    // Give the pipeline the time to overrun the demand, were it to.
+    Thread.sleep(SETTLE_MILLIS);
+    assertEquals(3, subscriber.getItems().size());
+    assertFalse(subscriber.isDone());
+
+    subscriber.request(COUNT);
+    assertTrue(subscriber.awaitDone());
+    assertNull(subscriber.error);
+    assertTrue(subscriber.completed);
+    final List<PipelineItem> items = subscriber.getItems();
+    assertEquals(COUNT, items.size());
+    for (int i = 0; i < COUNT; i++) {
+      assertEquals(i, items.get(i).getSequence());
+    }
+  }
+
+  @Test
+  public void testNothingAfterCancel() throws InterruptedException {
+    final RecordingSubscriber subscriber = new RecordingSubscriber(
+        Long.MAX_VALUE) {
+      @Override
+      public void onNext(PipelineItem item) {
+        super.onNext(item);
+        if (getItems().size() == 2) {
+          subscription.cancel();
+        }
+      }
+    };
+    publisher(COUNT).subscribe(subscriber);
+    subscriber.awaitItems(2);
+    Thread.sleep(SETTLE_MILLIS);
+    assertEquals(2, subscriber.getItems().size());
+    // A cancelled subscription is not completed either.
+    assertFalse(subscriber.isDone());
+  }
+
+  @Test
+  public void testNonPositiveRequestSignalsError()
+      throws InterruptedException {
+    final RecordingSubscriber subscriber = new RecordingSubscriber(0);
+    publisher(COUNT).subscribe(subscriber);
+    assertTrue(subscriber.awaitDone());
+    assertTrue(String.valueOf(subscriber.error),
+        subscriber.error instanceof IllegalArgumentException);
+    assertFalse(subscriber.completed);
+    assertEquals(0, subscriber.getItems().size());
+  }
+
+  @Test
+  public void testFailedStageSignalsError() throws InterruptedException {
+    final List<ClassSource> sources = new ArrayList<ClassSource>();
+    sources.add(new ClassSource() {
+      public String getName() {
+        return "Broken";
+      }
+
+      public InputStream openStream() throws IOException {
+        throw new IllegalStateException("Broken source");
+      }
+    });
+    final RecordingSubscriber subscriber = new RecordingSubscriber(
+        Long.MAX_VALUE);
+    new DecompilePublisher(new JReverseProContext(), new PipelineConfig(),
+        sources).subscribe(subscriber);
+    assertTrue(subscriber.awaitDone());
+    assertTrue(String.valueOf(subscriber.error),
+        subscriber.error instanceof IllegalStateException);
+    assertFalse(subscriber.completed);
+  }
+
+  /**
+   * @return Returns a publisher of classes that fail to parse - each still
+   *         published, as a failed item.
+   */
+  private static DecompilePublisher publisher(int count) {
+    final List<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+    for (int i = 0; i < count; i++) {
+      buffers.add(ByteBuffer.wrap(("Class" + i).getBytes()));
+    }
+    final PipelineConfig config = new PipelineConfig();
+    config.setQueueCapacity(2);
+    return DecompilePublisher.fromBuffers(new JReverseProContext(), config,
+        buffers);
+  }
+
+  /**
+   * Records the signals, requesting the given number of items on subscribe.
+   */
+  private static class RecordingSubscriber implements
+      Subscriber<PipelineItem> {
+
+    RecordingSubscriber(long _initialRequest) {
+      initialRequest = _initialRequest;
+    }
+
+    public void onSubscribe(Subscription _subscription) {
+      subscription = _subscription;
+      subscription.request(initialRequest);
+    }
+
+    public void onNext(PipelineItem item) {
+      synchronized (items) {
+        items.add(item);
+        items.notifyAll();
+      }
+    }
+
+    public void onError(Throwable throwable) {
+      error = throwable;
+      done.countDown();
+    }
+
+    public void onComplete() {
+      completed = true;
+      done.countDown();
+    }
+
+    void request(long n) {
+      subscription.request(n);
+    }
+
+    List<PipelineItem> getItems() {
+      synchronized (items) {
+        return new ArrayList<PipelineItem>(items);
+      }
+    }
+
+    void awaitItems(int count) throws InterruptedException {
+      final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+      synchronized (items) {
+        while (items.size() < count) {
+          final long left = deadline - System.currentTimeMillis();
+          assertTrue("Timed out waiting for " + count + " items", left > 0);
+          items.wait(left);
+        }
+      }
+    }
+
+    boolean awaitDone() throws InterruptedException {
+      return done.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    boolean isDone() {
+      return done.getCount() == 0;
+    }
+
+    private final long initialRequest;
+
+    Subscription subscription;
+
+    private final List<PipelineItem> items = new ArrayList<PipelineItem>();
+
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    volatile Throwable error;
+
+    volatile boolean completed;
+  }
+
+  private static final int COUNT = 10;
+
+  private static final long SETTLE_MILLIS = 200;
+
+  private static final long TIMEOUT_MILLIS = 10000;
+
+}
@@ -0,0 +1,62 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.reflect;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ExceptionRangeIndexTest {
+
+  @Test
+  public void testNestedTryBlocks() {
+    // try { try { .. } catch (E1) { .. } } finally { .. }
+    ExceptionList exceptions = new ExceptionList();
+    exceptions.addExceptionBlock(2, 10, 13, "java/io/IOException");
+    exceptions.addExceptionBlock(0, 20, 30, "<any>");
+    exceptions.addExceptionBlock(13, 20, 30, "<any>");
+    exceptions.addExceptionBlock(2, 10, 25, "java/lang/Error");
+    List<ExceptionThrown> tryBlocks = exceptions.getExceptions();
+    assertEquals(3, tryBlocks.size());
+
+    ExceptionRangeIndex index = exceptions.getRangeIndex();
+    assertEquals(3, index.size());
+    assertEquals(1, index.getTryBlocksCovering(0).size());
+    List<ExceptionThrown> covering = index.getTryBlocksCovering(5);
+    assertEquals(2, covering.size());
+    assertSame(tryBlocks.get(0), covering.get(0));
+    assertSame(tryBlocks.get(1), covering.get(1));
+    assertEquals(2, index.getTryBlocksCovering(15).size());
+    assertEquals(0, index.getTryBlocksCovering(20).size());
+
+    assertTrue(index.isHandler(13));
+    assertFalse(index.isHandler(14));
+    List<ExceptionThrown> handled = index.getTryBlocksHandledAt(30);
+    assertEquals(2, handled.size());
+    assertSame(tryBlocks.get(1), handled.get(0));
+    assertSame(tryBlocks.get(2), handled.get(1));
+
+    exceptions.addExceptionBlock(40, 45, 50, "<any>");
+    assertEquals(4, exceptions.getRangeIndex().size());
+  }
+}
@@ -0,0 +1,49 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.reflect.variabletable;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SlotIndexTest {
+
+  @Test
+  public void testFloorAndCeiling() {
+    SlotIndex<String> index = new SlotIndex<String>(3);
+    index.add(1, 10, "b");
+    index.add(1, 2, "a");
+    index.add(1, 10, "c");
+    index.add(1, 30, "d");
+
+    assertEquals(4, index.size(1));
+    assertEquals(0, index.size(0));
+    assertNull(index.floor(1, 1));
+    assertEquals("a", index.floor(1, 9));
+    assertEquals("c", index.floor(1, 10));
+    assertEquals("d", index.floor(1, 100));
+    assertNull(index.floor(2, 100));
+
+    assertEquals("a", index.ceiling(1, 0));
+    assertEquals("b", index.ceiling(1, 3));
+    assertEquals("b", index.ceiling(1, 10));
+    assertEquals("d", index.ceiling(1, 11));
+    assertNull(index.ceiling(1, 31));
+  }
+}
@@ -0,0 +1,171 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.shard;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.Collections;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ShardCoordinatorTest {
+
+  @Before
+  public void setUp() throws IOException {
+    dir = File.createTempFile("shard-test", "");
+    assertTrue(dir.delete() && dir.mkdir());
+    final String resource = "/" + Sample.class.getName().replace('.', '/')
+        + ".class";
+    final InputStream is = getClass().getResourceAsStream(resource);
+    final byte[] sample;
+    try {
+      sample = IOUtils.toByteArray(is);
+    } finally {
+      is.close();
+    }
+    // In the order listed: A, B, Bomb, C.
+    FileUtils.writeByteArrayToFile(new File(dir, "A.class"), sample);
+    FileUtils.writeByteArrayToFile(new File(dir, "B.class"), sample);
+    writeBomb(new File(dir, "Bomb.class"));
+    FileUtils.writeByteArrayToFile(new File(dir, "C.class"), sample);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(dir);
+  }
+
+  @Test
+  public void testFailingClassSingledOut() throws Exception {
+    final ShardCoordinator coordinator = new ShardCoordinator();
+    coordinator.setWorkers(1);
+    coordinator.setShardSize(4);
+    coordinator.setMaxAttempts(1);
+    coordinator.setMaxHeap("64m");
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final PrintStream out = new PrintStream(bytes, false, "UTF-8");
+    final ShardStatistics stats = coordinator.run(Collections
+        .singletonList(dir.getPath()), out);
+
+    // [A, B, Bomb, C] dies and is split. [A, B] goes through, [Bomb, C] dies
+    // and is split again, leaving Bomb alone to fail.
+    assertEquals(3, stats.getSucceeded());
+    assertEquals(1, stats.getFailed());
+    assertEquals(2, stats.getRetries());
+
+    final String output = bytes.toString("UTF-8");
+    assertTrue(output, output.contains(new File(dir, "Bomb.class").getPath()
+        + ": out of memory"));
+    int classes = 0;
+    for (int i = output.indexOf(SAMPLE_NAME); i != -1; i = output.indexOf(
+        SAMPLE_NAME, i + SAMPLE_NAME.length())) {
+      classes++;
+    }
+    assertTrue(output, classes >= 3);
+  }
+
+  @Test
+  public void testFailedWorkerEndsRun() throws Exception {
+    final ShardCoordinator coordinator = new ShardCoordinator();
+    coordinator.setWorkers(1);
+    coordinator.setShardSize(1);
+    // Rejected by every worker.
+    coordinator.setLimits("bogus");
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try {
+      coordinator.run(Collections.singletonList(dir.getPath()),
+          new PrintStream(bytes));
+      fail("Expected the run to fail");
+    } catch (IOException ex) {
+      assertEquals("shard[0..0] worker failed: exit code "
+          + ShardWorker.EXIT_FAILED, ex.getMessage());
+    }
+    assertEquals(0, bytes.size());
+  }
+
+  /**
+   * Writes a class whose only method claims a Code attribute of 2 GB, that
+   * takes the worker down with an OutOfMemoryError while being parsed.
+   */
+  private static void writeBomb(File file) throws IOException {
+    final DataOutputStream dos = new DataOutputStream(new FileOutputStream(
+        file));
+    try {
+      dos.writeInt(0xCAFEBABE);
+      dos.writeShort(0); // minor
+      dos.writeShort(49); // major
+      dos.writeShort(8); // constant pool count
+      dos.writeByte(1); // #1 Utf8
+      dos.writeUTF("Bomb");
+      dos.writeByte(7); // #2 Class #1
+      dos.writeShort(1);
+      dos.writeByte(1); // #3 Utf8
+      dos.writeUTF("java/lang/Object");
+      dos.writeByte(7); // #4 Class #3
+      dos.writeShort(3);
+      dos.writeByte(1); // #5 Utf8
+      dos.writeUTF("m");
+      dos.writeByte(1); // #6 Utf8
+      dos.writeUTF("()V");
+      dos.writeByte(1); // #7 Utf8
+      dos.writeUTF("Code");
+      dos.writeShort(0x21); // public super
+      dos.writeShort(2); // this
+      dos.writeShort(4); // super
+      dos.writeShort(0); // interfaces
+      dos.writeShort(0); // fields
+      dos.writeShort(1); // methods
+      dos.writeShort(0x09); // public static
+      dos.writeShort(5); // name
+      dos.writeShort(6); // descriptor
+      dos.writeShort(1); // attributes
+      dos.writeShort(7); // Code
+      dos.writeInt(Integer.MAX_VALUE); // attribute length
+      dos.writeShort(0); // max stack
+      dos.writeShort(0); // max locals
+      dos.writeInt(Integer.MAX_VALUE); // code length
+    } finally {
+      dos.close();
+    }
+  }
+
+  static class Sample {
+
+    int twice(int a) {
+      return a * 2;
+    }
+  }
+
+  private static final String SAMPLE_NAME = "ShardCoordinatorTest$Sample";
+
+  private File dir;
+
+}
@@ -0,0 +1,116 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.xref;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import org.jreversepro.reflect.ConstantPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CrossReferenceIndexTest {
+
+  @Before
+  public void setUp() throws IOException {
+    file = File.createTempFile("xref", ".idx");
+    CrossReferenceIndexBuilder builder = new CrossReferenceIndexBuilder();
+    builder.add("a/Caller", pool("a/Caller", "b/Callee"));
+    builder.add("a/Other", pool("a/Other", "b/Callee"));
+    builder.add("b/Callee", pool("b/Callee", "a/Caller"));
+    builder.write(file);
+    index = CrossReferenceIndex.open(file);
+  }
+
+  @After
+  public void tearDown() {
+    file.delete();
+  }
+
+  @Test
+  public void testFindReferrers() {
+    assertEquals(set("a/Caller", "a/Other"), index
+        .findReferrers("b.Callee.run(I)V"));
+    assertEquals(set("a/Caller", "a/Other"), index
+        .findReferrers("b/Callee.count:I"));
+    // Class, and all the members of the name.
+    assertEquals(set("a/Caller", "a/Other"), index.findReferrers("b.Callee"));
+    assertEquals(set("b/Callee"), index.findReferrers("a.Caller.run"));
+    // Elements of arrays of classes.
+    assertEquals(set("a/Caller", "a/Other", "b/Callee"), index
+        .findReferrers("c.Elem"));
+    assertTrue(index.findReferrers("b.Callee.run(J)V").isEmpty());
+    assertTrue(index.findReferrers("b.Callee.ru").isEmpty());
+    assertTrue(index.findReferrers("zzz").isEmpty());
+  }
+
+  @Test
+  public void testNamesSorted() {
+    for (int i = 1; i < index.getNameCount(); i++) {
+      assertTrue(index.getName(i - 1).compareTo(index.getName(i)) < 0);
+    }
+  }
+
+  @Test
+  public void testGetElementClass() {
+    assertEquals("a/B", CrossReferenceIndexBuilder.getElementClass("a/B"));
+    assertEquals("a/B", CrossReferenceIndexBuilder.getElementClass("[[La/B;"));
+    assertNull(CrossReferenceIndexBuilder.getElementClass("[I"));
+  }
+
+  /**
+   * @return Returns the pool of a class calling run(I)V and reading count:I
+   *         of another, and referring to arrays.
+   */
+  private static ConstantPool pool(String self, String other) {
+    ConstantPool pool = new ConstantPool(17);
+    pool.addNullEntry();
+    pool.addUtf8Entry(self);
+    pool.addClassEntry(1);
+    pool.addUtf8Entry(other);
+    pool.addClassEntry(3);
+    pool.addUtf8Entry("run");
+    pool.addUtf8Entry("(I)V");
+    pool.addNameTypeEntry(5, 6);
+    pool.addMethodRefEntry(4, 7);
+    pool.addUtf8Entry("count");
+    pool.addUtf8Entry("I");
+    pool.addNameTypeEntry(9, 10);
+    pool.addFieldRefEntry(4, 11);
+    pool.addUtf8Entry("[[Lc/Elem;");
+    pool.addClassEntry(13);
+    pool.addUtf8Entry("[I");
+    pool.addClassEntry(15);
+    return pool;
+  }
+
+  private static TreeSet<String> set(String... names) {
+    return new TreeSet<String>(Arrays.asList(names));
+  }
+
+  private File file;
+
+  private CrossReferenceIndex index;
+}
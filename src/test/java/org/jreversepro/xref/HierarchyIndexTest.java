@@ -0,0 +1,139 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.xref;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.jreversepro.jvm.JVMConstants;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class HierarchyIndexTest {
+
+  @Before
+  public void setUp() throws IOException {
+    file = File.createTempFile("hierarchy", ".idx");
+    // Neither an archive nor a class, so that rereading it finds no classes.
+    archive = File.createTempFile("hierarchy", ".dat");
+    HierarchyIndexBuilder builder = new HierarchyIndexBuilder();
+    int origin = builder.newOrigin(archive.getPath(), archive.length(),
+        archive.lastModified());
+    builder.addClass("a/Shape", INTERFACE, "java/lang/Object",
+        list("java/io/Serializable"), origin);
+    builder.addClass("a/Polygon", INTERFACE, "java/lang/Object",
+        list("a/Shape"), origin);
+    builder.addClass("a/AbstractShape", JVMConstants.ACC_ABSTRACT,
+        "java/lang/Object", list("a/Shape"), origin);
+    builder.addClass("a/Circle", 0, "a/AbstractShape", list("a/Shape"),
+        origin);
+    builder.addClass("a/Square", 0, "java/lang/Object", list("a/Polygon",
+        "java/lang/Comparable"), origin);
+    // Defined again by a later origin - the first one stands.
+    builder.addClass("a/Square", 0, "a/Circle", list(), builder.newOrigin(
+        "b.jar", 0, 0));
+    builder.write(file);
+    index = HierarchyIndex.open(file);
+  }
+
+  @After
+  public void tearDown() {
+    file.delete();
+    archive.delete();
+  }
+
+  @Test
+  public void testSupertypes() {
+    assertEquals("a/AbstractShape", index.getSuperclass("a.Circle"));
+    assertNull(index.getSuperclass("java/lang/Object"));
+    assertEquals(list("a/Polygon", "java/lang/Comparable"), index
+        .getInterfaces("a/Square"));
+    assertEquals(set("a/AbstractShape", "a/Shape", "java/io/Serializable",
+        "java/lang/Object"), index.getSupertypes("a/Circle"));
+    assertTrue(index.getSupertypes("zzz").isEmpty());
+  }
+
+  @Test
+  public void testSubtypes() {
+    assertEquals(set("a/AbstractShape", "a/Circle", "a/Polygon"), index
+        .getDirectSubtypes("a/Shape"));
+    assertEquals(set("a/AbstractShape", "a/Circle", "a/Polygon", "a/Square"),
+        index.getSubtypes("a/Shape"));
+    assertEquals(set("a/AbstractShape", "a/Circle", "a/Square"), index
+        .getImplementors("java.io.Serializable"));
+    assertTrue(index.getSubtypes("a/Square").isEmpty());
+  }
+
+  @Test
+  public void testContains() {
+    assertTrue(index.contains("a.Square"));
+    assertTrue(index.isInterface("a/Polygon"));
+    assertFalse(index.isInterface("a/Circle"));
+    assertFalse(index.contains("java/lang/Object"));
+  }
+
+  @Test
+  public void testNamesSorted() {
+    for (int i = 1; i < index.getNameCount(); i++) {
+      assertTrue(index.getName(i - 1).compareTo(index.getName(i)) < 0);
+    }
+  }
+
+  @Test
+  public void testUnchangedOriginReused() throws IOException {
+    HierarchyIndexBuilder builder = new HierarchyIndexBuilder(index);
+    assertTrue(builder.addOrigin(archive.getPath()));
+    assertEquals(5, builder.getClassCount());
+    builder.write(file);
+    index = HierarchyIndex.open(file);
+    assertEquals(set("a/AbstractShape", "a/Circle", "a/Square"), index
+        .getImplementors("a/Shape"));
+
+    assertTrue(archive.setLastModified(archive.lastModified() - 60000));
+    builder = new HierarchyIndexBuilder(index);
+    assertFalse(builder.addOrigin(archive.getPath()));
+  }
+
+  private static List<String> list(String... names) {
+    return (names.length == 0) ? Collections.<String> emptyList() : Arrays
+        .asList(names);
+  }
+
+  private static TreeSet<String> set(String... names) {
+    return new TreeSet<String>(Arrays.asList(names));
+  }
+
+  private static final int INTERFACE = JVMConstants.ACC_INTERFACE
+      | JVMConstants.ACC_ABSTRACT;
+
+  private File file;
+
+  private File archive;
+
+  private HierarchyIndex index;
+}
@@ -0,0 +1,122 @@
+/**
+ * JReversePro - Java Decompiler / Disassembler.
+ * Copyright (C) 2008 Karthik Kumar.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *  
+ *  	http://www.apache.org/licenses/LICENSE-2.0 
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ * 
+ */
+package org.jreversepro.xref;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.jreversepro.pipeline.ByteBufferClassSource;
+import org.jreversepro.pipeline.ClassSource;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StringConstantSearchTest {
+
+  @Before
+  public void setUp() throws IOException {
+    final String resource = "/" + Literals.class.getName().replace('.', '/')
+        + ".class";
+    final InputStream is = getClass().getResourceAsStream(resource);
+    try {
+      sources = Collections.<ClassSource> singletonList(
+          new ByteBufferClassSource(resource, ByteBuffer.wrap(IOUtils
+              .toByteArray(is))));
+    } finally {
+      is.close();
+    }
+  }
+
+  @Test
+  public void testFindLiteral() throws Exception {
+    StringConstantSearch search = new StringConstantSearch("table \u00e9\u0000",
+        false, 2);
+    search.setLdcSites(true);
+    List<StringMatch> matches = search.search(sources);
+    assertEquals(1, matches.size());
+    StringMatch match = matches.get(0);
+    assertEquals(Literals.class.getName().replace('.', '/'), match
+        .getClassName());
+    assertEquals(Literals.QUERY, match.getValue());
+    assertTrue(match.getStringIndex() > 0);
+    assertEquals(1, match.getLdcSites().size());
+    assertTrue(match.getLdcSites().get(0).startsWith(
+        "query()Ljava/lang/String;@"));
+  }
+
+  @Test
+  public void testFindRegex() throws Exception {
+    StringConstantSearch search = new StringConstantSearch("^qu.ry$", true,
+        2);
+    List<StringMatch> matches = search.search(sources);
+    assertEquals(1, matches.size());
+    // A name, not a literal.
+    assertEquals("query", matches.get(0).getValue());
+    assertEquals(-1, matches.get(0).getStringIndex());
+    assertNull(matches.get(0).getLdcSites());
+  }
+
+  @Test
+  public void testNotFound() throws Exception {
+    StringConstantSearch search = new StringConstantSearch("table e", false,
+        2);
+    assertTrue(search.search(sources).isEmpty());
+    assertEquals(0, search.getSkippedCount());
+  }
+
+  @Test
+  public void testNotAClass() throws Exception {
+    StringConstantSearch search = new StringConstantSearch("x", false, 1);
+    ClassSource source = new ByteBufferClassSource("x", ByteBuffer
+        .wrap(new byte[] { (byte) 0xca, (byte) 0xfe }));
+    assertTrue(search.search(Arrays.asList(source)).isEmpty());
+    assertEquals(1, search.getSkippedCount());
+  }
+
+  @Test
+  public void testToModifiedUtf8() {
+    assertArrayEquals(new byte[] { 'a', (byte) 0xc0, (byte) 0x80,
+        (byte) 0xc3, (byte) 0xa9 }, PoolScanner.toModifiedUtf8("a\u0000\u00e9"));
+    // Surrogates, three bytes each.
+    assertEquals(6, PoolScanner.toModifiedUtf8("\ud83d\ude00").length);
+  }
+
+  /**
+   * Class whose pool is searched.
+   */
+  static class Literals {
+
+    String query() {
+      // Not a constant expression, so that it is not inlined by javac.
+      return QUERY.toString();
+    }
+
+    static final String QUERY = "select * from table \u00e9\u0000";
+  }
+
+  private List<ClassSource> sources;
+}